@@ -11,6 +11,7 @@ import com.linkedin.avroutil1.builder.operations.codegen.own.AvroUtilCodeGenOp;
 import com.linkedin.avroutil1.builder.operations.codegen.CodeGenOpConfig;
 import com.linkedin.avroutil1.builder.operations.Operation;
 import com.linkedin.avroutil1.builder.operations.codegen.vanilla.VanillaProcessedCodeGenOp;
+import com.linkedin.avroutil1.builder.operations.fastserde.FastSerdeCodeGenOp;
 import com.linkedin.avroutil1.builder.plugins.BuilderPlugin;
 import com.linkedin.avroutil1.builder.plugins.BuilderPluginContext;
 import com.linkedin.avroutil1.compatibility.AvroVersion;
@@ -93,6 +94,18 @@ public class SchemaBuilder {
         .defaultsTo("true")
         .describedAs("true/false");
 
+    OptionSpec<String> generateFastSerdesOpt = parser.accepts(
+            "generateFastSerdes",
+            "generate fast-avro specific serializers and deserializers along with the specific record classes")
+        .withOptionalArg()
+        .defaultsTo("false")
+        .describedAs("true/false");
+    OptionSpec<String> writerSchemaHistoryOpt = parser.accepts("writerSchemaHistory", "older versions of the input"
+            + " schemas, fast deserializers are also generated for reading data written with these")
+        .withOptionalArg()
+        .describedAs("file")
+        .withValuesSeparatedBy(File.pathSeparatorChar);
+
     //allow plugins to add CLI options
     for (BuilderPlugin plugin : plugins) {
       plugin.customizeCLI(parser);
@@ -202,6 +215,17 @@ public class SchemaBuilder {
       handleUtf8EncodingInPutByIndex = Boolean.TRUE.equals(Boolean.parseBoolean(value));
     }
 
+    boolean generateFastSerdes = false;
+    if (options.has(generateFastSerdesOpt)) {
+      String value = options.valueOf(generateFastSerdesOpt);
+      generateFastSerdes = Boolean.TRUE.equals(Boolean.parseBoolean(value));
+    }
+
+    List<File> writerSchemaHistory = null;
+    if (options.has(writerSchemaHistoryOpt)) {
+      writerSchemaHistory = AvroSchemaBuilderUtils.toFiles(options.valuesOf(writerSchemaHistoryOpt));
+    }
+
     //allow plugins to parse and validate their own added options
     for (BuilderPlugin plugin : plugins) {
       plugin.parseAndValidateOptions(options);
@@ -240,6 +264,10 @@ public class SchemaBuilder {
     }
     context.add(op);
 
+    if (generateFastSerdes) {
+      context.add(new FastSerdeCodeGenOp(outputDir, writerSchemaHistory));
+    }
+
     //allow plugins to add operations
     for (BuilderPlugin plugin : plugins) {
       plugin.createOperations(context);
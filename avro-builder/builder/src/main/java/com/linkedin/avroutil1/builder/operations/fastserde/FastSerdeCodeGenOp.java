@@ -0,0 +1,122 @@
+/*
+ * Copyright 2022 LinkedIn Corp.
+ * Licensed under the BSD 2-Clause License (the "License").
+ * See License in the project root for license information.
+ */
+
+package com.linkedin.avroutil1.builder.operations.fastserde;
+
+import com.linkedin.avro.fastserde.FastSpecificDeserializerGenerator;
+import com.linkedin.avro.fastserde.FastSpecificSerializerGenerator;
+import com.linkedin.avro.fastserde.Utils;
+import com.linkedin.avroutil1.builder.operations.Operation;
+import com.linkedin.avroutil1.builder.operations.OperationContext;
+import com.linkedin.avroutil1.builder.operations.codegen.util.AvscFileFinderUtil;
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelperCommon;
+import com.linkedin.avroutil1.model.AvroSchema;
+import com.linkedin.avroutil1.model.AvroType;
+import com.linkedin.avroutil1.writer.avsc.AvscSchemaWriter;
+import com.linkedin.avroutil1.writer.avsc.AvscWriterConfig;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.avro.Schema;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * generates the java sources of fast-avro specific serializers and deserializers for all record schemas
+ * produced by a preceding code generation operation, so they are compiled along with the specific record classes.
+ * at runtime FastSerdeCache picks these precompiled classes up from the classpath instead of generating them.
+ * deserializers are generated for reading each schema with itself and for reading it with every older version
+ * of the same schema found in the (optional) writer schema history.
+ */
+public class FastSerdeCodeGenOp implements Operation {
+  private static final Logger LOGGER = LoggerFactory.getLogger(FastSerdeCodeGenOp.class);
+
+  private final File outputRoot;
+  private final List<File> writerSchemaHistoryRoots;
+
+  public FastSerdeCodeGenOp(File outputRoot, List<File> writerSchemaHistoryRoots) {
+    if (outputRoot == null) {
+      throw new IllegalArgumentException("outputRoot required");
+    }
+    this.outputRoot = outputRoot;
+    this.writerSchemaHistoryRoots = writerSchemaHistoryRoots == null ? Collections.emptyList() : writerSchemaHistoryRoots;
+  }
+
+  @Override
+  public void run(OperationContext opContext) throws Exception {
+    if (!outputRoot.exists() && !outputRoot.mkdirs()) {
+      throw new IllegalStateException("unable to create destination folder " + outputRoot);
+    }
+
+    Map<String, List<Schema>> writerSchemaHistory = loadWriterSchemaHistory();
+    boolean serializersSupported = Utils.isSupportedAvroVersionsForSerializer();
+    if (!serializersSupported) {
+      LOGGER.warn("fast serializers are not supported under avro " + AvroCompatibilityHelperCommon.getRuntimeAvroVersion()
+          + " and will not be generated");
+    }
+
+    AvscSchemaWriter avscWriter = new AvscSchemaWriter();
+    int generated = 0;
+    for (AvroSchema avroSchema : opContext.getAvroSchemas()) {
+      if (avroSchema.type() != AvroType.RECORD) {
+        continue;
+      }
+      Schema readerSchema = AvroCompatibilityHelper.parse(avscWriter.generateAvsc(avroSchema, AvscWriterConfig.CORRECT_MITIGATED));
+
+      new FastSpecificDeserializerGenerator<>(readerSchema, readerSchema, outputRoot, null, null).generateDeserializerSource();
+      generated++;
+      if (serializersSupported) {
+        new FastSpecificSerializerGenerator<>(readerSchema, outputRoot, null, null).generateSerializerSource();
+        generated++;
+      }
+
+      long readerFingerprint = Utils.getSchemaFingerprint(readerSchema);
+      for (Schema writerSchema : writerSchemaHistory.getOrDefault(readerSchema.getFullName(), Collections.emptyList())) {
+        if (Utils.getSchemaFingerprint(writerSchema) == readerFingerprint) {
+          continue;
+        }
+        try {
+          new FastSpecificDeserializerGenerator<>(writerSchema, readerSchema, outputRoot, null, null).generateDeserializerSource();
+          generated++;
+        } catch (Exception e) {
+          //most likely an incompatible (historical) writer schema, no need to fail the whole build
+          LOGGER.warn("unable to generate fast deserializer for " + readerSchema.getFullName() + " with writer schema "
+              + writerSchema, e);
+        }
+      }
+    }
+
+    LOGGER.info("generated {} fast serdes into {}", generated, outputRoot);
+  }
+
+  /**
+   * @return writer schemas from the history roots, grouped by fullname
+   */
+  private Map<String, List<Schema>> loadWriterSchemaHistory() throws Exception {
+    Map<String, List<Schema>> writerSchemas = new HashMap<>();
+    for (File root : writerSchemaHistoryRoots) {
+      for (File avsc : AvscFileFinderUtil.findFiles(root)) {
+        Schema writerSchema;
+        try {
+          writerSchema = AvroCompatibilityHelper.parse(FileUtils.readFileToString(avsc, StandardCharsets.UTF_8));
+        } catch (Exception e) {
+          throw new IllegalStateException("caught exception parsing writer schema " + avsc.getAbsolutePath(), e);
+        }
+        if (writerSchema.getType() == Schema.Type.RECORD) {
+          writerSchemas.computeIfAbsent(writerSchema.getFullName(), k -> new ArrayList<>()).add(writerSchema);
+        }
+      }
+    }
+    return writerSchemas;
+  }
+}
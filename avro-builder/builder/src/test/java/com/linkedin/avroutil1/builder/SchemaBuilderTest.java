@@ -43,6 +43,32 @@ public class SchemaBuilderTest {
     Assert.assertEquals(javaFiles.size(), 2);
   }
 
+  @Test
+  public void testSimpleProjectWithFastSerdes() throws Exception {
+    File simpleProjectRoot = new File(locateTestProjectsRoot(), "simple-project");
+    File inputFolder = new File(simpleProjectRoot, "input");
+    File historyFolder = new File(simpleProjectRoot, "writer-history");
+    File outputFolder = new File(simpleProjectRoot, "output");
+    if (outputFolder.exists()) { //clear output
+      FileUtils.deleteDirectory(outputFolder);
+    }
+    //run the builder
+    SchemaBuilder.main(new String[] {
+        "--input", inputFolder.getAbsolutePath(),
+        "--output", outputFolder.getAbsolutePath(),
+        "--generateFastSerdes", Boolean.toString(true),
+        "--writerSchemaHistory", historyFolder.getAbsolutePath()
+    });
+    //see fast serdes were generated next to the specific records
+    List<String> javaFiles = Files.find(outputFolder.toPath(), 10,
+        (path, basicFileAttributes) -> path.getFileName().toString().endsWith(".java")
+    ).map(path -> path.getFileName().toString()).collect(Collectors.toList());
+    //2 specific records, 2 serializers, 2 deserializers plus one for the historical writer schema
+    Assert.assertEquals(javaFiles.size(), 7);
+    Assert.assertEquals(javaFiles.stream().filter(name -> name.startsWith("SimpleRecord_SpecificDeserializer_")).count(), 2);
+    Assert.assertEquals(javaFiles.stream().filter(name -> name.startsWith("SimpleRecord_SpecificSerializer_")).count(), 1);
+  }
+
   @Test
   public void testSimpleProjectWithPlugin() throws Exception {
     File simpleProjectRoot = new File(locateTestProjectsRoot(), "simple-project");
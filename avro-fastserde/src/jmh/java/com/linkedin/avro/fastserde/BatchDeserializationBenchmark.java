@@ -0,0 +1,152 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avro.fastserde.generator.AvroRandomDataGenerator;
+import com.linkedin.avro.fastserde.micro.benchmark.AvroGenericSerializer;
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * A benchmark that evaluates deserializing batches of records laid out contiguously in a byte array, like the values
+ * of a Kafka consumer batch, with {@link FastBatchDeserializer#deserializeBatch} compared to one
+ * {@link FastDeserializer#deserialize} call per record.
+ *
+ * To run this benchmark:
+ * <code>
+ *   ./gradlew :avro-fastserde:jmh
+ * </code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 3)
+public class BatchDeserializationBenchmark {
+  private static final int NUMBER_OF_RECORDS = 512;
+
+  @Param({"1", "64", "512"})
+  private int batchSize;
+
+  private final Random random = new Random(0);
+  private final Map<Object, Object> properties = new HashMap<>();
+
+  private byte[][] buffers;
+  private int[] offsets;
+  private int[] lengths;
+  private GenericRecord[] results;
+  private byte[][][] batchBuffers;
+  private int[][] batchOffsets;
+  private int[][] batchLengths;
+  private GenericRecord[][] batchResults;
+  private FastBatchDeserializer<GenericRecord> fastDeserializer;
+
+  public BatchDeserializationBenchmark() {
+    // load configuration parameters to avro data generator
+    properties.put(AvroRandomDataGenerator.ARRAY_LENGTH_PROP, BenchmarkConstants.ARRAY_SIZE);
+    properties.put(AvroRandomDataGenerator.STRING_LENGTH_PROP, BenchmarkConstants.STRING_SIZE);
+    properties.put(AvroRandomDataGenerator.MAP_LENGTH_PROP, BenchmarkConstants.MAP_SIZE);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    org.openjdk.jmh.runner.options.Options opt = new OptionsBuilder()
+        .include(BatchDeserializationBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build();
+    new Runner(opt).run();
+  }
+
+  @Setup(Level.Trial)
+  public void prepare() throws Exception {
+    Schema benchmarkSchema = Schema.parse("{\"type\": \"record\", \"name\": \"batch_record\", \"fields\":["
+        + "{\"name\": \"id\", \"type\": \"long\"}, {\"name\": \"key\", \"type\": \"string\"},"
+        + "{\"name\": \"value\", \"type\": [\"null\", \"double\"]},"
+        + "{\"name\": \"header\", \"type\": {\"type\": \"record\", \"name\": \"header\", \"fields\":["
+        + "{\"name\": \"source\", \"type\": \"string\"}, {\"name\": \"timestamp\", \"type\": \"long\"}]}},"
+        + "{\"name\": \"tags\", \"type\": {\"type\": \"array\", \"items\": \"string\"}}]}");
+    AvroGenericSerializer serializer = new AvroGenericSerializer(benchmarkSchema);
+    AvroRandomDataGenerator generator = new AvroRandomDataGenerator(benchmarkSchema, random);
+
+    // all the records in a single array, as consumers receive them
+    ByteArrayOutputStream contiguousRecords = new ByteArrayOutputStream();
+    buffers = new byte[NUMBER_OF_RECORDS][];
+    offsets = new int[NUMBER_OF_RECORDS];
+    lengths = new int[NUMBER_OF_RECORDS];
+    for (int i = 0; i < NUMBER_OF_RECORDS; i++) {
+      byte[] bytes = serializer.serialize((GenericData.Record) generator.generate(properties));
+      offsets[i] = contiguousRecords.size();
+      lengths[i] = bytes.length;
+      contiguousRecords.write(bytes);
+    }
+    byte[] allRecords = contiguousRecords.toByteArray();
+    for (int i = 0; i < NUMBER_OF_RECORDS; i++) {
+      buffers[i] = allRecords;
+    }
+    results = new GenericRecord[NUMBER_OF_RECORDS];
+
+    // consumers hand each batch in its own arrays
+    int batchCount = NUMBER_OF_RECORDS / batchSize;
+    batchBuffers = new byte[batchCount][][];
+    batchOffsets = new int[batchCount][];
+    batchLengths = new int[batchCount][];
+    batchResults = new GenericRecord[batchCount][];
+    for (int batch = 0; batch < batchCount; batch++) {
+      int start = batch * batchSize;
+      batchBuffers[batch] = Arrays.copyOfRange(buffers, start, start + batchSize);
+      batchOffsets[batch] = Arrays.copyOfRange(offsets, start, start + batchSize);
+      batchLengths[batch] = Arrays.copyOfRange(lengths, start, start + batchSize);
+      batchResults[batch] = new GenericRecord[batchSize];
+    }
+
+    fastDeserializer = FastBatchDeserializer.of((FastDeserializer<GenericRecord>) FastSerdeCache.getDefaultInstance()
+        .buildFastGenericDeserializer(benchmarkSchema, benchmarkSchema));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUMBER_OF_RECORDS)
+  public void testDeserializePerRecord(Blackhole bh) throws Exception {
+    BinaryDecoder decoder = null;
+    for (int i = 0; i < NUMBER_OF_RECORDS; i++) {
+      decoder = AvroCompatibilityHelper.newBinaryDecoder(buffers[i], offsets[i], lengths[i], decoder);
+      results[i] = fastDeserializer.deserialize(results[i], decoder);
+    }
+    bh.consume(results);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUMBER_OF_RECORDS)
+  public void testDeserializeBatch(Blackhole bh) throws Exception {
+    for (int batch = 0; batch < batchResults.length; batch++) {
+      fastDeserializer.deserializeBatch(batchResults[batch], batchBuffers[batch], batchOffsets[batch],
+          batchLengths[batch], batchSize);
+    }
+    bh.consume(batchResults);
+  }
+}
@@ -0,0 +1,156 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avro.fastserde.generated.avro.BenchmarkSchema;
+import com.linkedin.avro.fastserde.generated.avro.FloatArrayBenchmarkSchema;
+import com.linkedin.avro.fastserde.generator.AvroRandomDataGenerator;
+import com.linkedin.avro.fastserde.micro.benchmark.AvroGenericSerializer;
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * A benchmark that evaluates the performance of deserializing records held in a heap, direct or memory-mapped
+ * {@link ByteBuffer}, either by decoding the buffer in place with
+ * {@link AvroCompatibilityHelper#newBinaryDecoder(ByteBuffer, BinaryDecoder)}, or by copying its content to a byte[]
+ * decoded with {@link AvroCompatibilityHelper#newBinaryDecoder(byte[], int, int, BinaryDecoder)}.
+ *
+ * To run this benchmark:
+ * <code>
+ *   ./gradlew :avro-fastserde:jmh
+ * </code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 3)
+public class ByteBufferDecoderBenchmark {
+  private static final int NUMBER_OF_OPERATIONS = 100_000;
+
+  @Param({"benchmarkSchema", "floatArray"})
+  private String schemaName;
+
+  @Param({"heap", "direct", "mapped"})
+  private String bufferType;
+
+  private final Random random = new Random();
+  private final Map<Object, Object> properties = new HashMap<>();
+
+  private ByteBuffer serializedBuffer;
+  private File mappedFile;
+  private FastDeserializer<GenericRecord> fastDeserializer;
+
+  public ByteBufferDecoderBenchmark() {
+    // load configuration parameters to avro data generator
+    properties.put(AvroRandomDataGenerator.ARRAY_LENGTH_PROP, BenchmarkConstants.ARRAY_SIZE);
+    properties.put(AvroRandomDataGenerator.STRING_LENGTH_PROP, BenchmarkConstants.STRING_SIZE);
+    properties.put(AvroRandomDataGenerator.BYTES_LENGTH_PROP, BenchmarkConstants.BYTES_SIZE);
+    properties.put(AvroRandomDataGenerator.MAP_LENGTH_PROP, BenchmarkConstants.MAP_SIZE);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    org.openjdk.jmh.runner.options.Options opt = new OptionsBuilder()
+        .include(ByteBufferDecoderBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build();
+    new Runner(opt).run();
+  }
+
+  @Setup(Level.Trial)
+  public void prepare() throws Exception {
+    Schema benchmarkSchema = "floatArray".equals(schemaName) ? FloatArrayBenchmarkSchema.SCHEMA$ : BenchmarkSchema.SCHEMA$;
+    if ("floatArray".equals(schemaName)) {
+      properties.put(AvroRandomDataGenerator.ARRAY_LENGTH_PROP, BenchmarkConstants.FLOAT_ARRAY_SIZE);
+    }
+    AvroRandomDataGenerator generator = new AvroRandomDataGenerator(benchmarkSchema, random);
+    GenericData.Record generatedRecord = (GenericData.Record) generator.generate(properties);
+    byte[] serializedBytes = new AvroGenericSerializer(benchmarkSchema).serialize(generatedRecord);
+
+    switch (bufferType) {
+      case "heap":
+        serializedBuffer = ByteBuffer.wrap(serializedBytes);
+        break;
+      case "direct":
+        serializedBuffer = ByteBuffer.allocateDirect(serializedBytes.length);
+        serializedBuffer.put(serializedBytes).flip();
+        break;
+      case "mapped":
+        mappedFile = File.createTempFile("byte-buffer-decoder-benchmark", ".avro");
+        try (RandomAccessFile file = new RandomAccessFile(mappedFile, "rw")) {
+          file.write(serializedBytes);
+          serializedBuffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, serializedBytes.length);
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown buffer type: " + bufferType);
+    }
+
+    // use a warm deserializer, so the decoding cost isn't hidden behind the vanilla avro one
+    fastDeserializer = (FastDeserializer<GenericRecord>) FastSerdeCache.getDefaultInstance()
+        .buildFastGenericDeserializer(benchmarkSchema, benchmarkSchema);
+  }
+
+  @TearDown(Level.Trial)
+  public void cleanup() {
+    if (mappedFile != null) {
+      mappedFile.delete();
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUMBER_OF_OPERATIONS)
+  public void testByteBufferDecoder(Blackhole bh) throws Exception {
+    GenericRecord record = null;
+    BinaryDecoder decoder = null;
+    for (int i = 0; i < NUMBER_OF_OPERATIONS; i++) {
+      decoder = AvroCompatibilityHelper.newBinaryDecoder(serializedBuffer, decoder);
+      record = fastDeserializer.deserialize(record, decoder);
+      bh.consume(record);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUMBER_OF_OPERATIONS)
+  public void testByteArrayCopyDecoder(Blackhole bh) throws Exception {
+    GenericRecord record = null;
+    BinaryDecoder decoder = null;
+    for (int i = 0; i < NUMBER_OF_OPERATIONS; i++) {
+      byte[] bytes = new byte[serializedBuffer.remaining()];
+      serializedBuffer.duplicate().get(bytes);
+      decoder = AvroCompatibilityHelper.newBinaryDecoder(bytes, 0, bytes.length, decoder);
+      record = fastDeserializer.deserialize(record, decoder);
+      bh.consume(record);
+    }
+  }
+}
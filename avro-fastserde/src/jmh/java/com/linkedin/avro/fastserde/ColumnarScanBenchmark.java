@@ -0,0 +1,132 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avro.fastserde.generator.AvroRandomDataGenerator;
+import com.linkedin.avro.fastserde.micro.benchmark.AvroGenericSerializer;
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.util.Utf8;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * A benchmark that evaluates scanning two fields of flat records, with records deserialized one by one by
+ * {@link FastGenericDatumReader} compared to records deserialized as the rows of a {@link ColumnarBatch}, see
+ * {@link FastSerdeCache#buildFastColumnarDeserializer(Schema, Schema)}.
+ *
+ * To run this benchmark:
+ * <code>
+ *   ./gradlew :avro-fastserde:jmh
+ * </code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 3)
+public class ColumnarScanBenchmark {
+  private static final int NUMBER_OF_RECORDS = 10_000;
+
+  private final Random random = new Random(0);
+  private final Map<Object, Object> properties = new HashMap<>();
+
+  private byte[] serializedRecords;
+  private FastGenericDatumReader<GenericRecord> rowDeserializer;
+  private FastDeserializer<ColumnarBatch> columnarDeserializer;
+  private ColumnarBatch batch;
+
+  public ColumnarScanBenchmark() {
+    // load configuration parameters to avro data generator
+    properties.put(AvroRandomDataGenerator.STRING_LENGTH_PROP, BenchmarkConstants.STRING_SIZE);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    org.openjdk.jmh.runner.options.Options opt = new OptionsBuilder()
+        .include(ColumnarScanBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build();
+    new Runner(opt).run();
+  }
+
+  @Setup(Level.Trial)
+  public void prepare() throws Exception {
+    Schema benchmarkSchema = Schema.parse("{\"type\": \"record\", \"name\": \"flat_record\", \"fields\":["
+        + "{\"name\": \"id\", \"type\": \"long\"}, {\"name\": \"count\", \"type\": \"int\"},"
+        + "{\"name\": \"score\", \"type\": \"double\"}, {\"name\": \"weight\", \"type\": \"float\"},"
+        + "{\"name\": \"flag\", \"type\": \"boolean\"}, {\"name\": \"name\", \"type\": \"string\"},"
+        + "{\"name\": \"category\", \"type\": [\"null\", \"string\"]},"
+        + "{\"name\": \"timestamp\", \"type\": [\"null\", \"long\"]}]}");
+    AvroGenericSerializer serializer = new AvroGenericSerializer(benchmarkSchema);
+    AvroRandomDataGenerator generator = new AvroRandomDataGenerator(benchmarkSchema, random);
+
+    ByteArrayOutputStream records = new ByteArrayOutputStream();
+    for (int i = 0; i < NUMBER_OF_RECORDS; i++) {
+      records.write(serializer.serialize((GenericData.Record) generator.generate(properties)));
+    }
+    serializedRecords = records.toByteArray();
+
+    FastSerdeCache cache = FastSerdeCache.getDefaultInstance();
+    // the fast deserializer of the row reader is compiled in the background during the warmup
+    rowDeserializer = new FastGenericDatumReader<>(benchmarkSchema, cache);
+    columnarDeserializer = cache.buildFastColumnarDeserializer(benchmarkSchema, benchmarkSchema);
+    batch = new ColumnarBatch(benchmarkSchema, NUMBER_OF_RECORDS);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUMBER_OF_RECORDS)
+  public void testRowScan(Blackhole bh) throws Exception {
+    BinaryDecoder decoder = AvroCompatibilityHelper.newBinaryDecoder(serializedRecords);
+    GenericRecord record = null;
+    double scoreSum = 0;
+    long nameBytes = 0;
+    for (int i = 0; i < NUMBER_OF_RECORDS; i++) {
+      record = rowDeserializer.read(record, decoder);
+      scoreSum += (Double) record.get(2);
+      nameBytes += ((Utf8) record.get(5)).getByteLength();
+    }
+    bh.consume(scoreSum);
+    bh.consume(nameBytes);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUMBER_OF_RECORDS)
+  public void testColumnarScan(Blackhole bh) throws Exception {
+    BinaryDecoder decoder = AvroCompatibilityHelper.newBinaryDecoder(serializedRecords);
+    batch.clear();
+    for (int i = 0; i < NUMBER_OF_RECORDS; i++) {
+      columnarDeserializer.deserialize(batch, decoder);
+    }
+    double[] scores = ((ColumnarBatch.DoubleColumn) batch.getColumn(2)).getValues();
+    int[] nameOffsets = ((ColumnarBatch.BytesColumn) batch.getColumn(5)).getOffsets();
+    double scoreSum = 0;
+    for (int i = 0; i < batch.size(); i++) {
+      scoreSum += scores[i];
+    }
+    bh.consume(scoreSum);
+    bh.consume(nameOffsets[batch.size()] - nameOffsets[0]);
+  }
+}
@@ -0,0 +1,122 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.Encoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * A benchmark that evaluates the decoding of enum-heavy records, when the reader and writer enums have the same order
+ * and when the reader enum is reordered, so the generated deserializers have to remap the writer symbols.
+ *
+ * To run this benchmark:
+ * <code>
+ *   ./gradlew :avro-fastserde:jmh
+ * </code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 3)
+public class EnumDeserializationBenchmark {
+  private static final int NUMBER_OF_ENUMS = 100;
+  private static final List<String> SYMBOLS = Arrays.asList("A", "B", "C", "D", "E", "F", "G", "H");
+
+  @Param({"ordered", "reordered"})
+  private String readerEnumOrder;
+
+  private final Random random = new Random(0);
+  private byte[] serializedRecord;
+  private BinaryDecoder decoder;
+  private GenericRecord reuse;
+  private GenericDatumReader<GenericRecord> avroReader;
+  private FastDeserializer<GenericRecord> fastDeserializer;
+
+  public static void main(String[] args) throws RunnerException {
+    org.openjdk.jmh.runner.options.Options opt = new OptionsBuilder()
+        .include(EnumDeserializationBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build();
+    new Runner(opt).run();
+  }
+
+  @Setup(Level.Trial)
+  @SuppressWarnings("unchecked")
+  public void prepare() throws Exception {
+    List<String> readerSymbols = new ArrayList<>(SYMBOLS);
+    if ("reordered".equals(readerEnumOrder)) {
+      readerSymbols.add(readerSymbols.remove(0));
+    }
+    Schema writerSchema = enumRecordSchema(SYMBOLS);
+    Schema readerSchema = enumRecordSchema(readerSymbols);
+
+    Schema enumSchema = writerSchema.getField("events").schema().getElementType();
+    List<GenericData.EnumSymbol> events = new ArrayList<>(NUMBER_OF_ENUMS);
+    for (int i = 0; i < NUMBER_OF_ENUMS; i++) {
+      events.add(AvroCompatibilityHelper.newEnumSymbol(enumSchema, SYMBOLS.get(random.nextInt(SYMBOLS.size()))));
+    }
+    GenericRecord record = new GenericData.Record(writerSchema);
+    record.put("events", events);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Encoder encoder = AvroCompatibilityHelper.newBinaryEncoder(out, true, null);
+    new GenericDatumWriter<GenericRecord>(writerSchema).write(record, encoder);
+    encoder.flush();
+    serializedRecord = out.toByteArray();
+
+    avroReader = new GenericDatumReader<>(writerSchema, readerSchema);
+    fastDeserializer = (FastDeserializer<GenericRecord>) FastSerdeCache.getDefaultInstance()
+        .buildFastGenericDeserializer(writerSchema, readerSchema);
+  }
+
+  @Benchmark
+  public GenericRecord testAvroEnumDeserialization() throws Exception {
+    decoder = AvroCompatibilityHelper.newBinaryDecoder(serializedRecord, 0, serializedRecord.length, decoder);
+    reuse = avroReader.read(reuse, decoder);
+    return reuse;
+  }
+
+  @Benchmark
+  public GenericRecord testFastEnumDeserialization() throws Exception {
+    decoder = AvroCompatibilityHelper.newBinaryDecoder(serializedRecord, 0, serializedRecord.length, decoder);
+    reuse = fastDeserializer.deserialize(reuse, decoder);
+    return reuse;
+  }
+
+  private static Schema enumRecordSchema(List<String> symbols) {
+    Schema enumSchema = AvroCompatibilityHelper.newEnumSchema("event", null, "com.linkedin.avro.fastserde.benchmark",
+        symbols, null);
+    Schema.Field field = AvroCompatibilityHelper.createSchemaField("events", Schema.createArray(enumSchema), null, null);
+    Schema schema = Schema.createRecord("enum_record", null, "com.linkedin.avro.fastserde.benchmark", false);
+    schema.setFields(Arrays.asList(field));
+    return schema;
+  }
+}
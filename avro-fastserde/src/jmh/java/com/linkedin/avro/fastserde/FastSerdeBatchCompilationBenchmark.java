@@ -0,0 +1,81 @@
+package com.linkedin.avro.fastserde;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.apache.avro.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * A benchmark that evaluates how long it takes to drain a burst of pending schema pairs (as seen when a new
+ * service version rolls out), comparing one javac invocation per generated class with batch compilation.
+ *
+ * To run this benchmark:
+ * <code>
+ *   ./gradlew :avro-fastserde:jmh
+ * </code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class FastSerdeBatchCompilationBenchmark {
+
+  private static final int PENDING_PAIRS = 500;
+
+  @Param({"1", "50"})
+  private int compileBatchSize;
+
+  private final Schema[] schemas = new Schema[PENDING_PAIRS];
+
+  private FastSerdeCache cache;
+
+  public static void main(String[] args) throws RunnerException {
+    org.openjdk.jmh.runner.options.Options opt = new OptionsBuilder()
+        .include(FastSerdeBatchCompilationBenchmark.class.getSimpleName())
+        .build();
+    new Runner(opt).run();
+  }
+
+  @Setup(Level.Trial)
+  public void prepareSchemas() {
+    for (int i = 0; i < PENDING_PAIRS; i++) {
+      schemas[i] = Schema.parse("{\"type\": \"record\", \"name\": \"batch_record_" + i + "\", \"fields\":["
+          + "{\"name\": \"intField\", \"type\": \"int\"}, {\"name\": \"stringField\", \"type\": \"string\"},"
+          + "{\"name\": \"arrayField\", \"type\": {\"type\": \"array\", \"items\": \"long\"}}]}");
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void prepare() {
+    // a fresh cache for every invocation, so each class is really generated and loaded from scratch
+    cache = new FastSerdeCache(null, "", FastSerdeCacheConfig.newConfig()
+        .withInMemoryCompilation(true)
+        .withCompileBatchSize(compileBatchSize));
+  }
+
+  @Benchmark
+  public void testPendingPairsDrain() {
+    CompletableFuture<?>[] deserializers = new CompletableFuture<?>[PENDING_PAIRS];
+    for (int i = 0; i < PENDING_PAIRS; i++) {
+      deserializers[i] = cache.getFastGenericDeserializerAsync(schemas[i], schemas[i]);
+    }
+    CompletableFuture.allOf(deserializers).join();
+  }
+}
@@ -0,0 +1,92 @@
+package com.linkedin.avro.fastserde;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.apache.avro.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * A benchmark that evaluates the cost of looking up an already cached serde in {@link FastSerdeCache} under
+ * contention, compared with the former lookup by a string key built from the schema fingerprints on every call.
+ *
+ * To run this benchmark (add "-prof gc" to see the allocation rate):
+ * <code>
+ *   ./gradlew :avro-fastserde:jmh
+ * </code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(32)
+public class FastSerdeCacheLookupBenchmark {
+
+  private static final int SCHEMA_COUNT = 64;
+
+  private final Schema[] schemas = new Schema[SCHEMA_COUNT];
+  private final Map<String, Object> stringKeyedCache = new FastAvroConcurrentHashMap<>();
+  private FastSerdeCache cache;
+
+  public static void main(String[] args) throws RunnerException {
+    org.openjdk.jmh.runner.options.Options opt = new OptionsBuilder()
+        .include(FastSerdeCacheLookupBenchmark.class.getSimpleName())
+        .build();
+    new Runner(opt).run();
+  }
+
+  @Setup(Level.Trial)
+  public void prepare() {
+    // cold serdes are enough to measure the lookup, so nothing gets compiled
+    cache = new FastSerdeCache(runnable -> { }, "", FastSerdeCacheConfig.newConfig());
+    for (int i = 0; i < SCHEMA_COUNT; i++) {
+      schemas[i] = Schema.parse("{\"type\": \"record\", \"name\": \"lookup_record_" + i + "\", \"fields\":[]}");
+      cache.getFastGenericDeserializer(schemas[i], schemas[i]);
+      stringKeyedCache.put(stringKey(schemas[i], schemas[i]), cache.getFastGenericDeserializer(schemas[i], schemas[i]));
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class ThreadState {
+    private int next;
+
+    int nextIndex() {
+      next = (next + 1) & (SCHEMA_COUNT - 1);
+      return next;
+    }
+  }
+
+  @Benchmark
+  public Object testSchemaPairKeyLookup(ThreadState threadState) {
+    Schema schema = schemas[threadState.nextIndex()];
+    return cache.getFastGenericDeserializer(schema, schema);
+  }
+
+  @Benchmark
+  public Object testStringKeyLookup(ThreadState threadState) {
+    Schema schema = schemas[threadState.nextIndex()];
+    return stringKeyedCache.get(stringKey(schema, schema));
+  }
+
+  private static String stringKey(Schema writerSchema, Schema readerSchema) {
+    return String.valueOf(Math.abs(Utils.getSchemaFingerprint(writerSchema)))
+        + Math.abs(Utils.getSchemaFingerprint(readerSchema));
+  }
+}
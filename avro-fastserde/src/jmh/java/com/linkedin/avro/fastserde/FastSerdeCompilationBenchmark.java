@@ -0,0 +1,74 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avro.fastserde.generated.avro.BenchmarkSchema;
+import java.util.concurrent.TimeUnit;
+import org.apache.avro.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * A benchmark that evaluates the cold generation latency (code generation + compilation + class loading) of
+ * a fast deserializer and serializer, comparing on-disk and in-memory compilation and the interpreter backend,
+ * which doesn't compile anything. N.B.: the interpreter backend only builds generic deserializers, serializers
+ * are compiled on disk in that case.
+ *
+ * To run this benchmark:
+ * <code>
+ *   ./gradlew :avro-fastserde:jmh
+ * </code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+public class FastSerdeCompilationBenchmark {
+
+  @Param({"DISK", "IN_MEMORY", "INTERPRETER"})
+  private String backend;
+
+  private final Schema benchmarkSchema = BenchmarkSchema.SCHEMA$;
+
+  private FastSerdeCache cache;
+
+  public static void main(String[] args) throws RunnerException {
+    org.openjdk.jmh.runner.options.Options opt = new OptionsBuilder()
+        .include(FastSerdeCompilationBenchmark.class.getSimpleName())
+        .build();
+    new Runner(opt).run();
+  }
+
+  @Setup(Level.Invocation)
+  public void prepare() {
+    // a fresh cache for every invocation, so each class is really generated and loaded from scratch
+    cache = new FastSerdeCache(null, "", FastSerdeCacheConfig.newConfig()
+        .withInMemoryCompilation("IN_MEMORY".equals(backend))
+        .withBackend("INTERPRETER".equals(backend) ? FastSerdeCacheConfig.Backend.INTERPRETER
+            : FastSerdeCacheConfig.Backend.CODEGEN));
+  }
+
+  @Benchmark
+  public FastDeserializer<?> testColdDeserializerGeneration() {
+    return cache.buildFastGenericDeserializer(benchmarkSchema, benchmarkSchema);
+  }
+
+  @Benchmark
+  public FastSerializer<?> testColdSerializerGeneration() {
+    return cache.buildFastGenericSerializer(benchmarkSchema);
+  }
+}
@@ -1,10 +1,16 @@
 package com.linkedin.avro.fastserde;
 
+import com.linkedin.avro.api.PrimitiveDoubleList;
+import com.linkedin.avro.api.PrimitiveFloatList;
+import com.linkedin.avro.fastserde.generated.avro.DoubleArrayBenchmarkSchema;
 import com.linkedin.avro.fastserde.generated.avro.FloatArrayBenchmarkSchema;
 import com.linkedin.avro.fastserde.generator.AvroRandomDataGenerator;
 import com.linkedin.avro.fastserde.micro.benchmark.AvroGenericSerializer;
+import com.linkedin.avro.fastserde.primitive.PrimitiveDoubleArrayList;
+import com.linkedin.avro.fastserde.primitive.PrimitiveFloatArrayList;
 import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -13,9 +19,12 @@ import java.util.concurrent.TimeUnit;
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
 import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.EncoderFactory;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
@@ -24,6 +33,7 @@ import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OperationsPerInvocation;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -36,7 +46,9 @@ import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 
 /**
- * A benchmark that evaluates the performance of PrimitiveFloatList access
+ * A benchmark that evaluates the performance of PrimitiveFloatList and PrimitiveDoubleList access, and of
+ * re-serializing decoded arrays, which are written in bulk, compared with arrays written element by element.
+ * Arrays are either written as a single block, or split in several blocks as done by a blocking encoder.
  *
  * To run this benchmark:
  * <code>
@@ -55,74 +67,174 @@ import org.openjdk.jmh.runner.options.OptionsBuilder;
 public class FloatArrayBenchmark {
   private static final int NUMBER_OF_OPERATIONS = 100_000;
 
+  private static final int RANDOM_ACCESSES = 16;
+
+  @Param({"float", "double"})
+  private String elementType;
+
+  @Param({"1", "16"})
+  private int blockCount;
+
   private final Random random = new Random();;
   private final Map<Object, Object> properties = new HashMap<>();
 
   private byte[] serializedBytes;
   private GenericData.Record generatedRecord;
 
-  private final Schema benchmarkSchema = FloatArrayBenchmarkSchema.SCHEMA$;
+  private Schema benchmarkSchema;
   private static AvroRandomDataGenerator generator;
 
   private static DatumReader<GenericRecord> fastDeserializer;
 
+  private FastSerializer<GenericRecord> fastSerializer;
+  private GenericRecord decodedRecord;
+  private GenericRecord primitiveListRecord;
+  private final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+  private BinaryEncoder encoder;
+  private final int[] randomIndexes = new int[RANDOM_ACCESSES];
+
   public FloatArrayBenchmark() {
     // load configuration parameters to avro data generator
     properties.put(AvroRandomDataGenerator.ARRAY_LENGTH_PROP, BenchmarkConstants.FLOAT_ARRAY_SIZE);
-    generator = new AvroRandomDataGenerator(benchmarkSchema, random);
   }
 
   public static void main(String[] args) throws RunnerException {
     org.openjdk.jmh.runner.options.Options opt = new OptionsBuilder()
-        .include(FastAvroSerdesBenchmark.class.getSimpleName())
+        .include(FloatArrayBenchmark.class.getSimpleName())
         .addProfiler(GCProfiler.class)
         .build();
     new Runner(opt).run();
   }
 
   public byte[] serializeGeneratedRecord(GenericData.Record generatedRecord) throws Exception {
-    AvroGenericSerializer serializer = new AvroGenericSerializer(benchmarkSchema);
-    return serializer.serialize(generatedRecord);
+    if (blockCount == 1) {
+      AvroGenericSerializer serializer = new AvroGenericSerializer(benchmarkSchema);
+      return serializer.serialize(generatedRecord);
+    }
+    int elementSize = "double".equals(elementType) ? Double.BYTES : Float.BYTES;
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    BinaryEncoder blockingEncoder = new EncoderFactory()
+        .configureBlockSize(BenchmarkConstants.FLOAT_ARRAY_SIZE * elementSize / blockCount)
+        .blockingBinaryEncoder(baos, null);
+    new GenericDatumWriter<GenericData.Record>(benchmarkSchema).write(generatedRecord, blockingEncoder);
+    blockingEncoder.flush();
+    return baos.toByteArray();
   }
 
   @Setup(Level.Trial)
   public void prepare() throws Exception {
+    benchmarkSchema = "double".equals(elementType) ? DoubleArrayBenchmarkSchema.SCHEMA$ : FloatArrayBenchmarkSchema.SCHEMA$;
+    generator = new AvroRandomDataGenerator(benchmarkSchema, random);
+
     // generate avro record and bytes data
     generatedRecord = (GenericData.Record) generator.generate(properties);
     serializedBytes = serializeGeneratedRecord(generatedRecord);
 
     fastDeserializer = new FastGenericDatumReader<>(benchmarkSchema);
+
+    // decode with a warm deserializer, so the array is backed by the read bytes
+    FastDeserializer<GenericRecord> warmDeserializer = (FastDeserializer<GenericRecord>) FastSerdeCache.getDefaultInstance()
+        .buildFastGenericDeserializer(benchmarkSchema, benchmarkSchema);
+    decodedRecord = warmDeserializer.deserialize(null, AvroCompatibilityHelper.newBinaryDecoder(serializedBytes));
+    primitiveListRecord = new GenericData.Record(benchmarkSchema);
+    List<? extends Number> decodedArray = (List<? extends Number>) decodedRecord.get(0);
+    if ("double".equals(elementType)) {
+      PrimitiveDoubleArrayList array = new PrimitiveDoubleArrayList(decodedArray.size());
+      decodedArray.forEach(e -> array.addPrimitive(e.doubleValue()));
+      primitiveListRecord.put(0, array);
+    } else {
+      PrimitiveFloatArrayList array = new PrimitiveFloatArrayList(decodedArray.size());
+      decodedArray.forEach(e -> array.addPrimitive(e.floatValue()));
+      primitiveListRecord.put(0, array);
+    }
+    fastSerializer = (FastSerializer<GenericRecord>) FastSerdeCache.getDefaultInstance()
+        .buildFastGenericSerializer(benchmarkSchema);
+
+    for (int i = 0; i < RANDOM_ACCESSES; i++) {
+      randomIndexes[i] = random.nextInt(BenchmarkConstants.FLOAT_ARRAY_SIZE);
+    }
   }
 
   @Benchmark
   @OperationsPerInvocation(NUMBER_OF_OPERATIONS)
   public void testFastAvroDeserializationAccess1(Blackhole bh) throws Exception {
-    testFastFloatArrayDeserialization(fastDeserializer, bh, 1);
+    testFastArrayDeserialization(fastDeserializer, bh, 1);
   }
 
   @Benchmark
   @OperationsPerInvocation(NUMBER_OF_OPERATIONS)
   public void testFastAvroDeserializationAccess8(Blackhole bh) throws Exception {
-    testFastFloatArrayDeserialization(fastDeserializer, bh, 8);
+    testFastArrayDeserialization(fastDeserializer, bh, 8);
   }
 
   @Benchmark
   @OperationsPerInvocation(NUMBER_OF_OPERATIONS)
   public void testFastAvroDeserializationAccess16(Blackhole bh) throws Exception {
-    testFastFloatArrayDeserialization(fastDeserializer, bh, 16);
+    testFastArrayDeserialization(fastDeserializer, bh, 16);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUMBER_OF_OPERATIONS)
+  public void testFastAvroDeserializationRandomAccess(Blackhole bh) throws Exception {
+    GenericRecord record = null;
+    BinaryDecoder decoder = AvroCompatibilityHelper.newBinaryDecoder(serializedBytes);
+    for (int i = 0; i < NUMBER_OF_OPERATIONS; i++) {
+      double w = 0;
+      decoder = AvroCompatibilityHelper.newBinaryDecoder(new ByteArrayInputStream(serializedBytes), false, decoder);
+      record = fastDeserializer.read(record, decoder);
+      Object list = record.get(0);
+      for (int index : randomIndexes) {
+        w += list instanceof PrimitiveFloatList ? ((PrimitiveFloatList) list).getPrimitive(index)
+            : ((PrimitiveDoubleList) list).getPrimitive(index);
+      }
+      bh.consume(w);
+    }
+  }
+
+  /**
+   * Decodes all the elements into the primitive array of the list, as done by the first mutation.
+   */
+  @Benchmark
+  @OperationsPerInvocation(NUMBER_OF_OPERATIONS)
+  public void testFastAvroDeserializationMaterialization(Blackhole bh) throws Exception {
+    GenericRecord record = null;
+    BinaryDecoder decoder = AvroCompatibilityHelper.newBinaryDecoder(serializedBytes);
+    for (int i = 0; i < NUMBER_OF_OPERATIONS; i++) {
+      decoder = AvroCompatibilityHelper.newBinaryDecoder(new ByteArrayInputStream(serializedBytes), false, decoder);
+      record = fastDeserializer.read(record, decoder);
+      bh.consume(record.get(0).hashCode());
+    }
+  }
+
+  @Benchmark
+  public void testFastAvroSerializationOfDecodedArray(Blackhole bh) throws Exception {
+    bh.consume(serialize(decodedRecord));
+  }
+
+  @Benchmark
+  public void testFastAvroSerializationOfPrimitiveArray(Blackhole bh) throws Exception {
+    bh.consume(serialize(primitiveListRecord));
+  }
+
+  private int serialize(GenericRecord record) throws Exception {
+    outputStream.reset();
+    encoder = AvroCompatibilityHelper.newBinaryEncoder(outputStream, true, encoder);
+    fastSerializer.serialize(record, encoder);
+    encoder.flush();
+    return outputStream.size();
   }
 
-  private void testFastFloatArrayDeserialization(DatumReader<GenericRecord> datumReader, Blackhole bh, int numElementAccess) throws Exception {
+  private void testFastArrayDeserialization(DatumReader<GenericRecord> datumReader, Blackhole bh, int numElementAccess) throws Exception {
     GenericRecord record = null;
     BinaryDecoder decoder = AvroCompatibilityHelper.newBinaryDecoder(serializedBytes);
     for (int i = 0; i < NUMBER_OF_OPERATIONS; i++) {
-      float w = 0;
+      double w = 0;
       decoder = AvroCompatibilityHelper.newBinaryDecoder(new ByteArrayInputStream(serializedBytes), false, decoder);
       record = datumReader.read(record, decoder);
       if (numElementAccess > 0) {
-        List<Float> list = (List<Float>)record.get(0);
+        List<? extends Number> list = (List<? extends Number>)record.get(0);
         for (int j = 0; j < list.size(); j += numElementAccess) {
-          w += list.get(j);
+          w += list.get(j).doubleValue();
         }
       }
       bh.consume(record);
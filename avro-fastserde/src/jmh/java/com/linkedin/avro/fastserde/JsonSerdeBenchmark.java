@@ -0,0 +1,118 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avro.fastserde.generator.AvroRandomDataGenerator;
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.Encoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * A benchmark that evaluates the generated JSON serializers and deserializers, see
+ * {@link FastSerdeCache#buildFastGenericJsonSerializer(Schema)}, compared to the JSON encoder and decoder of avro.
+ *
+ * To run this benchmark:
+ * <code>
+ *   ./gradlew :avro-fastserde:jmh
+ * </code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 3)
+public class JsonSerdeBenchmark {
+  private final Random random = new Random(0);
+  private final Map<Object, Object> properties = new HashMap<>();
+
+  private Schema benchmarkSchema;
+  private GenericRecord record;
+  private String json;
+  private GenericDatumWriter<GenericRecord> avroWriter;
+  private GenericDatumReader<GenericRecord> avroReader;
+  private FastJsonSerializer<GenericRecord> fastSerializer;
+  private FastJsonDeserializer<GenericRecord> fastDeserializer;
+  private final FastJsonWriter fastWriter = new FastJsonWriter();
+
+  public JsonSerdeBenchmark() {
+    // load configuration parameters to avro data generator
+    properties.put(AvroRandomDataGenerator.STRING_LENGTH_PROP, BenchmarkConstants.STRING_SIZE);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    org.openjdk.jmh.runner.options.Options opt = new OptionsBuilder()
+        .include(JsonSerdeBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build();
+    new Runner(opt).run();
+  }
+
+  @Setup(Level.Trial)
+  @SuppressWarnings("unchecked")
+  public void prepare() throws Exception {
+    benchmarkSchema = Schema.parse("{\"type\": \"record\", \"name\": \"json_record\", \"fields\":["
+        + "{\"name\": \"id\", \"type\": \"long\"}, {\"name\": \"count\", \"type\": \"int\"},"
+        + "{\"name\": \"score\", \"type\": \"double\"}, {\"name\": \"flag\", \"type\": \"boolean\"},"
+        + "{\"name\": \"name\", \"type\": \"string\"}, {\"name\": \"category\", \"type\": [\"null\", \"string\"]},"
+        + "{\"name\": \"tags\", \"type\": {\"type\": \"array\", \"items\": \"string\"}},"
+        + "{\"name\": \"counters\", \"type\": {\"type\": \"map\", \"values\": \"long\"}}]}");
+    record = (GenericRecord) new AvroRandomDataGenerator(benchmarkSchema, random).generate(properties);
+    avroWriter = new GenericDatumWriter<>(benchmarkSchema);
+    avroReader = new GenericDatumReader<>(benchmarkSchema);
+
+    FastSerdeCache cache = FastSerdeCache.getDefaultInstance();
+    fastSerializer = (FastJsonSerializer<GenericRecord>) cache.buildFastGenericJsonSerializer(benchmarkSchema);
+    fastDeserializer = (FastJsonDeserializer<GenericRecord>) cache.buildFastGenericJsonDeserializer(benchmarkSchema);
+    json = testAvroJsonSerialization();
+  }
+
+  @Benchmark
+  public String testAvroJsonSerialization() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Encoder encoder = AvroCompatibilityHelper.newJsonEncoder(benchmarkSchema, out, false);
+    avroWriter.write(record, encoder);
+    encoder.flush();
+    return new String(out.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public String testFastJsonSerialization() throws Exception {
+    fastWriter.reset();
+    fastSerializer.serialize(record, fastWriter);
+    return fastWriter.toString();
+  }
+
+  @Benchmark
+  public GenericRecord testAvroJsonDeserialization() throws Exception {
+    return avroReader.read(null, AvroCompatibilityHelper.newCompatibleJsonDecoder(benchmarkSchema, json));
+  }
+
+  @Benchmark
+  public GenericRecord testFastJsonDeserialization() throws Exception {
+    return fastDeserializer.deserialize(new FastJsonReader(json));
+  }
+}
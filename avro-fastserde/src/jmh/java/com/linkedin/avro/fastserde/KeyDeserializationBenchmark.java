@@ -0,0 +1,145 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.util.Utf8;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * A benchmark that evaluates the decoding of small top-level values, like the keys of messages, by the generated
+ * deserializers compared to {@link GenericDatumReader}.
+ *
+ * To run this benchmark:
+ * <code>
+ *   ./gradlew :avro-fastserde:jmh
+ * </code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 3)
+public class KeyDeserializationBenchmark {
+  private static final int NUMBER_OF_KEYS = 1000;
+
+  /**
+   * Writer and reader schemas of the keys, the latter being promoted or nullable for some of them.
+   */
+  @Param({"string", "long", "fixed", "int_to_long", "string_to_nullable_string"})
+  private String keyType;
+
+  private final Random random = new Random(0);
+  private byte[][] serializedKeys;
+  private GenericDatumReader<Object> avroReader;
+  private FastDeserializer<Object> fastDeserializer;
+
+  public static void main(String[] args) throws RunnerException {
+    org.openjdk.jmh.runner.options.Options opt = new OptionsBuilder()
+        .include(KeyDeserializationBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build();
+    new Runner(opt).run();
+  }
+
+  @Setup(Level.Trial)
+  @SuppressWarnings("unchecked")
+  public void prepare() throws Exception {
+    Schema writerSchema;
+    Schema readerSchema;
+    switch (keyType) {
+      case "string":
+        writerSchema = readerSchema = Schema.create(Schema.Type.STRING);
+        break;
+      case "long":
+        writerSchema = readerSchema = Schema.create(Schema.Type.LONG);
+        break;
+      case "fixed":
+        writerSchema = readerSchema = Schema.parse("{\"type\": \"fixed\", \"name\": \"key\", \"size\": 16}");
+        break;
+      case "int_to_long":
+        writerSchema = Schema.create(Schema.Type.INT);
+        readerSchema = Schema.create(Schema.Type.LONG);
+        break;
+      case "string_to_nullable_string":
+        writerSchema = Schema.create(Schema.Type.STRING);
+        readerSchema = Schema.parse("[\"null\", \"string\"]");
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown key type: " + keyType);
+    }
+
+    GenericDatumWriter<Object> writer = new GenericDatumWriter<>(writerSchema);
+    serializedKeys = new byte[NUMBER_OF_KEYS][];
+    for (int i = 0; i < NUMBER_OF_KEYS; i++) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      Encoder encoder = AvroCompatibilityHelper.newBinaryEncoder(out, true, null);
+      writer.write(newKey(writerSchema), encoder);
+      encoder.flush();
+      serializedKeys[i] = out.toByteArray();
+    }
+
+    avroReader = new GenericDatumReader<>(writerSchema, readerSchema);
+    fastDeserializer = (FastDeserializer<Object>) FastSerdeCache.getDefaultInstance()
+        .buildFastGenericDeserializer(writerSchema, readerSchema);
+  }
+
+  @Benchmark
+  public void testAvroKeyDeserialization(Blackhole bh) throws Exception {
+    BinaryDecoder decoder = null;
+    for (byte[] key : serializedKeys) {
+      decoder = AvroCompatibilityHelper.newBinaryDecoder(key, 0, key.length, decoder);
+      bh.consume(avroReader.read(null, decoder));
+    }
+  }
+
+  @Benchmark
+  public void testFastKeyDeserialization(Blackhole bh) throws Exception {
+    BinaryDecoder decoder = null;
+    for (byte[] key : serializedKeys) {
+      decoder = AvroCompatibilityHelper.newBinaryDecoder(key, 0, key.length, decoder);
+      bh.consume(fastDeserializer.deserialize(null, decoder));
+    }
+  }
+
+  private Object newKey(Schema schema) {
+    switch (schema.getType()) {
+      case STRING:
+        return new Utf8("key-" + Long.toHexString(random.nextLong()));
+      case LONG:
+        return random.nextLong();
+      case INT:
+        return random.nextInt();
+      case FIXED:
+        byte[] bytes = new byte[schema.getFixedSize()];
+        random.nextBytes(bytes);
+        return AvroCompatibilityHelper.newFixed(schema, bytes);
+      default:
+        throw new IllegalArgumentException("Unsupported key schema: " + schema);
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avro.fastserde.generator.AvroRandomDataGenerator;
+import com.linkedin.avro.fastserde.micro.benchmark.AvroGenericSerializer;
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * A benchmark that evaluates reading a single field of a wide record held in a {@link ByteBuffer}, and forwarding the
+ * record unmodified, with a regular fast deserializer compared to a lazy one producing {@link LazyRecord}s, see
+ * {@link FastSerdeCache#getFastGenericLazyDeserializer(Schema)}.
+ *
+ * To run this benchmark:
+ * <code>
+ *   ./gradlew :avro-fastserde:jmh
+ * </code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 3)
+public class LazyRecordBenchmark {
+  private static final int NUMBER_OF_OPERATIONS = 10_000;
+  private static final int FIELD_COUNT = 100;
+
+  @Param({"eager", "lazy"})
+  private String mode;
+
+  // fixed seed, so both modes decode the same data
+  private final Random random = new Random(0);
+  private final Map<Object, Object> properties = new HashMap<>();
+
+  private ByteBuffer serializedBuffer;
+  private FastDeserializer<GenericRecord> fastDeserializer;
+  private FastSerializer<GenericRecord> fastSerializer;
+  private final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+  public LazyRecordBenchmark() {
+    // load configuration parameters to avro data generator
+    properties.put(AvroRandomDataGenerator.ARRAY_LENGTH_PROP, BenchmarkConstants.ARRAY_SIZE);
+    properties.put(AvroRandomDataGenerator.STRING_LENGTH_PROP, BenchmarkConstants.STRING_SIZE);
+    properties.put(AvroRandomDataGenerator.MAP_LENGTH_PROP, BenchmarkConstants.MAP_SIZE);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    org.openjdk.jmh.runner.options.Options opt = new OptionsBuilder()
+        .include(LazyRecordBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build();
+    new Runner(opt).run();
+  }
+
+  @Setup(Level.Trial)
+  public void prepare() throws Exception {
+    Schema benchmarkSchema = Schema.parse(wideRecord());
+    GenericData.Record generatedRecord =
+        (GenericData.Record) new AvroRandomDataGenerator(benchmarkSchema, random).generate(properties);
+    serializedBuffer = ByteBuffer.wrap(new AvroGenericSerializer(benchmarkSchema).serialize(generatedRecord));
+
+    FastSerdeCache cache = FastSerdeCache.getDefaultInstance();
+    fastDeserializer = (FastDeserializer<GenericRecord>) ("lazy".equals(mode)
+        ? cache.buildFastGenericLazyDeserializer(benchmarkSchema)
+        : cache.buildFastGenericDeserializer(benchmarkSchema, benchmarkSchema));
+    fastSerializer = (FastSerializer<GenericRecord>) cache.buildFastGenericSerializer(benchmarkSchema);
+  }
+
+  private static String wideRecord() {
+    String[] fieldTypes = {
+        "\"long\"", "\"string\"", "[\"null\", \"int\"]", "\"double\"", "[\"null\", \"string\"]",
+        "{\"type\": \"array\", \"items\": \"long\"}", "{\"type\": \"map\", \"values\": \"string\"}", "\"boolean\""};
+    StringBuilder json = new StringBuilder("{\"type\": \"record\", \"name\": \"lazy_record\", \"fields\":[");
+    for (int i = 0; i < FIELD_COUNT; i++) {
+      json.append(i == 0 ? "" : ",").append("{\"name\": \"field").append(i).append("\", \"type\": ")
+          .append(fieldTypes[i % fieldTypes.length]).append('}');
+    }
+    return json.append("]}").toString();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUMBER_OF_OPERATIONS)
+  public void testReadOneField(Blackhole bh) throws Exception {
+    GenericRecord record = null;
+    BinaryDecoder decoder = null;
+    for (int i = 0; i < NUMBER_OF_OPERATIONS; i++) {
+      decoder = AvroCompatibilityHelper.newBinaryDecoder(serializedBuffer, decoder);
+      record = fastDeserializer.deserialize(record, decoder);
+      bh.consume(record.get(1));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUMBER_OF_OPERATIONS)
+  public void testReadOneFieldAndForward(Blackhole bh) throws Exception {
+    GenericRecord record = null;
+    BinaryDecoder decoder = null;
+    BinaryEncoder encoder = null;
+    for (int i = 0; i < NUMBER_OF_OPERATIONS; i++) {
+      decoder = AvroCompatibilityHelper.newBinaryDecoder(serializedBuffer, decoder);
+      record = fastDeserializer.deserialize(record, decoder);
+      bh.consume(record.get(1));
+      outputStream.reset();
+      encoder = AvroCompatibilityHelper.newBinaryEncoder(outputStream, true, encoder);
+      fastSerializer.serialize(record, encoder);
+      encoder.flush();
+      bh.consume(outputStream.size());
+    }
+  }
+}
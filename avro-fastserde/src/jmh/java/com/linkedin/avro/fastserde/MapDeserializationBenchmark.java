@@ -0,0 +1,149 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.util.Utf8;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * A benchmark that evaluates the decoding of records holding feature maps, whose keys mostly recur from one record to
+ * the next, into reused records: with the {@link java.util.HashMap}s produced by default and with
+ * {@link Utf8HashMap}s, which are refilled in place, see {@link FastSerdeCacheConfig#withUtf8HashMaps(boolean)}. The
+ * float features are decoded into {@link com.linkedin.avro.fastserde.primitive.PrimitiveFloatHashMap}s by both fast
+ * deserializers, so the refill only applies to the string labels. It's mostly meant to be run with the GC profiler, to
+ * compare the allocation rates.
+ *
+ * To run this benchmark:
+ * <code>
+ *   ./gradlew :avro-fastserde:jmh
+ * </code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 3)
+public class MapDeserializationBenchmark {
+  private static final int NUMBER_OF_RECORDS = 16;
+  private static final String NAMESPACE = "com.linkedin.avro.fastserde.benchmark";
+
+  @Param({"10", "1000"})
+  private int numberOfEntries;
+
+  private final Random random = new Random(0);
+  private byte[][] serializedRecords;
+  private BinaryDecoder decoder;
+  private GenericRecord avroReuse;
+  private GenericRecord fastReuse;
+  private GenericRecord fastUtf8HashMapReuse;
+  private GenericDatumReader<GenericRecord> avroReader;
+  private FastDeserializer<GenericRecord> fastDeserializer;
+  private FastDeserializer<GenericRecord> fastUtf8HashMapDeserializer;
+
+  public static void main(String[] args) throws RunnerException {
+    org.openjdk.jmh.runner.options.Options opt = new OptionsBuilder()
+        .include(MapDeserializationBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build();
+    new Runner(opt).run();
+  }
+
+  @Setup(Level.Trial)
+  @SuppressWarnings("unchecked")
+  public void prepare() throws Exception {
+    Schema schema = Schema.parse("{\"type\": \"record\", \"name\": \"feature_record\", \"namespace\": \""
+        + NAMESPACE + "\", \"fields\": [{\"name\": \"features\", \"type\": {\"type\": \"map\", \"values\": \"float\"}},"
+        + " {\"name\": \"labels\", \"type\": {\"type\": \"map\", \"values\": \"string\"}}]}");
+
+    GenericDatumWriter<GenericRecord> writer = new GenericDatumWriter<>(schema);
+    serializedRecords = new byte[NUMBER_OF_RECORDS][];
+    for (int i = 0; i < NUMBER_OF_RECORDS; i++) {
+      Map<Utf8, Float> features = new HashMap<>();
+      Map<Utf8, Utf8> labels = new HashMap<>();
+      for (int j = 0; j < numberOfEntries; j++) {
+        // a tenth of the keys change from one record to the next
+        int key = random.nextInt(10) == 0 ? numberOfEntries + random.nextInt(numberOfEntries) : j;
+        features.put(new Utf8("feature_" + key), random.nextFloat());
+        labels.put(new Utf8("label_" + key), new Utf8("value_" + random.nextInt(100)));
+      }
+      GenericRecord record = new GenericData.Record(schema);
+      record.put("features", features);
+      record.put("labels", labels);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      Encoder encoder = AvroCompatibilityHelper.newBinaryEncoder(out, true, null);
+      writer.write(record, encoder);
+      encoder.flush();
+      serializedRecords[i] = out.toByteArray();
+    }
+
+    avroReader = new GenericDatumReader<>(schema);
+    fastDeserializer = (FastDeserializer<GenericRecord>) FastSerdeCache.getDefaultInstance()
+        .buildFastGenericDeserializer(schema, schema);
+    File classesDir = Files.createTempDirectory("generated").toFile();
+    ClassLoader classLoader = URLClassLoader.newInstance(new URL[]{classesDir.toURI().toURL()},
+        MapDeserializationBenchmark.class.getClassLoader());
+    FastGenericDeserializerGenerator<GenericRecord> generator =
+        new FastGenericDeserializerGenerator<>(schema, schema, classesDir, classLoader, null);
+    generator.setUseUtf8HashMaps(true);
+    fastUtf8HashMapDeserializer = generator.generateDeserializer();
+  }
+
+  @Benchmark
+  public GenericRecord testAvroMapDeserialization() throws Exception {
+    for (byte[] bytes : serializedRecords) {
+      decoder = AvroCompatibilityHelper.newBinaryDecoder(bytes, 0, bytes.length, decoder);
+      avroReuse = avroReader.read(avroReuse, decoder);
+    }
+    return avroReuse;
+  }
+
+  @Benchmark
+  public GenericRecord testFastMapDeserialization() throws Exception {
+    for (byte[] bytes : serializedRecords) {
+      decoder = AvroCompatibilityHelper.newBinaryDecoder(bytes, 0, bytes.length, decoder);
+      fastReuse = fastDeserializer.deserialize(fastReuse, decoder);
+    }
+    return fastReuse;
+  }
+
+  @Benchmark
+  public GenericRecord testFastUtf8HashMapDeserialization() throws Exception {
+    for (byte[] bytes : serializedRecords) {
+      decoder = AvroCompatibilityHelper.newBinaryDecoder(bytes, 0, bytes.length, decoder);
+      fastUtf8HashMapReuse = fastUtf8HashMapDeserializer.deserialize(fastUtf8HashMapReuse, decoder);
+    }
+    return fastUtf8HashMapReuse;
+  }
+}
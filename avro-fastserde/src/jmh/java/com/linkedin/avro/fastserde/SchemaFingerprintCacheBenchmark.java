@@ -0,0 +1,100 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avroutil1.compatibility.SchemaNormalization;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.apache.avro.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * A benchmark that evaluates the cost of looking up the fingerprint of large nested schemas, comparing the identity
+ * based cache of {@link Utils#getSchemaFingerprint(Schema)} with a {@link ConcurrentHashMap} keyed by
+ * {@link Schema#equals(Object)}, which it replaced.
+ *
+ * To run this benchmark:
+ * <code>
+ *   ./gradlew :avro-fastserde:jmh
+ * </code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(16)
+public class SchemaFingerprintCacheBenchmark {
+
+  private static final int SCHEMA_COUNT = 16;
+  private static final int NESTING_DEPTH = 4;
+  private static final int FIELDS_PER_RECORD = 20;
+
+  private final Schema[] schemas = new Schema[SCHEMA_COUNT];
+  private final Map<Schema, Long> equalityKeyedCache = new ConcurrentHashMap<>();
+
+  public static void main(String[] args) throws RunnerException {
+    org.openjdk.jmh.runner.options.Options opt = new OptionsBuilder()
+        .include(SchemaFingerprintCacheBenchmark.class.getSimpleName())
+        .build();
+    new Runner(opt).run();
+  }
+
+  @Setup(Level.Trial)
+  public void prepare() {
+    for (int i = 0; i < SCHEMA_COUNT; i++) {
+      schemas[i] = Schema.parse(nestedRecord("fingerprint_record_" + i, NESTING_DEPTH));
+      equalityKeyedCache.put(schemas[i], SchemaNormalization.parsingFingerprint64(schemas[i]));
+      Utils.getSchemaFingerprint(schemas[i]);
+    }
+  }
+
+  private static String nestedRecord(String name, int depth) {
+    StringBuilder json = new StringBuilder("{\"type\": \"record\", \"name\": \"").append(name).append("\", \"fields\":[");
+    for (int i = 0; i < FIELDS_PER_RECORD; i++) {
+      json.append(i == 0 ? "" : ",").append("{\"name\": \"field").append(i).append("\", \"type\": ");
+      if (depth > 0 && i % 5 == 0) {
+        json.append("{\"type\": \"array\", \"items\": ").append(nestedRecord(name + "_" + i, depth - 1)).append('}');
+      } else {
+        json.append(i % 2 == 0 ? "\"string\"" : "[\"null\", \"long\"]");
+      }
+      json.append('}');
+    }
+    return json.append("]}").toString();
+  }
+
+  @State(Scope.Thread)
+  public static class ThreadState {
+    private int next;
+
+    int nextIndex() {
+      next = (next + 1) & (SCHEMA_COUNT - 1);
+      return next;
+    }
+  }
+
+  @Benchmark
+  public Long testIdentityKeyedLookup(ThreadState threadState) {
+    return Utils.getSchemaFingerprint(schemas[threadState.nextIndex()]);
+  }
+
+  @Benchmark
+  public Long testEqualityKeyedLookup(ThreadState threadState) {
+    return equalityKeyedCache.get(schemas[threadState.nextIndex()]);
+  }
+}
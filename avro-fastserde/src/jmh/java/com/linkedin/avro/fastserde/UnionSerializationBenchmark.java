@@ -0,0 +1,119 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * A benchmark that evaluates the encoding of records holding arrays of wide unions, like event payloads, whose branches
+ * are records of different types, by the generated serializers compared to {@link GenericDatumWriter}.
+ *
+ * To run this benchmark:
+ * <code>
+ *   ./gradlew :avro-fastserde:jmh
+ * </code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 3)
+public class UnionSerializationBenchmark {
+  private static final int NUMBER_OF_PAYLOADS = 100;
+  private static final String NAMESPACE = "com.linkedin.avro.fastserde.benchmark";
+
+  /**
+   * Number of record branches of the union.
+   */
+  @Param({"2", "4", "8", "16"})
+  private int numberOfBranches;
+
+  private final Random random = new Random(0);
+  private GenericRecord record;
+  private ByteArrayOutputStream out;
+  private BinaryEncoder encoder;
+  private GenericDatumWriter<GenericRecord> avroWriter;
+  private FastSerializer<GenericRecord> fastSerializer;
+
+  public static void main(String[] args) throws RunnerException {
+    org.openjdk.jmh.runner.options.Options opt = new OptionsBuilder()
+        .include(UnionSerializationBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build();
+    new Runner(opt).run();
+  }
+
+  @Setup(Level.Trial)
+  @SuppressWarnings("unchecked")
+  public void prepare() throws Exception {
+    List<Schema> payloadSchemas = new ArrayList<>(numberOfBranches);
+    for (int i = 0; i < numberOfBranches; i++) {
+      Schema payloadSchema = Schema.createRecord("payload" + i, null, NAMESPACE, false);
+      payloadSchema.setFields(Arrays.asList(
+          AvroCompatibilityHelper.createSchemaField("id", Schema.create(Schema.Type.LONG), null, null)));
+      payloadSchemas.add(payloadSchema);
+    }
+    Schema recordSchema = Schema.createRecord("payload_record", null, NAMESPACE, false);
+    recordSchema.setFields(Arrays.asList(AvroCompatibilityHelper.createSchemaField("payloads",
+        Schema.createArray(Schema.createUnion(payloadSchemas)), null, null)));
+
+    List<GenericRecord> payloads = new ArrayList<>(NUMBER_OF_PAYLOADS);
+    for (int i = 0; i < NUMBER_OF_PAYLOADS; i++) {
+      GenericRecord payload = new GenericData.Record(payloadSchemas.get(random.nextInt(numberOfBranches)));
+      payload.put("id", random.nextLong());
+      payloads.add(payload);
+    }
+    record = new GenericData.Record(recordSchema);
+    record.put("payloads", payloads);
+
+    out = new ByteArrayOutputStream();
+    avroWriter = new GenericDatumWriter<>(recordSchema);
+    fastSerializer = (FastSerializer<GenericRecord>) FastSerdeCache.getDefaultInstance()
+        .buildFastGenericSerializer(recordSchema);
+  }
+
+  @Benchmark
+  public byte[] testAvroUnionSerialization() throws Exception {
+    out.reset();
+    encoder = AvroCompatibilityHelper.newBinaryEncoder(out, true, encoder);
+    avroWriter.write(record, encoder);
+    encoder.flush();
+    return out.toByteArray();
+  }
+
+  @Benchmark
+  public byte[] testFastUnionSerialization() throws Exception {
+    out.reset();
+    encoder = AvroCompatibilityHelper.newBinaryEncoder(out, true, encoder);
+    fastSerializer.serialize(record, encoder);
+    encoder.flush();
+    return out.toByteArray();
+  }
+}
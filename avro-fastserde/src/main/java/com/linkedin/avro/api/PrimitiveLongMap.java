@@ -0,0 +1,25 @@
+package com.linkedin.avro.api;
+
+import java.util.Map;
+
+
+/**
+ * A {@link Map} implementation with additional functions to prevent boxing.
+ */
+public interface PrimitiveLongMap extends Map<CharSequence, Long> {
+  /**
+   * @param key key whose associated value is to be returned
+   * @param defaultValue value to return if this map contains no mapping for the key
+   * @return the value to which the specified key is mapped, or <code>defaultValue</code> if there is none
+   */
+  long getPrimitive(CharSequence key, long defaultValue);
+
+  /**
+   * Associates the specified value with the specified key in this map, replacing the previous value of the key
+   * if any.
+   *
+   * @param key key with which the specified value is to be associated
+   * @param value value to be associated with the specified key
+   */
+  void putPrimitive(CharSequence key, long value);
+}
@@ -0,0 +1,383 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avro.api.PrimitiveDoubleList;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Iterator;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericArray;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.Encoder;
+
+
+/**
+ * This is a re-implementation of Avro's {@link GenericData.Array} class.
+ *
+ * Compared to the Avro implementation, it offers the following GC-related optimizations:
+ *
+ * - It does not, by default, box primitive doubles into Object Doubles, though it will still do so if the
+ *   regular functions are called (e.g.: {@link #get(int)}, for compatibility purposes. In order to avoid
+ *   boxing, the {@link #getPrimitive(int)} function can be used instead.
+ *
+ * - It does not maintain a reference to a {@link Schema} instance, since that schema would always be the
+ *   same. Instead, it defines a static {@link #SCHEMA} which is used by all instances.
+ *
+ * - It re-implements {@link #compareTo(GenericArray)}, {@link #equals(Object)} and {@link #hashCode()}
+ *   in order to leverage the primitive types, rather than causing unintended boxing.
+ *
+ *   Using ByteBuffer to speed up double-array deserialization: We allocate ByteBuffer to store the raw bytes from
+ *   BinaryDecoder and deserialize them only during array element access. We cache the results into the elements array
+ *   after the first get access of the array so that sub-sequent array access are fast. For reuse case, we try to reuse
+ *   the existing ByteBuffers as long as their capacity can hold the array.
+ */
+public class ByteBufferBackedPrimitiveDoubleList extends AbstractList<Double>
+    implements GenericArray<Double>, Comparable<GenericArray<Double>>, PrimitiveDoubleList {
+  private static final double[] EMPTY = new double[0];
+  private static final int DOUBLE_SIZE = Double.BYTES;
+  private static final Schema DOUBLE_SCHEMA = Schema.create(Schema.Type.DOUBLE);
+  private static final Schema SCHEMA = Schema.createArray(DOUBLE_SCHEMA);
+  private int size;
+  private double[] elements = EMPTY;
+  private boolean isCached = false;
+  private CompositeByteBuffer byteBuffer;
+
+  public ByteBufferBackedPrimitiveDoubleList(int capacity) {
+    if (capacity != 0) {
+      elements = new double[capacity];
+    }
+    // create empty ByteBuffer if capacity != 0 ( List<Double> interface usage case)
+    byteBuffer = new CompositeByteBuffer(capacity != 0);
+  }
+
+  public ByteBufferBackedPrimitiveDoubleList(Collection<Double> c) {
+    if (c != null) {
+      elements = new double[c.size()];
+      addAll(c);
+    }
+    byteBuffer = new CompositeByteBuffer(c != null);
+  }
+
+  /**
+   * Instantiate (or re-use) and populate a {@link ByteBufferBackedPrimitiveDoubleList} from a {@link org.apache.avro.io.Decoder}.
+   *
+   * N.B.: the caller must ensure the data is of the appropriate type by calling {@link #isDoubleArray(Schema)}.
+   *
+   * @param old old {@link ByteBufferBackedPrimitiveDoubleList} to reuse
+   * @param in {@link org.apache.avro.io.Decoder} to read new list from
+   * @return a {@link ByteBufferBackedPrimitiveDoubleList} with data, possibly the old argument reused
+   * @throws IOException on io errors
+   */
+  public static Object readPrimitiveDoubleArray(Object old, Decoder in) throws IOException {
+    long length = in.readArrayStart();
+    long totalLength = 0;
+
+    if (length > 0) {
+      ByteBufferBackedPrimitiveDoubleList array = (ByteBufferBackedPrimitiveDoubleList) newPrimitiveDoubleArray(old);
+      int index = 0;
+
+      do {
+        long byteSize = length * DOUBLE_SIZE;
+        ByteBuffer byteBuffer = array.byteBuffer.allocate(index++, (int)byteSize);
+        in.readFixed(byteBuffer.array(), 0, (int)byteSize);
+        totalLength += length;
+        length = in.arrayNext();
+      } while (length > 0);
+
+      array.byteBuffer.setByteBufferCount(index);
+      array.size = (int) totalLength;
+      return array;
+    } else {
+      return new ByteBufferBackedPrimitiveDoubleList(0);
+    }
+  }
+
+  /**
+   * Writes the elements of the list to a binary {@link Encoder} as the raw little-endian bytes they were read from,
+   * so re-serializing a decoded array is a plain copy. Only the item count is expected to be written beforehand,
+   * items are not started one by one.
+   *
+   * @param encoder {@link Encoder} to write the elements to
+   * @return false if nothing was written, since the elements are no longer backed by the read bytes or the encoder
+   *         requires items to be started one by one, the caller must then write the elements individually
+   * @throws IOException on io errors
+   */
+  public boolean writeRawElements(Encoder encoder) throws IOException {
+    if (isCached || !CompositeByteBuffer.acceptsRawItems(encoder)) {
+      return false;
+    }
+    byteBuffer.writeTo(encoder);
+    return true;
+  }
+
+  /**
+   *  The primitive double array `elements` will only be used when the interface user calls a mutating operation.
+   *  eg add/remove else for read-only use case this will not be called.
+   * @param list
+   * @param totalSize
+   */
+  private static void setupElements(ByteBufferBackedPrimitiveDoubleList list, int totalSize) {
+    if (list.elements.length != 0) {
+      if (totalSize <= list.getCapacity()) {
+        // reuse the double array directly
+        list.clear();
+      } else {
+        list.resizeAndClear(totalSize);
+      }
+      list.size = totalSize;
+      return;
+    }
+    list.elements = new double[totalSize];
+    list.size = totalSize;
+  }
+
+  /**
+     * @param expected {@link Schema} to inspect
+     * @return true if the {@code expected} SCHEMA is of the right type to decode as a {@link ByteBufferBackedPrimitiveDoubleList}
+     *         false otherwise
+     */
+  public static boolean isDoubleArray(Schema expected) {
+    return expected != null && Schema.Type.ARRAY.equals(expected.getType()) && DOUBLE_SCHEMA.equals(
+        expected.getElementType());
+  }
+
+  private static Object newPrimitiveDoubleArray(Object old) {
+    if (old instanceof ByteBufferBackedPrimitiveDoubleList) {
+      ByteBufferBackedPrimitiveDoubleList oldDoubleList = (ByteBufferBackedPrimitiveDoubleList) old;
+      oldDoubleList.byteBuffer.clear();
+      oldDoubleList.isCached = false;
+      oldDoubleList.size = 0;
+      return oldDoubleList;
+    } else {
+      // Just a place holder, will set up the elements later.
+      return new ByteBufferBackedPrimitiveDoubleList(0);
+    }
+  }
+
+  @Override
+  public Schema getSchema() {
+    return SCHEMA;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void clear() {
+    size = 0;
+  }
+
+  private int getCapacity() {
+    return elements.length;
+  }
+
+  private void resizeAndClear(int newSize) {
+    elements = new double[newSize];
+    clear();
+  }
+
+  @Override
+  public Iterator<Double> iterator() {
+    return new Iterator<Double>() {
+      private int position = 0;
+
+      @Override
+      public boolean hasNext() {
+        return position < size;
+      }
+
+      @Override
+      public Double next() {
+        double d = getPrimitive(position);
+        position++;
+        return d;
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  public double getPrimitive(int i) {
+    if (i >= size) {
+      throw new IndexOutOfBoundsException("Index " + i + " out of bounds.");
+    }
+    if (isCached) {
+      return elements[i];
+    }
+    return byteBuffer.getDoubleElement(i);
+  }
+
+  @Override
+  public Double get(int i) {
+    return getPrimitive(i);
+  }
+
+  /**
+   * Add a primitive double inside the list, without boxing.
+   *
+   * @param o new double to add
+   * @return true
+   */
+  public boolean addPrimitive(double o) {
+    cacheFromByteBuffer();
+    if (size == elements.length) {
+      double[] newElements = new double[(size * 3) / 2 + 1];
+      System.arraycopy(elements, 0, newElements, 0, size);
+      elements = newElements;
+    }
+    elements[size++] = o;
+    return true;
+  }
+
+  @Override
+  public boolean add(Double o) {
+    return addPrimitive(o);
+  }
+
+  @Override
+  public void add(int location, Double o) {
+    if (location > size || location < 0) {
+      throw new IndexOutOfBoundsException("Index " + location + " out of bounds.");
+    }
+    cacheFromByteBuffer();
+    if (size == elements.length) {
+      double[] newElements = new double[(size * 3) / 2 + 1];
+      System.arraycopy(elements, 0, newElements, 0, size);
+      elements = newElements;
+    }
+    System.arraycopy(elements, location, elements, location + 1, size - location);
+    elements[location] = o;
+    size++;
+  }
+
+  @Override
+  public Double set(int i, Double o) {
+    return setPrimitive(i, o);
+  }
+
+  @Override
+  public double setPrimitive(int i, double o) {
+    if (i >= size) {
+      throw new IndexOutOfBoundsException("Index " + i + " out of bounds.");
+    }
+    cacheFromByteBuffer();
+    double response = elements[i];
+    elements[i] = o;
+
+    return response;
+  }
+
+  @Override
+  public Double remove(int i) {
+    if (i >= size) {
+      throw new IndexOutOfBoundsException("Index " + i + " out of bounds.");
+    }
+    cacheFromByteBuffer();
+    Double result = elements[i];
+    --size;
+    System.arraycopy(elements, i + 1, elements, i, (size - i));
+    elements[size] = 0;
+    return result;
+  }
+
+  private void cacheFromByteBuffer() {
+    if (isCached) {
+      return;
+    }
+    synchronized (this) {
+      if (!isCached) {
+        setupElements(this, this.size);
+        byteBuffer.setArray(elements);
+        isCached = true;
+      }
+    }
+  }
+
+  @Override
+  public Double peek() {
+    cacheFromByteBuffer();
+    return (size < elements.length) ? elements[size] : null;
+  }
+
+  @Override
+  public int compareTo(GenericArray<Double> that) {
+    cacheFromByteBuffer();
+    if (that instanceof ByteBufferBackedPrimitiveDoubleList) {
+      ByteBufferBackedPrimitiveDoubleList thatPrimitiveList = (ByteBufferBackedPrimitiveDoubleList) that;
+      if (this.size == thatPrimitiveList.size) {
+        for (int i = 0; i < this.size; i++) {
+          int compare = Double.compare(this.elements[i], thatPrimitiveList.elements[i]);
+          if (compare != 0) {
+            return compare;
+          }
+        }
+        return 0;
+      } else if (this.size > thatPrimitiveList.size) {
+        return 1;
+      } else {
+        return -1;
+      }
+    } else {
+      // Not our own type of primitive list, so we will delegate to the regular implementation, which will do boxing
+      return GenericData.get().compare(this, that, this.getSchema());
+    }
+  }
+
+  @Override
+  public void reverse() {
+    cacheFromByteBuffer();
+    int left = 0;
+    int right = size - 1;
+
+    while (left < right) {
+      double tmp = elements[left];
+      elements[left] = elements[right];
+      elements[right] = tmp;
+
+      left++;
+      right--;
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder buffer = new StringBuilder();
+    buffer.append("[");
+    int count = 0;
+    for (Double e : this) {
+      buffer.append(e == null ? "null" : e.toString());
+      if (++count < size()) {
+        buffer.append(", ");
+      }
+    }
+    buffer.append("]");
+    return buffer.toString();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    cacheFromByteBuffer();
+    if (o instanceof GenericArray) {
+      return compareTo((GenericArray) o) == 0;
+    } else {
+      return super.equals(o);
+    }
+  }
+
+  @Override
+  public int hashCode() {
+    cacheFromByteBuffer();
+    int hashCode = 1;
+    for (int i = 0; i < this.size; i++) {
+      hashCode = 31 * hashCode + Double.hashCode(elements[i]);
+    }
+    return hashCode;
+  }
+}
@@ -10,6 +10,7 @@ import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericArray;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.io.Decoder;
+import org.apache.avro.io.Encoder;
 
 
 /**
@@ -32,6 +33,7 @@ import org.apache.avro.io.Decoder;
  *   after the first get access of the array so that sub-sequent array access are fast. For reuse case, we try to reuse
  *   the existing ByteBuffers as long as their capacity can hold the array.
  *
+ *   Double arrays are handled the same way by {@link ByteBufferBackedPrimitiveDoubleList}.
  *   TODO: Provide arrays for other primitive types.
  */
 public class ByteBufferBackedPrimitiveFloatList extends AbstractList<Float>
@@ -95,6 +97,24 @@ public class ByteBufferBackedPrimitiveFloatList extends AbstractList<Float>
     }
   }
 
+  /**
+   * Writes the elements of the list to a binary {@link Encoder} as the raw little-endian bytes they were read from,
+   * so re-serializing a decoded array is a plain copy. Only the item count is expected to be written beforehand,
+   * items are not started one by one.
+   *
+   * @param encoder {@link Encoder} to write the elements to
+   * @return false if nothing was written, since the elements are no longer backed by the read bytes or the encoder
+   *         requires items to be started one by one, the caller must then write the elements individually
+   * @throws IOException on io errors
+   */
+  public boolean writeRawElements(Encoder encoder) throws IOException {
+    if (isCached || !CompositeByteBuffer.acceptsRawItems(encoder)) {
+      return false;
+    }
+    byteBuffer.writeTo(encoder);
+    return true;
+  }
+
   /**
    *  The primitive float array `elements` will only be used when the interface user calls a mutating operation.
    *  eg add/remove else for read-only use case this will not be called.
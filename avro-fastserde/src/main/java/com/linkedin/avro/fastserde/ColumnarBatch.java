@@ -0,0 +1,426 @@
+package com.linkedin.avro.fastserde;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.avro.Schema;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.util.Utf8;
+
+
+/**
+ * Rows of a flat record schema stored column by column, filled by the columnar fast deserializers, see
+ * {@link FastSerdeCache#buildFastColumnarDeserializer(Schema, Schema)}.
+ *
+ * Each field of the schema is stored in a {@link Column} derived from its schema by
+ * {@link SchemaAssistant#columnClassFromSchema(Schema)}: boolean, int, long, float and double fields in arrays of the
+ * matching primitive type, enums as the ordinals of their symbols, and strings, bytes and fixed as the concatenation of
+ * their bytes along with the offset of each value. A union of null and one of these types is stored like the other
+ * type, along with a bitmap of the null rows.
+ *
+ * Rows are only ever appended, a batch is emptied by {@link #clear()} to be filled again without allocating any new
+ * column.
+ */
+public class ColumnarBatch {
+  public static final int DEFAULT_CAPACITY = 1024;
+
+  private final Schema schema;
+  private final Column[] columns;
+  private int capacity;
+  private int size;
+
+  public ColumnarBatch(Schema schema) {
+    this(schema, DEFAULT_CAPACITY);
+  }
+
+  /**
+   * @param schema flat record schema of the rows
+   * @param capacity initial number of rows of the columns, which grow as needed
+   * @throws SchemaAssistantException if a field of the schema can't be stored in a column
+   */
+  public ColumnarBatch(Schema schema, int capacity) {
+    if (!Schema.Type.RECORD.equals(schema.getType())) {
+      throw new IllegalArgumentException("Columnar batches can only store records, got: " + schema.getType());
+    }
+    this.schema = schema;
+    this.capacity = Math.max(capacity, 1);
+    List<Schema.Field> fields = schema.getFields();
+    this.columns = new Column[fields.size()];
+    for (int i = 0; i < columns.length; i++) {
+      columns[i] = newColumn(fields.get(i).schema(), this.capacity);
+    }
+  }
+
+  private static Column newColumn(Schema fieldSchema, int capacity) {
+    Class<? extends Column> columnClass = SchemaAssistant.columnClassFromSchema(fieldSchema);
+    boolean nullable = Schema.Type.UNION.equals(fieldSchema.getType());
+    if (columnClass == BooleanColumn.class) {
+      return new BooleanColumn(nullable, capacity);
+    } else if (columnClass == IntColumn.class) {
+      return new IntColumn(nullable, capacity);
+    } else if (columnClass == LongColumn.class) {
+      return new LongColumn(nullable, capacity);
+    } else if (columnClass == FloatColumn.class) {
+      return new FloatColumn(nullable, capacity);
+    } else if (columnClass == DoubleColumn.class) {
+      return new DoubleColumn(nullable, capacity);
+    } else {
+      return new BytesColumn(nullable, capacity);
+    }
+  }
+
+  public Schema getSchema() {
+    return schema;
+  }
+
+  /**
+   * @return number of rows in this batch
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Appends a row, whose values are then set in each column.
+   *
+   * @return index of the new row
+   */
+  public int addRow() {
+    if (size == capacity) {
+      capacity *= 2;
+      for (Column column : columns) {
+        column.grow(capacity);
+      }
+    }
+    return size++;
+  }
+
+  /**
+   * Removes all the rows, keeping the allocated columns.
+   */
+  public void clear() {
+    for (Column column : columns) {
+      column.clear(size);
+    }
+    size = 0;
+  }
+
+  /**
+   * @param index position of the field in the schema
+   */
+  public Column getColumn(int index) {
+    return columns[index];
+  }
+
+  /**
+   * @throws IllegalArgumentException if the schema has no such field
+   */
+  public Column getColumn(String fieldName) {
+    Schema.Field field = schema.getField(fieldName);
+    if (field == null) {
+      throw new IllegalArgumentException("Unknown field: " + fieldName);
+    }
+    return columns[field.pos()];
+  }
+
+  /**
+   * Values of a field, for the rows of the batch.
+   */
+  public abstract static class Column {
+    private long[] nulls;
+
+    Column(boolean nullable, int capacity) {
+      this.nulls = nullable ? new long[bitmapLength(capacity)] : null;
+    }
+
+    private static int bitmapLength(int capacity) {
+      return (capacity + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    /**
+     * @return whether the field is a union with null
+     */
+    public boolean isNullable() {
+      return nulls != null;
+    }
+
+    public boolean isNull(int row) {
+      return nulls != null && (nulls[row >>> 6] & (1L << row)) != 0;
+    }
+
+    /**
+     * Sets the value of the given row to null, the column must be nullable.
+     */
+    public void setNull(int row) {
+      nulls[row >>> 6] |= 1L << row;
+    }
+
+    void grow(int capacity) {
+      if (nulls != null) {
+        nulls = Arrays.copyOf(nulls, bitmapLength(capacity));
+      }
+    }
+
+    void clear(int size) {
+      if (nulls != null) {
+        Arrays.fill(nulls, 0, bitmapLength(size), 0L);
+      }
+    }
+  }
+
+  public static final class BooleanColumn extends Column {
+    private boolean[] values;
+
+    BooleanColumn(boolean nullable, int capacity) {
+      super(nullable, capacity);
+      this.values = new boolean[capacity];
+    }
+
+    public boolean get(int row) {
+      return values[row];
+    }
+
+    public void set(int row, boolean value) {
+      values[row] = value;
+    }
+
+    /**
+     * @return the backing array, valid up to the size of the batch and until rows are added
+     */
+    public boolean[] getValues() {
+      return values;
+    }
+
+    @Override
+    void grow(int capacity) {
+      super.grow(capacity);
+      values = Arrays.copyOf(values, capacity);
+    }
+  }
+
+  /**
+   * Column of an int field, or of the symbol ordinals of an enum field.
+   */
+  public static final class IntColumn extends Column {
+    private int[] values;
+
+    IntColumn(boolean nullable, int capacity) {
+      super(nullable, capacity);
+      this.values = new int[capacity];
+    }
+
+    public int get(int row) {
+      return values[row];
+    }
+
+    public void set(int row, int value) {
+      values[row] = value;
+    }
+
+    /**
+     * @return the backing array, valid up to the size of the batch and until rows are added
+     */
+    public int[] getValues() {
+      return values;
+    }
+
+    @Override
+    void grow(int capacity) {
+      super.grow(capacity);
+      values = Arrays.copyOf(values, capacity);
+    }
+  }
+
+  public static final class LongColumn extends Column {
+    private long[] values;
+
+    LongColumn(boolean nullable, int capacity) {
+      super(nullable, capacity);
+      this.values = new long[capacity];
+    }
+
+    public long get(int row) {
+      return values[row];
+    }
+
+    public void set(int row, long value) {
+      values[row] = value;
+    }
+
+    /**
+     * @return the backing array, valid up to the size of the batch and until rows are added
+     */
+    public long[] getValues() {
+      return values;
+    }
+
+    @Override
+    void grow(int capacity) {
+      super.grow(capacity);
+      values = Arrays.copyOf(values, capacity);
+    }
+  }
+
+  public static final class FloatColumn extends Column {
+    private float[] values;
+
+    FloatColumn(boolean nullable, int capacity) {
+      super(nullable, capacity);
+      this.values = new float[capacity];
+    }
+
+    public float get(int row) {
+      return values[row];
+    }
+
+    public void set(int row, float value) {
+      values[row] = value;
+    }
+
+    /**
+     * @return the backing array, valid up to the size of the batch and until rows are added
+     */
+    public float[] getValues() {
+      return values;
+    }
+
+    @Override
+    void grow(int capacity) {
+      super.grow(capacity);
+      values = Arrays.copyOf(values, capacity);
+    }
+  }
+
+  public static final class DoubleColumn extends Column {
+    private double[] values;
+
+    DoubleColumn(boolean nullable, int capacity) {
+      super(nullable, capacity);
+      this.values = new double[capacity];
+    }
+
+    public double get(int row) {
+      return values[row];
+    }
+
+    public void set(int row, double value) {
+      values[row] = value;
+    }
+
+    /**
+     * @return the backing array, valid up to the size of the batch and until rows are added
+     */
+    public double[] getValues() {
+      return values;
+    }
+
+    @Override
+    void grow(int capacity) {
+      super.grow(capacity);
+      values = Arrays.copyOf(values, capacity);
+    }
+  }
+
+  /**
+   * Column of a string, bytes or fixed field. The values of the rows are concatenated in a single byte array, the value
+   * of row i going from {@code getOffsets()[i]} to {@code getOffsets()[i + 1]}. Values must be set in row order.
+   */
+  public static final class BytesColumn extends Column {
+    private int[] offsets;
+    private byte[] data;
+    // reused by the decoder for the values which can't be read in place
+    private Utf8 stringValue;
+    private ByteBuffer bytesValue;
+
+    BytesColumn(boolean nullable, int capacity) {
+      super(nullable, capacity);
+      this.offsets = new int[capacity + 1];
+      this.data = new byte[capacity * 16];
+    }
+
+    public int getLength(int row) {
+      return offsets[row + 1] - offsets[row];
+    }
+
+    /**
+     * @return a view of the value of the given row, valid until rows are added to the batch
+     */
+    public ByteBuffer getBytes(int row) {
+      return ByteBuffer.wrap(data, offsets[row], getLength(row));
+    }
+
+    public String getString(int row) {
+      return new String(data, offsets[row], getLength(row), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the backing offsets, valid up to the size of the batch plus one and until rows are added
+     */
+    public int[] getOffsets() {
+      return offsets;
+    }
+
+    /**
+     * @return the backing data, valid until rows are added
+     */
+    public byte[] getData() {
+      return data;
+    }
+
+    public void set(int row, byte[] value, int start, int length) {
+      int offset = reserve(row, length);
+      System.arraycopy(value, start, data, offset, length);
+    }
+
+    @Override
+    public void setNull(int row) {
+      super.setNull(row);
+      offsets[row + 1] = offsets[row];
+    }
+
+    /**
+     * Reads a string from the decoder as the value of the given row.
+     */
+    public void readString(int row, Decoder decoder) throws IOException {
+      stringValue = decoder.readString(stringValue);
+      set(row, stringValue.getBytes(), 0, stringValue.getByteLength());
+    }
+
+    /**
+     * Reads bytes from the decoder as the value of the given row.
+     */
+    public void readBytes(int row, Decoder decoder) throws IOException {
+      bytesValue = decoder.readBytes(bytesValue);
+      int offset = reserve(row, bytesValue.remaining());
+      bytesValue.get(data, offset, bytesValue.remaining());
+    }
+
+    /**
+     * Reads a fixed of the given size from the decoder as the value of the given row, straight into the column.
+     */
+    public void readFixed(int row, Decoder decoder, int size) throws IOException {
+      decoder.readFixed(data, reserve(row, size), size);
+    }
+
+    /**
+     * @return offset in the data of the value of the given row, with room for the given number of bytes
+     */
+    private int reserve(int row, int length) {
+      int offset = offsets[row];
+      int end = offset + length;
+      if (end > data.length) {
+        data = Arrays.copyOf(data, Math.max(end, data.length * 2));
+      }
+      offsets[row + 1] = end;
+      return offset;
+    }
+
+    @Override
+    void grow(int capacity) {
+      super.grow(capacity);
+      offsets = Arrays.copyOf(offsets, capacity + 1);
+    }
+  }
+}
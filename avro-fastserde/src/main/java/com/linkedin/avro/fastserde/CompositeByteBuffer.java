@@ -1,15 +1,38 @@
 package com.linkedin.avro.fastserde;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.BlockingBinaryEncoder;
+import org.apache.avro.io.Encoder;
 
 
 public class CompositeByteBuffer {
+  /**
+   * Blocking encoders count array items as they are started, so they can't take several items in a single
+   * {@link Encoder#writeFixed(byte[], int, int)} call, neither can non-binary encoders.
+   */
+  private static final ClassValue<Boolean> RAW_ITEMS_ENCODERS = new ClassValue<Boolean>() {
+    @Override
+    protected Boolean computeValue(Class<?> type) {
+      return BinaryEncoder.class.isAssignableFrom(type) && !BlockingBinaryEncoder.class.isAssignableFrom(type);
+    }
+  };
+
   private int byteBufferCount;
   private List<ByteBuffer> byteBuffers;
+  // prefix-offset index: offset of the first byte of each byteBuffer within the composite buffer, followed by its size
+  private int[] byteBufferOffsets = new int[2];
+  // size of all the byteBuffers but the last one when they are all equal (e.g. written by a blocking encoder), so the
+  // byteBuffer holding an element is found with a division rather than a binary search, -1 otherwise
+  private int uniformByteBufferSize;
 
   public CompositeByteBuffer(boolean createEmpty) {
     byteBuffers = createEmpty ? Collections.emptyList() : new ArrayList<>(1);
@@ -22,14 +45,25 @@ public class CompositeByteBuffer {
     if (byteBuffers.size() > index && byteBuffers.get(index).capacity() >= size) {
       byteBuffer = byteBuffers.get(index);
       byteBuffer.clear();
+      // the reused buffer may be larger than needed, its limit marks the end of the elements
+      byteBuffer.limit(size);
     } else {
       byteBuffer = ByteBuffer.allocate((int)size).order(ByteOrder.LITTLE_ENDIAN);
     }
     if (index < byteBuffers.size()) {
       byteBuffers.set(index, byteBuffer);
     } else {
+      if (byteBuffers.isEmpty()) {
+        // the list may be the immutable empty one, from a list which wasn't created by reading
+        byteBuffers = new ArrayList<>(1);
+      }
       byteBuffers.add(byteBuffer);
     }
+
+    if (index + 1 >= byteBufferOffsets.length) {
+      byteBufferOffsets = Arrays.copyOf(byteBufferOffsets, Math.max(index + 2, byteBufferOffsets.length * 2));
+    }
+    byteBufferOffsets[index + 1] = byteBufferOffsets[index] + size;
     return byteBuffer;
   }
 
@@ -41,33 +75,99 @@ public class CompositeByteBuffer {
 
   public void setByteBufferCount(int count) {
     byteBufferCount = count;
+    uniformByteBufferSize = count > 0 ? byteBufferOffsets[1] : -1;
+    for (int i = 1; i < count - 1; i++) {
+      if (byteBufferOffsets[i + 1] - byteBufferOffsets[i] != uniformByteBufferSize) {
+        uniformByteBufferSize = -1;
+        break;
+      }
+    }
   }
 
   public float getElement(int i) {
-    int index = i * 4;
+    int index = i * Float.BYTES;
     // most common case:
     if (byteBufferCount == 1) {
       return byteBuffers.get(0).getFloat(index);
     }
 
-    int k = 0, size = 0;
-    // find which byteBuffer holds the i-th item
-    while (index >= size) {
-      size += byteBuffers.get(k++).limit();
+    int k = byteBufferIndex(index);
+    return byteBuffers.get(k).getFloat(index - byteBufferOffsets[k]);
+  }
+
+  public double getDoubleElement(int i) {
+    int index = i * Double.BYTES;
+    // most common case:
+    if (byteBufferCount == 1) {
+      return byteBuffers.get(0).getDouble(index);
     }
-    k--;
-    // find the index on the byte buffer
-    int j = i - (size - byteBuffers.get(k).limit());
-    return byteBuffers.get(k).getFloat(j);
+
+    int k = byteBufferIndex(index);
+    return byteBuffers.get(k).getDouble(index - byteBufferOffsets[k]);
   }
 
+  /**
+   * @return index of the byteBuffer holding the given byte of the composite buffer
+   */
+  private int byteBufferIndex(int index) {
+    if (uniformByteBufferSize > 0) {
+      // the last byteBuffer may be of any size
+      return Math.min(index / uniformByteBufferSize, byteBufferCount - 1);
+    }
+    // find the last byteBuffer starting at or before the index
+    int low = 0;
+    int high = byteBufferCount - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (byteBufferOffsets[mid] <= index) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Decodes all the elements into the given array, one bulk copy per byteBuffer.
+   */
   public void setArray(float[] array) {
     int k = 0;
+    for (int i = 0; i < byteBufferCount; i++) {
+      FloatBuffer floatBuffer = byteBuffers.get(i).asFloatBuffer();
+      int length = floatBuffer.remaining();
+      floatBuffer.get(array, k, length);
+      k += length;
+    }
+  }
+
+  /**
+   * Decodes all the elements into the given array, one bulk copy per byteBuffer.
+   */
+  public void setArray(double[] array) {
+    int k = 0;
+    for (int i = 0; i < byteBufferCount; i++) {
+      DoubleBuffer doubleBuffer = byteBuffers.get(i).asDoubleBuffer();
+      int length = doubleBuffer.remaining();
+      doubleBuffer.get(array, k, length);
+      k += length;
+    }
+  }
+
+  /**
+   * @return true if array items can be written to the given encoder as raw bytes, without starting each item
+   */
+  static boolean acceptsRawItems(Encoder encoder) {
+    return RAW_ITEMS_ENCODERS.get(encoder.getClass());
+  }
+
+  /**
+   * Writes the bytes of all the byteBuffers, as they were read, to the given encoder.
+   */
+  public void writeTo(Encoder encoder) throws IOException {
     for (int i = 0; i < byteBufferCount; i++) {
       ByteBuffer byteBuffer = byteBuffers.get(i);
-      for (int j = 0; j < byteBuffer.limit(); j += Float.BYTES) {
-        array[k++] = byteBuffer.getFloat(j);
-      }
+      encoder.writeFixed(byteBuffer.array(), byteBuffer.arrayOffset(), byteBuffer.limit());
     }
   }
 }
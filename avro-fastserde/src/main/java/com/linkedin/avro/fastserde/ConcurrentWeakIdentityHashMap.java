@@ -0,0 +1,288 @@
+package com.linkedin.avro.fastserde;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+
+/**
+ * Thread-safe counterpart of {@link WeakIdentityHashMap}: keys are compared by reference (==) and held weakly, so
+ * entries disappear once their keys are garbage collected.
+ *
+ * The map is split into lock-striped segments. Updates lock a single segment, while lookups take no lock and don't
+ * allocate: a lookup hashes the key with {@link System#identityHashCode(Object)} and walks an immutable chain of
+ * entries, comparing referents directly. Entries of collected keys are purged on the next update of their segment.
+ *
+ * Like {@link WeakIdentityHashMap}, this class is meant for caches keyed by object identity, it doesn't implement
+ * {@link java.util.Map} and doesn't accept null keys or values. Values must not reference their keys strongly,
+ * otherwise the keys are never collected.
+ */
+public class ConcurrentWeakIdentityHashMap<K, V> {
+  private static final int DEFAULT_SEGMENT_COUNT = 16;
+  private static final int INITIAL_SEGMENT_CAPACITY = 16;
+
+  private final Segment<K, V>[] segments;
+  private final int segmentShift;
+
+  public ConcurrentWeakIdentityHashMap() {
+    this(DEFAULT_SEGMENT_COUNT);
+  }
+
+  /**
+   * @param concurrencyLevel expected number of concurrently updating threads, rounded up to a power of two
+   */
+  @SuppressWarnings("unchecked")
+  public ConcurrentWeakIdentityHashMap(int concurrencyLevel) {
+    if (concurrencyLevel <= 0) {
+      throw new IllegalArgumentException("concurrencyLevel must be positive, got: " + concurrencyLevel);
+    }
+    int segmentBits = 32 - Integer.numberOfLeadingZeros(Math.min(concurrencyLevel, 1 << 16) - 1);
+    this.segments = new Segment[1 << segmentBits];
+    // segments are selected by the top bits of the hash, buckets within a segment by the bottom ones
+    this.segmentShift = 32 - segmentBits;
+    for (int i = 0; i < segments.length; i++) {
+      segments[i] = new Segment<>();
+    }
+  }
+
+  /**
+   * @return value mapped to the given key, or null if there is none
+   */
+  public V get(Object key) {
+    int hash = hash(key);
+    return segmentFor(hash).get(key, hash);
+  }
+
+  /**
+   * @return previous value mapped to the given key, or null if there was none
+   */
+  public V put(K key, V value) {
+    checkValue(value);
+    int hash = hash(key);
+    return segmentFor(hash).put(key, hash, value, false);
+  }
+
+  /**
+   * @return current value mapped to the given key, or null if the given value got mapped
+   */
+  public V putIfAbsent(K key, V value) {
+    checkValue(value);
+    int hash = hash(key);
+    return segmentFor(hash).put(key, hash, value, true);
+  }
+
+  /**
+   * Returns the value mapped to the given key, computing and mapping it first if there is none. The mapping function
+   * is run at most once per key, while holding the lock of the key's segment, so it must be short and must not update
+   * this map.
+   */
+  public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+    int hash = hash(key);
+    Segment<K, V> segment = segmentFor(hash);
+    V value = segment.get(key, hash);
+    return value != null ? value : segment.computeIfAbsent(key, hash, mappingFunction);
+  }
+
+  /**
+   * @return removed value, or null if the given key wasn't mapped
+   */
+  public V remove(Object key) {
+    int hash = hash(key);
+    return segmentFor(hash).remove(key, hash);
+  }
+
+  /**
+   * @return number of mapped keys, entries of collected keys are purged first
+   */
+  public int size() {
+    int size = 0;
+    for (Segment<K, V> segment : segments) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  public void clear() {
+    for (Segment<K, V> segment : segments) {
+      segment.clear();
+    }
+  }
+
+  private Segment<K, V> segmentFor(int hash) {
+    return segments[segments.length == 1 ? 0 : hash >>> segmentShift];
+  }
+
+  private static int hash(Object key) {
+    if (key == null) {
+      throw new NullPointerException("Null keys are not supported");
+    }
+    // identity hash codes don't have to use all the bits, spread them so both ends of the hash are usable
+    int h = System.identityHashCode(key) * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  private static void checkValue(Object value) {
+    if (value == null) {
+      throw new NullPointerException("Null values are not supported");
+    }
+  }
+
+  private static final class Entry<K, V> extends WeakReference<K> {
+    private final int hash;
+    private final Entry<K, V> next;
+    private volatile V value;
+
+    private Entry(K key, int hash, V value, Entry<K, V> next, ReferenceQueue<K> queue) {
+      super(key, queue);
+      this.hash = hash;
+      this.value = value;
+      this.next = next;
+    }
+  }
+
+  /**
+   * Chained hash table, whose chains are never modified once published: new entries are put at the head of a chain
+   * and removal copies the entries preceding the removed one, so lock-free readers always see a consistent chain.
+   */
+  private static final class Segment<K, V> {
+    private final ReferenceQueue<K> queue = new ReferenceQueue<>();
+    private volatile AtomicReferenceArray<Entry<K, V>> table = new AtomicReferenceArray<>(INITIAL_SEGMENT_CAPACITY);
+    // guarded by this
+    private int count;
+
+    V get(Object key, int hash) {
+      AtomicReferenceArray<Entry<K, V>> tab = table;
+      for (Entry<K, V> e = tab.get(hash & (tab.length() - 1)); e != null; e = e.next) {
+        if (e.hash == hash && e.get() == key) {
+          return e.value;
+        }
+      }
+      return null;
+    }
+
+    synchronized V put(K key, int hash, V value, boolean onlyIfAbsent) {
+      reap();
+      Entry<K, V> existing = find(key, hash);
+      if (existing != null) {
+        V previousValue = existing.value;
+        if (!onlyIfAbsent) {
+          existing.value = value;
+        }
+        return previousValue;
+      }
+      insert(key, hash, value);
+      return null;
+    }
+
+    synchronized V computeIfAbsent(K key, int hash, Function<? super K, ? extends V> mappingFunction) {
+      reap();
+      Entry<K, V> existing = find(key, hash);
+      if (existing != null) {
+        return existing.value;
+      }
+      V value = mappingFunction.apply(key);
+      if (value != null) {
+        insert(key, hash, value);
+      }
+      return value;
+    }
+
+    synchronized V remove(Object key, int hash) {
+      reap();
+      Entry<K, V> existing = find(key, hash);
+      if (existing == null) {
+        return null;
+      }
+      unlink(existing);
+      return existing.value;
+    }
+
+    synchronized int size() {
+      reap();
+      return count;
+    }
+
+    synchronized void clear() {
+      // drain the queue, so entries of the discarded table are not looked up later on
+      while (queue.poll() != null) {
+      }
+      table = new AtomicReferenceArray<>(INITIAL_SEGMENT_CAPACITY);
+      count = 0;
+    }
+
+    private Entry<K, V> find(Object key, int hash) {
+      AtomicReferenceArray<Entry<K, V>> tab = table;
+      for (Entry<K, V> e = tab.get(hash & (tab.length() - 1)); e != null; e = e.next) {
+        if (e.hash == hash && e.get() == key) {
+          return e;
+        }
+      }
+      return null;
+    }
+
+    private void insert(K key, int hash, V value) {
+      if (count + 1 > table.length() * 3 / 4) {
+        resize();
+      }
+      AtomicReferenceArray<Entry<K, V>> tab = table;
+      int index = hash & (tab.length() - 1);
+      tab.set(index, new Entry<>(key, hash, value, tab.get(index), queue));
+      count++;
+    }
+
+    /**
+     * Removes the given entry, if it's still part of the table. Entries of collected keys met on the way are dropped.
+     */
+    private void unlink(Entry<K, V> target) {
+      AtomicReferenceArray<Entry<K, V>> tab = table;
+      int index = target.hash & (tab.length() - 1);
+      Entry<K, V> head = tab.get(index);
+      Entry<K, V> e = head;
+      while (e != null && e != target) {
+        e = e.next;
+      }
+      if (e == null) {
+        // already gone, e.g. the entry was replaced by a copy when its chain got rebuilt
+        return;
+      }
+      Entry<K, V> newHead = target.next;
+      count--;
+      for (e = head; e != target; e = e.next) {
+        K key = e.get();
+        if (key == null) {
+          count--;
+        } else {
+          newHead = new Entry<>(key, e.hash, e.value, newHead, queue);
+        }
+      }
+      tab.set(index, newHead);
+    }
+
+    private void resize() {
+      AtomicReferenceArray<Entry<K, V>> oldTable = table;
+      AtomicReferenceArray<Entry<K, V>> newTable = new AtomicReferenceArray<>(oldTable.length() << 1);
+      int newCount = 0;
+      for (int i = 0; i < oldTable.length(); i++) {
+        for (Entry<K, V> e = oldTable.get(i); e != null; e = e.next) {
+          K key = e.get();
+          if (key != null) {
+            int index = e.hash & (newTable.length() - 1);
+            newTable.set(index, new Entry<>(key, e.hash, e.value, newTable.get(index), queue));
+            newCount++;
+          }
+        }
+      }
+      table = newTable;
+      count = newCount;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void reap() {
+      Object ref;
+      while ((ref = queue.poll()) != null) {
+        unlink((Entry<K, V>) ref);
+      }
+    }
+  }
+}
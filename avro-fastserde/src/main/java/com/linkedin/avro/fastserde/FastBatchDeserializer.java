@@ -0,0 +1,53 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import java.io.IOException;
+import org.apache.avro.io.BinaryDecoder;
+
+
+/**
+ * A {@link FastDeserializer} which can also deserialize a batch of records, e.g. the values of a Kafka consumer batch,
+ * with a single call.
+ *
+ * Generated deserializers override {@link #deserializeBatch(Object[], byte[][], int[], int[], int)} with their own copy
+ * of the loop: the call to {@link #deserialize(Object, org.apache.avro.io.Decoder)} in this default implementation is
+ * shared by every deserializer class, so the JIT can't inline it once more than a couple of classes are in use.
+ *
+ * @param <T> type of the deserialized records
+ */
+public interface FastBatchDeserializer<T> extends FastDeserializer<T> {
+
+  /**
+   * Deserializes the first {@code count} records of the batch, the i-th one being encoded in
+   * {@code buffers[i][offsets[i]]} to {@code buffers[i][offsets[i] + lengths[i] - 1]}, into {@code results[i]}. The
+   * records already in {@code results} are reused, along with their nested objects, and a single decoder is used for
+   * the whole batch.
+   *
+   * @param results array receiving the deserialized records, holding the records to reuse (or null) on input
+   * @param buffers arrays holding the encoded records, several records may be encoded in the same array
+   * @param offsets index of the first byte of each record in its array
+   * @param lengths number of bytes of each record
+   * @param count number of records to deserialize
+   * @throws IOException on io errors
+   */
+  default void deserializeBatch(T[] results, byte[][] buffers, int[] offsets, int[] lengths, int count)
+      throws IOException {
+    BinaryDecoder decoder = null;
+    for (int i = 0; i < count; i++) {
+      decoder = AvroCompatibilityHelper.newBinaryDecoder(buffers[i], offsets[i], lengths[i], decoder);
+      results[i] = deserialize(results[i], decoder);
+    }
+  }
+
+  /**
+   * @param deserializer any deserializer, e.g. one returned by {@link FastSerdeCache}
+   * @param <T> type of the deserialized records
+   * @return the given deserializer if it supports batches, otherwise a view of it running the default batch loop
+   */
+  static <T> FastBatchDeserializer<T> of(FastDeserializer<T> deserializer) {
+    if (deserializer instanceof FastBatchDeserializer) {
+      return (FastBatchDeserializer<T>) deserializer;
+    }
+    return deserializer::deserialize;
+  }
+}
@@ -0,0 +1,322 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JClassAlreadyExistsException;
+import com.sun.codemodel.JConditional;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JInvocation;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
+import com.sun.codemodel.JVar;
+import java.io.File;
+import java.io.IOException;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.io.Decoder;
+
+
+/**
+ * Generates deserializers appending each record as a row of a {@link ColumnarBatch}, see
+ * {@link FastSerdeCache#buildFastColumnarDeserializer(Schema, Schema)}.
+ *
+ * The values are read from the decoder straight into the columns, so no object is allocated per record. The reader
+ * schema must be a flat record, whose fields can all be stored in a column (see
+ * {@link SchemaAssistant#columnClassFromSchema(Schema)}). Writer fields missing from the reader schema are skipped,
+ * whatever their type, and reader fields missing from the writer schema get their default value, which must be null or
+ * a boolean, number or enum symbol.
+ */
+public final class FastColumnarDeserializerGenerator extends FastDeserializerGeneratorBase<ColumnarBatch> {
+  private static final String DECODER = "decoder";
+  private static final String BATCH = "batch";
+  private static final String ROW = "row";
+
+  FastColumnarDeserializerGenerator(Schema writer, Schema reader, File destination, ClassLoader classLoader,
+      String compileClassPath) {
+    super(true, writer, reader, destination, classLoader, compileClassPath);
+  }
+
+  @Override
+  public FastDeserializer<ColumnarBatch> generateDeserializer() {
+    String className = getClassName(writer, reader, "Columnar");
+
+    try {
+      Class<FastDeserializer<ColumnarBatch>> existingClass = loadExistingClass(className);
+      if (existingClass != null) {
+        return existingClass.getConstructor(Schema.class).newInstance(reader);
+      }
+
+      defineDeserializerClass(className);
+      Class<FastDeserializer<ColumnarBatch>> clazz =
+          compileClass(className, schemaAssistant.getUsedFullyQualifiedClassNameSet());
+      return clazz.getConstructor(Schema.class).newInstance(reader);
+    } catch (JClassAlreadyExistsException e) {
+      throw new FastDeserializerGeneratorException("Class: " + className + " already exists");
+    } catch (FastDeserializerGeneratorException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new FastDeserializerGeneratorException(e);
+    }
+  }
+
+  private void defineDeserializerClass(String className) throws JClassAlreadyExistsException {
+    if (!Schema.Type.RECORD.equals(writer.getType()) || !Schema.Type.RECORD.equals(reader.getType())) {
+      throw new FastDeserializerGeneratorException(
+          "Columnar deserialization requires record schemas, got: " + writer.getType() + " and " + reader.getType());
+    }
+    Schema aliasedWriterSchema = Utils.isAvro14() ? writer : Schema.applyAliases(writer, reader);
+
+    generatedClass = codeModel._package(generatedPackageName)._class(className);
+    generatedClass._implements(codeModel.ref(FastDeserializer.class).narrow(ColumnarBatch.class));
+    JVar readerSchemaVar = generatedClass.field(JMod.PRIVATE | JMod.FINAL, Schema.class, "readerSchema");
+    JMethod constructor = generatedClass.constructor(JMod.PUBLIC);
+    JVar constructorParam = constructor.param(Schema.class, "readerSchema");
+    constructor.body().assign(JExpr.refthis(readerSchemaVar.name()), constructorParam);
+
+    JClass batchClass = codeModel.ref(ColumnarBatch.class);
+    JMethod deserializeMethod = generatedClass.method(JMod.PUBLIC, batchClass, "deserialize");
+    deserializeMethod._throws(IOException.class);
+    JVar reuse = deserializeMethod.param(batchClass, "reuse");
+    JVar decoder = deserializeMethod.param(Decoder.class, DECODER);
+    JBlock body = deserializeMethod.body();
+    JVar batch = body.decl(batchClass, BATCH, JOp.cond(reuse.ne(JExpr._null()), reuse,
+        JExpr._new(batchClass).arg(readerSchemaVar)));
+    JVar row = body.decl(codeModel.INT, ROW, batch.invoke("addRow"));
+
+    // the columns are filled in the order of the writer fields, split in methods which stay under the huge method
+    // limit of the JIT
+    JBlock columnsBody = null;
+    int columnsMethodSize = 0;
+    for (Schema.Field writerField : aliasedWriterSchema.getFields()) {
+      Schema.Field readerField = reader.getField(writerField.name());
+      JBlock fieldBody = new JBlock(false, false);
+      if (readerField == null) {
+        skipValue(writerField, fieldBody);
+      } else {
+        processColumn(writerField, readerField, fieldBody);
+      }
+
+      int fieldSize = MethodSizeEstimator.estimate(fieldBody);
+      if (columnsBody == null || columnsMethodSize + fieldSize > getMethodSizeBudget()) {
+        columnsBody = defineColumnsMethod(body, batch, row, decoder);
+        columnsMethodSize = 0;
+      }
+      columnsBody.add(fieldBody);
+      columnsMethodSize += fieldSize;
+    }
+
+    for (Schema.Field readerField : reader.getFields()) {
+      if (aliasedWriterSchema.getField(readerField.name()) == null) {
+        processDefaultValue(readerField, body);
+      }
+    }
+    body._return(batch);
+  }
+
+  private JBlock defineColumnsMethod(JBlock deserializeBody, JVar batch, JVar row, JVar decoder) {
+    JMethod columnsMethod = generatedClass.method(JMod.PRIVATE, codeModel.VOID, getUniqueName("deserializeColumns"));
+    columnsMethod._throws(IOException.class);
+    columnsMethod.param(ColumnarBatch.class, BATCH);
+    columnsMethod.param(codeModel.INT, ROW);
+    columnsMethod.param(Decoder.class, DECODER);
+    deserializeBody.invoke(columnsMethod).arg(batch).arg(row).arg(decoder);
+    return columnsMethod.body();
+  }
+
+  private JVar declareColumn(Schema.Field readerField, JBlock body) {
+    Class<? extends ColumnarBatch.Column> columnClass;
+    try {
+      columnClass = SchemaAssistant.columnClassFromSchema(readerField.schema());
+    } catch (SchemaAssistantException e) {
+      throw new FastDeserializerGeneratorException("Field " + readerField.name() + " can't be stored in a column", e);
+    }
+    JClass columnType = codeModel.ref(columnClass);
+    return body.decl(columnType, getUniqueName(readerField.name() + "Column"),
+        JExpr.cast(columnType, JExpr.direct(BATCH).invoke("getColumn").arg(JExpr.lit(readerField.pos()))));
+  }
+
+  private void processColumn(Schema.Field writerField, Schema.Field readerField, JBlock body) {
+    JVar column = declareColumn(readerField, body);
+    Schema readerColumnSchema = SchemaAssistant.getColumnSchema(readerField.schema());
+    Schema writerSchema = writerField.schema();
+
+    if (!Schema.Type.UNION.equals(writerSchema.getType())) {
+      readValue(writerField.name(), writerSchema, readerColumnSchema, column, body);
+      return;
+    }
+    Schema writerColumnSchema;
+    try {
+      writerColumnSchema = SchemaAssistant.getColumnSchema(writerSchema);
+    } catch (SchemaAssistantException e) {
+      throw new FastDeserializerGeneratorException("Field " + writerField.name() + " can't be read into a column", e);
+    }
+    if (!Schema.Type.UNION.equals(readerField.schema().getType())) {
+      throw new FastDeserializerGeneratorException("Field " + writerField.name() + " is nullable in the writer schema "
+          + "but not in the reader schema");
+    }
+    int writerNullIndex = Schema.Type.NULL.equals(writerSchema.getTypes().get(0).getType()) ? 0 : 1;
+    JConditional ifNull =
+        body._if(JExpr.direct(DECODER).invoke("readIndex").eq(JExpr.lit(writerNullIndex)));
+    ifNull._then().add(JExpr.direct(DECODER).invoke("readNull"));
+    ifNull._then().add(column.invoke("setNull").arg(JExpr.direct(ROW)));
+    readValue(writerField.name(), writerColumnSchema, readerColumnSchema, column, ifNull._else());
+  }
+
+  private void readValue(String name, Schema writerSchema, Schema readerSchema, JVar column, JBlock body) {
+    if (!isPromotable(writerSchema, readerSchema)) {
+      throw new FastDeserializerGeneratorException("Field " + name + " of type " + writerSchema + " can't be read "
+          + "into a column of type " + readerSchema);
+    }
+    JExpression decoder = JExpr.direct(DECODER);
+    JExpression row = JExpr.direct(ROW);
+    JExpression value;
+    switch (writerSchema.getType()) {
+      case BOOLEAN:
+        value = decoder.invoke("readBoolean");
+        break;
+      case INT:
+        value = decoder.invoke("readInt");
+        break;
+      case LONG:
+        value = decoder.invoke("readLong");
+        break;
+      case FLOAT:
+        value = decoder.invoke("readFloat");
+        break;
+      case DOUBLE:
+        value = decoder.invoke("readDouble");
+        break;
+      case ENUM:
+        value = decoder.invoke("readEnum");
+        break;
+      case STRING:
+        body.add(column.invoke("readString").arg(row).arg(decoder));
+        return;
+      case BYTES:
+        body.add(column.invoke("readBytes").arg(row).arg(decoder));
+        return;
+      case FIXED:
+        body.add(column.invoke("readFixed").arg(row).arg(decoder).arg(JExpr.lit(writerSchema.getFixedSize())));
+        return;
+      default:
+        throw new FastDeserializerGeneratorException("Field " + name + " can't be read into a column");
+    }
+    // numbers are widened by the overload of the column
+    body.add(column.invoke("set").arg(row).arg(value));
+  }
+
+  /**
+   * @return whether values of the writer schema can be read into a column of the reader schema, following the
+   *         promotions of the avro specification
+   */
+  private static boolean isPromotable(Schema writerSchema, Schema readerSchema) {
+    Schema.Type writerType = writerSchema.getType();
+    Schema.Type readerType = readerSchema.getType();
+    switch (writerType) {
+      case INT:
+        return readerType == Schema.Type.INT || readerType == Schema.Type.LONG || readerType == Schema.Type.FLOAT
+            || readerType == Schema.Type.DOUBLE;
+      case LONG:
+        return readerType == Schema.Type.LONG || readerType == Schema.Type.FLOAT || readerType == Schema.Type.DOUBLE;
+      case FLOAT:
+        return readerType == Schema.Type.FLOAT || readerType == Schema.Type.DOUBLE;
+      case STRING:
+      case BYTES:
+        return readerType == Schema.Type.STRING || readerType == Schema.Type.BYTES;
+      case ENUM:
+        // ordinals are stored as read, so the symbols must be the same
+        return readerType == Schema.Type.ENUM && writerSchema.getEnumSymbols().equals(readerSchema.getEnumSymbols());
+      case FIXED:
+        return readerType == Schema.Type.FIXED && writerSchema.getFixedSize() == readerSchema.getFixedSize();
+      default:
+        return writerType == readerType;
+    }
+  }
+
+  private void skipValue(Schema.Field writerField, JBlock body) {
+    Schema schema = writerField.schema();
+    JExpression decoder = JExpr.direct(DECODER);
+    switch (schema.getType()) {
+      case NULL:
+        body.add(decoder.invoke("readNull"));
+        break;
+      case BOOLEAN:
+        body.add(decoder.invoke("readBoolean"));
+        break;
+      case INT:
+        body.add(decoder.invoke("readInt"));
+        break;
+      case LONG:
+        body.add(decoder.invoke("readLong"));
+        break;
+      case FLOAT:
+        body.add(decoder.invoke("readFloat"));
+        break;
+      case DOUBLE:
+        body.add(decoder.invoke("readDouble"));
+        break;
+      case ENUM:
+        body.add(decoder.invoke("readEnum"));
+        break;
+      case STRING:
+        body.add(decoder.invoke("skipString"));
+        break;
+      case BYTES:
+        body.add(decoder.invoke("skipBytes"));
+        break;
+      case FIXED:
+        body.add(decoder.invoke("skipFixed").arg(JExpr.lit(schema.getFixedSize())));
+        break;
+      default:
+        // nested values of skipped fields aren't worth generating code for
+        JInvocation parse = codeModel.ref(AvroCompatibilityHelper.class).staticInvoke("parse");
+        String json = schema.toString();
+        for (int pos = 0; pos < json.length(); pos += FastDeserializerGenerator.MAX_LENGTH_OF_STRING_LITERAL) {
+          parse.arg(json.substring(pos, Math.min(pos + FastDeserializerGenerator.MAX_LENGTH_OF_STRING_LITERAL,
+              json.length())));
+        }
+        JVar skippedSchemaVar = generatedClass.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, Schema.class,
+            getUniqueName(writerField.name() + "SkippedSchema"), parse);
+        body.add(codeModel.ref(GenericDatumReader.class).staticInvoke("skip").arg(skippedSchemaVar).arg(decoder));
+        break;
+    }
+  }
+
+  private void processDefaultValue(Schema.Field readerField, JBlock body) {
+    if (!AvroCompatibilityHelper.fieldHasDefault(readerField)) {
+      throw new FastDeserializerGeneratorException("Field " + readerField.name() + " is missing from the writer "
+          + "schema and has no default value");
+    }
+    Object defaultValue = AvroCompatibilityHelper.getGenericDefaultValue(readerField);
+    Schema readerColumnSchema = SchemaAssistant.getColumnSchema(readerField.schema());
+    JExpression defaultExpression;
+    if (defaultValue == null) {
+      defaultExpression = null;
+    } else if (defaultValue instanceof Boolean) {
+      defaultExpression = JExpr.lit((Boolean) defaultValue);
+    } else if (defaultValue instanceof Integer) {
+      defaultExpression = JExpr.lit((Integer) defaultValue);
+    } else if (defaultValue instanceof Long) {
+      defaultExpression = JExpr.lit((Long) defaultValue);
+    } else if (defaultValue instanceof Float) {
+      defaultExpression = JExpr.lit((Float) defaultValue);
+    } else if (defaultValue instanceof Double) {
+      defaultExpression = JExpr.lit((Double) defaultValue);
+    } else if (Schema.Type.ENUM.equals(readerColumnSchema.getType())) {
+      defaultExpression = JExpr.lit(readerColumnSchema.getEnumOrdinal(defaultValue.toString()));
+    } else {
+      throw new FastDeserializerGeneratorException("Field " + readerField.name() + " is missing from the writer "
+          + "schema and its default value can't be set in a column: " + defaultValue);
+    }
+
+    JVar column = declareColumn(readerField, body);
+    if (defaultExpression == null) {
+      body.add(column.invoke("setNull").arg(JExpr.direct(ROW)));
+    } else {
+      body.add(column.invoke("set").arg(JExpr.direct(ROW)).arg(defaultExpression));
+    }
+  }
+}
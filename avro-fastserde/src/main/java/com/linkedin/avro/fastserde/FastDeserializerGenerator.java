@@ -1,9 +1,11 @@
 package com.linkedin.avro.fastserde;
 
+import com.linkedin.avro.api.PrimitiveDoubleList;
 import com.linkedin.avro.api.PrimitiveFloatList;
 import com.linkedin.avro.fastserde.backport.ResolvingGrammarGenerator;
 import com.linkedin.avro.fastserde.backport.Symbol;
 import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import com.linkedin.avroutil1.compatibility.ByteBufferBinaryDecoder;
 import com.sun.codemodel.JArray;
 import com.sun.codemodel.JBlock;
 import com.sun.codemodel.JCatchBlock;
@@ -20,6 +22,7 @@ import com.sun.codemodel.JMethod;
 import com.sun.codemodel.JMod;
 import com.sun.codemodel.JPackage;
 import com.sun.codemodel.JStatement;
+import com.sun.codemodel.JSwitch;
 import com.sun.codemodel.JTryBlock;
 import com.sun.codemodel.JType;
 import com.sun.codemodel.JVar;
@@ -28,13 +31,13 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -46,6 +49,7 @@ import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericFixed;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.generic.IndexedRecord;
+import org.apache.avro.io.BinaryDecoder;
 import org.apache.avro.io.Decoder;
 import org.apache.avro.util.Utf8;
 import org.apache.commons.lang3.StringUtils;
@@ -57,11 +61,16 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
   private static final Logger LOGGER = LoggerFactory.getLogger(FastDeserializerGenerator.class);
   private static final String DECODER = "decoder";
   private static final String VAR_NAME_FOR_REUSE = "reuse";
-  private static int FIELDS_PER_POPULATION_METHOD = 100;
 
   // 65535 is the actual limit, 65K added for safety
   static int MAX_LENGTH_OF_STRING_LITERAL = 65000;
 
+  // name of the variable holding the value of a field decoded lazily
+  private static final String LAZY_FIELD_VALUE = "fieldValue";
+
+  // mapping of writer enum symbols unknown to the reader schema
+  private static final int UNKNOWN_ENUM_INDEX = -1;
+
   /**
    * This is sometimes passed into the reuse parameter,
    * and Avro treats null as a sentinel value indicating that it should
@@ -76,90 +85,106 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
   private Map<String, JMethod> skipMethodMap = new HashMap<>();
   private Map<JMethod, Set<Class<? extends Exception>>> exceptionFromMethodMap = new HashMap<>();
 
+  /**
+   * Whether the top-level record is deserialized as a {@link LazyRecord} when reading from a {@link ByteBuffer}.
+   */
+  private final boolean lazyRecords;
+
+  /**
+   * Whether maps of {@link Utf8} keys are deserialized as {@link Utf8HashMap}s, see
+   * {@link FastSerdeCacheConfig#withUtf8HashMaps(boolean)}.
+   */
+  private boolean useUtf8HashMaps;
+
   FastDeserializerGenerator(boolean useGenericTypes, Schema writer, Schema reader, File destination,
       ClassLoader classLoader, String compileClassPath) {
-    super(useGenericTypes, writer, reader, destination, classLoader, compileClassPath);
+    this(useGenericTypes, writer, reader, destination, classLoader, compileClassPath, false);
   }
 
-  public FastDeserializer<T> generateDeserializer() {
-    String className = getClassName(writer, reader, useGenericTypes ? "Generic" : "Specific");
-    JPackage classPackage = codeModel._package(generatedPackageName);
+  FastDeserializerGenerator(boolean useGenericTypes, Schema writer, Schema reader, File destination,
+      ClassLoader classLoader, String compileClassPath, boolean lazyRecords) {
+    super(useGenericTypes, writer, reader, destination, classLoader, compileClassPath);
+    this.lazyRecords = lazyRecords;
+  }
 
-    try {
-      generatedClass = classPackage._class(className);
+  /**
+   * @param utf8HashMaps whether the generated deserializer produces {@link Utf8HashMap}s for maps of {@link Utf8} keys
+   */
+  void setUseUtf8HashMaps(boolean utf8HashMaps) {
+    this.useUtf8HashMaps = utf8HashMaps;
+  }
 
-      JVar readerSchemaVar = generatedClass.field(JMod.PRIVATE | JMod.FINAL, Schema.class, "readerSchema");
-      constructor = generatedClass.constructor(JMod.PUBLIC);
-      JVar constructorParam = constructor.param(Schema.class, "readerSchema");
-      constructor.body().assign(JExpr.refthis(readerSchemaVar.name()), constructorParam);
+  private String getDeserializerClassName() {
+    String description = useGenericTypes ? (lazyRecords ? "GenericLazy" : "Generic") : "Specific";
+    // the maps produced are part of the name, so classes generated with either setting aren't mixed up
+    return getClassName(writer, reader, useUtf8HashMaps ? description + "Utf8Maps" : description);
+  }
 
-      Schema aliasedWriterSchema = writer;
-      /**
-       * {@link Schema.applyAliases} is not working correctly in avro-1.4 since there is a bug in this function:
-       * {@literal Schema#getFieldAlias}.
-       **/
-      if (!Utils.isAvro14()) {
-        aliasedWriterSchema = Schema.applyAliases(writer, reader);
-      }
-      Symbol resolvingGrammar = new ResolvingGrammarGenerator().generate(aliasedWriterSchema, reader);
-      FieldAction fieldAction = FieldAction.fromValues(aliasedWriterSchema.getType(), true, resolvingGrammar);
+  public FastDeserializer<T> generateDeserializer() {
+    String className = getDeserializerClassName();
 
-      if (useGenericTypes) {
-        registerSchema(reader, readerSchemaVar);
+    try {
+      Class<FastDeserializer<T>> existingClass = loadExistingClass(className);
+      if (existingClass != null) {
+        return existingClass.getConstructor(Schema.class).newInstance(reader);
       }
 
-      JClass readerSchemaClass = schemaAssistant.classFromSchema(reader);
-      /**
-       * Writer schema could be using a different namespace from the reader schema, so we should always
-       * use the reader schema class for generic type.
-       */
-      generatedClass._implements(codeModel.ref(FastDeserializer.class).narrow(readerSchemaClass));
-      JMethod deserializeMethod = generatedClass.method(JMod.PUBLIC, readerSchemaClass, "deserialize");
+      defineDeserializerClass(className);
+      Class<FastDeserializer<T>> clazz = compileClass(className, schemaAssistant.getUsedFullyQualifiedClassNameSet());
+      return clazz.getConstructor(Schema.class).newInstance(reader);
+    } catch (JClassAlreadyExistsException e) {
+      throw new FastDeserializerGeneratorException("Class: " + className + " already exists");
+    } catch (FastDeserializerGeneratorException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new FastDeserializerGeneratorException(e);
+    }
+  }
 
-      JBlock topLevelDeserializeBlock = new JBlock();
+  @Override
+  CompletableFuture<FastDeserializer<T>> generateDeserializer(FastSerdeBatchCompiler batchCompiler) {
+    if (batchCompiler == null) {
+      return super.generateDeserializer(null);
+    }
+    String className = getDeserializerClassName();
 
-      final Supplier<JExpression> reuseSupplier = () -> JExpr.direct(VAR_NAME_FOR_REUSE);
-      switch (aliasedWriterSchema.getType()) {
-        case RECORD:
-          processRecord(readerSchemaVar, aliasedWriterSchema.getName(), aliasedWriterSchema, reader,
-              topLevelDeserializeBlock, fieldAction, JBlock::_return, reuseSupplier);
-          break;
-        case ARRAY:
-          processArray(readerSchemaVar, "array", aliasedWriterSchema, reader, topLevelDeserializeBlock, fieldAction,
-              JBlock::_return, reuseSupplier);
-          break;
-        case MAP:
-          processMap(readerSchemaVar, "map", aliasedWriterSchema, reader, topLevelDeserializeBlock, fieldAction,
-              JBlock::_return, reuseSupplier);
-          break;
-        case UNION:
-          processUnion(readerSchemaVar, "union", aliasedWriterSchema, reader, topLevelDeserializeBlock, fieldAction,
-                  JBlock::_return, reuseSupplier);
-          break;
-        default:
-          throw new FastDeserializerGeneratorException(
-              "Incorrect top-level writer schema: " + aliasedWriterSchema.getType());
+    try {
+      Class<FastDeserializer<T>> existingClass = loadExistingClass(className);
+      if (existingClass != null) {
+        return CompletableFuture.completedFuture(existingClass.getConstructor(Schema.class).newInstance(reader));
       }
 
-      if (schemaAssistant.getExceptionsFromStringable().isEmpty()) {
-        assignBlockToBody(deserializeMethod, topLevelDeserializeBlock);
-      } else {
-        JTryBlock tryBlock = deserializeMethod.body()._try();
-        assignBlockToBody(tryBlock, topLevelDeserializeBlock);
-
-        for (Class<? extends Exception> classException : schemaAssistant.getExceptionsFromStringable()) {
-          JCatchBlock catchBlock = tryBlock._catch(codeModel.ref(classException));
-          JVar exceptionVar = catchBlock.param("e");
-          catchBlock.body()._throw(JExpr._new(codeModel.ref(AvroRuntimeException.class)).arg(exceptionVar));
-        }
-      }
+      defineDeserializerClass(className);
+      return compileClass(batchCompiler, className, schemaAssistant.getUsedFullyQualifiedClassNameSet())
+          .thenApply(clazz -> {
+            try {
+              return ((Class<FastDeserializer<T>>) clazz).getConstructor(Schema.class).newInstance(reader);
+            } catch (ReflectiveOperationException e) {
+              throw new FastDeserializerGeneratorException(e);
+            }
+          });
+    } catch (JClassAlreadyExistsException e) {
+      throw new FastDeserializerGeneratorException("Class: " + className + " already exists");
+    } catch (FastDeserializerGeneratorException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new FastDeserializerGeneratorException(e);
+    }
+  }
 
-      deserializeMethod._throws(codeModel.ref(IOException.class));
-      deserializeMethod.param(readerSchemaClass, VAR_NAME_FOR_REUSE);
-      deserializeMethod.param(Decoder.class, DECODER);
+  /**
+   * Generates the java source of the deserializer into the destination directory without compiling it, so it can be
+   * compiled ahead of time along with the application and picked up from the classpath at runtime.
+   *
+   * @return fully qualified name of the generated class
+   */
+  public String generateDeserializerSource() {
+    String className = getDeserializerClassName();
 
-      Class<FastDeserializer<T>> clazz = compileClass(className, schemaAssistant.getUsedFullyQualifiedClassNameSet());
-      return clazz.getConstructor(Schema.class).newInstance(reader);
+    try {
+      defineDeserializerClass(className);
+      codeModel.build(destination);
+      return generatedPackageName + "." + className;
     } catch (JClassAlreadyExistsException e) {
       throw new FastDeserializerGeneratorException("Class: " + className + " already exists");
     } catch (FastDeserializerGeneratorException e) {
@@ -169,6 +194,226 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
     }
   }
 
+  private void defineDeserializerClass(String className) throws JClassAlreadyExistsException, IOException {
+    JPackage classPackage = codeModel._package(generatedPackageName);
+    generatedClass = classPackage._class(className);
+
+    JVar readerSchemaVar = generatedClass.field(JMod.PRIVATE | JMod.FINAL, Schema.class, "readerSchema");
+    constructor = generatedClass.constructor(JMod.PUBLIC);
+    JVar constructorParam = constructor.param(Schema.class, "readerSchema");
+    constructor.body().assign(JExpr.refthis(readerSchemaVar.name()), constructorParam);
+
+    Schema aliasedWriterSchema = writer;
+    /**
+     * {@link Schema.applyAliases} is not working correctly in avro-1.4 since there is a bug in this function:
+     * {@literal Schema#getFieldAlias}.
+     **/
+    if (!Utils.isAvro14()) {
+      aliasedWriterSchema = Schema.applyAliases(writer, reader);
+    }
+    Symbol resolvingGrammar = new ResolvingGrammarGenerator().generate(aliasedWriterSchema, reader);
+    FieldAction fieldAction = FieldAction.fromValues(aliasedWriterSchema.getType(), true, resolvingGrammar);
+
+    if (useGenericTypes) {
+      registerSchema(reader, readerSchemaVar);
+    }
+
+    JClass readerSchemaClass = schemaAssistant.classFromSchema(reader);
+    /**
+     * Writer schema could be using a different namespace from the reader schema, so we should always
+     * use the reader schema class for generic type.
+     */
+    generatedClass._implements(codeModel.ref(FastBatchDeserializer.class).narrow(readerSchemaClass));
+    JMethod deserializeMethod = generatedClass.method(JMod.PUBLIC, readerSchemaClass, "deserialize");
+
+    JBlock topLevelDeserializeBlock = new JBlock();
+
+    final Supplier<JExpression> reuseSupplier = () -> JExpr.direct(VAR_NAME_FOR_REUSE);
+    switch (aliasedWriterSchema.getType()) {
+      case RECORD:
+        processRecord(readerSchemaVar, aliasedWriterSchema.getName(), aliasedWriterSchema, reader,
+            topLevelDeserializeBlock, fieldAction, JBlock::_return, reuseSupplier);
+        if (lazyRecords) {
+          processLazyRecord(readerSchemaVar, aliasedWriterSchema, fieldAction, topLevelDeserializeBlock);
+        }
+        break;
+      case ARRAY:
+        processArray(readerSchemaVar, "array", aliasedWriterSchema, reader, topLevelDeserializeBlock, fieldAction,
+            JBlock::_return, reuseSupplier);
+        break;
+      case MAP:
+        processMap(readerSchemaVar, "map", aliasedWriterSchema, reader, topLevelDeserializeBlock, fieldAction,
+            JBlock::_return, reuseSupplier);
+        break;
+      case UNION:
+        processUnion(readerSchemaVar, "union", aliasedWriterSchema, reader, topLevelDeserializeBlock, fieldAction,
+                JBlock::_return, reuseSupplier);
+        break;
+      default:
+        processTopLevelSimpleType(readerSchemaVar, aliasedWriterSchema, reader, topLevelDeserializeBlock, fieldAction,
+            reuseSupplier);
+        break;
+    }
+
+    if (schemaAssistant.getExceptionsFromStringable().isEmpty()) {
+      assignBlockToBody(deserializeMethod, topLevelDeserializeBlock);
+    } else {
+      JTryBlock tryBlock = deserializeMethod.body()._try();
+      assignBlockToBody(tryBlock, topLevelDeserializeBlock);
+
+      for (Class<? extends Exception> classException : schemaAssistant.getExceptionsFromStringable()) {
+        JCatchBlock catchBlock = tryBlock._catch(codeModel.ref(classException));
+        JVar exceptionVar = catchBlock.param("e");
+        catchBlock.body()._throw(JExpr._new(codeModel.ref(AvroRuntimeException.class)).arg(exceptionVar));
+      }
+    }
+
+    deserializeMethod._throws(codeModel.ref(IOException.class));
+    deserializeMethod.param(readerSchemaClass, VAR_NAME_FOR_REUSE);
+    deserializeMethod.param(Decoder.class, DECODER);
+
+    defineBatchDeserializeMethod(readerSchemaClass, deserializeMethod);
+  }
+
+  /**
+   * Generates this class' own copy of {@link FastBatchDeserializer#deserializeBatch}, so the per-record call to
+   * deserialize stays monomorphic and gets inlined.
+   */
+  private void defineBatchDeserializeMethod(JClass readerSchemaClass, JMethod deserializeMethod) {
+    JMethod batchMethod = generatedClass.method(JMod.PUBLIC, codeModel.VOID, "deserializeBatch");
+    batchMethod._throws(codeModel.ref(IOException.class));
+    JVar results = batchMethod.param(readerSchemaClass.array(), "results");
+    JVar buffers = batchMethod.param(codeModel.BYTE.array().array(), "buffers");
+    JVar offsets = batchMethod.param(codeModel.INT.array(), "offsets");
+    JVar lengths = batchMethod.param(codeModel.INT.array(), "lengths");
+    JVar count = batchMethod.param(codeModel.INT, "count");
+
+    JVar batchDecoder = batchMethod.body().decl(codeModel.ref(BinaryDecoder.class), "batchDecoder", JExpr._null());
+    JForLoop forLoop = batchMethod.body()._for();
+    JVar index = forLoop.init(codeModel.INT, "i", JExpr.lit(0));
+    forLoop.test(index.lt(count));
+    forLoop.update(index.incr());
+    forLoop.body().assign(batchDecoder, codeModel.ref(AvroCompatibilityHelper.class).staticInvoke("newBinaryDecoder")
+        .arg(buffers.component(index)).arg(offsets.component(index)).arg(lengths.component(index)).arg(batchDecoder));
+    forLoop.body().assign(results.component(index),
+        JExpr.invoke(deserializeMethod).arg(results.component(index)).arg(batchDecoder));
+  }
+
+  /**
+   * Generates the deserialization of the top-level record into a {@link LazyRecord} when the decoder reads from a
+   * {@link ByteBuffer}: the fields are skipped to record their offsets, and decoded on first access by the generated
+   * {@link LazyRecord.FieldDecoder#decodeField(int, Decoder)}. Any other decoder goes through the regular code,
+   * which is already in the given block.
+   */
+  private void processLazyRecord(JVar readerSchemaVar, Schema recordSchema, FieldAction recordAction,
+      JBlock topLevelBlock) {
+    if (!useGenericTypes || Utils.getSchemaFingerprint(recordSchema) != Utils.getSchemaFingerprint(reader)) {
+      throw new FastDeserializerGeneratorException(
+          "Lazy records are only supported for generic records read with their writer schema: "
+              + recordSchema.getFullName());
+    }
+    List<Schema.Field> fields = recordSchema.getFields();
+    JClass lazyRecordClass = codeModel.ref(LazyRecord.class);
+    JClass bufferDecoderClass = codeModel.ref(ByteBufferBinaryDecoder.class);
+
+    // the regular code ends with a return, so the lazy branch goes first
+    topLevelBlock.pos(0);
+    JBlock lazyBlock = topLevelBlock._if(JExpr.direct(DECODER)._instanceof(bufferDecoderClass))._then();
+    JVar lazyRecord = lazyBlock.decl(lazyRecordClass, getUniqueName("lazyRecord"),
+        lazyRecordClass.staticInvoke("reuseOrCreate").arg(JExpr.direct(VAR_NAME_FOR_REUSE)).arg(readerSchemaVar)
+            .arg(JExpr._this()));
+    JVar offsets = lazyBlock.decl(codeModel.INT.array(), getUniqueName("offsets"), lazyRecord.invoke("getOffsets"));
+    JVar bufferDecoder = lazyBlock.decl(bufferDecoderClass, getUniqueName("bufferDecoder"),
+        JExpr.cast(bufferDecoderClass, JExpr.direct(DECODER)));
+    lazyBlock.assign(offsets.component(JExpr.lit(0)), bufferDecoder.invoke("position"));
+
+    // skip pass, split like the population methods of very large records
+    JBlock skipBody = null;
+    int skipMethodSize = 0;
+    for (int i = 0; i < fields.size(); i++) {
+      Schema.Field field = fields.get(i);
+      FieldAction skipAction = FieldAction.fromValues(field.schema().getType(), false, EMPTY_SYMBOL);
+      JBlock fieldBody = new JBlock(false, false);
+      if (SchemaAssistant.isComplexType(field.schema())) {
+        processComplexType(null, field.name(), field.schema(), null, fieldBody, skipAction, null, EMPTY_SUPPLIER);
+      } else {
+        processSimpleType(field.schema(), null, fieldBody, skipAction, null, EMPTY_SUPPLIER);
+      }
+      fieldBody.assign(JExpr.direct("offsets").component(JExpr.lit(i + 1)),
+          JExpr.direct(DECODER).invoke("position"));
+
+      int fieldSize = MethodSizeEstimator.estimate(fieldBody);
+      if (skipBody == null || skipMethodSize + fieldSize > getMethodSizeBudget()) {
+        JMethod skipMethod = generatedClass.method(JMod.PRIVATE, codeModel.VOID, getUniqueName("skipLazily"));
+        skipMethod._throws(IOException.class);
+        skipMethod.param(codeModel.INT.array(), "offsets");
+        skipMethod.param(bufferDecoderClass, DECODER);
+        lazyBlock.invoke(skipMethod).arg(offsets).arg(bufferDecoder);
+        skipBody = skipMethod.body();
+        skipMethodSize = 0;
+      }
+      skipBody.add(fieldBody);
+      skipMethodSize += fieldSize;
+    }
+    lazyBlock.invoke(lazyRecord, "reset").arg(bufferDecoder.invoke("getBuffer"));
+    lazyBlock._return(lazyRecord);
+
+    // field decoding, one switch per chunk of fields, the chunks are picked by comparing the index with their ends
+    generatedClass._implements(LazyRecord.FieldDecoder.class);
+    JMethod decodeFieldMethod = generatedClass.method(JMod.PUBLIC, Object.class, "decodeField");
+    decodeFieldMethod._throws(IOException.class);
+    JVar indexParam = decodeFieldMethod.param(codeModel.INT, "index");
+    decodeFieldMethod.param(Decoder.class, DECODER);
+
+    ListIterator<Symbol> actionIterator = actionIterator(recordAction);
+    JMethod chunkMethod = null;
+    JSwitch fieldSwitch = null;
+    int chunkMethodSize = 0;
+    for (int i = 0; i < fields.size(); i++) {
+      Schema.Field field = fields.get(i);
+      FieldAction action = seekFieldAction(true, field, actionIterator);
+      Schema readerFieldSchema = reader.getField(field.name()).schema();
+      JVar fieldSchemaVar = declareSchemaVar(readerFieldSchema, field.name(),
+          readerSchemaVar.invoke("getField").arg(field.name()).invoke("schema"));
+      // the value is assigned to the variable of whichever chunk the field goes to
+      BiConsumer<JBlock, JExpression> putExpressionInValue =
+          (block, expression) -> block.assign(JExpr.ref(LAZY_FIELD_VALUE), expression);
+      JBlock fieldBody = new JBlock(false, false);
+      if (SchemaAssistant.isComplexType(field.schema())) {
+        processComplexType(fieldSchemaVar, field.name(), field.schema(), readerFieldSchema, fieldBody, action,
+            putExpressionInValue, EMPTY_SUPPLIER);
+      } else {
+        processSimpleType(field.schema(), readerFieldSchema, fieldBody, action, putExpressionInValue, EMPTY_SUPPLIER);
+      }
+
+      int fieldSize = MethodSizeEstimator.estimate(fieldBody);
+      if (chunkMethod == null || chunkMethodSize + fieldSize > getMethodSizeBudget()) {
+        if (chunkMethod != null) {
+          decodeFieldMethod.body()._if(indexParam.lt(JExpr.lit(i)))._then()
+              ._return(JExpr.invoke(chunkMethod).arg(indexParam).arg(JExpr.direct(DECODER)));
+        }
+        chunkMethod = generatedClass.method(JMod.PRIVATE, Object.class, getUniqueName("decodeFields"));
+        chunkMethod._throws(IOException.class);
+        JVar chunkIndexParam = chunkMethod.param(codeModel.INT, "index");
+        chunkMethod.param(Decoder.class, DECODER);
+        JVar fieldValue = chunkMethod.body().decl(codeModel.ref(Object.class), LAZY_FIELD_VALUE, JExpr._null());
+        fieldSwitch = chunkMethod.body()._switch(chunkIndexParam);
+        chunkMethod.body()._return(fieldValue);
+        chunkMethodSize = 0;
+      }
+      JBlock caseBody = fieldSwitch._case(JExpr.lit(i)).body();
+      caseBody.add(fieldBody);
+      caseBody._break();
+      chunkMethodSize += fieldSize;
+    }
+    if (chunkMethod != null) {
+      decodeFieldMethod.body()._if(indexParam.lt(JExpr.lit(fields.size())))._then()
+          ._return(JExpr.invoke(chunkMethod).arg(indexParam).arg(JExpr.direct(DECODER)));
+    }
+    decodeFieldMethod.body()._throw(JExpr._new(codeModel.ref(IndexOutOfBoundsException.class))
+        .arg(JExpr.lit("Field index: ").plus(indexParam)));
+  }
+
   private void processComplexType(JVar fieldSchemaVar, String name, Schema schema, Schema readerFieldSchema,
       JBlock methodBody, FieldAction action, BiConsumer<JBlock, JExpression> putExpressionIntoParent,
       Supplier<JExpression> reuseSupplier) {
@@ -194,6 +439,35 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
     }
   }
 
+  /**
+   * Top-level enums, fixed and primitives are read like the values of record fields. When the reader schema is a
+   * union, the value is read into the branch picked by the resolving grammar.
+   */
+  private void processTopLevelSimpleType(JVar readerSchemaVar, Schema writerSchema, Schema readerSchema, JBlock body,
+      FieldAction action, Supplier<JExpression> reuseSupplier) {
+    Schema effectiveReaderSchema = readerSchema;
+    if (Schema.Type.UNION.equals(readerSchema.getType())) {
+      Symbol.UnionAdjustAction unionAdjustAction = null;
+      for (Symbol symbol : action.getSymbol().production) {
+        if (symbol instanceof Symbol.ErrorAction) {
+          throw new FastDeserializerGeneratorException(((Symbol.ErrorAction) symbol).msg);
+        }
+        if (symbol instanceof Symbol.UnionAdjustAction) {
+          unionAdjustAction = (Symbol.UnionAdjustAction) symbol;
+          break;
+        }
+      }
+      if (unionAdjustAction == null) {
+        throw new FastDeserializerGeneratorException("Symbol.UnionAdjustAction is expected but was not found");
+      }
+      effectiveReaderSchema = readerSchema.getTypes().get(unionAdjustAction.rindex);
+      declareSchemaVar(effectiveReaderSchema, "readerBranchSchema",
+          readerSchemaVar.invoke("getTypes").invoke("get").arg(JExpr.lit(unionAdjustAction.rindex)));
+      action = FieldAction.fromValues(writerSchema.getType(), true, unionAdjustAction.symToParse);
+    }
+    processSimpleType(writerSchema, effectiveReaderSchema, body, action, JBlock::_return, reuseSupplier);
+  }
+
   private void processSimpleType(Schema schema, Schema readerSchema, JBlock methodBody, FieldAction action,
       BiConsumer<JBlock, JExpression> putExpressionIntoParent, Supplier<JExpression> reuseSupplier) {
     switch (schema.getType()) {
@@ -204,9 +478,17 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
         processFixed(schema, methodBody, action, putExpressionIntoParent, reuseSupplier);
         break;
       default:
-        // to preserve reader string specific options use reader field schema
-        if (action.getShouldRead() && readerSchema != null && Schema.Type.STRING.equals(readerSchema.getType())) {
+        Schema.Type readerType = action.getShouldRead() && readerSchema != null ? readerSchema.getType() : null;
+        if (Schema.Type.STRING.equals(readerType) || Schema.Type.BYTES.equals(readerType)) {
+          // to preserve reader string specific options use reader field schema, strings and bytes are encoded alike
+          // so this reads promoted values as well
           processPrimitive(readerSchema, methodBody, action, putExpressionIntoParent, reuseSupplier);
+        } else if (readerType != null && readerType != schema.getType() && isNumericPromotion(readerType)) {
+          // numbers are read as written, then widened to the type of the reader
+          JType promotedType = codeModel._ref(Schema.Type.LONG.equals(readerType) ? long.class
+              : Schema.Type.FLOAT.equals(readerType) ? float.class : double.class);
+          processPrimitive(schema, methodBody, action,
+              (block, value) -> putExpressionIntoParent.accept(block, JExpr.cast(promotedType, value)), reuseSupplier);
         } else {
           processPrimitive(schema, methodBody, action, putExpressionIntoParent, reuseSupplier);
         }
@@ -214,6 +496,15 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
     }
   }
 
+  /**
+   * @return whether writer numbers of another type are promoted to the reader type, the resolving grammar making sure
+   *         the promotion is allowed
+   */
+  private static boolean isNumericPromotion(Schema.Type readerType) {
+    return Schema.Type.LONG.equals(readerType) || Schema.Type.FLOAT.equals(readerType)
+        || Schema.Type.DOUBLE.equals(readerType);
+  }
+
   private void processRecord(JVar recordSchemaVar, String recordName, final Schema recordWriterSchema,
       final Schema recordReaderSchema, JBlock parentBody, FieldAction recordAction,
       BiConsumer<JBlock, JExpression> putRecordIntoParent, Supplier<JExpression> reuseSupplier) {
@@ -332,33 +623,16 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
       result = null;
     }
 
-    int fieldCount = 0;
     JBlock popMethodBody = methodBody;
     JMethod popMethod = null;
+    int popMethodSize = MethodSizeEstimator.estimate(methodBody);
     for (Schema.Field field : recordWriterSchema.getFields()) {
-      // We roll the population method for very large records, the initial fields are kept in the outer method as original to maintain performance for smaller records
-      fieldCount++;
-      if (fieldCount % FIELDS_PER_POPULATION_METHOD == 0) {
-        popMethod = generatedClass.method(JMod.PRIVATE, codeModel.VOID,
-                getUniqueName("populate_" + recordName));
-
-        popMethod._throws(IOException.class);
-        if (recordAction.getShouldRead()) {
-          popMethod.param(recordClass, recordName);
-        }
-        popMethod.param(Decoder.class, DECODER);
-        popMethodBody = popMethod.body();
-
-        JInvocation invocation = methodBody.invoke(popMethod);
-        if (recordAction.getShouldRead()) {
-          invocation.arg(JExpr.direct(recordName));
-        }
-        invocation.arg(JExpr.direct(DECODER));
-      }
       FieldAction action = seekFieldAction(recordAction.getShouldRead(), field, actionIterator);
       if (action.getSymbol() == END_SYMBOL) {
         break;
       }
+      // the code of each field is generated apart, to find out which population method it fits in
+      JBlock fieldBody = new JBlock(false, false);
 
       Schema readerFieldSchema = null;
       JVar fieldSchemaVar = null;
@@ -377,11 +651,36 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
         fieldReuseSupplier = () -> result.invoke("get").arg(JExpr.lit(readerFieldPos));
       }
       if (SchemaAssistant.isComplexType(field.schema())) {
-        processComplexType(fieldSchemaVar, field.name(), field.schema(), readerFieldSchema, popMethodBody, action,
+        processComplexType(fieldSchemaVar, field.name(), field.schema(), readerFieldSchema, fieldBody, action,
             putExpressionInRecord, fieldReuseSupplier);
       } else {
-        processSimpleType(field.schema(), readerFieldSchema, popMethodBody, action, putExpressionInRecord, fieldReuseSupplier);
+        processSimpleType(field.schema(), readerFieldSchema, fieldBody, action, putExpressionInRecord, fieldReuseSupplier);
+      }
+
+      // We roll the population method for very large records, once the code of the fields would grow the current
+      // method past the JIT limit, the initial fields are kept in the outer method to maintain performance for smaller
+      // records
+      int fieldSize = MethodSizeEstimator.estimate(fieldBody);
+      if (popMethodSize + fieldSize > getMethodSizeBudget() && !popMethodBody.isEmpty()) {
+        popMethod = generatedClass.method(JMod.PRIVATE, codeModel.VOID,
+                getUniqueName("populate_" + recordName));
+
+        popMethod._throws(IOException.class);
+        if (recordAction.getShouldRead()) {
+          popMethod.param(recordClass, recordName);
+        }
+        popMethod.param(Decoder.class, DECODER);
+        popMethodBody = popMethod.body();
+        popMethodSize = 0;
+
+        JInvocation invocation = methodBody.invoke(popMethod);
+        if (recordAction.getShouldRead()) {
+          invocation.arg(JExpr.direct(recordName));
+        }
+        invocation.arg(JExpr.direct(DECODER));
       }
+      popMethodBody.add(fieldBody);
+      popMethodSize += fieldSize;
 
       if (popMethod != null) {
         for(Class<? extends Exception> e: schemaAssistant.getExceptionsFromStringable()) {
@@ -591,7 +890,7 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
 
     // Check if unionReaderSchema is really a union, if not then only the compatible writer union type can be deserialized
     final boolean readerSchemaNotAUnion = unionReaderSchema != null && !Schema.Type.UNION.equals(unionReaderSchema.getType());
-    final int compatibleWriterSchema = readerSchemaNotAUnion ? schemaAssistant.compatibleUnionSchemaIndex(unionReaderSchema, unionSchema) : -1;
+    final int compatibleWriterSchema = readerSchemaNotAUnion ? schemaAssistant.findCompatibleUnionSchemaIndex(unionReaderSchema, unionSchema) : -1;
 
     for (int i = 0; i < unionSchema.getTypes().size(); i++) {
       Schema optionSchema = unionSchema.getTypes().get(i);
@@ -612,14 +911,30 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
       }
 
       if (action.getShouldRead()) {
+        Symbol.Alternative alternative = null;
+        if (action.getSymbol() instanceof Symbol.Alternative) {
+          alternative = (Symbol.Alternative) action.getSymbol();
+        } else if (action.getSymbol().production != null) {
+          for (Symbol symbol : action.getSymbol().production) {
+            if (symbol instanceof Symbol.Alternative) {
+              alternative = (Symbol.Alternative) symbol;
+              break;
+            }
+          }
+        }
+
+        if (alternative == null) {
+          throw new FastDeserializerGeneratorException("Unable to determine action for field: " + name);
+        }
+
         // If unionReaderSchema is not a union then only compatible writer union schema type can be processed,
-        // otherwise the readerOptionSchema will be set to null what should result in AvroTypeException as
-        // in vanilla avro.
+        // or a type promoted to it, otherwise the readerOptionSchema will be set to null what should result in
+        // AvroTypeException as in vanilla avro.
         if (readerSchemaNotAUnion) {
-            readerOptionSchema = (i == compatibleWriterSchema) ? unionReaderSchema : null;
+          boolean promoted = alternative.symbols[i] instanceof Symbol.ResolvingAction;
+          readerOptionSchema = (i == compatibleWriterSchema || promoted) ? unionReaderSchema : null;
         } else {
           // The reader's union could be re-ordered, so we need to find the one that matches.
-          // TODO: this code should support primitive type promotions
           for (int j = 0; j < unionReaderSchema.getTypes().size(); j++) {
             Schema potentialReaderSchema = unionReaderSchema.getTypes().get(j);
             // Avro allows unnamed types to appear only once in a union, but named types may appear multiple times and
@@ -633,6 +948,13 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
               break;
             }
           }
+          // Otherwise the value may be promoted to the branch picked by the resolving grammar
+          Symbol[] branchProduction = alternative.symbols[i].production;
+          if (readerOptionSchema == null && branchProduction != null && branchProduction.length > 0
+              && branchProduction[0] instanceof Symbol.UnionAdjustAction) {
+            readerOptionUnionBranchIndex = ((Symbol.UnionAdjustAction) branchProduction[0]).rindex;
+            readerOptionSchema = unionReaderSchema.getTypes().get(readerOptionUnionBranchIndex);
+          }
         }
 
         if (null == readerOptionSchema) {
@@ -644,25 +966,9 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
           continue;
         }
 
-        Symbol.Alternative alternative = null;
-        if (action.getSymbol() instanceof Symbol.Alternative) {
-          alternative = (Symbol.Alternative) action.getSymbol();
-        } else if (action.getSymbol().production != null) {
-          for (Symbol symbol : action.getSymbol().production) {
-            if (symbol instanceof Symbol.Alternative) {
-              alternative = (Symbol.Alternative) symbol;
-              break;
-            }
-          }
-        }
-
-        if (alternative == null) {
-          throw new FastDeserializerGeneratorException("Unable to determine action for field: " + name);
-        }
-
         if (readerSchemaNotAUnion) {
           unionAction =
-                  FieldAction.fromValues(optionSchema.getType(), action.getShouldRead(), alternative.symbols[compatibleWriterSchema]);
+                  FieldAction.fromValues(optionSchema.getType(), action.getShouldRead(), alternative.symbols[i]);
         } else {
           Symbol.UnionAdjustAction unionAdjustAction = (Symbol.UnionAdjustAction) alternative.symbols[i].production[0];
           unionAction =
@@ -754,7 +1060,8 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
 
     final JVar arrayVar = action.getShouldRead() ? declareValueVar(name, effectiveArrayReaderSchema, parentBody, true, false, true) : null;
     /**
-     * Special optimization for float array by leveraging {@link ByteBufferBackedPrimitiveFloatList}.
+     * Special optimization for float and double arrays by leveraging {@link ByteBufferBackedPrimitiveFloatList}
+     * and {@link ByteBufferBackedPrimitiveDoubleList}.
      *
      * TODO: Handle other primitive element types here.
      */
@@ -769,6 +1076,17 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
       putArrayIntoParent.accept(parentBody, arrayVar);
       return;
     }
+    if (action.getShouldRead() && arraySchema.getElementType().getType().equals(Schema.Type.DOUBLE)) {
+      JClass primitiveDoubleList = codeModel.ref(ByteBufferBackedPrimitiveDoubleList.class);
+      JExpression readPrimitiveDoubleArrayInvocation = primitiveDoubleList.staticInvoke("readPrimitiveDoubleArray").
+          arg(reuseSupplier.get()).arg(JExpr.direct(DECODER));
+      JExpression castedResult =
+          JExpr.cast(codeModel.ref(PrimitiveDoubleList.class), readPrimitiveDoubleArrayInvocation);
+
+      parentBody.assign(arrayVar, castedResult);
+      putArrayIntoParent.accept(parentBody, arrayVar);
+      return;
+    }
 
     JVar chunkLen =
         parentBody.decl(codeModel.LONG, getUniqueName("chunkLen"), JExpr.direct(DECODER + ".readArrayStart()"));
@@ -932,18 +1250,47 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
       action = FieldAction.fromValues(mapSchema.getValueType().getType(), false, EMPTY_SYMBOL);
     }
 
-    final JVar mapVar = action.getShouldRead() ? declareValueVar(name, effectiveMapReaderSchema, parentBody) : null;
+    // maps of float, long, double and int values hold them unboxed, see {@link PrimitiveHashMap}
+    final boolean primitiveMap = action.getShouldRead()
+        && SchemaAssistant.isPrimitiveMapValue(effectiveMapReaderSchema.getValueType())
+        && !SchemaAssistant.hasStringableKey(mapSchema);
+    final JVar mapVar = action.getShouldRead()
+        ? declareValueVar(name, effectiveMapReaderSchema, parentBody, true, false, primitiveMap) : null;
+    // maps with keys decoded as Utf8 can be refilled in place, reusing their keys and values
+    final boolean refillUtf8HashMap = action.getShouldRead() && !primitiveMap && useUtf8HashMaps
+        && !SchemaAssistant.hasStringableKey(mapSchema)
+        && !codeModel.ref(String.class).equals(schemaAssistant.findStringClass(effectiveMapReaderSchema));
+    final Supplier<JExpression> finalReuseSupplier =
+        action.getShouldRead() ? potentiallyCacheInvocation(reuseSupplier, parentBody, "oldMap") : null;
     JVar chunkLen =
         parentBody.decl(codeModel.LONG, getUniqueName("chunkLen"), JExpr.direct(DECODER + ".readMapStart()"));
 
     JConditional conditional = parentBody._if(chunkLen.gt(JExpr.lit(0)));
     JBlock ifBlockForChunkLenCheck = conditional._then();
 
-    if (action.getShouldRead()) {
+    JVar refilledMap = null;
+    if (refillUtf8HashMap) {
+      JClass utf8HashMapClass = codeModel.ref(Utf8HashMap.class);
+      refilledMap = ifBlockForChunkLenCheck.decl(utf8HashMapClass, getUniqueName(name + "Refilled"), JExpr._null());
+      JConditional ifReusable = ifBlockForChunkLenCheck._if(finalReuseSupplier.get()._instanceof(utf8HashMapClass));
+      ifReusable._then().assign(refilledMap, JExpr.cast(utf8HashMapClass, finalReuseSupplier.get()));
+      ifReusable._else().assign(refilledMap,
+          JExpr._new(utf8HashMapClass).arg(JExpr.cast(codeModel.INT, chunkLen)));
+      ifBlockForChunkLenCheck.invoke(refilledMap, "startRefill");
+      ifBlockForChunkLenCheck.assign(mapVar, JExpr.cast(codeModel.ref(Map.class), refilledMap));
+    } else if (primitiveMap) {
+      JClass mapClass = schemaAssistant.classFromSchema(effectiveMapReaderSchema, false, false, true);
+      JClass abstractMapClass = schemaAssistant.classFromSchema(effectiveMapReaderSchema, true, false, true);
+      // the reuse may be declared as a map narrowed to other key types, which can't be cast to the primitive map
+      JExpression reuse = JExpr.cast(codeModel.ref(Object.class), finalReuseSupplier.get());
+      ifCodeGen(ifBlockForChunkLenCheck, reuse._instanceof(abstractMapClass), thenBlock -> {
+        thenBlock.assign(mapVar, JExpr.cast(abstractMapClass, reuse));
+        thenBlock.invoke(mapVar, "clear");
+      }, elseBlock -> elseBlock.assign(mapVar, JExpr._new(mapClass).arg(JExpr.cast(codeModel.INT, chunkLen))));
+    } else if (action.getShouldRead()) {
       JVar reuse = declareValueVar(name + "Reuse", effectiveMapReaderSchema, ifBlockForChunkLenCheck);
 
       // Check whether the reuse is a Map or not
-      final Supplier<JExpression> finalReuseSupplier = potentiallyCacheInvocation(reuseSupplier, ifBlockForChunkLenCheck, "oldMap");
       ifCodeGen(ifBlockForChunkLenCheck,
           finalReuseSupplier.get()._instanceof(codeModel.ref(Map.class)),
           thenBlock -> thenBlock.assign(reuse, JExpr.cast(codeModel.ref(Map.class), finalReuseSupplier.get())));
@@ -961,10 +1308,29 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
           elseBlock -> elseBlock.assign(mapVar, JExpr._new(schemaAssistant.classFromSchema(finalEffectiveMapReaderSchema, false))
               .arg(JExpr.cast(codeModel.INT, chunkLen.mul(JExpr.lit(4)).plus(JExpr.lit(2)).div(JExpr.lit(3)))))
       );
+    }
 
+    if (primitiveMap) {
+      // empty maps are read into the reused map as well
+      JClass mapClass = schemaAssistant.classFromSchema(effectiveMapReaderSchema, false, false, true);
+      JClass abstractMapClass = schemaAssistant.classFromSchema(effectiveMapReaderSchema, true, false, true);
+      JExpression reuse = JExpr.cast(codeModel.ref(Object.class), finalReuseSupplier.get());
+      ifCodeGen(conditional._else(), reuse._instanceof(abstractMapClass), thenBlock -> {
+        thenBlock.assign(mapVar, JExpr.cast(abstractMapClass, reuse));
+        thenBlock.invoke(mapVar, "clear");
+      }, elseBlock -> elseBlock.assign(mapVar, JExpr._new(mapClass).arg(JExpr.lit(0))));
+    } else if (action.getShouldRead()) {
+      // empty maps are read into the reused map as well
       JBlock elseBlock = conditional._else();
-      elseBlock.assign(mapVar, JExpr._new(schemaAssistant.classFromSchema(effectiveMapReaderSchema, false))
-          .arg(JExpr.lit(0)));
+      final Schema finalEffectiveMapReaderSchema = effectiveMapReaderSchema;
+      ifCodeGen(elseBlock,
+          finalReuseSupplier.get()._instanceof(codeModel.ref(Map.class)),
+          thenBlock -> {
+            thenBlock.assign(mapVar, JExpr.cast(codeModel.ref(Map.class), finalReuseSupplier.get()));
+            thenBlock.invoke(mapVar, "clear");
+          },
+          elseBlock1 -> elseBlock1.assign(mapVar,
+              JExpr._new(schemaAssistant.classFromSchema(finalEffectiveMapReaderSchema, false)).arg(JExpr.lit(0))));
     }
 
     JDoLoop doLoop = ifBlockForChunkLenCheck._do(chunkLen.gt(JExpr.lit(0)));
@@ -974,17 +1340,28 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
     forLoop.update(counter.incr());
     JBlock forBody = forLoop.body();
 
-    JClass keyClass = schemaAssistant.findStringClass(action.getShouldRead() ? effectiveMapReaderSchema : mapSchema);
-    JExpression keyValueExpression;
-    if (SchemaAssistant.hasStringableKey(mapSchema)) {
-      keyValueExpression = readStringableExpression(keyClass);
+    final JVar key;
+    if (refillUtf8HashMap) {
+      key = forBody.decl(codeModel.INT, getUniqueName("slot"), refilledMap.invoke("refillSlot")
+          .arg(JExpr.invoke(JExpr.direct(DECODER), "readString").arg(refilledMap.invoke("keyBuffer"))));
+    } else if (action.getShouldRead()) {
+      JClass keyClass = schemaAssistant.findStringClass(effectiveMapReaderSchema);
+      JExpression keyValueExpression;
+      if (SchemaAssistant.hasStringableKey(mapSchema)) {
+        keyValueExpression = readStringableExpression(keyClass);
+      } else {
+        keyValueExpression = codeModel.ref(String.class).equals(keyClass) ?
+                JExpr.direct(DECODER + ".readString()")
+                : JExpr.direct(DECODER + ".readString(null)");
+      }
+      key = forBody.decl(keyClass, getUniqueName("key"), keyValueExpression);
     } else {
-      keyValueExpression = codeModel.ref(String.class).equals(keyClass) ?
-              JExpr.direct(DECODER + ".readString()")
-              : JExpr.direct(DECODER + ".readString(null)");
+      /**
+       * Keys of skipped maps don't need to be decoded.
+       */
+      forBody.invoke(JExpr.direct(DECODER), "skipString");
+      key = null;
     }
-
-    JVar key = forBody.decl(keyClass, getUniqueName("key"), keyValueExpression);
     JVar mapValueSchemaVar = null;
     if (action.getShouldRead() && useGenericTypes) {
       mapValueSchemaVar =
@@ -992,21 +1369,35 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
     }
 
     BiConsumer<JBlock, JExpression> putValueInMap = null;
+    Supplier<JExpression> valueReuseSupplier = EMPTY_SUPPLIER;
     Schema readerMapValueSchema = null;
-    if (action.getShouldRead()) {
-      putValueInMap = (block, expression) -> block.invoke(mapVar, "put").arg(key).arg(expression);
+    if (refillUtf8HashMap) {
+      final JVar finalRefilledMap = refilledMap;
+      putValueInMap = (block, expression) -> block.invoke(finalRefilledMap, "setValueAt").arg(key).arg(expression);
+      valueReuseSupplier = () -> finalRefilledMap.invoke("valueAt").arg(key);
+      readerMapValueSchema = effectiveMapReaderSchema.getValueType();
+    } else if (action.getShouldRead()) {
+      String putMethod = primitiveMap ? "putPrimitive" : "put";
+      putValueInMap = (block, expression) -> block.invoke(mapVar, putMethod).arg(key).arg(expression);
       readerMapValueSchema = effectiveMapReaderSchema.getValueType();
     }
 
     if (SchemaAssistant.isComplexType(mapSchema.getValueType())) {
       String valueName = name + "Value";
       processComplexType(mapValueSchemaVar, valueName, mapSchema.getValueType(), readerMapValueSchema, forBody, action,
-          putValueInMap, EMPTY_SUPPLIER);
+          putValueInMap, valueReuseSupplier);
     } else {
-      processSimpleType(mapSchema.getValueType(), readerMapValueSchema, forBody, action, putValueInMap, EMPTY_SUPPLIER);
+      processSimpleType(mapSchema.getValueType(), readerMapValueSchema, forBody, action, putValueInMap,
+          valueReuseSupplier);
     }
     doLoop.body().assign(chunkLen, JExpr.direct(DECODER + ".mapNext()"));
-    if (action.getShouldRead()) {
+    if (refillUtf8HashMap) {
+      ifBlockForChunkLenCheck.invoke(refilledMap, "finishRefill");
+    }
+    if (primitiveMap) {
+      // the primitive maps aren't narrowed to the key type the parent expects
+      putMapIntoParent.accept(parentBody, JExpr.cast(codeModel.ref(Map.class), mapVar));
+    } else if (action.getShouldRead()) {
       putMapIntoParent.accept(parentBody, mapVar);
     }
   }
@@ -1090,59 +1481,44 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
       if (enumOrderCorrect) {
         newEnum = schemaAssistant.getEnumValueByIndex(schema, enumValueExpr, getSchemaExpr(schema));
       } else {
-
-        /**
-         * Define a class variable to keep the mapping between the enum index from the writer schema and the corresponding
-         * one in the reader schema, and there are some cases:
-         * 1. If the enum index doesn't exist in this map, runtime will throw RuntimeException.
-         * 2. If the enum index exists in the map, runtime will throw it if the mapping is an {@link AvroTypeException} because of unknown enum from reader schema.
-         * 3. If there is a corresponding enum in the reader schema, runtime will use this one to lookup the exact Enum Symbol from the reader schema.
-         */
-
-        JVar tempEnumMappingVar = constructor.body().decl(codeModel.ref(HashMap.class),  getUniqueName("tempEnumMapping"),
-            JExpr._new(codeModel.ref(HashMap.class)).arg(JExpr.lit(enumAdjustAction.adjustments.length)));
         /**
-         * Populate the global enum mapping based on the enum adjustment.
+         * Define a class variable mapping the enum index from the writer schema to the corresponding one in the reader
+         * schema, so every enum read is an array lookup:
+         * 1. If the writer index is out of the bounds of the mapping, runtime will throw RuntimeException.
+         * 2. If the mapping is {@link #UNKNOWN_ENUM_INDEX}, the symbol is unknown to the reader schema, which has no
+         *    default symbol either, and runtime will throw {@link AvroTypeException}.
+         * 3. Otherwise runtime will lookup the exact Enum Symbol from the reader schema.
          */
+        JArray enumMappingArray = JExpr.newArray(codeModel.INT);
+        JArray enumErrorsArray = JExpr.newArray(codeModel.ref(String.class));
         for (int i = 0; i < enumAdjustAction.adjustments.length; i++) {
-          JInvocation keyExpr = JExpr._new(codeModel.ref(Integer.class)).arg(JExpr.lit(i));
-          JStatement mapUpdateStatement;
           if (unknownEnumIndexes.contains(i)) {
-            JInvocation avroTypeExceptionExpr = JExpr._new(codeModel.ref(AvroTypeException.class))
-                .arg(JExpr.lit(schema.getFullName() + ": " + enumAdjustAction.adjustments[i].toString()));
-            mapUpdateStatement = tempEnumMappingVar.invoke("put").arg(keyExpr).arg(avroTypeExceptionExpr);
+            enumMappingArray.add(JExpr.lit(UNKNOWN_ENUM_INDEX));
+            enumErrorsArray.add(JExpr.lit(schema.getFullName() + ": " + enumAdjustAction.adjustments[i].toString()));
           } else {
-            JInvocation valueExpr = JExpr._new(codeModel.ref(Integer.class)).arg(JExpr.lit((Integer)enumAdjustAction.adjustments[i]));
-            mapUpdateStatement = tempEnumMappingVar.invoke("put").arg(keyExpr).arg(valueExpr);
+            enumMappingArray.add(JExpr.lit((Integer) enumAdjustAction.adjustments[i]));
+            enumErrorsArray.add(JExpr._null());
           }
-          constructor.body().add(mapUpdateStatement);
         }
-        JVar enumMappingVar = generatedClass.field(JMod.PRIVATE | JMod.FINAL, Map.class, getUniqueName("enumMapping" + schema.getName()));
-        constructor.body().assign(JExpr.refthis(enumMappingVar.name()), codeModel.ref(Collections.class).staticInvoke("unmodifiableMap").arg(tempEnumMappingVar));
+        JVar enumMappingVar = generatedClass.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, int[].class,
+            getUniqueName("enumMapping" + schema.getName()), enumMappingArray);
 
         JVar enumIndex = body.decl(codeModel.INT, getUniqueName("enumIndex"), enumValueExpr);
-        JClass enumClass = schemaAssistant.classFromSchema(schema);
-        newEnum = body.decl(enumClass, getUniqueName("enumValue"), JExpr._null());
-
-        JVar lookupResult = body.decl(codeModel._ref(Object.class), getUniqueName("enumIndexLookupResult"),
-            enumMappingVar.invoke("get").arg(enumIndex));
-        /**
-         * Found the enum index mapping.
-         */
-        JConditional ifBlock = body._if(lookupResult._instanceof(codeModel.ref(Integer.class)));
-        JExpression ithValResult =
-            schemaAssistant.getEnumValueByIndex(schema, JExpr.cast(codeModel.ref(Integer.class), lookupResult), getSchemaExpr(schema));
-        ifBlock._then().assign((JVar) newEnum, ithValResult);
-        /**
-         * Unknown enum in reader schema.
-         */
-        JConditional elseIfBlock = ifBlock._elseif(lookupResult._instanceof(codeModel.ref(AvroTypeException.class)));
-        elseIfBlock._then()._throw(JExpr.cast(codeModel.ref(AvroTypeException.class), lookupResult));
-        /**
-         * Unknown enum in writer schema.
-         */
-        elseIfBlock._else()._throw(JExpr._new(codeModel.ref(RuntimeException.class))
-            .arg(JExpr.lit("Illegal enum index for '" + schema.getFullName() + "': ").plus(enumIndex)));
+        body._if(enumIndex.lt(JExpr.lit(0)).cor(enumIndex.gte(enumMappingVar.ref("length"))))._then()
+            ._throw(JExpr._new(codeModel.ref(RuntimeException.class))
+                .arg(JExpr.lit("Illegal enum index for '" + schema.getFullName() + "': ").plus(enumIndex)));
+        JVar readerEnumIndex =
+            body.decl(codeModel.INT, getUniqueName("readerEnumIndex"), enumMappingVar.component(enumIndex));
+        if (!unknownEnumIndexes.isEmpty()) {
+          /**
+           * Unknown enum in reader schema, the messages are only looked up on this path.
+           */
+          JVar enumErrorsVar = generatedClass.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, String[].class,
+              getUniqueName("enumErrors" + schema.getName()), enumErrorsArray);
+          body._if(readerEnumIndex.eq(JExpr.lit(UNKNOWN_ENUM_INDEX)))._then()
+              ._throw(JExpr._new(codeModel.ref(AvroTypeException.class)).arg(enumErrorsVar.component(enumIndex)));
+        }
+        newEnum = schemaAssistant.getEnumValueByIndex(schema, readerEnumIndex, getSchemaExpr(schema));
       }
       putEnumIntoParent.accept(body, newEnum);
     } else {
@@ -1220,6 +1596,12 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
       case BOOLEAN:
         readFunction = "readBoolean()";
         break;
+      case NULL:
+        body.directStatement(DECODER + ".readNull();");
+        if (action.getShouldRead()) {
+          putValueIntoParent.accept(body, JExpr._null());
+        }
+        return;
       default:
         throw new FastDeserializerGeneratorException("Unsupported primitive schema of type: " + schema.getType());
     }
@@ -1339,10 +1721,6 @@ public class FastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<
     return jExpressionSupplier;
   }
 
-  static void setFieldsPerPopulationMethod(int fieldCount) {
-    FIELDS_PER_POPULATION_METHOD = fieldCount;
-  }
-
   /**
    * String literals in Java classes cannot exceed length of 65535.
    * For such cases we break down the literal into chunks of valid lengths and use StringBuilder.
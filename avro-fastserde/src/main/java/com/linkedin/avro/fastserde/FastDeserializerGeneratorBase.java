@@ -6,6 +6,7 @@ import java.lang.reflect.Field;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.ListIterator;
+import java.util.concurrent.CompletableFuture;
 import org.apache.avro.Schema;
 import com.linkedin.avro.fastserde.backport.Symbol;
 import org.apache.avro.util.Utf8;
@@ -71,6 +72,14 @@ public abstract class FastDeserializerGeneratorBase<T> extends FastSerdeBase {
 
   public abstract FastDeserializer<T> generateDeserializer();
 
+  /**
+   * @param batchCompiler compiler of the generated class, or null to compile it right away
+   * @return future completed with the deserializer once its class is compiled
+   */
+  CompletableFuture<FastDeserializer<T>> generateDeserializer(FastSerdeBatchCompiler batchCompiler) {
+    return CompletableFuture.completedFuture(generateDeserializer());
+  }
+
   protected ListIterator<Symbol> actionIterator(FieldAction action) {
     ListIterator<Symbol> actionIterator = null;
 
@@ -150,6 +159,13 @@ public abstract class FastDeserializerGeneratorBase<T> extends FastSerdeBase {
         break;
       }
 
+      // promoted values hold the symbols of both the writer and the reader types, without a terminal of their own
+      if (symbol instanceof Symbol.ResolvingAction) {
+        shouldRead = true;
+        fieldSymbol = symbol;
+        break;
+      }
+
       if (symbol instanceof Symbol.WriterUnionAction) {
         if (symbolIterator.hasNext()) {
           symbol = symbolIterator.next();
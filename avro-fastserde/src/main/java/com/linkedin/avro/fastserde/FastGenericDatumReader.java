@@ -34,6 +34,18 @@ public class FastGenericDatumReader<T> implements DatumReader<T> {
     this(schema, schema, cache);
   }
 
+  /**
+   * Creates a reader which only materializes the fields of the given projection, the returned records are instances
+   * of {@link SchemaProjection#getProjectedSchema()}.
+   */
+  public FastGenericDatumReader(Schema writerSchema, SchemaProjection projection) {
+    this(writerSchema, projection, FastSerdeCache.getDefaultInstance());
+  }
+
+  public FastGenericDatumReader(Schema writerSchema, SchemaProjection projection, FastSerdeCache cache) {
+    this(writerSchema, projection.getProjectedSchema(), cache);
+  }
+
   public FastGenericDatumReader(Schema writerSchema, Schema readerSchema, FastSerdeCache cache) {
     this.writerSchema = writerSchema;
     this.readerSchema = readerSchema;
@@ -47,13 +59,6 @@ public class FastGenericDatumReader<T> implements DatumReader<T> {
                 + " versions are supported: " + Utils.getAvroVersionsSupportedForDeserializer()
                 + ", so skip the FastDeserializer generation");
       }
-    } else if (!FastSerdeCache.isSupportedForFastDeserializer(readerSchema.getType())) {
-      // For unsupported schema type, we won't try to fetch it from FastSerdeCache since it is inefficient.
-      this.cachedFastDeserializer.set(getRegularAvroImpl(writerSchema, readerSchema));
-      if (LOGGER.isDebugEnabled()) {
-        LOGGER.debug("Skip the FastGenericDeserializer generation since read schema type: " + readerSchema.getType()
-            + " is not supported");
-      }
     }
   }
 
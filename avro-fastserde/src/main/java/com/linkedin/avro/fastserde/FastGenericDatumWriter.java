@@ -32,13 +32,6 @@ public class FastGenericDatumWriter<T> implements DatumWriter<T> {
                 + " versions are supported: " + Utils.getAvroVersionsSupportedForSerializer()
                 + ", so will skip the FastSerializer generation");
       }
-    } else if (!FastSerdeCache.isSupportedForFastSerializer(schema.getType())) {
-      // For unsupported schema type, we won't try to fetch it from FastSerdeCache since it is inefficient.
-      this.cachedFastSerializer = getRegularAvroImpl(writerSchema);
-      if (LOGGER.isDebugEnabled()) {
-        LOGGER.debug("Skip the FastGenericSerializer generation since read schema type: " + schema.getType()
-            + " is not supported");
-      }
     }
   }
 
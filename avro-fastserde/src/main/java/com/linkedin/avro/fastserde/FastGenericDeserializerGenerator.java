@@ -10,4 +10,13 @@ public final class FastGenericDeserializerGenerator<T> extends FastDeserializerG
       String compileClassPath) {
     super(true, writer, reader, destination, classLoader, compileClassPath);
   }
+
+  /**
+   * @param lazyRecords whether to deserialize the top-level record as a {@link LazyRecord} when reading from a
+   *                    {@link java.nio.ByteBuffer}, which requires the writer and reader schemas to be the same
+   */
+  FastGenericDeserializerGenerator(Schema writer, Schema reader, File destination, ClassLoader classLoader,
+      String compileClassPath, boolean lazyRecords) {
+    super(true, writer, reader, destination, classLoader, compileClassPath, lazyRecords);
+  }
 }
@@ -0,0 +1,16 @@
+package com.linkedin.avro.fastserde;
+
+import java.io.IOException;
+
+
+/**
+ * Reads values from the Avro JSON encoding, see {@link FastSerdeCache#getFastGenericJsonDeserializer}.
+ */
+public interface FastJsonDeserializer<T> {
+
+  default T deserialize(FastJsonReader in) throws IOException {
+    return deserialize(null, in);
+  }
+
+  T deserialize(T reuse, FastJsonReader in) throws IOException;
+}
@@ -0,0 +1,299 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JClassAlreadyExistsException;
+import com.sun.codemodel.JConditional;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JForLoop;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
+import com.sun.codemodel.JSwitch;
+import com.sun.codemodel.JVar;
+import com.sun.codemodel.JWhileLoop;
+import java.io.File;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.avro.AvroTypeException;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.avro.util.Utf8;
+import org.apache.commons.lang3.StringUtils;
+
+
+/**
+ * Generates deserializers reading generic data from the Avro JSON encoding, see
+ * {@link FastSerdeCache#getFastGenericJsonDeserializer(Schema)}.
+ *
+ * The generated code reads the JSON tokens of each value straight from a {@link FastJsonReader}. The fields of a record
+ * are matched by name in any order, fields missing from the schema are skipped, and union branches are matched by both
+ * their avro 1.4 and their later names. The data is read with the schema it was written with, there is no schema
+ * resolution.
+ */
+public class FastJsonDeserializerGenerator<T> extends FastSerdeBase {
+  private static final String IN = "in";
+
+  private final Schema schema;
+  private final Map<String, JMethod> deserializeMethodMap = new HashMap<>();
+  private final Map<Long, JVar> schemaVarMap = new HashMap<>();
+  private final Map<Long, JVar> enumSymbolsVarMap = new HashMap<>();
+  private final Map<Long, JVar> enumValuesVarMap = new HashMap<>();
+  private JBlock constructorBody;
+
+  public FastJsonDeserializerGenerator(Schema schema, File destination, ClassLoader classLoader,
+      String compileClassPath) {
+    super("deserialization", true, Utf8.class, destination, classLoader, compileClassPath, false);
+    this.schema = schema;
+  }
+
+  public FastJsonDeserializer<T> generateDeserializer() {
+    final String className = FastDeserializerGeneratorBase.getClassName(schema, schema, "GenericJson");
+
+    try {
+      final Class<FastJsonDeserializer<T>> existingClass = loadExistingClass(className);
+      if (existingClass != null) {
+        return existingClass.getConstructor(Schema.class).newInstance(schema);
+      }
+
+      defineDeserializerClass(className);
+      final Class<FastJsonDeserializer<T>> clazz =
+          compileClass(className, schemaAssistant.getUsedFullyQualifiedClassNameSet());
+      return clazz.getConstructor(Schema.class).newInstance(schema);
+    } catch (JClassAlreadyExistsException e) {
+      throw new FastDeserializerGeneratorException("Class: " + className + " already exists");
+    } catch (FastDeserializerGeneratorException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new FastDeserializerGeneratorException(e);
+    }
+  }
+
+  private void defineDeserializerClass(String className) throws JClassAlreadyExistsException {
+    if (Schema.Type.NULL.equals(schema.getType())) {
+      throw new FastDeserializerGeneratorException("Unsupported input schema type: " + schema.getType());
+    }
+    generatedClass = codeModel._package(generatedPackageName)._class(className);
+
+    JMethod constructor = generatedClass.constructor(JMod.PUBLIC);
+    JVar schemaParam = constructor.param(Schema.class, "schema");
+    constructorBody = constructor.body();
+
+    JClass outputClass = schemaAssistant.classFromSchema(schema);
+    generatedClass._implements(codeModel.ref(FastJsonDeserializer.class).narrow(outputClass));
+    JMethod deserializeMethod = generatedClass.method(JMod.PUBLIC, outputClass, "deserialize");
+    deserializeMethod._throws(IOException.class);
+    JVar reuse = deserializeMethod.param(outputClass, "reuse");
+    deserializeMethod.param(FastJsonReader.class, IN);
+    JBlock body = deserializeMethod.body();
+    JExpression value = Schema.Type.RECORD.equals(schema.getType())
+        ? JExpr.invoke(getOrCreateRecordMethod(schema, schemaParam)).arg(reuse).arg(JExpr.direct(IN))
+        : processValue(schema, schemaParam, body);
+    // containers are read with Object values, so they are cast to the parameterized type through Object
+    body._return(JExpr.cast(outputClass, JExpr.cast(codeModel.ref(Object.class), value)));
+  }
+
+  /**
+   * Appends the statements reading a value to the given block.
+   *
+   * @param schemaExpr expression of the schema of the value, valid in the constructor of the generated class
+   * @return expression of the value which is read, valid at the end of the block
+   */
+  private JExpression processValue(Schema valueSchema, JExpression schemaExpr, JBlock body) {
+    JExpression in = JExpr.direct(IN);
+    switch (valueSchema.getType()) {
+      case RECORD:
+        return JExpr.invoke(getOrCreateRecordMethod(valueSchema, schemaExpr)).arg(JExpr._null()).arg(in);
+      case ARRAY:
+        return processArray(valueSchema, schemaExpr, body);
+      case MAP:
+        return processMap(valueSchema, schemaExpr, body);
+      case UNION:
+        return processUnion(valueSchema, schemaExpr, body);
+      case ENUM:
+        JVar enumValues = getEnumValuesVar(valueSchema, schemaExpr);
+        JVar enumSymbols = enumSymbolsVarMap.get(Utils.getSchemaFingerprint(valueSchema));
+        return enumValues.component(in.invoke("readEnum").arg(enumSymbols));
+      case FIXED:
+        return codeModel.ref(AvroCompatibilityHelper.class).staticInvoke("newFixed")
+            .arg(getSchemaVar(valueSchema, schemaExpr))
+            .arg(in.invoke("readFixed").arg(JExpr.lit(valueSchema.getFixedSize())));
+      case STRING:
+        return in.invoke("readUtf8");
+      case BYTES:
+        return in.invoke("readBytes");
+      case INT:
+        return in.invoke("readInt");
+      case LONG:
+        return in.invoke("readLong");
+      case FLOAT:
+        return in.invoke("readFloat");
+      case DOUBLE:
+        return in.invoke("readDouble");
+      case BOOLEAN:
+        return in.invoke("readBoolean");
+      case NULL:
+        body.invoke(in, "readNull");
+        return JExpr._null();
+      default:
+        throw new FastDeserializerGeneratorException("Unsupported schema type: " + valueSchema.getType());
+    }
+  }
+
+  private JMethod getOrCreateRecordMethod(Schema recordSchema, JExpression schemaExpr) {
+    String fullName = AvroCompatibilityHelper.getSchemaFullName(recordSchema);
+    JMethod method = deserializeMethodMap.get(fullName);
+    if (method != null) {
+      return method;
+    }
+    JVar recordSchemaVar = getSchemaVar(recordSchema, schemaExpr);
+    JClass recordClass = codeModel.ref(IndexedRecord.class);
+    method = generatedClass.method(JMod.PUBLIC, recordClass,
+        getUniqueName("deserialize" + StringUtils.capitalize(recordSchema.getName())));
+    method._throws(IOException.class);
+    JVar reuse = method.param(Object.class, "reuse");
+    method.param(FastJsonReader.class, IN);
+    // registered before processing the fields, so recursive records call the method being defined
+    deserializeMethodMap.put(fullName, method);
+
+    JBlock body = method.body();
+    JExpression reusable = reuse._instanceof(recordClass)
+        .cand(JExpr.invoke(JExpr.cast(recordClass, reuse), "getSchema").eq(recordSchemaVar));
+    JVar record = body.decl(recordClass, "record", JOp.cond(reusable, JExpr.cast(recordClass, reuse),
+        JExpr._new(codeModel.ref(GenericData.Record.class)).arg(recordSchemaVar)));
+    // fields read twice only count once, so they can't hide missing ones
+    int fieldsSize = recordSchema.getFields().size();
+    JVar seenFields = body.decl(codeModel.ref(BitSet.class), "seenFields",
+        JExpr._new(codeModel.ref(BitSet.class)).arg(JExpr.lit(fieldsSize)));
+    body.invoke(JExpr.direct(IN), "readStartObject");
+    JWhileLoop fieldLoop = body._while(JExpr.direct(IN).invoke("hasNext"));
+    JSwitch fieldSwitch = fieldLoop.body()._switch(JExpr.direct(IN).invoke("readFieldName"));
+    for (Schema.Field field : recordSchema.getFields()) {
+      JBlock fieldBody = fieldSwitch._case(JExpr.lit(field.name())).body();
+      JExpression fieldSchemaExpr = recordSchemaVar.invoke("getField").arg(JExpr.lit(field.name())).invoke("schema");
+      JExpression fieldValue = processValue(field.schema(), fieldSchemaExpr, fieldBody);
+      fieldBody.invoke(record, "put").arg(JExpr.lit(field.pos())).arg(fieldValue);
+      fieldBody.invoke(seenFields, "set").arg(JExpr.lit(field.pos()));
+      fieldBody._break();
+    }
+    // fields which aren't part of the schema are ignored
+    JBlock defaultBody = fieldSwitch._default().body();
+    defaultBody.invoke(JExpr.direct(IN), "skipValue");
+    defaultBody._break();
+
+    JExpression missingField = recordSchemaVar.invoke("getFields")
+        .invoke("get").arg(seenFields.invoke("nextClearBit").arg(JExpr.lit(0))).invoke("name");
+    ifCodeGen(body, seenFields.invoke("cardinality").lt(JExpr.lit(fieldsSize)), then1 -> then1._throw(
+        JExpr._new(codeModel.ref(AvroTypeException.class))
+            .arg(JExpr.lit("Missing field ").plus(missingField).plus(JExpr.lit(" in record " + fullName)))));
+    body._return(record);
+    return method;
+  }
+
+  private JExpression processArray(Schema arraySchema, JExpression schemaExpr, JBlock body) {
+    JClass arrayClass = codeModel.ref(GenericData.Array.class).narrow(Object.class);
+    JVar arraySchemaVar = getSchemaVar(arraySchema, schemaExpr);
+    body.invoke(JExpr.direct(IN), "readStartArray");
+    JVar array = body.decl(arrayClass, getUniqueName("array"),
+        JExpr._new(arrayClass).arg(JExpr.lit(0)).arg(arraySchemaVar));
+    JWhileLoop elementLoop = body._while(JExpr.direct(IN).invoke("hasNext"));
+    JExpression element = processValue(arraySchema.getElementType(), arraySchemaVar.invoke("getElementType"),
+        elementLoop.body());
+    elementLoop.body().invoke(array, "add").arg(element);
+    return array;
+  }
+
+  private JExpression processMap(Schema mapSchema, JExpression schemaExpr, JBlock body) {
+    JClass mapClass = codeModel.ref(HashMap.class).narrow(codeModel.ref(Utf8.class), codeModel.ref(Object.class));
+    body.invoke(JExpr.direct(IN), "readStartObject");
+    JVar map = body.decl(mapClass, getUniqueName("map"), JExpr._new(mapClass));
+    JWhileLoop entryLoop = body._while(JExpr.direct(IN).invoke("hasNext"));
+    JBlock entryBody = entryLoop.body();
+    JVar key = entryBody.decl(codeModel.ref(Utf8.class), getUniqueName("key"), JExpr.direct(IN).invoke("readMapKey"));
+    JExpression value = processValue(mapSchema.getValueType(), schemaExpr.invoke("getValueType"), entryBody);
+    entryBody.invoke(map, "put").arg(key).arg(value);
+    return map;
+  }
+
+  private JExpression processUnion(Schema unionSchema, JExpression schemaExpr, JBlock body) {
+    JVar value = body.decl(codeModel.ref(Object.class), getUniqueName("unionValue"), JExpr._null());
+    JVar branch = body.decl(codeModel.ref(String.class), getUniqueName("unionBranch"),
+        JExpr.direct(IN).invoke("readStartUnionBranch"));
+    JConditional ifBlock = body._if(branch.eq(JExpr._null()));
+    if (unionSchema.getTypes().stream().noneMatch(type -> Schema.Type.NULL.equals(type.getType()))) {
+      throwUnknownBranch(branch, ifBlock._then());
+    }
+
+    List<Schema> branchSchemas = unionSchema.getTypes();
+    for (int i = 0; i < branchSchemas.size(); i++) {
+      Schema branchSchema = branchSchemas.get(i);
+      if (Schema.Type.NULL.equals(branchSchema.getType())) {
+        continue;
+      }
+      String simpleName = branchSchema.getName();
+      String fullName = SchemaAssistant.isNamedType(branchSchema)
+          ? AvroCompatibilityHelper.getSchemaFullName(branchSchema) : simpleName;
+      JExpression condition = JExpr.lit(fullName).invoke("equals").arg(branch);
+      if (!simpleName.equals(fullName)) {
+        condition = condition.cor(JExpr.lit(simpleName).invoke("equals").arg(branch));
+      }
+      ifBlock = ifBlock._elseif(condition);
+      JBlock branchBody = ifBlock._then();
+      JExpression branchSchemaExpr = schemaExpr.invoke("getTypes").invoke("get").arg(JExpr.lit(i));
+      branchBody.assign(value, processValue(branchSchema, branchSchemaExpr, branchBody));
+      branchBody.invoke(JExpr.direct(IN), "readEndUnionBranch");
+    }
+    throwUnknownBranch(branch, ifBlock._else());
+    return value;
+  }
+
+  private void throwUnknownBranch(JVar branch, JBlock body) {
+    body._throw(JExpr._new(codeModel.ref(AvroTypeException.class)).arg(JExpr.lit("Unknown union branch ").plus(branch)));
+  }
+
+  /**
+   * Schemas are fields of the generated class, found by the constructor in the schema it is given.
+   */
+  private JVar getSchemaVar(Schema valueSchema, JExpression schemaExpr) {
+    return schemaVarMap.computeIfAbsent(Utils.getSchemaFingerprint(valueSchema), fingerprint -> {
+      String name = valueSchema.getName();
+      JVar schemaVar = generatedClass.field(JMod.PRIVATE | JMod.FINAL, Schema.class, getUniqueName(name + "Schema"));
+      constructorBody.assign(JExpr.refthis(schemaVar.name()), schemaExpr);
+      return schemaVar;
+    });
+  }
+
+  /**
+   * The symbols of an enum, and the values they are read as, are fields of the generated class.
+   */
+  private JVar getEnumValuesVar(Schema enumSchema, JExpression schemaExpr) {
+    return enumValuesVarMap.computeIfAbsent(Utils.getSchemaFingerprint(enumSchema), fingerprint -> {
+      JVar enumSchemaVar = getSchemaVar(enumSchema, schemaExpr);
+      JClass enumSymbolClass = codeModel.ref(GenericData.EnumSymbol.class);
+      String name = StringUtils.uncapitalize(enumSchema.getName());
+      JVar symbolsVar = generatedClass.field(JMod.PRIVATE | JMod.FINAL, String[].class, getUniqueName(name + "Symbols"));
+      JVar valuesVar =
+          generatedClass.field(JMod.PRIVATE | JMod.FINAL, enumSymbolClass.array(), getUniqueName(name + "Values"));
+      enumSymbolsVarMap.put(fingerprint, symbolsVar);
+      constructorBody.assign(JExpr.refthis(symbolsVar.name()),
+          enumSchemaVar.invoke("getEnumSymbols").invoke("toArray").arg(JExpr.newArray(codeModel.ref(String.class), 0)));
+      constructorBody.assign(JExpr.refthis(valuesVar.name()),
+          JExpr.newArray(enumSymbolClass, symbolsVar.ref("length")));
+      JForLoop symbolLoop = constructorBody._for();
+      JVar counter = symbolLoop.init(codeModel.INT, getUniqueName("counter"), JExpr.lit(0));
+      symbolLoop.test(counter.lt(symbolsVar.ref("length")));
+      symbolLoop.update(counter.incr());
+      symbolLoop.body().assign(valuesVar.component(counter),
+          codeModel.ref(AvroCompatibilityHelper.class).staticInvoke("newEnumSymbol")
+              .arg(enumSchemaVar)
+              .arg(symbolsVar.component(counter)));
+      return valuesVar;
+    });
+  }
+}
@@ -0,0 +1,472 @@
+package com.linkedin.avro.fastserde;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.apache.avro.AvroTypeException;
+import org.apache.avro.util.Utf8;
+
+
+/**
+ * Reads the Avro JSON encoding of values, for the generated {@link FastJsonDeserializer}s.
+ *
+ * This is a pull parser over a JSON document held in memory, without any grammar: the generated deserializers already
+ * know the structure of the values, so they only call the methods reading each token. Like
+ * {@link com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper#newCompatibleJsonDecoder}, it accepts int
+ * literals for floating point numbers and vice versa, and both the avro 1.4 and the later names of union branches,
+ * the latter being matched by the deserializers. Non-finite floating point numbers are accepted both quoted and
+ * unquoted. Readers aren't thread-safe, and can be {@link #reset(String) reset} to be reused.
+ */
+public final class FastJsonReader {
+  private String json;
+  private int position;
+  private int length;
+  // whether the next field or element is the first one of its object or array, so isn't preceded by a comma
+  private boolean firstInSequence;
+  // reused to unescape strings
+  private final StringBuilder unescaped = new StringBuilder();
+
+  public FastJsonReader(String json) {
+    reset(json);
+  }
+
+  /**
+   * Starts reading another JSON document.
+   */
+  public void reset(String json) {
+    this.json = json;
+    this.position = 0;
+    this.length = json.length();
+    this.firstInSequence = false;
+  }
+
+  /**
+   * @return whether the whole document was read, but for trailing whitespace
+   */
+  public boolean isEnd() {
+    skipWhitespace();
+    return position == length;
+  }
+
+  /**
+   * @return whether the next value is null, which is then read
+   */
+  public boolean readNullIfPresent() throws IOException {
+    skipWhitespace();
+    if (json.startsWith("null", position)) {
+      position += 4;
+      return true;
+    }
+    return false;
+  }
+
+  public void readNull() throws IOException {
+    if (!readNullIfPresent()) {
+      throw error("null");
+    }
+  }
+
+  public boolean readBoolean() throws IOException {
+    skipWhitespace();
+    if (json.startsWith("true", position)) {
+      position += 4;
+      return true;
+    } else if (json.startsWith("false", position)) {
+      position += 5;
+      return false;
+    }
+    throw error("boolean");
+  }
+
+  public int readInt() throws IOException {
+    long value = readLong();
+    if (value != (int) value) {
+      throw new AvroTypeException("Int out of range: " + value);
+    }
+    return (int) value;
+  }
+
+  public long readLong() throws IOException {
+    skipWhitespace();
+    int start = position;
+    boolean negative = position < length && json.charAt(position) == '-';
+    if (negative) {
+      position++;
+    }
+    long value = 0;
+    int digits = 0;
+    while (position < length) {
+      char c = json.charAt(position);
+      if (c < '0' || c > '9') {
+        break;
+      }
+      value = value * 10 + (c - '0');
+      digits++;
+      position++;
+    }
+    if (digits == 0) {
+      position = start;
+      throw error("long");
+    }
+    if (isFractionOrExponent()) {
+      // floating point literals are truncated, like jackson does
+      position = start;
+      return (long) parseDouble("long");
+    }
+    if (digits > 18) {
+      // might have overflowed the accumulated value
+      try {
+        return Long.parseLong(json.substring(start, position));
+      } catch (NumberFormatException e) {
+        throw new AvroTypeException("Long out of range: " + json.substring(start, position));
+      }
+    }
+    return negative ? -value : value;
+  }
+
+  public float readFloat() throws IOException {
+    return (float) readDouble();
+  }
+
+  public double readDouble() throws IOException {
+    skipWhitespace();
+    if (position < length && json.charAt(position) == '"') {
+      int start = position;
+      String value = readString();
+      switch (value) {
+        case "NaN":
+          return Double.NaN;
+        case "Infinity":
+          return Double.POSITIVE_INFINITY;
+        case "-Infinity":
+          return Double.NEGATIVE_INFINITY;
+        default:
+          position = start;
+          throw error("double");
+      }
+    }
+    return parseDouble("double");
+  }
+
+  public String readString() throws IOException {
+    skipWhitespace();
+    expect('"', "string");
+    int start = position;
+    while (position < length) {
+      char c = json.charAt(position);
+      if (c == '"') {
+        return json.substring(start, position++);
+      } else if (c == '\\') {
+        return readEscapedString(start);
+      }
+      position++;
+    }
+    throw endOfDocument();
+  }
+
+  /**
+   * Reads a string as {@link Utf8}, the type of the strings of generic records.
+   */
+  public Utf8 readUtf8() throws IOException {
+    skipWhitespace();
+    expect('"', "string");
+    int start = position;
+    // ascii strings, the most common ones, are encoded right away
+    while (position < length) {
+      char c = json.charAt(position);
+      if (c == '"') {
+        byte[] bytes = new byte[position - start];
+        for (int i = 0; i < bytes.length; i++) {
+          bytes[i] = (byte) json.charAt(start + i);
+        }
+        position++;
+        return new Utf8(bytes);
+      } else if (c == '\\' || c >= 0x80) {
+        break;
+      }
+      position++;
+    }
+    position = start;
+    String value = readEscapedString(start);
+    return new Utf8(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Reads bytes, encoded as a string of ISO-8859-1 characters.
+   */
+  public ByteBuffer readBytes() throws IOException {
+    return ByteBuffer.wrap(readByteArray());
+  }
+
+  /**
+   * Reads the bytes of a fixed, encoded as a string of ISO-8859-1 characters.
+   */
+  public byte[] readFixed(int size) throws IOException {
+    byte[] bytes = readByteArray();
+    if (bytes.length != size) {
+      throw new AvroTypeException("Expected fixed length " + size + ", but got " + bytes.length);
+    }
+    return bytes;
+  }
+
+  /**
+   * @param symbols symbols of the enum
+   * @return ordinal of the symbol which is read
+   */
+  public int readEnum(String[] symbols) throws IOException {
+    String symbol = readString();
+    for (int i = 0; i < symbols.length; i++) {
+      if (symbols[i].equals(symbol)) {
+        return i;
+      }
+    }
+    throw new AvroTypeException("Unknown symbol in enum " + symbol);
+  }
+
+  public void readStartObject() throws IOException {
+    skipWhitespace();
+    expect('{', "object");
+    firstInSequence = true;
+  }
+
+  /**
+   * @return whether the current object or array has another field or element, the end of the object or array is read
+   *     otherwise
+   */
+  public boolean hasNext() throws IOException {
+    skipWhitespace();
+    if (position == length) {
+      throw endOfDocument();
+    }
+    char c = json.charAt(position);
+    if (c == '}' || c == ']') {
+      position++;
+      firstInSequence = false;
+      return false;
+    }
+    if (!firstInSequence) {
+      expect(',', "comma");
+    }
+    firstInSequence = false;
+    return true;
+  }
+
+  /**
+   * Reads the name of the next field of a record, or the key of the next entry of a map, once {@link #hasNext()} told
+   * there is one.
+   */
+  public String readFieldName() throws IOException {
+    String name = readString();
+    skipWhitespace();
+    expect(':', "colon");
+    return name;
+  }
+
+  /**
+   * Same as {@link #readFieldName()}, as {@link Utf8}, the type of the map keys of generic records.
+   */
+  public Utf8 readMapKey() throws IOException {
+    Utf8 key = readUtf8();
+    skipWhitespace();
+    expect(':', "colon");
+    return key;
+  }
+
+  public void readStartArray() throws IOException {
+    skipWhitespace();
+    expect('[', "array");
+    firstInSequence = true;
+  }
+
+  /**
+   * Reads the start of a union value.
+   *
+   * @return null if the value is null, otherwise the name of its branch, which must be followed by the value of the
+   *     branch and {@link #readEndUnionBranch()}
+   */
+  public String readStartUnionBranch() throws IOException {
+    if (readNullIfPresent()) {
+      return null;
+    }
+    readStartObject();
+    if (!hasNext()) {
+      throw error("union branch");
+    }
+    return readFieldName();
+  }
+
+  public void readEndUnionBranch() throws IOException {
+    if (hasNext()) {
+      throw error("end of union");
+    }
+  }
+
+  /**
+   * Skips the next value, e.g. the value of a field missing from the schema.
+   */
+  public void skipValue() throws IOException {
+    skipWhitespace();
+    if (position == length) {
+      throw endOfDocument();
+    }
+    char c = json.charAt(position);
+    if (c == '{') {
+      readStartObject();
+      while (hasNext()) {
+        readFieldName();
+        skipValue();
+      }
+    } else if (c == '[') {
+      readStartArray();
+      while (hasNext()) {
+        skipValue();
+      }
+    } else if (c == '"') {
+      readString();
+    } else if (c == 't' || c == 'f') {
+      readBoolean();
+    } else if (c == 'n') {
+      readNull();
+    } else {
+      parseDouble("value");
+    }
+  }
+
+  /**
+   * @return the JSON of the next value, which is skipped
+   */
+  String readRawValue() throws IOException {
+    skipWhitespace();
+    int start = position;
+    skipValue();
+    return json.substring(start, position);
+  }
+
+  private byte[] readByteArray() throws IOException {
+    int start = position;
+    String value = readString();
+    byte[] bytes = new byte[value.length()];
+    for (int i = 0; i < bytes.length; i++) {
+      char c = value.charAt(i);
+      if (c > 0xff) {
+        position = start;
+        throw error("ISO-8859-1 string");
+      }
+      bytes[i] = (byte) c;
+    }
+    return bytes;
+  }
+
+  /**
+   * @param start position of the first character of the string, after the opening quote
+   */
+  private String readEscapedString(int start) throws IOException {
+    unescaped.setLength(0);
+    position = start;
+    while (position < length) {
+      char c = json.charAt(position++);
+      if (c == '"') {
+        return unescaped.toString();
+      } else if (c != '\\') {
+        unescaped.append(c);
+        continue;
+      }
+      if (position == length) {
+        break;
+      }
+      char escaped = json.charAt(position++);
+      switch (escaped) {
+        case 'b':
+          unescaped.append('\b');
+          break;
+        case 'f':
+          unescaped.append('\f');
+          break;
+        case 'n':
+          unescaped.append('\n');
+          break;
+        case 'r':
+          unescaped.append('\r');
+          break;
+        case 't':
+          unescaped.append('\t');
+          break;
+        case 'u':
+          if (position + 4 > length) {
+            throw endOfDocument();
+          }
+          try {
+            unescaped.append((char) Integer.parseInt(json.substring(position, position + 4), 16));
+          } catch (NumberFormatException e) {
+            throw error("unicode escape");
+          }
+          position += 4;
+          break;
+        default:
+          // quotes, backslashes and slashes stand for themselves
+          unescaped.append(escaped);
+      }
+    }
+    throw endOfDocument();
+  }
+
+  private boolean isFractionOrExponent() {
+    if (position == length) {
+      return false;
+    }
+    char c = json.charAt(position);
+    return c == '.' || c == 'e' || c == 'E';
+  }
+
+  private double parseDouble(String expected) throws IOException {
+    int start = position;
+    while (position < length) {
+      char c = json.charAt(position);
+      if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') {
+        position++;
+      } else if (json.startsWith("NaN", position) || json.startsWith("Infinity", position)) {
+        position += json.charAt(position) == 'N' ? 3 : 8;
+      } else {
+        break;
+      }
+    }
+    try {
+      return Double.parseDouble(json.substring(start, position));
+    } catch (NumberFormatException e) {
+      position = start;
+      throw error(expected);
+    }
+  }
+
+  private void expect(char expected, String description) throws IOException {
+    if (position == length) {
+      throw endOfDocument();
+    }
+    if (json.charAt(position) != expected) {
+      throw error(description);
+    }
+    position++;
+  }
+
+  private void skipWhitespace() {
+    while (position < length) {
+      char c = json.charAt(position);
+      if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+        return;
+      }
+      position++;
+    }
+  }
+
+  private IOException error(String expected) {
+    return new IOException("Expected " + expected + " at position " + position + " of: " + abbreviate());
+  }
+
+  private IOException endOfDocument() {
+    return new IOException("Unexpected end of JSON document: " + abbreviate());
+  }
+
+  private String abbreviate() {
+    return json.length() <= 100 ? json : json.substring(0, 100) + "...";
+  }
+}
@@ -0,0 +1,12 @@
+package com.linkedin.avro.fastserde;
+
+import java.io.IOException;
+
+
+/**
+ * Writes values in the Avro JSON encoding, see {@link FastSerdeCache#getFastGenericJsonSerializer}.
+ */
+public interface FastJsonSerializer<T> {
+
+  void serialize(T data, FastJsonWriter out) throws IOException;
+}
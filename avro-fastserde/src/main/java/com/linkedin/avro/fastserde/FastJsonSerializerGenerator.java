@@ -0,0 +1,236 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JClassAlreadyExistsException;
+import com.sun.codemodel.JConditional;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JForEach;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JVar;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.apache.avro.AvroTypeException;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericFixed;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.commons.lang3.StringUtils;
+
+
+/**
+ * Generates serializers writing generic data in the Avro JSON encoding, see
+ * {@link FastSerdeCache#getFastGenericJsonSerializer(Schema)}.
+ *
+ * The generated code walks the data like {@link FastSerializerGenerator} does, and writes the JSON tokens of each value
+ * straight to a {@link FastJsonWriter}, which picks the naming of union branches matching the requested avro version.
+ */
+public class FastJsonSerializerGenerator<T> extends FastSerdeBase {
+  private static final String OUT = "out";
+
+  private final Schema schema;
+  private final Map<String, JMethod> serializeMethodMap = new HashMap<>();
+
+  public FastJsonSerializerGenerator(Schema schema, File destination, ClassLoader classLoader,
+      String compileClassPath) {
+    super("serialization", true, CharSequence.class, destination, classLoader, compileClassPath, true);
+    this.schema = schema;
+  }
+
+  public FastJsonSerializer<T> generateSerializer() {
+    final String className = FastSerializerGenerator.getClassName(schema, "GenericJson");
+
+    try {
+      final Class<FastJsonSerializer<T>> existingClass = loadExistingClass(className);
+      if (existingClass != null) {
+        return existingClass.newInstance();
+      }
+
+      defineSerializerClass(className);
+      final Class<FastJsonSerializer<T>> clazz =
+          compileClass(className, schemaAssistant.getUsedFullyQualifiedClassNameSet());
+      return clazz.newInstance();
+    } catch (JClassAlreadyExistsException e) {
+      throw new FastSerdeGeneratorException("Class: " + className + " already exists");
+    } catch (FastSerdeGeneratorException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new FastSerdeGeneratorException(e);
+    }
+  }
+
+  private void defineSerializerClass(String className) throws JClassAlreadyExistsException {
+    if (Schema.Type.NULL.equals(schema.getType())) {
+      throw new FastSerdeGeneratorException("Unsupported input schema type: " + schema.getType());
+    }
+    generatedClass = codeModel._package(generatedPackageName)._class(className);
+
+    JClass inputClass = schemaAssistant.classFromSchema(schema);
+    generatedClass._implements(codeModel.ref(FastJsonSerializer.class).narrow(inputClass));
+    JMethod serializeMethod = generatedClass.method(JMod.PUBLIC, codeModel.VOID, "serialize");
+    serializeMethod._throws(IOException.class);
+    JVar data = serializeMethod.param(inputClass, "data");
+    serializeMethod.param(FastJsonWriter.class, OUT);
+    processValue(schema, data, serializeMethod.body());
+  }
+
+  private void processValue(Schema valueSchema, JExpression valueExpr, JBlock body) {
+    JExpression out = JExpr.direct(OUT);
+    switch (valueSchema.getType()) {
+      case RECORD:
+        body.invoke(getOrCreateRecordMethod(valueSchema)).arg(JExpr.cast(codeModel.ref(IndexedRecord.class), valueExpr))
+            .arg(out);
+        break;
+      case ARRAY:
+        processArray(valueSchema, valueExpr, body);
+        break;
+      case MAP:
+        processMap(valueSchema, valueExpr, body);
+        break;
+      case UNION:
+        processUnion(valueSchema, valueExpr, body);
+        break;
+      case ENUM:
+        body.invoke(out, "writeString").arg(valueExpr.invoke("toString"));
+        break;
+      case FIXED:
+        body.invoke(out, "writeFixed").arg(JExpr.invoke(JExpr.cast(codeModel.ref(GenericFixed.class), valueExpr), "bytes"));
+        break;
+      case STRING:
+        body.invoke(out, "writeString").arg(JExpr.cast(codeModel.ref(CharSequence.class), valueExpr));
+        break;
+      case BYTES:
+        body.invoke(out, "writeBytes").arg(JExpr.cast(codeModel.ref(ByteBuffer.class), valueExpr));
+        break;
+      case INT:
+        body.invoke(out, "writeInt").arg(JExpr.cast(codeModel.ref(Integer.class), valueExpr));
+        break;
+      case LONG:
+        body.invoke(out, "writeLong").arg(JExpr.cast(codeModel.ref(Long.class), valueExpr));
+        break;
+      case FLOAT:
+        body.invoke(out, "writeFloat").arg(JExpr.cast(codeModel.ref(Float.class), valueExpr));
+        break;
+      case DOUBLE:
+        body.invoke(out, "writeDouble").arg(JExpr.cast(codeModel.ref(Double.class), valueExpr));
+        break;
+      case BOOLEAN:
+        body.invoke(out, "writeBoolean").arg(JExpr.cast(codeModel.ref(Boolean.class), valueExpr));
+        break;
+      case NULL:
+        body.invoke(out, "writeNull");
+        break;
+      default:
+        throw new FastSerdeGeneratorException("Unsupported schema type: " + valueSchema.getType());
+    }
+  }
+
+  private JMethod getOrCreateRecordMethod(Schema recordSchema) {
+    String fullName = AvroCompatibilityHelper.getSchemaFullName(recordSchema);
+    JMethod method = serializeMethodMap.get(fullName);
+    if (method != null) {
+      return method;
+    }
+    method = generatedClass.method(JMod.PUBLIC, codeModel.VOID,
+        getUniqueName("serialize" + StringUtils.capitalize(recordSchema.getName())));
+    method._throws(IOException.class);
+    JVar record = method.param(IndexedRecord.class, "data");
+    method.param(FastJsonWriter.class, OUT);
+    // registered before processing the fields, so recursive records call the method being defined
+    serializeMethodMap.put(fullName, method);
+
+    JBlock body = method.body();
+    body.invoke(JExpr.direct(OUT), "writeStartObject");
+    for (Schema.Field field : recordSchema.getFields()) {
+      body.invoke(JExpr.direct(OUT), "writeFieldName").arg(JExpr.lit(field.name()));
+      JExpression fieldValue = record.invoke("get").arg(JExpr.lit(field.pos()));
+      if (SchemaAssistant.isComplexType(field.schema())) {
+        JVar fieldVar = body.decl(codeModel.ref(Object.class), getUniqueName(field.name()), fieldValue);
+        processValue(field.schema(), fieldVar, body);
+      } else {
+        processValue(field.schema(), fieldValue, body);
+      }
+    }
+    body.invoke(JExpr.direct(OUT), "writeEndObject");
+    return method;
+  }
+
+  private void processArray(Schema arraySchema, JExpression arrayExpr, JBlock body) {
+    body.invoke(JExpr.direct(OUT), "writeStartArray");
+    JForEach elementLoop = body.forEach(codeModel.ref(Object.class), getUniqueName("element"),
+        JExpr.cast(codeModel.ref(List.class).narrow(anyClass()), arrayExpr));
+    processValue(arraySchema.getElementType(), elementLoop.var(), elementLoop.body());
+    body.invoke(JExpr.direct(OUT), "writeEndArray");
+  }
+
+  private void processMap(Schema mapSchema, JExpression mapExpr, JBlock body) {
+    JClass entryClass = codeModel.ref(Map.Entry.class).narrow(anyClass(), anyClass());
+    body.invoke(JExpr.direct(OUT), "writeStartObject");
+    JForEach entryLoop = body.forEach(entryClass, getUniqueName("entry"),
+        JExpr.invoke(JExpr.cast(codeModel.ref(Map.class).narrow(anyClass(), anyClass()), mapExpr), "entrySet"));
+    JBlock entryBody = entryLoop.body();
+    entryBody.invoke(JExpr.direct(OUT), "writeFieldName").arg(entryLoop.var().invoke("getKey").invoke("toString"));
+    JVar valueVar = entryBody.decl(codeModel.ref(Object.class), getUniqueName("value"),
+        entryLoop.var().invoke("getValue"));
+    processValue(mapSchema.getValueType(), valueVar, entryBody);
+    body.invoke(JExpr.direct(OUT), "writeEndObject");
+  }
+
+  /**
+   * Branches are told apart like {@link FastSerializerGenerator} does, named types by the full name of their schema
+   * when it is available.
+   */
+  private void processUnion(Schema unionSchema, JExpression unionExpr, JBlock body) {
+    JConditional ifBlock = body._if(unionExpr.eq(JExpr._null()));
+    if (unionSchema.getTypes().stream().anyMatch(type -> Schema.Type.NULL.equals(type.getType()))) {
+      ifBlock._then().invoke(JExpr.direct(OUT), "writeNull");
+    } else {
+      throwNotInUnion(unionSchema, unionExpr, ifBlock._then());
+    }
+
+    for (Schema branchSchema : unionSchema.getTypes()) {
+      if (Schema.Type.NULL.equals(branchSchema.getType())) {
+        continue;
+      }
+      JClass rawBranchClass = schemaAssistant.classFromSchema(branchSchema, true, true);
+      JExpression condition = unionExpr._instanceof(rawBranchClass);
+      if (SchemaAssistant.isNamedTypeWithSchema(branchSchema)) {
+        condition = condition.cand(JExpr.lit(AvroCompatibilityHelper.getSchemaFullName(branchSchema))
+            .invoke("equals")
+            .arg(JExpr.invoke(JExpr.cast(schemaAssistant.classFromSchema(branchSchema), unionExpr), "getSchema")
+                .invoke("getFullName")));
+      }
+      ifBlock = ifBlock._elseif(condition);
+      JBlock branchBody = ifBlock._then();
+      String simpleName = branchSchema.getName();
+      branchBody.invoke(JExpr.direct(OUT), "writeStartUnionBranch")
+          .arg(JExpr.lit(simpleName))
+          .arg(JExpr.lit(SchemaAssistant.isNamedType(branchSchema)
+              ? AvroCompatibilityHelper.getSchemaFullName(branchSchema) : simpleName));
+      processValue(branchSchema, unionExpr, branchBody);
+      branchBody.invoke(JExpr.direct(OUT), "writeEndUnionBranch");
+    }
+    throwNotInUnion(unionSchema, unionExpr, ifBlock._else());
+  }
+
+  /**
+   * @return wildcard type, so containers can be iterated whatever the type of their values
+   */
+  private JClass anyClass() {
+    return codeModel.ref(Object.class).wildcard();
+  }
+
+  private void throwNotInUnion(Schema unionSchema, JExpression unionExpr, JBlock body) {
+    body._throw(JExpr._new(codeModel.ref(AvroTypeException.class))
+        .arg(JExpr.lit("Not in union " + unionSchema.getTypes().stream()
+            .map(SchemaAssistant::getSchemaFullName)
+            .collect(Collectors.toList()) + ": ").plus(unionExpr)));
+  }
+}
@@ -0,0 +1,255 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avroutil1.compatibility.AvroVersion;
+import java.nio.ByteBuffer;
+
+
+/**
+ * Writes the Avro JSON encoding of values, as produced by
+ * {@link com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper#newJsonEncoder}, for the generated
+ * {@link FastJsonSerializer}s.
+ *
+ * The JSON is written compactly to an in-memory buffer, without any grammar: the generated serializers already know
+ * the structure of the values, so they only call the methods writing each token. Numbers are formatted like Jackson
+ * does, and non-finite floating point numbers are written as quoted strings. Writers aren't thread-safe, and can be
+ * {@link #reset() reset} to be reused.
+ */
+public final class FastJsonWriter {
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+  private final AvroVersion jsonFormat;
+  private final boolean fullUnionBranchNames;
+  private final StringBuilder json;
+  // whether a comma must be written before the next field or element
+  private boolean inSequence;
+
+  public FastJsonWriter() {
+    this(null);
+  }
+
+  /**
+   * @param jsonFormat which major version of avro to match for the naming of union branches, null means the runtime
+   *                   version: avro 1.4 names named types by their simple name, later versions by their full name
+   */
+  public FastJsonWriter(AvroVersion jsonFormat) {
+    this(jsonFormat, 256);
+  }
+
+  public FastJsonWriter(AvroVersion jsonFormat, int initialCapacity) {
+    this.jsonFormat = jsonFormat;
+    AvroVersion format = jsonFormat != null ? jsonFormat : (Utils.isAvro14() ? AvroVersion.AVRO_1_4 : null);
+    this.fullUnionBranchNames = format == null || format.laterThan(AvroVersion.AVRO_1_4);
+    this.json = new StringBuilder(initialCapacity);
+  }
+
+  /**
+   * @return which major version of avro to match for the JSON format, null for the runtime version
+   */
+  public AvroVersion getJsonFormat() {
+    return jsonFormat;
+  }
+
+  /**
+   * Clears the JSON written so far, keeping the buffer.
+   */
+  public void reset() {
+    json.setLength(0);
+    inSequence = false;
+  }
+
+  /**
+   * @return the JSON written since the writer was created or reset
+   */
+  @Override
+  public String toString() {
+    return json.toString();
+  }
+
+  public void writeNull() {
+    separate();
+    json.append("null");
+  }
+
+  public void writeBoolean(boolean value) {
+    separate();
+    json.append(value ? "true" : "false");
+  }
+
+  public void writeInt(int value) {
+    separate();
+    json.append(value);
+  }
+
+  public void writeLong(long value) {
+    separate();
+    json.append(value);
+  }
+
+  public void writeFloat(float value) {
+    separate();
+    if (Float.isNaN(value) || Float.isInfinite(value)) {
+      json.append('"').append(value).append('"');
+    } else {
+      json.append(value);
+    }
+  }
+
+  public void writeDouble(double value) {
+    separate();
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      json.append('"').append(value).append('"');
+    } else {
+      json.append(value);
+    }
+  }
+
+  /**
+   * Writes a string, or the symbol of an enum.
+   */
+  public void writeString(CharSequence value) {
+    separate();
+    appendQuoted(value.toString());
+  }
+
+  /**
+   * Writes bytes as a string of ISO-8859-1 characters, the position of the buffer is left unchanged.
+   */
+  public void writeBytes(ByteBuffer value) {
+    separate();
+    json.append('"');
+    int limit = value.limit();
+    for (int i = value.position(); i < limit; i++) {
+      appendChar((char) (value.get(i) & 0xff));
+    }
+    json.append('"');
+  }
+
+  /**
+   * Writes the bytes of a fixed as a string of ISO-8859-1 characters.
+   */
+  public void writeFixed(byte[] value) {
+    separate();
+    json.append('"');
+    for (byte b : value) {
+      appendChar((char) (b & 0xff));
+    }
+    json.append('"');
+  }
+
+  public void writeStartObject() {
+    separate();
+    json.append('{');
+    inSequence = false;
+  }
+
+  /**
+   * Writes the name of the next field of a record, or the key of the next entry of a map.
+   */
+  public void writeFieldName(CharSequence name) {
+    separate();
+    appendQuoted(name.toString());
+    json.append(':');
+    inSequence = false;
+  }
+
+  public void writeEndObject() {
+    json.append('}');
+    inSequence = true;
+  }
+
+  public void writeStartArray() {
+    separate();
+    json.append('[');
+    inSequence = false;
+  }
+
+  public void writeEndArray() {
+    json.append(']');
+    inSequence = true;
+  }
+
+  /**
+   * Starts a non-null branch of a union, which is written as an object whose single field is named after the branch.
+   * Must be followed by the value of the branch and {@link #writeEndUnionBranch()}.
+   *
+   * @param simpleName name of the branch in the avro 1.4 JSON format
+   * @param fullName name of the branch in the later JSON formats, which differs for named types only
+   */
+  public void writeStartUnionBranch(String simpleName, String fullName) {
+    writeStartObject();
+    writeFieldName(fullUnionBranchNames ? fullName : simpleName);
+  }
+
+  public void writeEndUnionBranch() {
+    writeEndObject();
+  }
+
+  /**
+   * Appends JSON written by another encoder as the next value.
+   */
+  void writeRawValue(String value) {
+    separate();
+    json.append(value);
+    inSequence = true;
+  }
+
+  private void separate() {
+    if (inSequence) {
+      json.append(',');
+    }
+    // the value about to be written is followed by a comma if it has a sibling, a field name resets this right away
+    inSequence = true;
+  }
+
+  private void appendQuoted(String value) {
+    json.append('"');
+    int length = value.length();
+    int start = 0;
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (c < 0x20 || c == '"' || c == '\\') {
+        json.append(value, start, i);
+        appendEscaped(c);
+        start = i + 1;
+      }
+    }
+    json.append(value, start, length);
+    json.append('"');
+  }
+
+  private void appendChar(char c) {
+    if (c < 0x20 || c == '"' || c == '\\') {
+      appendEscaped(c);
+    } else {
+      json.append(c);
+    }
+  }
+
+  private void appendEscaped(char c) {
+    switch (c) {
+      case '"':
+        json.append("\\\"");
+        break;
+      case '\\':
+        json.append("\\\\");
+        break;
+      case '\b':
+        json.append("\\b");
+        break;
+      case '\f':
+        json.append("\\f");
+        break;
+      case '\n':
+        json.append("\\n");
+        break;
+      case '\r':
+        json.append("\\r");
+        break;
+      case '\t':
+        json.append("\\t");
+        break;
+      default:
+        json.append("\\u00").append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xf]);
+    }
+  }
+}
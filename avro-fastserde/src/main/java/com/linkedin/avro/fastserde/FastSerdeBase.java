@@ -10,11 +10,20 @@ import com.sun.codemodel.JExpression;
 import com.sun.codemodel.JVar;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
+import javax.tools.DiagnosticCollector;
 import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
 import javax.tools.ToolProvider;
 import org.apache.avro.Schema;
 import org.apache.commons.lang3.StringUtils;
@@ -46,6 +55,9 @@ public abstract class FastSerdeBase {
   protected final ClassLoader classLoader;
   protected final String compileClassPath;
   protected JDefinedClass generatedClass;
+  private FastSerdeClassStore classStore;
+  private int hugeMethodLimit = MethodSizeEstimator.DEFAULT_HUGE_METHOD_LIMIT;
+  private long generatedClassBytes;
 
   public FastSerdeBase(String description, boolean useGenericTypes, Class defaultStringClass, File destination, ClassLoader classLoader,
       String compileClassPath, boolean isForSerializer) {
@@ -58,6 +70,36 @@ public abstract class FastSerdeBase {
     this.generatedSourcesPath = generateSourcePathFromPackageName(generatedPackageName);
   }
 
+  /**
+   * @param classStore persistent store, which is consulted before generating a class and populated after compiling it
+   */
+  void setClassStore(FastSerdeClassStore classStore) {
+    this.classStore = classStore;
+  }
+
+  /**
+   * @param hugeMethodLimit bytecode size of the largest methods the JIT compiler compiles, which the generated methods
+   *                        are split to stay under, see {@link MethodSizeEstimator}
+   */
+  void setHugeMethodLimit(int hugeMethodLimit) {
+    this.hugeMethodLimit = hugeMethodLimit;
+  }
+
+  /**
+   * @return the estimated size a generated method can grow to before being split
+   */
+  protected int getMethodSizeBudget() {
+    return MethodSizeEstimator.getMethodSizeBudget(hugeMethodLimit);
+  }
+
+  /**
+   * @return size of the bytecode of the class (including its nested classes) defined by this generator, 0 if no class
+   *     has been defined, e.g. because a precompiled class was found on the classpath
+   */
+  long getGeneratedClassBytes() {
+    return generatedClassBytes;
+  }
+
   /**
    * A function to generate unique names, such as those of variables and functions, within the scope
    * of the this class instance (i.e. per serializer of a given schema or deserializer of a given
@@ -103,18 +145,15 @@ public abstract class FastSerdeBase {
   @SuppressWarnings("unchecked")
   protected Class compileClass(final String className, Set<String> knownUsedFullyQualifiedClassNameSet)
       throws IOException, ClassNotFoundException {
+    if (classLoader instanceof InMemoryClassLoader) {
+      return compileClassInMemory((InMemoryClassLoader) classLoader, className, knownUsedFullyQualifiedClassNameSet);
+    }
+
     codeModel.build(destination);
 
     String filePath = destination.getAbsolutePath() + generatedSourcesPath + className + ".java";
 
-    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
-    if (null == compiler) {
-      /**
-       * If the above function returns null, it is very likely that the env setting: "JAVA_HOME" is not being setup properly.
-       */
-      throw new FastSerdeGeneratorException("Couldn't locate java compiler at runtime, please double check your env "
-          + "setting for 'JAVA_HOME', and here is the value for 'System.getProperty(\"java.home\")': " + System.getProperty("java.home"));
-    }
+    JavaCompiler compiler = getJavaCompiler();
     String compileClassPathForCurrentFile = Utils.inferCompileDependencies(compileClassPath, filePath, knownUsedFullyQualifiedClassNameSet);
     int compileResult;
     try {
@@ -145,6 +184,206 @@ public abstract class FastSerdeBase {
       LOGGER.info("Successfully compiled class {} defined at source file: {}", className, filePath);
     }
 
+    Map<String, byte[]> compiledClasses = readCompiledClasses(className);
+    generatedClassBytes = compiledClasses.values().stream().mapToLong(bytecode -> bytecode.length).sum();
+    storeClasses(generatedPackageName + "." + className, compiledClasses);
     return classLoader.loadClass(generatedPackageName + "." + className);
   }
+
+  /**
+   * Same as {@link #compileClass(String, Set)}, but the class is compiled by the given {@link FastSerdeBatchCompiler}
+   * along with other generated classes.
+   */
+  protected CompletableFuture<Class> compileClass(FastSerdeBatchCompiler batchCompiler, final String className,
+      Set<String> knownUsedFullyQualifiedClassNameSet) throws IOException, ClassNotFoundException {
+    String fullyQualifiedClassName = generatedPackageName + "." + className;
+    InMemoryJavaFileManager.InMemoryCodeWriter codeWriter = new InMemoryJavaFileManager.InMemoryCodeWriter();
+    codeModel.build(codeWriter);
+    String source = codeWriter.getSource(fullyQualifiedClassName);
+    if (source == null) {
+      throw new FastSerdeGeneratorException("Unable to find generated source for class: " + fullyQualifiedClassName);
+    }
+
+    String compileClassPathForCurrentClass =
+        Utils.inferCompileDependenciesFromSource(compileClassPath, source, knownUsedFullyQualifiedClassNameSet);
+    return batchCompiler.compile(fullyQualifiedClassName, codeWriter.getSourceFiles(), compileClassPathForCurrentClass)
+        .thenApply(compiledClasses -> {
+          try {
+            defineClasses(compiledClasses);
+            generatedClassBytes = compiledClasses.values().stream().mapToLong(bytecode -> bytecode.length).sum();
+            storeClasses(fullyQualifiedClassName, compiledClasses);
+            return classLoader.loadClass(fullyQualifiedClassName);
+          } catch (IOException | ClassNotFoundException e) {
+            throw new FastSerdeGeneratorException("Unable to load batch compiled class: " + fullyQualifiedClassName, e);
+          }
+        });
+  }
+
+  /**
+   * Looks the class up on the classpath first, where it can be found if it was generated ahead of time (e.g. by
+   * avro-builder) and compiled along with the application, and then in the persistent class store.
+   *
+   * @param className simple name of the generated class
+   * @return previously compiled class or null if the class has to be generated
+   */
+  protected Class loadExistingClass(final String className) {
+    String fullyQualifiedClassName = generatedPackageName + "." + className;
+    Class precompiledClass = loadPrecompiledClass(fullyQualifiedClassName);
+    return precompiledClass != null ? precompiledClass : loadStoredClass(fullyQualifiedClassName);
+  }
+
+  private Class loadPrecompiledClass(String fullyQualifiedClassName) {
+    Class clazz = loadPrecompiledClass(fullyQualifiedClassName, classLoader);
+    ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+    if (clazz == null && contextClassLoader != classLoader) {
+      clazz = loadPrecompiledClass(fullyQualifiedClassName, contextClassLoader);
+    }
+    return clazz;
+  }
+
+  private static Class loadPrecompiledClass(String fullyQualifiedClassName, ClassLoader loader) {
+    if (loader == null) {
+      return null;
+    }
+    try {
+      Class clazz = Class.forName(fullyQualifiedClassName, true, loader);
+      LOGGER.info("Found precompiled class {} on the classpath", fullyQualifiedClassName);
+      return clazz;
+    } catch (ClassNotFoundException e) {
+      return null;
+    } catch (LinkageError e) {
+      LOGGER.warn("Unable to load precompiled class {}, it will be generated again", fullyQualifiedClassName, e);
+      return null;
+    }
+  }
+
+  private Class loadStoredClass(String fullyQualifiedClassName) {
+    if (classStore == null) {
+      return null;
+    }
+    Map<String, byte[]> storedClasses = classStore.load(fullyQualifiedClassName);
+    if (storedClasses == null) {
+      return null;
+    }
+    try {
+      if (!(classLoader instanceof InMemoryClassLoader) && destination == null) {
+        return null;
+      }
+      defineClasses(storedClasses);
+      Class clazz = classLoader.loadClass(fullyQualifiedClassName);
+      generatedClassBytes = storedClasses.values().stream().mapToLong(bytecode -> bytecode.length).sum();
+      LOGGER.info("Loaded class {} from the fast serde class store", fullyQualifiedClassName);
+      return clazz;
+    } catch (IOException | ClassNotFoundException | LinkageError e) {
+      LOGGER.warn("Unable to load class {} from the fast serde class store, it will be generated again",
+          fullyQualifiedClassName, e);
+      return null;
+    }
+  }
+
+  /**
+   * Makes the given classes loadable by {@link #classLoader}.
+   *
+   * @param classes bytecode keyed by binary class name
+   */
+  private void defineClasses(Map<String, byte[]> classes) throws IOException {
+    if (classLoader instanceof InMemoryClassLoader) {
+      ((InMemoryClassLoader) classLoader).addClasses(classes);
+    } else {
+      /**
+       * Class files are put where javac would have written them, so the regular class loader picks them up.
+       */
+      for (Map.Entry<String, byte[]> definedClass : classes.entrySet()) {
+        Path classFile = destination.toPath().resolve(definedClass.getKey().replace('.', File.separatorChar) + ".class");
+        Files.createDirectories(classFile.getParent());
+        Files.write(classFile, definedClass.getValue());
+      }
+    }
+  }
+
+  private Map<String, byte[]> readCompiledClasses(final String className) throws IOException {
+    Map<String, byte[]> compiledClasses = new HashMap<>();
+    Path classDirectory = destination.toPath().resolve(generatedPackageName.replace('.', File.separatorChar));
+    try (Stream<Path> classFiles = Files.list(classDirectory)) {
+      for (Path classFile : (Iterable<Path>) classFiles::iterator) {
+        String fileName = classFile.getFileName().toString();
+        if (fileName.equals(className + ".class") || (fileName.startsWith(className + "$") && fileName.endsWith(".class"))) {
+          compiledClasses.put(generatedPackageName + "." + fileName.substring(0, fileName.length() - ".class".length()),
+              Files.readAllBytes(classFile));
+        }
+      }
+    }
+    return compiledClasses;
+  }
+
+  private void storeClasses(String fullyQualifiedClassName, Map<String, byte[]> compiledClasses) {
+    if (classStore == null) {
+      return;
+    }
+    try {
+      classStore.store(fullyQualifiedClassName, compiledClasses);
+    } catch (IOException e) {
+      LOGGER.warn("Unable to store class {} in the fast serde class store", fullyQualifiedClassName, e);
+    }
+  }
+
+  /**
+   * Compiles the generated class without any file system round-trip: the source is kept in memory, javac output is
+   * collected by {@link InMemoryJavaFileManager} and the resulting bytecode is defined by {@link InMemoryClassLoader}.
+   */
+  private Class compileClassInMemory(InMemoryClassLoader inMemoryClassLoader, final String className,
+      Set<String> knownUsedFullyQualifiedClassNameSet) throws IOException, ClassNotFoundException {
+    String fullyQualifiedClassName = generatedPackageName + "." + className;
+    InMemoryJavaFileManager.InMemoryCodeWriter codeWriter = new InMemoryJavaFileManager.InMemoryCodeWriter();
+    codeModel.build(codeWriter);
+    String source = codeWriter.getSource(fullyQualifiedClassName);
+    if (source == null) {
+      throw new FastSerdeGeneratorException("Unable to find generated source for class: " + fullyQualifiedClassName);
+    }
+
+    JavaCompiler compiler = getJavaCompiler();
+    String compileClassPathForCurrentClass =
+        Utils.inferCompileDependenciesFromSource(compileClassPath, source, knownUsedFullyQualifiedClassNameSet);
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    boolean compileResult;
+    try (InMemoryJavaFileManager fileManager =
+        new InMemoryJavaFileManager(compiler.getStandardFileManager(diagnostics, null, null))) {
+      LOGGER.info("Starting in-memory compilation for the generated class: {} ", fullyQualifiedClassName);
+      LOGGER.debug("The inferred compile class path for class: {} : {}", fullyQualifiedClassName, compileClassPathForCurrentClass);
+      try {
+        /**
+         * "-XDuseUnsharedTable" is used for the same reason as in the on-disk compilation above.
+         */
+        compileResult = compiler.getTask(null, fileManager, diagnostics,
+            Arrays.asList("-cp", compileClassPathForCurrentClass, "-XDuseUnsharedTable"), null,
+            codeWriter.getSourceFiles()).call();
+      } catch (Exception e) {
+        throw new FastSerdeGeneratorException("Unable to compile:" + className + " in memory", e);
+      }
+
+      if (!compileResult) {
+        throw new FastSerdeGeneratorException("Unable to compile:" + className + " in memory, diagnostics: "
+            + diagnostics.getDiagnostics());
+      }
+      Map<String, byte[]> compiledClasses = fileManager.getCompiledClasses();
+      generatedClassBytes = compiledClasses.values().stream().mapToLong(bytecode -> bytecode.length).sum();
+      inMemoryClassLoader.addClasses(compiledClasses);
+      storeClasses(fullyQualifiedClassName, compiledClasses);
+    }
+    LOGGER.info("Successfully compiled class {} in memory", fullyQualifiedClassName);
+
+    return inMemoryClassLoader.loadClass(fullyQualifiedClassName);
+  }
+
+  static JavaCompiler getJavaCompiler() {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    if (null == compiler) {
+      /**
+       * If the above function returns null, it is very likely that the env setting: "JAVA_HOME" is not being setup properly.
+       */
+      throw new FastSerdeGeneratorException("Couldn't locate java compiler at runtime, please double check your env "
+          + "setting for 'JAVA_HOME', and here is the value for 'System.getProperty(\"java.home\")': " + System.getProperty("java.home"));
+    }
+    return compiler;
+  }
 }
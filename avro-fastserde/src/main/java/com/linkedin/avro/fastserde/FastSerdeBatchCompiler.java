@@ -0,0 +1,171 @@
+package com.linkedin.avro.fastserde;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Coalesces compilation requests of generated classes, which arrive within a short window, and compiles them with a
+ * single javac {@link JavaCompiler.CompilationTask}, so compiler startup and symbol table loading are paid once per
+ * batch instead of once per class.
+ *
+ * A batch is compiled once it reaches the configured size or once the flush interval has elapsed since its first
+ * request, whichever comes first. If the batch fails to compile (e.g. because of a single broken class), every class
+ * of the batch is compiled on its own, so only the broken one fails.
+ */
+class FastSerdeBatchCompiler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(FastSerdeBatchCompiler.class);
+
+  private final int maxBatchSize;
+  private final long flushIntervalMillis;
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread thread = new Thread(runnable);
+    thread.setDaemon(true);
+    thread.setName("avro-fastserde-batch-compile-thread");
+    return thread;
+  });
+
+  private List<Request> pendingRequests = new ArrayList<>();
+
+  FastSerdeBatchCompiler(int maxBatchSize, long flushIntervalMillis) {
+    this.maxBatchSize = Math.max(1, maxBatchSize);
+    this.flushIntervalMillis = Math.max(0, flushIntervalMillis);
+  }
+
+  /**
+   * @param fullyQualifiedClassName name of the generated top-level class
+   * @param sourceFiles java sources of the generated class
+   * @param compileClassPath classpath needed to compile the generated class
+   * @return future completed with the bytecode of the class and its nested classes keyed by binary class name
+   */
+  CompletableFuture<Map<String, byte[]>> compile(String fullyQualifiedClassName, List<JavaFileObject> sourceFiles,
+      String compileClassPath) {
+    Request request = new Request(fullyQualifiedClassName, sourceFiles, compileClassPath);
+    synchronized (this) {
+      pendingRequests.add(request);
+      if (pendingRequests.size() == 1) {
+        scheduler.schedule(this::flush, flushIntervalMillis, TimeUnit.MILLISECONDS);
+      } else if (pendingRequests.size() >= maxBatchSize) {
+        scheduler.execute(this::flush);
+      }
+    }
+    return request.result;
+  }
+
+  private void flush() {
+    List<Request> batch;
+    synchronized (this) {
+      if (pendingRequests.isEmpty()) {
+        return;
+      }
+      if (pendingRequests.size() <= maxBatchSize) {
+        batch = pendingRequests;
+        pendingRequests = new ArrayList<>();
+      } else {
+        batch = new ArrayList<>(pendingRequests.subList(0, maxBatchSize));
+        pendingRequests = new ArrayList<>(pendingRequests.subList(maxBatchSize, pendingRequests.size()));
+        scheduler.execute(this::flush);
+      }
+    }
+
+    try {
+      Map<String, byte[]> compiledClasses = compileBatch(batch);
+      for (Request request : batch) {
+        request.result.complete(request.select(compiledClasses));
+      }
+    } catch (Exception e) {
+      if (batch.size() == 1) {
+        batch.get(0).result.completeExceptionally(e);
+        return;
+      }
+      LOGGER.warn("Unable to compile a batch of {} generated classes, compiling them one by one", batch.size(), e);
+      for (Request request : batch) {
+        try {
+          request.result.complete(request.select(compileBatch(Collections.singletonList(request))));
+        } catch (Exception individualException) {
+          request.result.completeExceptionally(individualException);
+        }
+      }
+    }
+  }
+
+  private static Map<String, byte[]> compileBatch(List<Request> batch) throws IOException {
+    List<JavaFileObject> sourceFiles = new ArrayList<>();
+    Set<String> classPathEntries = new LinkedHashSet<>();
+    for (Request request : batch) {
+      sourceFiles.addAll(request.sourceFiles);
+      classPathEntries.addAll(Arrays.asList(request.compileClassPath.split(File.pathSeparator)));
+    }
+    classPathEntries.remove("");
+
+    JavaCompiler compiler = FastSerdeBase.getJavaCompiler();
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    try (InMemoryJavaFileManager fileManager =
+        new InMemoryJavaFileManager(compiler.getStandardFileManager(diagnostics, null, null))) {
+      LOGGER.info("Starting batch compilation of {} generated classes", batch.size());
+      boolean compileResult;
+      try {
+        /**
+         * "-XDuseUnsharedTable" is used for the same reason as in {@link FastSerdeBase#compileClass}.
+         */
+        compileResult = compiler.getTask(null, fileManager, diagnostics,
+            Arrays.asList("-cp", String.join(File.pathSeparator, classPathEntries), "-XDuseUnsharedTable"), null,
+            sourceFiles).call();
+      } catch (Exception e) {
+        throw new FastSerdeGeneratorException("Unable to compile a batch of " + batch.size() + " classes", e);
+      }
+      if (!compileResult) {
+        throw new FastSerdeGeneratorException("Unable to compile a batch of " + batch.size()
+            + " classes, diagnostics: " + diagnostics.getDiagnostics());
+      }
+      LOGGER.info("Successfully compiled a batch of {} generated classes", batch.size());
+      return fileManager.getCompiledClasses();
+    }
+  }
+
+  private static final class Request {
+    private final String fullyQualifiedClassName;
+    private final List<JavaFileObject> sourceFiles;
+    private final String compileClassPath;
+    private final CompletableFuture<Map<String, byte[]>> result = new CompletableFuture<>();
+
+    private Request(String fullyQualifiedClassName, List<JavaFileObject> sourceFiles, String compileClassPath) {
+      this.fullyQualifiedClassName = fullyQualifiedClassName;
+      this.sourceFiles = sourceFiles;
+      this.compileClassPath = compileClassPath;
+    }
+
+    /**
+     * @return bytecode of the requested class and its nested classes
+     */
+    private Map<String, byte[]> select(Map<String, byte[]> compiledClasses) {
+      Map<String, byte[]> classes = new HashMap<>();
+      compiledClasses.forEach((className, bytecode) -> {
+        if (className.equals(fullyQualifiedClassName) || className.startsWith(fullyQualifiedClassName + "$")) {
+          classes.put(className, bytecode);
+        }
+      });
+      if (!classes.containsKey(fullyQualifiedClassName)) {
+        throw new FastSerdeGeneratorException("Class " + fullyQualifiedClassName + " is missing in the compiled batch");
+      }
+      return classes;
+    }
+  }
+}
@@ -3,21 +3,29 @@ package com.linkedin.avro.fastserde;
 import static com.linkedin.avro.fastserde.Utils.getSchemaFingerprint;
 import static com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper.getSchemaFullName;
 
+import com.linkedin.avro.fastserde.FastSerdeCacheListener.SerdeKind;
+import com.linkedin.avro.fastserde.FastSerdeCacheListener.SerdeState;
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.ParameterizedType;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import org.apache.avro.Schema;
@@ -44,19 +52,36 @@ public final class FastSerdeCache {
 
   public static final String CLASSPATH = "avro.fast.serde.classpath";
   public static final String CLASSPATH_SUPPLIER = "avro.fast.serde.classpath.supplier";
+  public static final String COMPILE_IN_MEMORY = "avro.fast.serde.compile.in.memory";
+  public static final String BACKEND = "avro.fast.serde.backend";
+  public static final String CLASS_STORE_DIR = "avro.fast.serde.class.store.dir";
+  public static final String MAX_CACHE_ENTRIES = "avro.fast.serde.cache.max.entries";
+  public static final String MAX_ESTIMATED_METASPACE_BYTES = "avro.fast.serde.cache.max.metaspace.bytes";
+  public static final String COMPILE_BATCH_SIZE = "avro.fast.serde.compile.batch.size";
+  public static final String COMPILE_BATCH_FLUSH_INTERVAL_MS = "avro.fast.serde.compile.batch.flush.interval.ms";
+  public static final String COMPILE_THRESHOLD = "avro.fast.serde.compile.threshold";
+  public static final String HUGE_METHOD_LIMIT = "avro.fast.serde.huge.method.limit";
+  public static final String UTF8_HASH_MAPS = "avro.fast.serde.utf8.hash.maps";
 
   private static final Logger LOGGER = LoggerFactory.getLogger(FastSerdeCache.class);
 
   private static volatile FastSerdeCache _INSTANCE;
 
-  private final Map<String, FastDeserializer<?>> fastSpecificRecordDeserializersCache =
+  private final Map<SchemaPairKey, FastDeserializer<?>> fastSpecificRecordDeserializersCache =
+      new FastAvroConcurrentHashMap<>();
+  private final Map<SchemaPairKey, FastDeserializer<?>> fastGenericRecordDeserializersCache =
+      new FastAvroConcurrentHashMap<>();
+  private final Map<SchemaPairKey, FastDeserializer<?>> fastGenericLazyRecordDeserializersCache =
+      new FastAvroConcurrentHashMap<>();
+
+  private final Map<SchemaPairKey, FastSerializer<?>> fastSpecificRecordSerializersCache =
       new FastAvroConcurrentHashMap<>();
-  private final Map<String, FastDeserializer<?>> fastGenericRecordDeserializersCache =
+  private final Map<SchemaPairKey, FastSerializer<?>> fastGenericRecordSerializersCache =
       new FastAvroConcurrentHashMap<>();
 
-  private final Map<String, FastSerializer<?>> fastSpecificRecordSerializersCache =
+  private final Map<SchemaPairKey, FastJsonDeserializer<?>> fastGenericJsonDeserializersCache =
       new FastAvroConcurrentHashMap<>();
-  private final Map<String, FastSerializer<?>> fastGenericRecordSerializersCache =
+  private final Map<SchemaPairKey, FastJsonSerializer<?>> fastGenericJsonSerializersCache =
       new FastAvroConcurrentHashMap<>();
 
   private Executor executor;
@@ -66,6 +91,46 @@ public final class FastSerdeCache {
 
   private Optional<String> compileClassPath;
 
+  private FastSerdeCacheConfig.Backend backend;
+
+  private FastSerdeClassStore classStore;
+
+  private int hugeMethodLimit;
+
+  private boolean utf8HashMaps;
+
+  /**
+   * Only set when compilation is driven by hotness, see {@link FastSerdeCacheConfig#withCompileThreshold(long)}.
+   */
+  private FastSerdeCompileScheduler compileScheduler;
+
+  /**
+   * Only set when batch compilation is enabled, see {@link FastSerdeCacheConfig#isBatchCompilation()}.
+   */
+  private FastSerdeBatchCompiler batchCompiler;
+
+  /**
+   * Only set in bounded mode, see {@link FastSerdeCacheConfig#isBounded()}.
+   */
+  private FastSerdeCacheEvictor evictor;
+  private FastSerdeCacheEvictor.Region specificDeserializersRegion;
+  private FastSerdeCacheEvictor.Region genericDeserializersRegion;
+  private FastSerdeCacheEvictor.Region genericLazyDeserializersRegion;
+  private FastSerdeCacheEvictor.Region specificSerializersRegion;
+  private FastSerdeCacheEvictor.Region genericSerializersRegion;
+  private FastSerdeCacheEvictor.Region genericJsonDeserializersRegion;
+  private FastSerdeCacheEvictor.Region genericJsonSerializersRegion;
+
+  /**
+   * Optional, all the notifications are skipped when not set.
+   */
+  private FastSerdeCacheListener listener;
+
+  /**
+   * Number of serdes queued or being generated by {@link #executor}.
+   */
+  private final AtomicInteger pendingCompilations = new AtomicInteger();
+
   /**
    *
    * @param compileClassPathSupplier
@@ -103,33 +168,111 @@ public final class FastSerdeCache {
     this.compileClassPath = Optional.ofNullable(compileClassPath);
   }
 
+  /**
+   *
+   * @param executorService
+   *            customized {@link Executor} used by serializer/deserializer compile threads
+   * @param compileClassPath
+   *            custom classpath as string
+   * @param config
+   *            {@link FastSerdeCacheConfig} with optional settings
+   */
+  public FastSerdeCache(Executor executorService, String compileClassPath, FastSerdeCacheConfig config) {
+    this(executorService, config);
+    this.compileClassPath = Optional.ofNullable(compileClassPath);
+  }
+
   /**
    *
    * @param executorService
    *            customized {@link Executor} used by serializer/deserializer compile threads
    */
   public FastSerdeCache(Executor executorService) {
+    this(executorService, FastSerdeCacheConfig.newConfig());
+  }
+
+  private FastSerdeCache(Executor executorService, FastSerdeCacheConfig config) {
     this.executor = executorService != null ? executorService : getDefaultExecutor();
+    this.backend = config.getBackend();
+    this.hugeMethodLimit = config.getHugeMethodLimit();
+    this.utf8HashMaps = config.isUtf8HashMaps();
 
-    try {
-      Path classesPath = Files.createTempDirectory("generated");
-      classesDir = classesPath.toFile();
-      classLoader =
-          URLClassLoader.newInstance(new URL[]{classesDir.toURI().toURL()}, FastSerdeCache.class.getClassLoader());
-    } catch (IOException e) {
-      throw new RuntimeException(e);
+    if (config.isInMemoryCompilation()) {
+      classLoader = new InMemoryClassLoader(FastSerdeCache.class.getClassLoader());
+    } else {
+      try {
+        Path classesPath = Files.createTempDirectory("generated");
+        classesDir = classesPath.toFile();
+        classLoader = newClassLoader(classesDir, FastSerdeCache.class.getClassLoader());
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    if (config.getClassStoreDirectory() != null) {
+      classStore = new FastSerdeClassStore(config.getClassStoreDirectory());
+    }
+
+    if (config.getCompileThreshold() > 0) {
+      compileScheduler = new FastSerdeCompileScheduler(executor, config.getCompileThreshold());
+    }
+
+    if (config.isBatchCompilation()) {
+      batchCompiler = new FastSerdeBatchCompiler(config.getCompileBatchSize(), config.getCompileBatchFlushIntervalMillis());
+    }
+
+    if (config.isBounded()) {
+      ClassLoader parentClassLoader = FastSerdeCache.class.getClassLoader();
+      evictor = new FastSerdeCacheEvictor(config, config.isInMemoryCompilation()
+          ? () -> new InMemoryClassLoader(parentClassLoader)
+          : () -> newClassLoader(classesDir, parentClassLoader));
+      specificDeserializersRegion = evictor.register(fastSpecificRecordDeserializersCache,
+          key -> notifyEviction(SerdeKind.SPECIFIC_DESERIALIZER, key));
+      genericDeserializersRegion = evictor.register(fastGenericRecordDeserializersCache,
+          key -> notifyEviction(SerdeKind.GENERIC_DESERIALIZER, key));
+      genericLazyDeserializersRegion = evictor.register(fastGenericLazyRecordDeserializersCache,
+          key -> notifyEviction(SerdeKind.GENERIC_LAZY_DESERIALIZER, key));
+      specificSerializersRegion = evictor.register(fastSpecificRecordSerializersCache,
+          key -> notifyEviction(SerdeKind.SPECIFIC_SERIALIZER, key));
+      genericSerializersRegion = evictor.register(fastGenericRecordSerializersCache,
+          key -> notifyEviction(SerdeKind.GENERIC_SERIALIZER, key));
+      genericJsonDeserializersRegion = evictor.register(fastGenericJsonDeserializersCache,
+          key -> notifyEviction(SerdeKind.GENERIC_JSON_DESERIALIZER, key));
+      genericJsonSerializersRegion = evictor.register(fastGenericJsonSerializersCache,
+          key -> notifyEviction(SerdeKind.GENERIC_JSON_SERIALIZER, key));
     }
 
     this.compileClassPath = Optional.empty();
+
+    if (config.getListener() != null) {
+      listener = config.getListener();
+      listener.onRegistered(this);
+    }
   }
 
   private FastSerdeCache() {
     this((Executor) null);
   }
 
+  private static ClassLoader newClassLoader(File classesDir, ClassLoader parentClassLoader) {
+    try {
+      return URLClassLoader.newInstance(new URL[]{classesDir.toURI().toURL()}, parentClassLoader);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   /**
    * Gets default {@link FastSerdeCache} instance. Default instance classpath can be customized via
-   * {@value #CLASSPATH} or {@value #CLASSPATH_SUPPLIER} system properties.
+   * {@value #CLASSPATH} or {@value #CLASSPATH_SUPPLIER} system properties, in-memory compilation can be
+   * enabled via {@value #COMPILE_IN_MEMORY} system property, {@link FastSerdeCacheConfig.Backend} can be
+   * selected via {@value #BACKEND} system property, the persistent class store directory can be set via
+   * {@value #CLASS_STORE_DIR} system property, the cache can be bounded via {@value #MAX_CACHE_ENTRIES} and
+   * {@value #MAX_ESTIMATED_METASPACE_BYTES} system properties, batch compilation can be enabled via
+   * {@value #COMPILE_BATCH_SIZE} and {@value #COMPILE_BATCH_FLUSH_INTERVAL_MS} system properties, the
+   * hotness threshold can be set via {@value #COMPILE_THRESHOLD} system property, the size generated methods are
+   * split under via {@value #HUGE_METHOD_LIMIT} system property and {@link Utf8HashMap}s can be enabled via
+   * {@value #UTF8_HASH_MAPS} system property.
    *
    * @return default {@link FastSerdeCache} instance
    */
@@ -139,6 +282,28 @@ public final class FastSerdeCache {
         if (_INSTANCE == null) {
           String classPath = System.getProperty(CLASSPATH);
           String classpathSupplierClassName = System.getProperty(CLASSPATH_SUPPLIER);
+          FastSerdeCacheConfig config = FastSerdeCacheConfig.newConfig()
+              .withInMemoryCompilation(Boolean.getBoolean(COMPILE_IN_MEMORY));
+          String backendName = System.getProperty(BACKEND);
+          if (backendName != null) {
+            try {
+              config.withBackend(FastSerdeCacheConfig.Backend.valueOf(backendName.toUpperCase()));
+            } catch (IllegalArgumentException e) {
+              LOGGER.warn("unknown fast serde backend: " + backendName, e);
+            }
+          }
+          String classStoreDir = System.getProperty(CLASS_STORE_DIR);
+          if (classStoreDir != null) {
+            config.withClassStoreDirectory(new File(classStoreDir));
+          }
+          config.withMaxCacheEntries(Integer.getInteger(MAX_CACHE_ENTRIES, 0))
+              .withMaxEstimatedMetaspaceBytes(Long.getLong(MAX_ESTIMATED_METASPACE_BYTES, 0L))
+              .withCompileBatchSize(Integer.getInteger(COMPILE_BATCH_SIZE, config.getCompileBatchSize()))
+              .withCompileBatchFlushIntervalMillis(
+                  Long.getLong(COMPILE_BATCH_FLUSH_INTERVAL_MS, config.getCompileBatchFlushIntervalMillis()))
+              .withCompileThreshold(Long.getLong(COMPILE_THRESHOLD, 0L))
+              .withHugeMethodLimit(Integer.getInteger(HUGE_METHOD_LIMIT, config.getHugeMethodLimit()))
+              .withUtf8HashMaps(Boolean.getBoolean(UTF8_HASH_MAPS));
           if (classpathSupplierClassName != null) {
             Supplier<String> classpathSupplier = null;
             try {
@@ -154,14 +319,14 @@ public final class FastSerdeCache {
             } catch (ReflectiveOperationException e) {
               LOGGER.warn("unable to instantiate classpath supplier: " + classpathSupplierClassName, e);
             }
-            _INSTANCE = new FastSerdeCache(classpathSupplier);
+            _INSTANCE = new FastSerdeCache(null, classpathSupplier != null ? classpathSupplier.get() : null, config);
           } else if (classPath != null) {
-            _INSTANCE = new FastSerdeCache(classPath);
+            _INSTANCE = new FastSerdeCache(null, classPath, config);
           } else {
             /**
              * The fast-class generator will figure out the compile dependencies during fast-class generation.
              */
-            _INSTANCE = new FastSerdeCache("");
+            _INSTANCE = new FastSerdeCache(null, "", config);
           }
         }
       }
@@ -169,16 +334,6 @@ public final class FastSerdeCache {
     return _INSTANCE;
   }
 
-  public static boolean isSupportedForFastDeserializer(Schema.Type readerSchemaType) {
-    return readerSchemaType.equals(Schema.Type.RECORD) || readerSchemaType.equals(Schema.Type.MAP)
-        || readerSchemaType.equals(Schema.Type.ARRAY);
-  }
-
-  public static boolean isSupportedForFastSerializer(Schema.Type schemaType) {
-    return schemaType.equals(Schema.Type.RECORD) || schemaType.equals(Schema.Type.MAP) || schemaType.equals(
-        Schema.Type.ARRAY);
-  }
-
   public static boolean isFastDeserializer(FastDeserializer deserializer) {
     return !(deserializer instanceof FastDeserializerWithAvroSpecificImpl
         || deserializer instanceof FastDeserializerWithAvroGenericImpl);
@@ -194,25 +349,11 @@ public final class FastSerdeCache {
    * @return specific-class aware avro {@link FastDeserializer}
    */
   public FastDeserializer<?> getFastSpecificDeserializer(Schema writerSchema, Schema readerSchema) {
-    String schemaKey = getSchemaKey(writerSchema, readerSchema);
-    FastDeserializer<?> deserializer = fastSpecificRecordDeserializersCache.get(schemaKey);
-
-    if (deserializer == null) {
-      AtomicBoolean status = new AtomicBoolean(false);
-      deserializer = fastSpecificRecordDeserializersCache.computeIfAbsent(
-          schemaKey,
-          k -> {
-            status.set(true);
-            return new FastDeserializerWithAvroSpecificImpl<>(writerSchema, readerSchema);
-          });
-
-      if (status.get()) {
-        CompletableFuture.supplyAsync(() -> buildSpecificDeserializer(writerSchema, readerSchema), executor)
-            .thenAccept(d -> fastSpecificRecordDeserializersCache.put(schemaKey, d));
-      }
-    }
-
-    return deserializer;
+    return getOrCreateSerde(fastSpecificRecordDeserializersCache, specificDeserializersRegion,
+        SerdeKind.SPECIFIC_DESERIALIZER, writerSchema, readerSchema,
+        coldInvocationCallback -> new FastDeserializerWithAvroSpecificImpl<>(writerSchema, readerSchema,
+            coldInvocationCallback),
+        compileExecutor -> buildSpecificDeserializer(writerSchema, readerSchema, compileExecutor));
   }
 
   /**
@@ -225,24 +366,47 @@ public final class FastSerdeCache {
    * @return generic-class aware avro {@link FastDeserializer}
    */
   public FastDeserializer<?> getFastGenericDeserializer(Schema writerSchema, Schema readerSchema) {
-    String schemaKey = getSchemaKey(writerSchema, readerSchema);
-    FastDeserializer<?> deserializer = fastGenericRecordDeserializersCache.get(schemaKey);
-
-    if (deserializer == null) {
-      AtomicBoolean status = new AtomicBoolean(false);
-      deserializer = fastGenericRecordDeserializersCache.computeIfAbsent(
-          schemaKey,
-          k -> {
-            status.set(true);
-            return new FastDeserializerWithAvroGenericImpl<>(writerSchema, readerSchema);
-          });
-
-      if (status.get()) {
-        CompletableFuture.supplyAsync(() -> buildGenericDeserializer(writerSchema, readerSchema), executor)
-            .thenAccept(d -> fastGenericRecordDeserializersCache.put(schemaKey, d));
-      }
-    }
-    return deserializer;
+    return getFastGenericDeserializer(writerSchema, readerSchema, fastGenericRecordDeserializersCache,
+        genericDeserializersRegion, false);
+  }
+
+  /**
+   * Generates if needed and returns generic-class aware avro {@link FastDeserializer}, which deserializes records
+   * read from a {@link java.nio.ByteBuffer}, with a decoder created by
+   * {@link com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper}, as {@link LazyRecord}s. Their fields are decoded on first access, and unmodified records are re-serialized by the
+   * generic {@link FastSerializer}s by copying the bytes they were read from. Records read from any other decoder are
+   * deserialized as usual.
+   *
+   * @param schema
+   *            record {@link Schema} of written data, also used during deserialization
+   * @return generic-class aware avro {@link FastDeserializer}
+   */
+  public FastDeserializer<?> getFastGenericLazyDeserializer(Schema schema) {
+    return getFastGenericDeserializer(schema, schema, fastGenericLazyRecordDeserializersCache,
+        genericLazyDeserializersRegion, true);
+  }
+
+  private FastDeserializer<?> getFastGenericDeserializer(Schema writerSchema, Schema readerSchema,
+      Map<SchemaPairKey, FastDeserializer<?>> cache, FastSerdeCacheEvictor.Region region, boolean lazyRecords) {
+    return getOrCreateSerde(cache, region, genericDeserializerKind(lazyRecords), writerSchema, readerSchema,
+        coldInvocationCallback -> new FastDeserializerWithAvroGenericImpl<>(writerSchema, readerSchema,
+            coldInvocationCallback),
+        compileExecutor -> buildGenericDeserializer(writerSchema, readerSchema, compileExecutor, lazyRecords));
+  }
+
+  /**
+   * Generates if needed and returns generic-class aware avro {@link FastDeserializer}, which only materializes the
+   * fields of the given projection and skips the other ones. Deserializers are cached by the fingerprint of the
+   * projected reader schema, so every projection gets its own deserializer.
+   *
+   * @param writerSchema
+   *            {@link Schema} of written data
+   * @param projection
+   *            projection of the {@link Schema} intended to be used during deserialization
+   * @return generic-class aware avro {@link FastDeserializer} producing records of the projected schema
+   */
+  public FastDeserializer<?> getFastGenericDeserializer(Schema writerSchema, SchemaProjection projection) {
+    return getFastGenericDeserializer(writerSchema, projection.getProjectedSchema());
   }
 
   /**
@@ -253,25 +417,10 @@ public final class FastSerdeCache {
    * @return specific-class aware avro {@link FastSerializer}
    */
   public FastSerializer<?> getFastSpecificSerializer(Schema schema) {
-    String schemaKey = getSchemaKey(schema, schema);
-    FastSerializer<?> serializer = fastSpecificRecordSerializersCache.get(schemaKey);
-
-    if (serializer == null) {
-      AtomicBoolean status = new AtomicBoolean(false);
-      serializer = fastSpecificRecordSerializersCache.computeIfAbsent(
-          schemaKey,
-          k -> {
-            status.set(true);
-            return new FastSerializerWithAvroSpecificImpl<>(schema);
-          });
-
-      if (status.get()) {
-        CompletableFuture.supplyAsync(() -> buildSpecificSerializer(schema), executor)
-            .thenAccept(s -> fastSpecificRecordSerializersCache.put(schemaKey, s));
-      }
-    }
-
-    return serializer;
+    return getOrCreateSerde(fastSpecificRecordSerializersCache, specificSerializersRegion,
+        SerdeKind.SPECIFIC_SERIALIZER, schema, schema,
+        coldInvocationCallback -> new FastSerializerWithAvroSpecificImpl<>(schema, coldInvocationCallback),
+        compileExecutor -> buildSpecificSerializer(schema, compileExecutor));
   }
 
   /**
@@ -282,25 +431,79 @@ public final class FastSerdeCache {
    * @return generic-class aware avro {@link FastSerializer}
    */
   public FastSerializer<?> getFastGenericSerializer(Schema schema) {
-    String schemaKey = getSchemaKey(schema, schema);
-    FastSerializer<?> serializer = fastGenericRecordSerializersCache.get(schemaKey);
-
-    if (serializer == null) {
-      AtomicBoolean status = new AtomicBoolean(false);
-      serializer = fastGenericRecordSerializersCache.computeIfAbsent(
-          schemaKey,
-          k -> {
-            status.set(true);
-            return new FastSerializerWithAvroGenericImpl<>(schema);
-          });
-
-      if (status.get()) {
-        CompletableFuture.supplyAsync(() -> buildGenericSerializer(schema), executor)
-            .thenAccept(s -> fastGenericRecordSerializersCache.put(schemaKey, s));
+    return getOrCreateSerde(fastGenericRecordSerializersCache, genericSerializersRegion,
+        SerdeKind.GENERIC_SERIALIZER, schema, schema,
+        coldInvocationCallback -> new FastSerializerWithAvroGenericImpl<>(schema, coldInvocationCallback),
+        compileExecutor -> buildGenericSerializer(schema, compileExecutor));
+  }
+
+  /**
+   * Generates if needed and returns a {@link FastJsonDeserializer} of generic data, which reads the Avro JSON encoding
+   * like {@link com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper#newCompatibleJsonDecoder} does, from both
+   * the avro 1.4 and the later formats. Until it is generated, values are read by a compatible JSON decoder.
+   *
+   * @param schema
+   *            {@link Schema} of written data, also used during deserialization
+   * @return generic JSON deserializer
+   */
+  public FastJsonDeserializer<?> getFastGenericJsonDeserializer(Schema schema) {
+    return getOrCreateSerde(fastGenericJsonDeserializersCache, genericJsonDeserializersRegion,
+        SerdeKind.GENERIC_JSON_DESERIALIZER, schema, schema,
+        coldInvocationCallback -> new FastJsonDeserializerWithAvroImpl<>(schema, coldInvocationCallback),
+        compileExecutor -> buildGenericJsonDeserializer(schema, compileExecutor));
+  }
+
+  /**
+   * Generates if needed and returns a {@link FastJsonSerializer} of generic data, which writes the Avro JSON encoding
+   * like {@link com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper#newJsonEncoder} does, in the format given
+   * to the {@link FastJsonWriter}. Until it is generated, values are written by a compatible JSON encoder.
+   *
+   * @param schema
+   *            {@link Schema} of data to write
+   * @return generic JSON serializer
+   */
+  public FastJsonSerializer<?> getFastGenericJsonSerializer(Schema schema) {
+    return getOrCreateSerde(fastGenericJsonSerializersCache, genericJsonSerializersRegion,
+        SerdeKind.GENERIC_JSON_SERIALIZER, schema, schema,
+        coldInvocationCallback -> new FastJsonSerializerWithAvroImpl<>(schema, coldInvocationCallback),
+        compileExecutor -> buildGenericJsonSerializer(schema, compileExecutor));
+  }
+
+  /**
+   * Returns the cached serde of the given schemas. On a miss, a cold serde backed by vanilla avro is cached right away,
+   * and the fast serde is compiled to replace it, on first use or once the cold serde gets hot.
+   *
+   * @param coldImplFactory creates the cold serde, given the callback to run on each of its invocations
+   * @param compile generates the fast serde on the given executor
+   */
+  private <S> S getOrCreateSerde(Map<SchemaPairKey, S> cache, FastSerdeCacheEvictor.Region region, SerdeKind kind,
+      Schema writerSchema, Schema readerSchema, Function<Runnable, S> coldImplFactory,
+      Function<Executor, CompletableFuture<S>> compile) {
+    SchemaPairKey probeKey = SchemaPairKey.probe(writerSchema, readerSchema);
+    S serde = cache.get(probeKey);
+    if (serde != null) {
+      if (region != null) {
+        region.recordAccess(probeKey);
       }
+      return serde;
     }
 
-    return serializer;
+    SchemaPairKey schemaKey = probeKey.copy();
+    AtomicBoolean status = new AtomicBoolean(false);
+    FastSerdeCompileScheduler.Candidate compileCandidate = newCompileCandidate();
+    serde = cache.computeIfAbsent(schemaKey, k -> {
+      status.set(true);
+      return coldImplFactory.apply(coldInvocationCallback(kind, schemaKey, compileCandidate));
+    });
+
+    if (status.get()) {
+      S coldImpl = serde;
+      recordInsert(region, schemaKey, coldImpl);
+      notifyStateChange(kind, schemaKey, SerdeState.COLD);
+      scheduleCompile(compileCandidate, compileExecutor -> compile.apply(compileExecutor)
+          .thenAccept(generatedImpl -> replaceColdImpl(cache, region, schemaKey, coldImpl, generatedImpl)));
+    }
+    return serde;
   }
 
   /**
@@ -312,7 +515,7 @@ public final class FastSerdeCache {
    */
   public CompletableFuture<FastDeserializer<?>> getFastSpecificDeserializerAsync(Schema writerSchema, Schema readerSchema) {
     return getFastDeserializerAsync(writerSchema, readerSchema, fastSpecificRecordDeserializersCache,
-        () -> buildSpecificDeserializer(writerSchema, readerSchema));
+        specificDeserializersRegion, () -> buildSpecificDeserializer(writerSchema, readerSchema, executor));
   }
 
   /**
@@ -324,24 +527,221 @@ public final class FastSerdeCache {
    */
   public CompletableFuture<FastDeserializer<?>> getFastGenericDeserializerAsync(Schema writerSchema, Schema readerSchema) {
     return getFastDeserializerAsync(writerSchema, readerSchema, fastGenericRecordDeserializersCache,
-        () -> buildGenericDeserializer(writerSchema, readerSchema));
+        genericDeserializersRegion, () -> buildGenericDeserializer(writerSchema, readerSchema, executor, false));
+  }
+
+  /**
+   * Asynchronously generates if needed and returns generic-class aware avro {@link FastDeserializer}, which
+   * deserializes records read from a {@link java.nio.ByteBuffer} as {@link LazyRecord}s, see
+   * {@link #getFastGenericLazyDeserializer(Schema)}.
+   *
+   * @param schema record {@link Schema} of written data, also used during deserialization
+   * @return {@link CompletableFuture} which contains generic-class aware avro {@link FastDeserializer}
+   */
+  public CompletableFuture<FastDeserializer<?>> getFastGenericLazyDeserializerAsync(Schema schema) {
+    return getFastDeserializerAsync(schema, schema, fastGenericLazyRecordDeserializersCache,
+        genericLazyDeserializersRegion, () -> buildGenericDeserializer(schema, schema, executor, true));
+  }
+
+  /**
+   * Asynchronously generates if needed and returns generic-class aware avro {@link FastDeserializer}, which only
+   * materializes the fields of the given projection.
+   *
+   * @param writerSchema {@link Schema} of written data
+   * @param projection projection of the {@link Schema} intended to be used during deserialization
+   * @return {@link CompletableFuture} which contains generic-class aware avro {@link FastDeserializer}
+   */
+  public CompletableFuture<FastDeserializer<?>> getFastGenericDeserializerAsync(Schema writerSchema,
+      SchemaProjection projection) {
+    return getFastGenericDeserializerAsync(writerSchema, projection.getProjectedSchema());
   }
 
   private CompletableFuture<FastDeserializer<?>> getFastDeserializerAsync(Schema writerSchema, Schema readerSchema,
-      Map<String, FastDeserializer<?>> fastDeserializerCache, Supplier<FastDeserializer<?>> fastDeserializerSupplier) {
-    String schemaKey = getSchemaKey(writerSchema, readerSchema);
-    FastDeserializer<?> deserializer = fastDeserializerCache.get(schemaKey);
-    return deserializer != null && isFastDeserializer(deserializer) ? CompletableFuture.completedFuture(deserializer)
-        : CompletableFuture.supplyAsync(fastDeserializerSupplier, executor)
-            .thenApply(d -> {
-              fastDeserializerCache.put(schemaKey, d);
-              return d;
-            });
+      Map<SchemaPairKey, FastDeserializer<?>> fastDeserializerCache, FastSerdeCacheEvictor.Region region,
+      Supplier<CompletableFuture<FastDeserializer<?>>> fastDeserializerSupplier) {
+    SchemaPairKey probeKey = SchemaPairKey.probe(writerSchema, readerSchema);
+    FastDeserializer<?> deserializer = fastDeserializerCache.get(probeKey);
+    if (region != null && deserializer != null) {
+      region.recordAccess(probeKey);
+    }
+    if (deserializer != null && isFastDeserializer(deserializer)) {
+      return CompletableFuture.completedFuture(deserializer);
+    }
+    SchemaPairKey schemaKey = probeKey.copy();
+    return fastDeserializerSupplier.get().thenApply(d -> {
+      fastDeserializerCache.put(schemaKey, d);
+      recordInsert(region, schemaKey, d);
+      return d;
+    });
   }
 
-  private static String getSchemaKey(Schema writerSchema, Schema readerSchema) {
-    return String.valueOf(Math.abs(getSchemaFingerprint(writerSchema))) + Math.abs(
-        getSchemaFingerprint(readerSchema));
+  /**
+   * Generates a serde on the given executor, keeping track of the number of pending compilations. The generated class
+   * might be compiled later on by {@link #batchCompiler}.
+   *
+   * @param serdeGenerator generates the serde, it might complete exceptionally or throw
+   * @param fallback provides the serde to be used if generation fails
+   */
+  private <S> CompletableFuture<S> compileAsync(SerdeKind kind, Schema writerSchema, Schema readerSchema,
+      Executor compileExecutor, Supplier<CompletableFuture<S>> serdeGenerator, Function<Throwable, S> fallback) {
+    pendingCompilations.incrementAndGet();
+    return CompletableFuture.supplyAsync(() -> {
+      long startNanos = notifyCompileStarted(kind, writerSchema, readerSchema);
+      CompletableFuture<S> serde;
+      try {
+        serde = serdeGenerator.get();
+      } catch (Exception e) {
+        serde = new CompletableFuture<>();
+        serde.completeExceptionally(e);
+      }
+      return serde.handle((generatedSerde, e) -> {
+        if (e == null) {
+          notifyCompileCompleted(kind, writerSchema, readerSchema, startNanos, true);
+          return generatedSerde;
+        }
+        S fallbackSerde = fallback.apply(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+        notifyCompileCompleted(kind, writerSchema, readerSchema, startNanos, false);
+        return fallbackSerde;
+      });
+    }, compileExecutor).thenCompose(Function.identity()).whenComplete((serde, e) -> pendingCompilations.decrementAndGet());
+  }
+
+  private static void recordInsert(FastSerdeCacheEvictor.Region region, SchemaPairKey schemaKey, Object serde) {
+    if (region != null) {
+      region.recordInsert(schemaKey, serde);
+    }
+  }
+
+  /**
+   * Installs the generated serde in place of the cold one. In bounded mode the cold entry might have been evicted in
+   * the meantime, in which case the generated serde is dropped.
+   */
+  private static <S> void replaceColdImpl(Map<SchemaPairKey, S> cache, FastSerdeCacheEvictor.Region region,
+      SchemaPairKey schemaKey, S coldImpl, S generatedImpl) {
+    if (region == null) {
+      cache.put(schemaKey, generatedImpl);
+    } else if (cache.replace(schemaKey, coldImpl, generatedImpl)) {
+      region.recordInsert(schemaKey, generatedImpl);
+    }
+  }
+
+  /**
+   * @return number of serdes queued or being generated, in hotness-driven mode it only includes the hot ones
+   */
+  public int getPendingCompilationCount() {
+    return pendingCompilations.get() + (compileScheduler == null ? 0 : compileScheduler.getQueuedCount());
+  }
+
+  /**
+   * @param kind kind of the serdes
+   * @return number of entries of the corresponding cache, including the ones served by vanilla avro
+   */
+  public int getCacheSize(SerdeKind kind) {
+    switch (kind) {
+      case SPECIFIC_DESERIALIZER:
+        return fastSpecificRecordDeserializersCache.size();
+      case GENERIC_DESERIALIZER:
+        return fastGenericRecordDeserializersCache.size();
+      case GENERIC_LAZY_DESERIALIZER:
+        return fastGenericLazyRecordDeserializersCache.size();
+      case SPECIFIC_SERIALIZER:
+        return fastSpecificRecordSerializersCache.size();
+      case GENERIC_SERIALIZER:
+        return fastGenericRecordSerializersCache.size();
+      case GENERIC_JSON_DESERIALIZER:
+        return fastGenericJsonDeserializersCache.size();
+      case GENERIC_JSON_SERIALIZER:
+        return fastGenericJsonSerializersCache.size();
+      default:
+        throw new IllegalArgumentException("Unknown serde kind: " + kind);
+    }
+  }
+
+  /**
+   * @return number of entries evicted in bounded mode
+   */
+  public long getEvictionCount() {
+    return evictor == null ? 0 : evictor.getEvictionCount();
+  }
+
+  /**
+   * @return number of entries re-created in bounded mode after they had been evicted
+   */
+  public long getReloadCount() {
+    return evictor == null ? 0 : evictor.getReloadCount();
+  }
+
+  /**
+   * @return callback counting invocations of a cold serde, or null if there is neither a listener nor a candidate
+   */
+  private Runnable coldInvocationCallback(SerdeKind kind, SchemaPairKey key,
+      FastSerdeCompileScheduler.Candidate compileCandidate) {
+    FastSerdeCacheListener currentListener = listener;
+    if (currentListener == null) {
+      return compileCandidate;
+    }
+    String schemaKey = key.toString();
+    if (compileCandidate == null) {
+      return () -> currentListener.onColdInvocation(kind, schemaKey);
+    }
+    return () -> {
+      currentListener.onColdInvocation(kind, schemaKey);
+      compileCandidate.run();
+    };
+  }
+
+  /**
+   * @return candidate counting invocations of a cold serde, or null if serdes are compiled on first use
+   */
+  private FastSerdeCompileScheduler.Candidate newCompileCandidate() {
+    return compileScheduler == null ? null : compileScheduler.newCandidate();
+  }
+
+  /**
+   * Compiles the serde right away or, if there is a candidate, once the cold serde gets hot.
+   *
+   * @param compile generates the serde on the given executor
+   */
+  private void scheduleCompile(FastSerdeCompileScheduler.Candidate compileCandidate,
+      Function<Executor, CompletableFuture<?>> compile) {
+    if (compileCandidate == null) {
+      compile.apply(executor);
+    } else {
+      // the candidate runs on a compile thread already
+      compileCandidate.schedule(() -> compile.apply(Runnable::run));
+    }
+  }
+
+  private void notifyStateChange(SerdeKind kind, SchemaPairKey schemaKey, SerdeState state) {
+    if (listener != null) {
+      listener.onStateChange(kind, schemaKey.toString(), state);
+    }
+  }
+
+  private void notifyEviction(SerdeKind kind, Object schemaKey) {
+    if (listener != null) {
+      listener.onEviction(kind, schemaKey.toString());
+    }
+  }
+
+  /**
+   * @return start time of the compilation, only meaningful if there is a listener
+   */
+  private long notifyCompileStarted(SerdeKind kind, Schema writerSchema, Schema readerSchema) {
+    if (listener == null) {
+      return 0;
+    }
+    listener.onStateChange(kind, SchemaPairKey.of(writerSchema, readerSchema).toString(), SerdeState.COMPILING);
+    return System.nanoTime();
+  }
+
+  private void notifyCompileCompleted(SerdeKind kind, Schema writerSchema, Schema readerSchema, long startNanos,
+      boolean success) {
+    if (listener != null) {
+      String schemaKey = SchemaPairKey.of(writerSchema, readerSchema).toString();
+      listener.onCompileCompleted(kind, schemaKey, System.nanoTime() - startNanos, success);
+      listener.onStateChange(kind, schemaKey, success ? SerdeState.FAST : SerdeState.FAILED);
+    }
   }
 
   /**
@@ -353,23 +753,34 @@ public final class FastSerdeCache {
    * @return a fast deserializer
    */
   public FastDeserializer<?> buildFastSpecificDeserializer(Schema writerSchema, Schema readerSchema) {
+    return generateFastSpecificDeserializer(writerSchema, readerSchema, null).join();
+  }
+
+  private CompletableFuture<FastDeserializer<?>> generateFastSpecificDeserializer(Schema writerSchema,
+      Schema readerSchema, FastSerdeBatchCompiler batchCompiler) {
     FastSpecificDeserializerGenerator<?> generator =
-        new FastSpecificDeserializerGenerator<>(writerSchema, readerSchema, classesDir, classLoader,
+        new FastSpecificDeserializerGenerator<>(writerSchema, readerSchema, classesDir, nextGeneratorClassLoader(),
             compileClassPath.orElse(null));
-    FastDeserializer<?> fastDeserializer = generator.generateDeserializer();
-
-    if (LOGGER.isDebugEnabled()) {
-      LOGGER.debug("Generated classes dir: {} and generation of specific FastDeserializer is done for writer schema of type: {} with fingerprint: {}"
-              + " and content: [\n{}\n] and reader schema of type: {} with fingerprint: {} and content: [\n{}\n]", classesDir, getSchemaFullName(writerSchema),
-              writerSchema.toString(true), getSchemaFingerprint(writerSchema), getSchemaFullName(readerSchema), getSchemaFingerprint(readerSchema),
-              readerSchema.toString(true));
-    } else {
-      LOGGER.info("Generated classes dir: {} and generation of specific FastDeserializer is done for writer schema of type: {} with fingerprint: {}"
-              + " and reader schema of type: {} with fingerprint: {}", classesDir, getSchemaFullName(writerSchema), getSchemaFingerprint(writerSchema),
-              getSchemaFullName(readerSchema), getSchemaFingerprint(readerSchema));
-    }
+    generator.setClassStore(classStore);
+    generator.setHugeMethodLimit(hugeMethodLimit);
+    generator.setUseUtf8HashMaps(utf8HashMaps);
+
+    return generator.generateDeserializer(batchCompiler).thenApply(fastDeserializer -> {
+      recordGeneratedClass(fastDeserializer, generator);
+
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Generated classes dir: {} and generation of specific FastDeserializer is done for writer schema of type: {} with fingerprint: {}"
+                + " and content: [\n{}\n] and reader schema of type: {} with fingerprint: {} and content: [\n{}\n]", classesDir, getSchemaFullName(writerSchema),
+                writerSchema.toString(true), getSchemaFingerprint(writerSchema), getSchemaFullName(readerSchema), getSchemaFingerprint(readerSchema),
+                readerSchema.toString(true));
+      } else {
+        LOGGER.info("Generated classes dir: {} and generation of specific FastDeserializer is done for writer schema of type: {} with fingerprint: {}"
+                + " and reader schema of type: {} with fingerprint: {}", classesDir, getSchemaFullName(writerSchema), getSchemaFingerprint(writerSchema),
+                getSchemaFullName(readerSchema), getSchemaFingerprint(readerSchema));
+      }
 
-    return fastDeserializer;
+      return fastDeserializer;
+    });
   }
 
   /**
@@ -379,24 +790,26 @@ public final class FastSerdeCache {
    * @param readerSchema
    * @return
    */
-  private FastDeserializer<?> buildSpecificDeserializer(Schema writerSchema, Schema readerSchema) {
-    try {
-      return buildFastSpecificDeserializer(writerSchema, readerSchema);
-    } catch (FastDeserializerGeneratorException e) {
-      LOGGER.warn("Deserializer generation exception when generating specific FastDeserializer for writer schema: "
-              + "[\n{}\n] and reader schema: [\n{}\n]", writerSchema.toString(true), readerSchema.toString(true), e);
-    } catch (Exception e) {
-      LOGGER.warn("Deserializer class instantiation exception", e);
-    }
+  private CompletableFuture<FastDeserializer<?>> buildSpecificDeserializer(Schema writerSchema, Schema readerSchema,
+      Executor compileExecutor) {
+    return compileAsync(SerdeKind.SPECIFIC_DESERIALIZER, writerSchema, readerSchema,
+        compileExecutor, () -> generateFastSpecificDeserializer(writerSchema, readerSchema, batchCompiler), e -> {
+          if (e instanceof FastDeserializerGeneratorException) {
+            LOGGER.warn("Deserializer generation exception when generating specific FastDeserializer for writer schema: "
+                + "[\n{}\n] and reader schema: [\n{}\n]", writerSchema.toString(true), readerSchema.toString(true), e);
+          } else {
+            LOGGER.warn("Deserializer class instantiation exception", e);
+          }
 
-    return new FastDeserializer<Object>() {
-      private DatumReader datumReader = new SpecificDatumReader<>(writerSchema, readerSchema);
+          return new FastDeserializer<Object>() {
+            private DatumReader datumReader = new SpecificDatumReader<>(writerSchema, readerSchema);
 
-      @Override
-      public Object deserialize(Object reuse, Decoder d) throws IOException {
-        return datumReader.read(reuse, d);
-      }
-    };
+            @Override
+            public Object deserialize(Object reuse, Decoder d) throws IOException {
+              return datumReader.read(reuse, d);
+            }
+          };
+        });
   }
 
   /**
@@ -408,24 +821,77 @@ public final class FastSerdeCache {
    * @return a fast deserializer
    */
   public FastDeserializer<?> buildFastGenericDeserializer(Schema writerSchema, Schema readerSchema) {
-    FastGenericDeserializerGenerator<?> generator =
-        new FastGenericDeserializerGenerator<>(writerSchema, readerSchema, classesDir, classLoader,
-            compileClassPath.orElse(null));
+    return generateFastGenericDeserializer(writerSchema, readerSchema, null, false).join();
+  }
 
-    FastDeserializer<?> fastDeserializer = generator.generateDeserializer();
+  /**
+   * This function will generate a fast generic deserializer producing {@link LazyRecord}s, see
+   * {@link #getFastGenericLazyDeserializer(Schema)}, and it will throw exception if anything wrong happens.
+   *
+   * @param schema record schema of written data, also used during deserialization
+   * @return a fast deserializer
+   */
+  public FastDeserializer<?> buildFastGenericLazyDeserializer(Schema schema) {
+    return generateFastGenericDeserializer(schema, schema, null, true).join();
+  }
 
-    if (LOGGER.isDebugEnabled()) {
-      LOGGER.debug("Generated classes dir: {} and generation of generic FastDeserializer is done for writer schema of type: {} with fingerprint: {}"
-              + " and content: [\n{}\n] and reader schema of type: {} with fingerprint: {} and content: [\n{}\n]", classesDir, getSchemaFullName(writerSchema),
-              writerSchema.toString(true), getSchemaFingerprint(writerSchema), getSchemaFullName(readerSchema), getSchemaFingerprint(readerSchema),
-              readerSchema.toString(true));
+  /**
+   * This function will generate a fast deserializer appending each record to a {@link ColumnarBatch}, and it will throw
+   * exception if anything wrong happens, e.g. if the reader schema isn't a flat record. Deserializing into a null batch
+   * creates a new one, batches can then be reused and {@link ColumnarBatch#clear() cleared} between scans.
+   *
+   * @param writerSchema writer schema
+   * @param readerSchema flat record schema of the columns
+   * @return a fast deserializer
+   */
+  public FastDeserializer<ColumnarBatch> buildFastColumnarDeserializer(Schema writerSchema, Schema readerSchema) {
+    FastColumnarDeserializerGenerator generator = new FastColumnarDeserializerGenerator(writerSchema, readerSchema,
+        classesDir, nextGeneratorClassLoader(), compileClassPath.orElse(null));
+    generator.setClassStore(classStore);
+    generator.setHugeMethodLimit(hugeMethodLimit);
+    FastDeserializer<ColumnarBatch> fastDeserializer = generator.generateDeserializer();
+    recordGeneratedClass(fastDeserializer, generator);
+    return fastDeserializer;
+  }
+
+  /**
+   * @param lazyRecords whether records read from a {@link java.nio.ByteBuffer} are deserialized as {@link LazyRecord}s,
+   *                    which the interpreter backend doesn't support, it then always deserializes them eagerly
+   */
+  private CompletableFuture<FastDeserializer<?>> generateFastGenericDeserializer(Schema writerSchema,
+      Schema readerSchema, FastSerdeBatchCompiler batchCompiler, boolean lazyRecords) {
+    FastDeserializerGeneratorBase<?> generator;
+    if (backend == FastSerdeCacheConfig.Backend.INTERPRETER) {
+      generator = new InterpretedFastDeserializerGenerator<>(writerSchema, readerSchema);
     } else {
-      LOGGER.info("Generated classes dir: {} and generation of generic FastDeserializer is done for writer schema of type: {} with fingerprint: {}"
-              + " and reader schema of type: {} with fingerprint: {}", classesDir, getSchemaFullName(writerSchema), getSchemaFingerprint(writerSchema),
-              getSchemaFullName(readerSchema), getSchemaFingerprint(readerSchema));
+      FastGenericDeserializerGenerator<?> codeGenerator = new FastGenericDeserializerGenerator<>(writerSchema,
+          readerSchema, classesDir, nextGeneratorClassLoader(), compileClassPath.orElse(null), lazyRecords);
+      codeGenerator.setUseUtf8HashMaps(utf8HashMaps);
+      generator = codeGenerator;
     }
+    generator.setClassStore(classStore);
+    generator.setHugeMethodLimit(hugeMethodLimit);
+
+    return generator.generateDeserializer(batchCompiler).thenApply(fastDeserializer -> {
+      recordGeneratedClass(fastDeserializer, generator);
+
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Generated classes dir: {} and generation of generic FastDeserializer is done for writer schema of type: {} with fingerprint: {}"
+                + " and content: [\n{}\n] and reader schema of type: {} with fingerprint: {} and content: [\n{}\n]", classesDir, getSchemaFullName(writerSchema),
+                writerSchema.toString(true), getSchemaFingerprint(writerSchema), getSchemaFullName(readerSchema), getSchemaFingerprint(readerSchema),
+                readerSchema.toString(true));
+      } else {
+        LOGGER.info("Generated classes dir: {} and generation of generic FastDeserializer is done for writer schema of type: {} with fingerprint: {}"
+                + " and reader schema of type: {} with fingerprint: {}", classesDir, getSchemaFullName(writerSchema), getSchemaFingerprint(writerSchema),
+                getSchemaFullName(readerSchema), getSchemaFingerprint(readerSchema));
+      }
 
-    return fastDeserializer;
+      return fastDeserializer;
+    });
+  }
+
+  private static SerdeKind genericDeserializerKind(boolean lazyRecords) {
+    return lazyRecords ? SerdeKind.GENERIC_LAZY_DESERIALIZER : SerdeKind.GENERIC_DESERIALIZER;
   }
 
   /**
@@ -436,112 +902,201 @@ public final class FastSerdeCache {
    * @param readerSchema
    * @return
    */
-  private FastDeserializer<?> buildGenericDeserializer(Schema writerSchema, Schema readerSchema) {
-    try {
-      return buildFastGenericDeserializer(writerSchema, readerSchema);
-    } catch (FastDeserializerGeneratorException e) {
-      LOGGER.warn("Deserializer generation exception when generating generic FastDeserializer for writer schema: [\n"
-          + writerSchema.toString(true) + "\n] and reader schema:[\n" + readerSchema.toString(true) + "\n]", e);
-    } catch (Exception e) {
-      LOGGER.warn("Deserializer class instantiation exception:" + e);
-    }
+  private CompletableFuture<FastDeserializer<?>> buildGenericDeserializer(Schema writerSchema, Schema readerSchema,
+      Executor compileExecutor, boolean lazyRecords) {
+    return compileAsync(genericDeserializerKind(lazyRecords), writerSchema, readerSchema, compileExecutor,
+        () -> generateFastGenericDeserializer(writerSchema, readerSchema, batchCompiler, lazyRecords), e -> {
+          if (e instanceof FastDeserializerGeneratorException) {
+            LOGGER.warn("Deserializer generation exception when generating generic FastDeserializer for writer schema: [\n"
+                + writerSchema.toString(true) + "\n] and reader schema:[\n" + readerSchema.toString(true) + "\n]", e);
+          } else {
+            LOGGER.warn("Deserializer class instantiation exception:" + e);
+          }
 
-    return new FastDeserializer<Object>() {
-      private DatumReader datumReader = new GenericDatumReader<>(writerSchema, readerSchema);
+          return new FastDeserializer<Object>() {
+            private DatumReader datumReader = new GenericDatumReader<>(writerSchema, readerSchema);
 
-      @Override
-      public Object deserialize(Object reuse, Decoder d) throws IOException {
-        return datumReader.read(reuse, d);
-      }
-    };
+            @Override
+            public Object deserialize(Object reuse, Decoder d) throws IOException {
+              return datumReader.read(reuse, d);
+            }
+          };
+        });
   }
 
   public FastSerializer<?> buildFastSpecificSerializer(Schema schema) {
+    return generateFastSpecificSerializer(schema, null).join();
+  }
+
+  private CompletableFuture<FastSerializer<?>> generateFastSpecificSerializer(Schema schema,
+      FastSerdeBatchCompiler batchCompiler) {
     // Defensive code
     if (!Utils.isSupportedAvroVersionsForSerializer()) {
       throw new FastDeserializerGeneratorException("Specific FastSerializer is only supported in following Avro versions: " +
           Utils.getAvroVersionsSupportedForSerializer());
     }
     FastSpecificSerializerGenerator<?> generator =
-        new FastSpecificSerializerGenerator<>(schema, classesDir, classLoader, compileClassPath.orElse(null));
-
-    if (LOGGER.isDebugEnabled()) {
-      LOGGER.debug("Generated classes dir: {} and generation of specific FastSerializer is done for schema of type: {}" +
-              " and fingerprint: {} and content: [\n{}\n]", classesDir, getSchemaFullName(schema), getSchemaFingerprint(schema),
-              schema.toString(true));
-    } else {
-      LOGGER.info("Generated classes dir: {} and generation of specific FastSerializer is done for schema of type: {}" +
-              " and fingerprint: {}", classesDir, getSchemaFullName(schema), getSchemaFingerprint(schema));
-    }
+        new FastSpecificSerializerGenerator<>(schema, classesDir, nextGeneratorClassLoader(), compileClassPath.orElse(null));
+    generator.setClassStore(classStore);
+    generator.setHugeMethodLimit(hugeMethodLimit);
+
+    return generator.generateSerializer(batchCompiler).thenApply(fastSerializer -> {
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Generated classes dir: {} and generation of specific FastSerializer is done for schema of type: {}" +
+                " and fingerprint: {} and content: [\n{}\n]", classesDir, getSchemaFullName(schema), getSchemaFingerprint(schema),
+                schema.toString(true));
+      } else {
+        LOGGER.info("Generated classes dir: {} and generation of specific FastSerializer is done for schema of type: {}" +
+                " and fingerprint: {}", classesDir, getSchemaFullName(schema), getSchemaFingerprint(schema));
+      }
 
-    return generator.generateSerializer();
+      recordGeneratedClass(fastSerializer, generator);
+      return fastSerializer;
+    });
   }
 
-  private FastSerializer<?> buildSpecificSerializer(Schema schema) {
-    if (Utils.isSupportedAvroVersionsForSerializer()) {
-      // Only build fast specific serializer for supported Avro versions.
-      try {
-        return buildFastSpecificSerializer(schema);
-      } catch (FastDeserializerGeneratorException e) {
-        LOGGER.warn("Serializer generation exception when generating specific FastSerializer for schema: [\n{}\n]",
-            schema.toString(true), e);
-      } catch (Exception e) {
-        LOGGER.warn("Serializer class instantiation exception", e);
-      }
-    }
+  private CompletableFuture<FastSerializer<?>> buildSpecificSerializer(Schema schema, Executor compileExecutor) {
+    return compileAsync(SerdeKind.SPECIFIC_SERIALIZER, schema, schema,
+        compileExecutor, () -> generateFastSpecificSerializer(schema, batchCompiler), e -> {
+          // Only fast specific serializer for supported Avro versions is expected to be built.
+          if (Utils.isSupportedAvroVersionsForSerializer()) {
+            if (e instanceof FastDeserializerGeneratorException) {
+              LOGGER.warn("Serializer generation exception when generating specific FastSerializer for schema: [\n{}\n]",
+                  schema.toString(true), e);
+            } else {
+              LOGGER.warn("Serializer class instantiation exception", e);
+            }
+          }
 
-    return new FastSerializer<Object>() {
-      private final DatumWriter datumWriter = new SpecificDatumWriter(schema);
+          return new FastSerializer<Object>() {
+            private final DatumWriter datumWriter = new SpecificDatumWriter(schema);
 
-      @Override
-      public void serialize(Object data, Encoder e) throws IOException {
-        datumWriter.write(data, e);
-      }
-    };
+            @Override
+            public void serialize(Object data, Encoder e) throws IOException {
+              datumWriter.write(data, e);
+            }
+          };
+        });
   }
 
   public FastSerializer<?> buildFastGenericSerializer(Schema schema) {
+    return generateFastGenericSerializer(schema, null).join();
+  }
+
+  private CompletableFuture<FastSerializer<?>> generateFastGenericSerializer(Schema schema,
+      FastSerdeBatchCompiler batchCompiler) {
     // Defensive code
     if (!Utils.isSupportedAvroVersionsForSerializer()) {
       throw new FastDeserializerGeneratorException("Generic FastSerializer is only supported in following avro versions:"
           + Utils.getAvroVersionsSupportedForSerializer());
     }
     FastGenericSerializerGenerator<?> generator =
-        new FastGenericSerializerGenerator<>(schema, classesDir, classLoader, compileClassPath.orElse(null));
+        new FastGenericSerializerGenerator<>(schema, classesDir, nextGeneratorClassLoader(), compileClassPath.orElse(null));
+    generator.setClassStore(classStore);
+    generator.setHugeMethodLimit(hugeMethodLimit);
+
+    return generator.generateSerializer(batchCompiler).thenApply(fastSerializer -> {
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Generated classes dir: {} and generation of generic FastSerializer is done for schema of type: {}" +
+                " and fingerprint: {} and content: [\n{}\n]", classesDir, getSchemaFullName(schema), getSchemaFingerprint(schema),
+                schema.toString(true));
+      } else {
+        LOGGER.info("Generated classes dir: {} and generation of generic FastSerializer is done for schema of type: {}" +
+                " and fingerprint: {}", classesDir, getSchemaFullName(schema), getSchemaFingerprint(schema));
+      }
 
-    if (LOGGER.isDebugEnabled()) {
-      LOGGER.debug("Generated classes dir: {} and generation of generic FastSerializer is done for schema of type: {}" +
-              " and fingerprint: {} and content: [\n{}\n]", classesDir, getSchemaFullName(schema), getSchemaFingerprint(schema),
-              schema.toString(true));
-    } else {
-      LOGGER.info("Generated classes dir: {} and generation of generic FastSerializer is done for schema of type: {}" +
-              " and fingerprint: {}", classesDir, getSchemaFullName(schema), getSchemaFingerprint(schema));
-    }
+      recordGeneratedClass(fastSerializer, generator);
+      return fastSerializer;
+    });
+  }
+
+  private CompletableFuture<FastSerializer<?>> buildGenericSerializer(Schema schema, Executor compileExecutor) {
+    return compileAsync(SerdeKind.GENERIC_SERIALIZER, schema, schema,
+        compileExecutor, () -> generateFastGenericSerializer(schema, batchCompiler), e -> {
+          // Only fast generic serializer for supported Avro versions is expected to be built.
+          if (Utils.isSupportedAvroVersionsForSerializer()) {
+            if (e instanceof FastDeserializerGeneratorException) {
+              LOGGER.warn("Serializer generation exception when generating generic FastSerializer for schema: [\n{}\n]",
+                  schema.toString(true), e);
+            } else {
+              LOGGER.warn("Serializer class instantiation exception", e);
+            }
+          }
+
+          return new FastSerializer<Object>() {
+            private final DatumWriter datumWriter = new GenericDatumWriter(schema);
 
-    return generator.generateSerializer();
+            @Override
+            public void serialize(Object data, Encoder e) throws IOException {
+              datumWriter.write(data, e);
+            }
+          };
+        });
   }
 
-  private FastSerializer<?> buildGenericSerializer(Schema schema) {
-    if (Utils.isSupportedAvroVersionsForSerializer()) {
-      // Only build fast generic serializer for supported Avro versions.
-      try {
-        return buildFastGenericSerializer(schema);
-      } catch (FastDeserializerGeneratorException e) {
-        LOGGER.warn("Serializer generation exception when generating generic FastSerializer for schema: [\n{}\n]",
-            schema.toString(true), e);
-      } catch (Exception e) {
-        LOGGER.warn("Serializer class instantiation exception", e);
-      }
-    }
+  /**
+   * This function will generate a fast generic JSON deserializer, and it will throw exception if anything wrong happens.
+   *
+   * @param schema schema of written data, also used during deserialization
+   * @return a fast JSON deserializer
+   */
+  public FastJsonDeserializer<?> buildFastGenericJsonDeserializer(Schema schema) {
+    FastJsonDeserializerGenerator<?> generator = new FastJsonDeserializerGenerator<>(schema, classesDir,
+        nextGeneratorClassLoader(), compileClassPath.orElse(null));
+    generator.setClassStore(classStore);
+    generator.setHugeMethodLimit(hugeMethodLimit);
+    FastJsonDeserializer<?> fastDeserializer = generator.generateDeserializer();
+    recordGeneratedClass(fastDeserializer, generator);
+    return fastDeserializer;
+  }
 
-    return new FastSerializer<Object>() {
-      private final DatumWriter datumWriter = new GenericDatumWriter(schema);
+  private CompletableFuture<FastJsonDeserializer<?>> buildGenericJsonDeserializer(Schema schema,
+      Executor compileExecutor) {
+    return compileAsync(SerdeKind.GENERIC_JSON_DESERIALIZER, schema, schema, compileExecutor,
+        () -> CompletableFuture.completedFuture(buildFastGenericJsonDeserializer(schema)), e -> {
+          LOGGER.warn("Deserializer generation exception when generating generic FastJsonDeserializer for schema: [\n{}\n]",
+              schema.toString(true), e);
+          return new FastJsonDeserializerWithAvroImpl<>(schema);
+        });
+  }
 
-      @Override
-      public void serialize(Object data, Encoder e) throws IOException {
-        datumWriter.write(data, e);
-      }
-    };
+  /**
+   * This function will generate a fast generic JSON serializer, and it will throw exception if anything wrong happens.
+   *
+   * @param schema schema of data to write
+   * @return a fast JSON serializer
+   */
+  public FastJsonSerializer<?> buildFastGenericJsonSerializer(Schema schema) {
+    FastJsonSerializerGenerator<?> generator = new FastJsonSerializerGenerator<>(schema, classesDir,
+        nextGeneratorClassLoader(), compileClassPath.orElse(null));
+    generator.setClassStore(classStore);
+    generator.setHugeMethodLimit(hugeMethodLimit);
+    FastJsonSerializer<?> fastSerializer = generator.generateSerializer();
+    recordGeneratedClass(fastSerializer, generator);
+    return fastSerializer;
+  }
+
+  private CompletableFuture<FastJsonSerializer<?>> buildGenericJsonSerializer(Schema schema,
+      Executor compileExecutor) {
+    return compileAsync(SerdeKind.GENERIC_JSON_SERIALIZER, schema, schema, compileExecutor,
+        () -> CompletableFuture.completedFuture(buildFastGenericJsonSerializer(schema)), e -> {
+          LOGGER.warn("Serializer generation exception when generating generic FastJsonSerializer for schema: [\n{}\n]",
+              schema.toString(true), e);
+          return new FastJsonSerializerWithAvroImpl<>(schema);
+        });
+  }
+
+  /**
+   * @return class loader for the next generated class, in bounded mode it is the class loader of the current batch
+   */
+  private ClassLoader nextGeneratorClassLoader() {
+    return evictor == null ? classLoader : evictor.nextClassLoader();
+  }
+
+  private void recordGeneratedClass(Object serde, FastSerdeBase generator) {
+    if (evictor != null) {
+      evictor.recordGeneratedClass(serde, generator.getGeneratedClassBytes());
+    }
   }
 
   private Executor getDefaultExecutor() {
@@ -558,55 +1113,149 @@ public final class FastSerdeCache {
     });
   }
 
-  public static class FastDeserializerWithAvroSpecificImpl<V> implements FastDeserializer<V> {
+  public static class FastDeserializerWithAvroSpecificImpl<V> implements FastBatchDeserializer<V> {
     private final SpecificDatumReader<V> datumReader;
+    private final Runnable invocationCallback;
 
     public FastDeserializerWithAvroSpecificImpl(Schema writerSchema, Schema readerSchema) {
+      this(writerSchema, readerSchema, null);
+    }
+
+    FastDeserializerWithAvroSpecificImpl(Schema writerSchema, Schema readerSchema, Runnable invocationCallback) {
       this.datumReader = new ColdSpecificDatumReader<>(writerSchema, readerSchema);
+      this.invocationCallback = invocationCallback;
     }
 
     @Override
     public V deserialize(V reuse, Decoder d) throws IOException {
+      if (invocationCallback != null) {
+        invocationCallback.run();
+      }
       return datumReader.read(reuse, d);
     }
   }
 
-  public static class FastDeserializerWithAvroGenericImpl<V> implements FastDeserializer<V> {
+  public static class FastDeserializerWithAvroGenericImpl<V> implements FastBatchDeserializer<V> {
     private final GenericDatumReader<V> datumReader;
+    private final Runnable invocationCallback;
 
     public FastDeserializerWithAvroGenericImpl(Schema writerSchema, Schema readerSchema) {
+      this(writerSchema, readerSchema, null);
+    }
+
+    FastDeserializerWithAvroGenericImpl(Schema writerSchema, Schema readerSchema, Runnable invocationCallback) {
       this.datumReader = new ColdGenericDatumReader<>(writerSchema, readerSchema);
+      this.invocationCallback = invocationCallback;
     }
 
     @Override
     public V deserialize(V reuse, Decoder d) throws IOException {
+      if (invocationCallback != null) {
+        invocationCallback.run();
+      }
       return datumReader.read(reuse, d);
     }
   }
 
   public static class FastSerializerWithAvroSpecificImpl<V> implements FastSerializer<V> {
     private final SpecificDatumWriter<V> datumWriter;
+    private final Runnable invocationCallback;
 
     public FastSerializerWithAvroSpecificImpl(Schema schema) {
+      this(schema, null);
+    }
+
+    FastSerializerWithAvroSpecificImpl(Schema schema, Runnable invocationCallback) {
       this.datumWriter = new SpecificDatumWriter<>(schema);
+      this.invocationCallback = invocationCallback;
     }
 
     @Override
     public void serialize(V data, Encoder e) throws IOException {
+      if (invocationCallback != null) {
+        invocationCallback.run();
+      }
       datumWriter.write(data, e);
     }
   }
 
   public static class FastSerializerWithAvroGenericImpl<V> implements FastSerializer<V> {
     private final DatumWriter<V> datumWriter;
+    private final Runnable invocationCallback;
 
     public FastSerializerWithAvroGenericImpl(Schema schema) {
+      this(schema, null);
+    }
+
+    FastSerializerWithAvroGenericImpl(Schema schema, Runnable invocationCallback) {
       this.datumWriter = new GenericDatumWriter<>(schema);
+      this.invocationCallback = invocationCallback;
     }
 
     @Override
     public void serialize(V data, Encoder e) throws IOException {
+      if (invocationCallback != null) {
+        invocationCallback.run();
+      }
       datumWriter.write(data, e);
     }
   }
+
+  /**
+   * Reads the JSON of the next value with a compatible JSON decoder.
+   */
+  public static class FastJsonDeserializerWithAvroImpl<V> implements FastJsonDeserializer<V> {
+    private final Schema schema;
+    private final DatumReader<V> datumReader;
+    private final Runnable invocationCallback;
+
+    public FastJsonDeserializerWithAvroImpl(Schema schema) {
+      this(schema, null);
+    }
+
+    FastJsonDeserializerWithAvroImpl(Schema schema, Runnable invocationCallback) {
+      this.schema = schema;
+      this.datumReader = new GenericDatumReader<>(schema);
+      this.invocationCallback = invocationCallback;
+    }
+
+    @Override
+    public V deserialize(V reuse, FastJsonReader in) throws IOException {
+      if (invocationCallback != null) {
+        invocationCallback.run();
+      }
+      return datumReader.read(reuse, AvroCompatibilityHelper.newCompatibleJsonDecoder(schema, in.readRawValue()));
+    }
+  }
+
+  /**
+   * Writes the JSON of values with a compatible JSON encoder.
+   */
+  public static class FastJsonSerializerWithAvroImpl<V> implements FastJsonSerializer<V> {
+    private final Schema schema;
+    private final DatumWriter<V> datumWriter;
+    private final Runnable invocationCallback;
+
+    public FastJsonSerializerWithAvroImpl(Schema schema) {
+      this(schema, null);
+    }
+
+    FastJsonSerializerWithAvroImpl(Schema schema, Runnable invocationCallback) {
+      this.schema = schema;
+      this.datumWriter = new GenericDatumWriter<>(schema);
+      this.invocationCallback = invocationCallback;
+    }
+
+    @Override
+    public void serialize(V data, FastJsonWriter out) throws IOException {
+      if (invocationCallback != null) {
+        invocationCallback.run();
+      }
+      ByteArrayOutputStream json = new ByteArrayOutputStream();
+      Encoder encoder = AvroCompatibilityHelper.newJsonEncoder(schema, json, false, out.getJsonFormat());
+      datumWriter.write(data, encoder);
+      encoder.flush();
+      out.writeRawValue(new String(json.toByteArray(), StandardCharsets.UTF_8));
+    }
+  }
 }
@@ -0,0 +1,267 @@
+package com.linkedin.avro.fastserde;
+
+import java.io.File;
+
+/**
+ * Optional settings of {@link FastSerdeCache}.
+ */
+public class FastSerdeCacheConfig {
+
+  /**
+   * The way fast serdes are built.
+   */
+  public enum Backend {
+    /**
+     * Java source is generated, compiled with the java compiler available at runtime and loaded.
+     */
+    CODEGEN,
+    /**
+     * Generic deserializers are assembled from pre-resolved readers without any code generation, so no java
+     * compiler is needed and building takes milliseconds. Specific deserializers and all serializers still
+     * use {@link #CODEGEN}.
+     */
+    INTERPRETER
+  }
+
+  /**
+   * The way entries are picked for eviction in bounded mode.
+   */
+  public enum EvictionPolicy {
+    /**
+     * Least recently used entries are evicted first.
+     */
+    LRU,
+    /**
+     * Least frequently used entries are evicted first.
+     */
+    LFU
+  }
+
+  private boolean inMemoryCompilation = false;
+  private Backend backend = Backend.CODEGEN;
+  private File classStoreDirectory = null;
+  private int maxCacheEntries = 0;
+  private long maxEstimatedMetaspaceBytes = 0;
+  private EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+  private int classLoaderBatchSize = 16;
+  private FastSerdeCacheListener listener = null;
+  private int compileBatchSize = 1;
+  private long compileBatchFlushIntervalMillis = 50;
+  private long compileThreshold = 0;
+  private int hugeMethodLimit = MethodSizeEstimator.DEFAULT_HUGE_METHOD_LIMIT;
+  private boolean utf8HashMaps = false;
+
+  public static FastSerdeCacheConfig newConfig() {
+    return new FastSerdeCacheConfig();
+  }
+
+  /**
+   * When enabled, generated classes are compiled and loaded without writing sources or class files to disk.
+   *
+   * @param inMemoryCompilation whether to compile generated classes in memory
+   * @return this config
+   */
+  public FastSerdeCacheConfig withInMemoryCompilation(boolean inMemoryCompilation) {
+    this.inMemoryCompilation = inMemoryCompilation;
+    return this;
+  }
+
+  public boolean isInMemoryCompilation() {
+    return inMemoryCompilation;
+  }
+
+  /**
+   * @param backend the way fast serdes are built
+   * @return this config
+   */
+  public FastSerdeCacheConfig withBackend(Backend backend) {
+    this.backend = backend;
+    return this;
+  }
+
+  public Backend getBackend() {
+    return backend;
+  }
+
+  /**
+   * When set, compiled classes are persisted in the given directory by {@link FastSerdeClassStore} and loaded from
+   * there instead of being generated again, e.g. after a restart. The directory can be shared by several JVMs.
+   *
+   * @param classStoreDirectory directory of the persistent class store, null disables it
+   * @return this config
+   */
+  public FastSerdeCacheConfig withClassStoreDirectory(File classStoreDirectory) {
+    this.classStoreDirectory = classStoreDirectory;
+    return this;
+  }
+
+  public File getClassStoreDirectory() {
+    return classStoreDirectory;
+  }
+
+  /**
+   * Bounds the total number of entries of all the serializer and deserializer caches. Exceeding entries are evicted
+   * according to the {@link EvictionPolicy}.
+   *
+   * @param maxCacheEntries maximum number of cached serdes, 0 means unbounded
+   * @return this config
+   */
+  public FastSerdeCacheConfig withMaxCacheEntries(int maxCacheEntries) {
+    this.maxCacheEntries = maxCacheEntries;
+    return this;
+  }
+
+  public int getMaxCacheEntries() {
+    return maxCacheEntries;
+  }
+
+  /**
+   * Bounds the estimated Metaspace used by generated classes. Exceeding entries are evicted according to the
+   * {@link EvictionPolicy}.
+   *
+   * @param maxEstimatedMetaspaceBytes maximum estimated Metaspace of generated classes, 0 means unbounded
+   * @return this config
+   */
+  public FastSerdeCacheConfig withMaxEstimatedMetaspaceBytes(long maxEstimatedMetaspaceBytes) {
+    this.maxEstimatedMetaspaceBytes = maxEstimatedMetaspaceBytes;
+    return this;
+  }
+
+  public long getMaxEstimatedMetaspaceBytes() {
+    return maxEstimatedMetaspaceBytes;
+  }
+
+  /**
+   * @param evictionPolicy the way entries are picked for eviction in bounded mode
+   * @return this config
+   */
+  public FastSerdeCacheConfig withEvictionPolicy(EvictionPolicy evictionPolicy) {
+    this.evictionPolicy = evictionPolicy;
+    return this;
+  }
+
+  public EvictionPolicy getEvictionPolicy() {
+    return evictionPolicy;
+  }
+
+  /**
+   * In bounded mode generated classes are defined by small class loaders, each one shared by this many classes.
+   * Such class loader (and its classes) can be unloaded once all its serdes are evicted.
+   *
+   * @param classLoaderBatchSize number of generated classes per class loader
+   * @return this config
+   */
+  public FastSerdeCacheConfig withClassLoaderBatchSize(int classLoaderBatchSize) {
+    this.classLoaderBatchSize = classLoaderBatchSize;
+    return this;
+  }
+
+  public int getClassLoaderBatchSize() {
+    return classLoaderBatchSize;
+  }
+
+  /**
+   * @return whether the cache is bounded either by entry count or by estimated Metaspace
+   */
+  public boolean isBounded() {
+    return maxCacheEntries > 0 || maxEstimatedMetaspaceBytes > 0;
+  }
+
+  /**
+   * @param listener listener notified about the lifecycle of cached serdes, see {@link FastSerdeCacheMetrics}
+   * @return this config
+   */
+  public FastSerdeCacheConfig withListener(FastSerdeCacheListener listener) {
+    this.listener = listener;
+    return this;
+  }
+
+  public FastSerdeCacheListener getListener() {
+    return listener;
+  }
+
+  /**
+   * Generated classes requested within {@link #withCompileBatchFlushIntervalMillis(long)} are compiled together by a
+   * single javac task, which amortizes compiler startup when many serdes are requested at once.
+   *
+   * @param compileBatchSize max number of classes compiled together, batching is disabled if it is not greater than 1
+   * @return this config
+   */
+  public FastSerdeCacheConfig withCompileBatchSize(int compileBatchSize) {
+    this.compileBatchSize = compileBatchSize;
+    return this;
+  }
+
+  public int getCompileBatchSize() {
+    return compileBatchSize;
+  }
+
+  /**
+   * @param compileBatchFlushIntervalMillis max time a generated class waits for its batch to fill up
+   * @return this config
+   */
+  public FastSerdeCacheConfig withCompileBatchFlushIntervalMillis(long compileBatchFlushIntervalMillis) {
+    this.compileBatchFlushIntervalMillis = compileBatchFlushIntervalMillis;
+    return this;
+  }
+
+  public long getCompileBatchFlushIntervalMillis() {
+    return compileBatchFlushIntervalMillis;
+  }
+
+  /**
+   * @return whether generated classes are compiled in batches
+   */
+  public boolean isBatchCompilation() {
+    return compileBatchSize > 1;
+  }
+
+  /**
+   * When set, a serde is only compiled once its cold (vanilla avro) counterpart has been invoked this many times,
+   * so serdes used only a few times (e.g. by backfill jobs) never get compiled. Hot serdes are compiled in order of
+   * their observed invocation rate. The async getters of {@link FastSerdeCache} compile right away regardless.
+   *
+   * @param compileThreshold number of cold invocations triggering compilation, 0 compiles on first use
+   * @return this config
+   */
+  public FastSerdeCacheConfig withCompileThreshold(long compileThreshold) {
+    this.compileThreshold = compileThreshold;
+    return this;
+  }
+
+  public long getCompileThreshold() {
+    return compileThreshold;
+  }
+
+  /**
+   * Generated methods are split to stay under this size, as the JIT compiler never compiles larger ones. It only needs
+   * to be changed when the JVM runs with a different {@code -XX:HugeMethodLimit}.
+   *
+   * @param hugeMethodLimit bytecode size of the largest methods the JIT compiler compiles, 8000 bytes by default
+   * @return this config
+   */
+  public FastSerdeCacheConfig withHugeMethodLimit(int hugeMethodLimit) {
+    this.hugeMethodLimit = hugeMethodLimit;
+    return this;
+  }
+
+  public int getHugeMethodLimit() {
+    return hugeMethodLimit;
+  }
+
+  /**
+   * When enabled, the generated deserializers produce {@link Utf8HashMap}s for maps of
+   * {@link org.apache.avro.util.Utf8} keys, which are refilled in place when passed back as the reused value.
+   *
+   * @param utf8HashMaps whether the generated deserializers produce {@link Utf8HashMap}s
+   * @return this config
+   */
+  public FastSerdeCacheConfig withUtf8HashMaps(boolean utf8HashMaps) {
+    this.utf8HashMaps = utf8HashMaps;
+    return this;
+  }
+
+  public boolean isUtf8HashMaps() {
+    return utf8HashMaps;
+  }
+}
@@ -0,0 +1,320 @@
+package com.linkedin.avro.fastserde;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+
+/**
+ * Keeps {@link FastSerdeCache} bounded by the number of entries and by the estimated Metaspace of generated classes.
+ *
+ * Every cache map is tracked by its own {@link Region}. Whenever an insertion exceeds a limit, entries are evicted
+ * according to {@link FastSerdeCacheConfig.EvictionPolicy} across all the regions. The entries of all the regions are
+ * kept in a single queue, so picking a victim only looks at the head of the queue rather than at every entry:
+ * <ul>
+ *   <li>with {@link FastSerdeCacheConfig.EvictionPolicy#LRU}, the head of the queue is evicted. Accessed entries are
+ *   recorded without locking in a buffer, holding every entry at most once, which is replayed before every insertion
+ *   by moving the entries to the tail in order of last access;</li>
+ *   <li>with {@link FastSerdeCacheConfig.EvictionPolicy#LFU}, the least frequently used of the first
+ *   {@link #LFU_SAMPLE_SIZE} entries is evicted and the other ones are moved to the tail, so every entry is sampled in
+ *   turn.</li>
+ * </ul>
+ * Either way, an eviction costs a constant amortized time, whatever the number of entries.
+ *
+ * Generated classes are defined by small per-batch class loaders, which are only weakly referenced here, so a batch
+ * class loader (along with all its classes) becomes collectable once all its serdes have been evicted.
+ */
+class FastSerdeCacheEvictor {
+
+  /**
+   * Rough ratio between the Metaspace footprint of a loaded class and the size of its class file.
+   */
+  static final int METASPACE_BYTES_PER_BYTECODE_BYTE = 2;
+
+  /**
+   * Number of entries compared to pick a victim with {@link FastSerdeCacheConfig.EvictionPolicy#LFU}.
+   */
+  static final int LFU_SAMPLE_SIZE = 8;
+
+  private final int maxEntries;
+  private final long maxEstimatedMetaspaceBytes;
+  private final FastSerdeCacheConfig.EvictionPolicy evictionPolicy;
+  private final int classLoaderBatchSize;
+  private final Supplier<ClassLoader> classLoaderFactory;
+
+  /**
+   * Bytecode size of the generated classes keyed by batch class loader and class name.
+   */
+  private final Map<ClassLoader, Map<String, Long>> batches = Collections.synchronizedMap(new WeakHashMap<>());
+
+  /**
+   * Recently evicted keys, used to tell apart reloads of evicted entries from brand new entries.
+   */
+  private final Map<Map.Entry<Region, Object>, Boolean> evictedKeys;
+
+  /**
+   * Entries of all the regions, from the first to the last candidate for eviction.
+   */
+  private final LinkedHashSet<Entry> queue = new LinkedHashSet<>();
+
+  /**
+   * Entries accessed since the last insertion, to be moved to the tail of the queue with
+   * {@link FastSerdeCacheConfig.EvictionPolicy#LRU}.
+   */
+  private final Queue<Entry> accessed = new ConcurrentLinkedQueue<>();
+
+  private final AtomicLong evictionCount = new AtomicLong();
+  private final AtomicLong reloadCount = new AtomicLong();
+
+  private ClassLoader currentBatchClassLoader;
+  private int currentBatchSize;
+  private int entryCount;
+  private long estimatedMetaspaceBytes;
+
+  FastSerdeCacheEvictor(FastSerdeCacheConfig config, Supplier<ClassLoader> classLoaderFactory) {
+    this.maxEntries = config.getMaxCacheEntries();
+    this.maxEstimatedMetaspaceBytes = config.getMaxEstimatedMetaspaceBytes();
+    this.evictionPolicy = config.getEvictionPolicy();
+    this.classLoaderBatchSize = Math.max(1, config.getClassLoaderBatchSize());
+    this.classLoaderFactory = classLoaderFactory;
+
+    int maxEvictedKeys = Math.max(1024, 4 * maxEntries);
+    this.evictedKeys = new LinkedHashMap<Map.Entry<Region, Object>, Boolean>() {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Map.Entry<Region, Object>, Boolean> eldest) {
+        return size() > maxEvictedKeys;
+      }
+    };
+  }
+
+  /**
+   * @param cache cache map to be tracked
+   * @param evictionCallback optional callback invoked with the key of every evicted entry
+   * @return region tracking the given cache map
+   */
+  Region register(Map<?, ?> cache, Consumer<Object> evictionCallback) {
+    return new Region(cache, evictionCallback);
+  }
+
+  /**
+   * @return class loader of the current batch, a new batch is started once the current one is full
+   */
+  synchronized ClassLoader nextClassLoader() {
+    if (currentBatchClassLoader == null || currentBatchSize >= classLoaderBatchSize) {
+      currentBatchClassLoader = classLoaderFactory.get();
+      currentBatchSize = 0;
+      batches.put(currentBatchClassLoader, new ConcurrentHashMap<>());
+    }
+    currentBatchSize++;
+    return currentBatchClassLoader;
+  }
+
+  /**
+   * @param serde serializer or deserializer just generated by a batch class loader
+   * @param bytecodeBytes size of the bytecode of the serde class
+   */
+  void recordGeneratedClass(Object serde, long bytecodeBytes) {
+    Map<String, Long> batch = batches.get(serde.getClass().getClassLoader());
+    if (batch != null) {
+      batch.put(serde.getClass().getName(), bytecodeBytes);
+    }
+  }
+
+  long getEvictionCount() {
+    return evictionCount.get();
+  }
+
+  long getReloadCount() {
+    return reloadCount.get();
+  }
+
+  synchronized int getEntryCount() {
+    return entryCount;
+  }
+
+  synchronized long getEstimatedMetaspaceBytes() {
+    return estimatedMetaspaceBytes;
+  }
+
+  /**
+   * @return number of batch class loaders, which haven't been garbage collected yet
+   */
+  int getClassLoaderCount() {
+    return batches.size();
+  }
+
+  private long estimateMetaspaceBytes(Object serde) {
+    Map<String, Long> batch = batches.get(serde.getClass().getClassLoader());
+    Long bytecodeBytes = batch == null ? null : batch.get(serde.getClass().getName());
+    return bytecodeBytes == null ? 0 : bytecodeBytes * METASPACE_BYTES_PER_BYTECODE_BYTE;
+  }
+
+  private synchronized void recordInsert(Region region, Object key, Object serde) {
+    drainAccessed();
+    Entry entry = new Entry(region, key, serde, estimateMetaspaceBytes(serde));
+    Entry previous = region.entries.put(key, entry);
+    queue.add(entry);
+    if (previous != null) {
+      queue.remove(previous);
+      estimatedMetaspaceBytes -= previous.estimatedMetaspaceBytes;
+    } else {
+      entryCount++;
+      if (evictedKeys.remove(new AbstractMap.SimpleImmutableEntry<>(region, key)) != null) {
+        reloadCount.incrementAndGet();
+      }
+    }
+    estimatedMetaspaceBytes += entry.estimatedMetaspaceBytes;
+
+    while (entryCount > 1 && ((maxEntries > 0 && entryCount > maxEntries)
+        || (maxEstimatedMetaspaceBytes > 0 && estimatedMetaspaceBytes > maxEstimatedMetaspaceBytes))) {
+      if (!evictOne(entry)) {
+        break;
+      }
+    }
+  }
+
+  /**
+   * @param excluded entry, which must not be evicted (usually the one just inserted)
+   * @return whether an entry has been evicted
+   */
+  private boolean evictOne(Entry excluded) {
+    Entry victim = evictionPolicy == FastSerdeCacheConfig.EvictionPolicy.LFU
+        ? pickLeastFrequentlyUsed(excluded)
+        : pickLeastRecentlyUsed(excluded);
+    if (victim == null) {
+      return false;
+    }
+
+    Region victimRegion = victim.region;
+    Object victimKey = victim.key;
+    queue.remove(victim);
+    victimRegion.cache.remove(victimKey, victim.serde);
+    victimRegion.entries.remove(victimKey, victim);
+    entryCount--;
+    estimatedMetaspaceBytes -= victim.estimatedMetaspaceBytes;
+    evictedKeys.put(new AbstractMap.SimpleImmutableEntry<>(victimRegion, victimKey), Boolean.TRUE);
+    evictionCount.incrementAndGet();
+    if (victimRegion.evictionCallback != null) {
+      victimRegion.evictionCallback.accept(victimKey);
+    }
+    return true;
+  }
+
+  /**
+   * @return the head of the queue, which is the least recently used entry as of the last insertion
+   */
+  private Entry pickLeastRecentlyUsed(Entry excluded) {
+    for (Entry entry : queue) {
+      if (entry != excluded) {
+        return entry;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Moves the entries accessed since the last insertion to the tail of the queue, the most recently accessed last,
+   * which keeps the queue in order of last access. Entries evicted or replaced in the meantime are skipped.
+   */
+  private void drainAccessed() {
+    List<Entry> drained = new ArrayList<>();
+    for (Entry entry = accessed.poll(); entry != null; entry = accessed.poll()) {
+      entry.accessPending.set(false);
+      if (queue.remove(entry)) {
+        drained.add(entry);
+      }
+    }
+    drained.sort(Comparator.comparingLong(entry -> entry.lastAccessNanos));
+    queue.addAll(drained);
+  }
+
+  /**
+   * @return the least frequently used of the first {@link #LFU_SAMPLE_SIZE} entries of the queue, the other sampled
+   *         entries being moved to its tail
+   */
+  private Entry pickLeastFrequentlyUsed(Entry excluded) {
+    List<Entry> sampled = new ArrayList<>(LFU_SAMPLE_SIZE);
+    Entry victim = null;
+    for (Iterator<Entry> iterator = queue.iterator(); iterator.hasNext() && sampled.size() < LFU_SAMPLE_SIZE; ) {
+      Entry entry = iterator.next();
+      if (entry == excluded) {
+        continue;
+      }
+      iterator.remove();
+      sampled.add(entry);
+      if (victim == null || entry.hits < victim.hits) {
+        victim = entry;
+      }
+    }
+    queue.addAll(sampled);
+    return victim;
+  }
+
+  /**
+   * Usage of a single tracked entry. Access statistics are updated without synchronization, so they are approximate.
+   */
+  private static final class Entry {
+    private final Region region;
+    private final Object key;
+    private final Object serde;
+    private final long estimatedMetaspaceBytes;
+    private volatile long lastAccessNanos = System.nanoTime();
+    private volatile long hits = 1;
+    // whether the entry is in the buffer of accessed entries
+    private final AtomicBoolean accessPending = new AtomicBoolean();
+
+    private Entry(Region region, Object key, Object serde, long estimatedMetaspaceBytes) {
+      this.region = region;
+      this.key = key;
+      this.serde = serde;
+      this.estimatedMetaspaceBytes = estimatedMetaspaceBytes;
+    }
+  }
+
+  /**
+   * Tracks entries of a single cache map.
+   */
+  final class Region {
+    private final Map<?, ?> cache;
+    private final Consumer<Object> evictionCallback;
+    private final Map<Object, Entry> entries = new ConcurrentHashMap<>();
+
+    private Region(Map<?, ?> cache, Consumer<Object> evictionCallback) {
+      this.cache = cache;
+      this.evictionCallback = evictionCallback;
+    }
+
+    /**
+     * @param key key of the accessed entry, it is not retained
+     */
+    void recordAccess(Object key) {
+      Entry entry = entries.get(key);
+      if (entry != null) {
+        entry.lastAccessNanos = System.nanoTime();
+        entry.hits++;
+        if (evictionPolicy == FastSerdeCacheConfig.EvictionPolicy.LRU
+            && entry.accessPending.compareAndSet(false, true)) {
+          accessed.add(entry);
+        }
+      }
+    }
+
+    void recordInsert(Object key, Object serde) {
+      FastSerdeCacheEvictor.this.recordInsert(this, key, serde);
+    }
+  }
+}
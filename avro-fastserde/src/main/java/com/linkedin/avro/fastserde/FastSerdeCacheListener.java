@@ -0,0 +1,84 @@
+package com.linkedin.avro.fastserde;
+
+/**
+ * Receives notifications about the lifecycle of serializers and deserializers managed by {@link FastSerdeCache}.
+ * All the methods have empty default implementations, so an implementation only needs to override the events
+ * it is interested in. Notifications are delivered synchronously on the calling thread (either the caller of
+ * {@link FastSerdeCache} or a compile thread), so implementations are expected to be cheap and thread-safe.
+ *
+ * A listener is registered via {@link FastSerdeCacheConfig#withListener(FastSerdeCacheListener)}, no notifications
+ * are produced otherwise. See {@link FastSerdeCacheMetrics} for an in-process implementation.
+ */
+public interface FastSerdeCacheListener {
+
+  /**
+   * Kind of the cached serde.
+   */
+  enum SerdeKind {
+    SPECIFIC_DESERIALIZER, GENERIC_DESERIALIZER, SPECIFIC_SERIALIZER, GENERIC_SERIALIZER, GENERIC_JSON_DESERIALIZER,
+    GENERIC_JSON_SERIALIZER, GENERIC_LAZY_DESERIALIZER
+  }
+
+  /**
+   * State of a cached serde.
+   */
+  enum SerdeState {
+    /**
+     * Served by vanilla avro until the fast serde is available.
+     */
+    COLD,
+    /**
+     * The fast serde is being generated.
+     */
+    COMPILING,
+    /**
+     * Served by the fast serde.
+     */
+    FAST,
+    /**
+     * Generation failed, served by vanilla avro for good.
+     */
+    FAILED
+  }
+
+  /**
+   * Invoked once, when the listener is registered.
+   *
+   * @param cache the cache the listener is registered with
+   */
+  default void onRegistered(FastSerdeCache cache) {
+  }
+
+  /**
+   * @param kind kind of the serde
+   * @param schemaKey key of the (writer, reader) schema pair
+   * @param state new state of the serde
+   */
+  default void onStateChange(SerdeKind kind, String schemaKey, SerdeState state) {
+  }
+
+  /**
+   * @param kind kind of the serde
+   * @param schemaKey key of the (writer, reader) schema pair
+   * @param latencyNanos time spent generating the serde
+   * @param success whether the fast serde was generated, otherwise it falls back to vanilla avro
+   */
+  default void onCompileCompleted(SerdeKind kind, String schemaKey, long latencyNanos, boolean success) {
+  }
+
+  /**
+   * Invoked on every call of a cold serde, i.e. one served by vanilla avro while the fast one is not available yet.
+   *
+   * @param kind kind of the serde
+   * @param schemaKey key of the (writer, reader) schema pair
+   */
+  default void onColdInvocation(SerdeKind kind, String schemaKey) {
+  }
+
+  /**
+   * @param kind kind of the serde
+   * @param schemaKey key of the (writer, reader) schema pair
+   */
+  default void onEviction(SerdeKind kind, String schemaKey) {
+  }
+}
@@ -0,0 +1,187 @@
+package com.linkedin.avro.fastserde;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * In-process {@link FastSerdeCacheListener}, which records the state of every cached serde, compile latencies,
+ * compile failures and cold-path invocations and exposes them, along with the gauges of the cache it is registered
+ * with, as a point-in-time {@link Snapshot}.
+ */
+public class FastSerdeCacheMetrics implements FastSerdeCacheListener {
+
+  /**
+   * Bucket i of the compile latency histogram counts compilations which took less than 2^i milliseconds
+   * (and at least 2^(i-1) milliseconds), the last bucket counts all the longer ones.
+   */
+  public static final int LATENCY_HISTOGRAM_BUCKETS = 20;
+
+  private final Map<SerdeKind, Map<String, SerdeState>> states = new EnumMap<>(SerdeKind.class);
+  private final Map<SerdeKind, Map<String, LongAdder>> coldInvocations = new EnumMap<>(SerdeKind.class);
+  private final AtomicLongArray compileLatencyHistogram = new AtomicLongArray(LATENCY_HISTOGRAM_BUCKETS);
+  private final LongAdder compileFailures = new LongAdder();
+  private volatile FastSerdeCache cache;
+
+  public FastSerdeCacheMetrics() {
+    for (SerdeKind kind : SerdeKind.values()) {
+      states.put(kind, new ConcurrentHashMap<>());
+      coldInvocations.put(kind, new ConcurrentHashMap<>());
+    }
+  }
+
+  @Override
+  public void onRegistered(FastSerdeCache cache) {
+    this.cache = cache;
+  }
+
+  @Override
+  public void onStateChange(SerdeKind kind, String schemaKey, SerdeState state) {
+    states.get(kind).put(schemaKey, state);
+  }
+
+  @Override
+  public void onCompileCompleted(SerdeKind kind, String schemaKey, long latencyNanos, boolean success) {
+    long latencyMillis = TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+    int bucket = latencyMillis == 0 ? 0 : 64 - Long.numberOfLeadingZeros(latencyMillis);
+    compileLatencyHistogram.incrementAndGet(Math.min(bucket, LATENCY_HISTOGRAM_BUCKETS - 1));
+    if (!success) {
+      compileFailures.increment();
+    }
+  }
+
+  @Override
+  public void onColdInvocation(SerdeKind kind, String schemaKey) {
+    coldInvocations.get(kind).computeIfAbsent(schemaKey, k -> new LongAdder()).increment();
+  }
+
+  @Override
+  public void onEviction(SerdeKind kind, String schemaKey) {
+    states.get(kind).remove(schemaKey);
+    coldInvocations.get(kind).remove(schemaKey);
+  }
+
+  /**
+   * @return point-in-time view of the recorded metrics
+   */
+  public Snapshot snapshot() {
+    return new Snapshot(this, cache);
+  }
+
+  /**
+   * Immutable point-in-time view of {@link FastSerdeCacheMetrics}.
+   */
+  public static final class Snapshot {
+    private final Map<SerdeKind, Map<String, SerdeState>> states = new EnumMap<>(SerdeKind.class);
+    private final Map<SerdeKind, Map<String, Long>> coldInvocations = new EnumMap<>(SerdeKind.class);
+    private final Map<SerdeKind, Integer> cacheSizes = new EnumMap<>(SerdeKind.class);
+    private final long[] compileLatencyHistogram = new long[LATENCY_HISTOGRAM_BUCKETS];
+    private final long compileFailureCount;
+    private final int pendingCompilationCount;
+    private final long evictionCount;
+    private final long reloadCount;
+
+    private Snapshot(FastSerdeCacheMetrics metrics, FastSerdeCache cache) {
+      for (SerdeKind kind : SerdeKind.values()) {
+        states.put(kind, Collections.unmodifiableMap(new HashMap<>(metrics.states.get(kind))));
+        Map<String, Long> kindColdInvocations = new HashMap<>();
+        metrics.coldInvocations.get(kind).forEach((schemaKey, count) -> kindColdInvocations.put(schemaKey, count.sum()));
+        coldInvocations.put(kind, Collections.unmodifiableMap(kindColdInvocations));
+        cacheSizes.put(kind, cache == null ? 0 : cache.getCacheSize(kind));
+      }
+      for (int i = 0; i < LATENCY_HISTOGRAM_BUCKETS; i++) {
+        compileLatencyHistogram[i] = metrics.compileLatencyHistogram.get(i);
+      }
+      compileFailureCount = metrics.compileFailures.sum();
+      pendingCompilationCount = cache == null ? 0 : cache.getPendingCompilationCount();
+      evictionCount = cache == null ? 0 : cache.getEvictionCount();
+      reloadCount = cache == null ? 0 : cache.getReloadCount();
+    }
+
+    /**
+     * @param kind kind of the serdes
+     * @return state of the serdes keyed by schema key
+     */
+    public Map<String, SerdeState> getStates(SerdeKind kind) {
+      return states.get(kind);
+    }
+
+    /**
+     * @param state state of the serdes
+     * @return number of serdes (of all kinds) in the given state
+     */
+    public long getStateCount(SerdeState state) {
+      return states.values().stream().flatMap(kindStates -> kindStates.values().stream()).filter(state::equals).count();
+    }
+
+    /**
+     * @param kind kind of the serde
+     * @param schemaKey key of the (writer, reader) schema pair
+     * @return number of invocations of the cold serde
+     */
+    public long getColdInvocationCount(SerdeKind kind, String schemaKey) {
+      return coldInvocations.get(kind).getOrDefault(schemaKey, 0L);
+    }
+
+    /**
+     * @return total number of invocations of cold serdes
+     */
+    public long getColdInvocationCount() {
+      return coldInvocations.values().stream().flatMap(counts -> counts.values().stream()).mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * @return compile latency histogram, see {@link #LATENCY_HISTOGRAM_BUCKETS}
+     */
+    public long[] getCompileLatencyHistogram() {
+      return compileLatencyHistogram.clone();
+    }
+
+    public long getCompileCount() {
+      long compileCount = 0;
+      for (long bucketCount : compileLatencyHistogram) {
+        compileCount += bucketCount;
+      }
+      return compileCount;
+    }
+
+    public long getCompileFailureCount() {
+      return compileFailureCount;
+    }
+
+    /**
+     * @return number of serdes queued or being generated
+     */
+    public int getPendingCompilationCount() {
+      return pendingCompilationCount;
+    }
+
+    /**
+     * @param kind kind of the serdes
+     * @return number of entries of the corresponding cache
+     */
+    public int getCacheSize(SerdeKind kind) {
+      return cacheSizes.get(kind);
+    }
+
+    /**
+     * @return number of entries evicted in bounded mode
+     */
+    public long getEvictionCount() {
+      return evictionCount;
+    }
+
+    /**
+     * @return number of entries re-created in bounded mode after they had been evicted
+     */
+    public long getReloadCount() {
+      return reloadCount;
+    }
+  }
+}
@@ -0,0 +1,201 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avro.fastserde.backport.ResolvingGrammarGenerator;
+import com.linkedin.avro.fastserde.backport.Symbol;
+import com.linkedin.avro.fastserde.primitive.PrimitiveDoubleHashMap;
+import com.linkedin.avro.fastserde.primitive.PrimitiveFloatHashMap;
+import com.linkedin.avro.fastserde.primitive.PrimitiveHashMap;
+import com.linkedin.avro.fastserde.primitive.PrimitiveIntHashMap;
+import com.linkedin.avro.fastserde.primitive.PrimitiveLongHashMap;
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Persistent store of compiled fast serde classes, which survives JVM restarts, so previously generated classes
+ * can be loaded without generating and compiling them again.
+ *
+ * Entries are keyed by the generated class name (which is derived from the schema fingerprints and contains the
+ * runtime {@link com.linkedin.avroutil1.compatibility.AvroVersion}), a hash of the generator classes and the java
+ * specification version. Each entry carries a header and a checksum, corrupted or stale entries are ignored.
+ * Entries are written to a temporary file and atomically moved into place, so several JVMs can share one directory.
+ */
+public class FastSerdeClassStore {
+  private static final Logger LOGGER = LoggerFactory.getLogger(FastSerdeClassStore.class);
+
+  private static final int MAGIC = 0x46534353;
+  private static final int FORMAT_VERSION = 1;
+  private static final String ENTRY_SUFFIX = ".classes";
+
+  /**
+   * Classes, which shape the generated code. Any change to them results in a different generator version, so
+   * entries produced by a previous release are never loaded.
+   */
+  private static final Class<?>[] GENERATOR_CLASSES = {
+      FastSerdeBase.class, FastDeserializerGeneratorBase.class, FastDeserializerGenerator.class,
+      FastGenericDeserializerGenerator.class, FastSpecificDeserializerGenerator.class, FastSerializerGenerator.class,
+      FastGenericSerializerGenerator.class, FastSpecificSerializerGenerator.class, SchemaAssistant.class,
+      ResolvingGrammarGenerator.class, Symbol.class, ByteBufferBackedPrimitiveFloatList.class,
+      ByteBufferBackedPrimitiveDoubleList.class, PrimitiveHashMap.class, PrimitiveDoubleHashMap.class,
+      PrimitiveFloatHashMap.class, PrimitiveIntHashMap.class, PrimitiveLongHashMap.class, FastSerdeClassStore.class
+  };
+
+  private static volatile String generatorVersion;
+
+  private final Path directory;
+
+  /**
+   * @param rootDirectory directory where the compiled classes are stored, it is created if it doesn't exist
+   */
+  public FastSerdeClassStore(File rootDirectory) {
+    this.directory = rootDirectory.toPath().resolve(getGeneratorVersion());
+    try {
+      Files.createDirectories(directory);
+    } catch (IOException e) {
+      throw new FastSerdeGeneratorException("Unable to create fast serde class store directory: " + directory, e);
+    }
+  }
+
+  /**
+   * @param className fully qualified name of the generated class
+   * @return bytecode of the generated class and its nested classes keyed by binary class name, or null if there is
+   *     no valid entry for the given class
+   */
+  public Map<String, byte[]> load(String className) {
+    Path entryPath = directory.resolve(className + ENTRY_SUFFIX);
+    byte[] entry;
+    try {
+      entry = Files.readAllBytes(entryPath);
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException e) {
+      LOGGER.warn("Unable to read fast serde class store entry: {}", entryPath, e);
+      return null;
+    }
+
+    int contentLength = entry.length - Long.BYTES;
+    if (contentLength < 0 || checksum(entry, contentLength) != readChecksum(entry, contentLength)) {
+      LOGGER.warn("Ignoring corrupted fast serde class store entry: {}", entryPath);
+      return null;
+    }
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(entry, 0, contentLength))) {
+      if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !getEntryKey(className).equals(in.readUTF())) {
+        LOGGER.warn("Ignoring stale fast serde class store entry: {}", entryPath);
+        return null;
+      }
+      int classCount = in.readInt();
+      Map<String, byte[]> classes = new HashMap<>(classCount);
+      for (int i = 0; i < classCount; i++) {
+        String name = in.readUTF();
+        byte[] bytecode = new byte[in.readInt()];
+        in.readFully(bytecode);
+        classes.put(name, bytecode);
+      }
+      return classes.containsKey(className) ? classes : null;
+    } catch (IOException e) {
+      LOGGER.warn("Ignoring malformed fast serde class store entry: {}", entryPath, e);
+      return null;
+    }
+  }
+
+  /**
+   * @param className fully qualified name of the generated class
+   * @param classes bytecode of the generated class and its nested classes keyed by binary class name
+   * @throws IOException on io issues
+   */
+  public void store(String className, Map<String, byte[]> classes) throws IOException {
+    ByteArrayOutputStream content = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(content)) {
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      out.writeUTF(getEntryKey(className));
+      out.writeInt(classes.size());
+      for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+        out.writeUTF(entry.getKey());
+        out.writeInt(entry.getValue().length);
+        out.write(entry.getValue());
+      }
+      out.writeLong(checksum(content.toByteArray(), content.size()));
+    }
+
+    /**
+     * The entry is written to a temporary file in the same directory first and then atomically moved into place,
+     * so concurrent readers (possibly in other JVMs) never observe a partially written entry.
+     */
+    Path tempPath = Files.createTempFile(directory, className, ".tmp");
+    try {
+      Files.write(tempPath, content.toByteArray());
+      Files.move(tempPath, directory.resolve(className + ENTRY_SUFFIX), StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(tempPath);
+    }
+  }
+
+  private static String getEntryKey(String className) {
+    return className + "/" + AvroCompatibilityHelper.getRuntimeAvroVersion().name() + "/" + getGeneratorVersion();
+  }
+
+  private static long checksum(byte[] bytes, int length) {
+    CRC32 crc32 = new CRC32();
+    crc32.update(bytes, 0, length);
+    return crc32.getValue();
+  }
+
+  private static long readChecksum(byte[] bytes, int offset) {
+    long checksum = 0;
+    for (int i = offset; i < offset + Long.BYTES; i++) {
+      checksum = (checksum << 8) | (bytes[i] & 0xFF);
+    }
+    return checksum;
+  }
+
+  /**
+   * @return hash of the generator classes and the java specification version the classes are compiled for
+   */
+  static String getGeneratorVersion() {
+    if (generatorVersion == null) {
+      try {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] buffer = new byte[8192];
+        for (Class<?> generatorClass : GENERATOR_CLASSES) {
+          String resourceName = generatorClass.getName().replace('.', '/') + ".class";
+          try (InputStream in = generatorClass.getClassLoader().getResourceAsStream(resourceName)) {
+            if (in == null) {
+              throw new FastSerdeGeneratorException("Unable to locate class file: " + resourceName);
+            }
+            for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+              digest.update(buffer, 0, read);
+            }
+          }
+        }
+        digest.update(System.getProperty("java.specification.version").getBytes());
+        StringBuilder version = new StringBuilder();
+        for (byte b : digest.digest()) {
+          version.append(String.format("%02x", b));
+        }
+        generatorVersion = version.substring(0, 16);
+      } catch (IOException | NoSuchAlgorithmException e) {
+        throw new FastSerdeGeneratorException("Unable to compute fast serde generator version", e);
+      }
+    }
+    return generatorVersion;
+  }
+}
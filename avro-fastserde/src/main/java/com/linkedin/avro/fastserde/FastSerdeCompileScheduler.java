@@ -0,0 +1,110 @@
+package com.linkedin.avro.fastserde;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Defers generation of fast serdes until they prove to be hot, similar to a tiered JIT.
+ *
+ * Every cold serde gets a {@link Candidate}, which counts invocations of the cold serde. Once a candidate reaches the
+ * compile threshold, it is queued and a compile slot is requested from the executor. Each slot compiles the hottest
+ * queued candidate at the time it runs (the one with the highest observed invocation rate), so serdes seen only a few
+ * times are never compiled and hot ones don't wait behind lukewarm ones, whatever the ordering of the executor is.
+ */
+class FastSerdeCompileScheduler {
+
+  private final Executor executor;
+  private final long compileThreshold;
+  private final List<Candidate> queuedCandidates = new ArrayList<>();
+
+  FastSerdeCompileScheduler(Executor executor, long compileThreshold) {
+    this.executor = executor;
+    this.compileThreshold = Math.max(1, compileThreshold);
+  }
+
+  Candidate newCandidate() {
+    return new Candidate();
+  }
+
+  /**
+   * @return number of candidates, which have reached the threshold, but haven't been picked for compilation yet
+   */
+  synchronized int getQueuedCount() {
+    return queuedCandidates.size();
+  }
+
+  private void enqueue(Candidate candidate) {
+    synchronized (this) {
+      queuedCandidates.add(candidate);
+    }
+    executor.execute(this::compileHottest);
+  }
+
+  private void compileHottest() {
+    Candidate hottest = null;
+    synchronized (this) {
+      long nowNanos = System.nanoTime();
+      for (Candidate candidate : queuedCandidates) {
+        if (hottest == null || candidate.getInvocationRate(nowNanos) > hottest.getInvocationRate(nowNanos)) {
+          hottest = candidate;
+        }
+      }
+      if (hottest == null) {
+        return;
+      }
+      queuedCandidates.remove(hottest);
+    }
+    hottest.compileTask.run();
+  }
+
+  /**
+   * Invocation counter of a single cold serde, it is run on every invocation of the cold serde.
+   */
+  final class Candidate implements Runnable {
+    private final AtomicLong invocations = new AtomicLong();
+    private final AtomicBoolean enqueued = new AtomicBoolean();
+    private volatile long firstInvocationNanos;
+    private volatile Runnable compileTask;
+
+    private Candidate() {
+    }
+
+    @Override
+    public void run() {
+      long invocationCount = invocations.incrementAndGet();
+      if (invocationCount == 1) {
+        firstInvocationNanos = System.nanoTime();
+      }
+      if (invocationCount >= compileThreshold) {
+        enqueueIfReady();
+      }
+    }
+
+    /**
+     * @param compileTask generates the fast serde, it is run on a compile thread once the candidate gets hot
+     */
+    void schedule(Runnable compileTask) {
+      this.compileTask = compileTask;
+      if (invocations.get() >= compileThreshold) {
+        enqueueIfReady();
+      }
+    }
+
+    private void enqueueIfReady() {
+      if (compileTask != null && enqueued.compareAndSet(false, true)) {
+        enqueue(this);
+      }
+    }
+
+    /**
+     * @return invocations per second since the first invocation
+     */
+    private double getInvocationRate(long nowNanos) {
+      return invocations.get() * 1e9 / Math.max(1, nowNanos - firstInvocationNanos);
+    }
+  }
+}
@@ -1,6 +1,11 @@
 package com.linkedin.avro.fastserde;
 
+import com.linkedin.avro.fastserde.primitive.PrimitiveDoubleHashMap;
+import com.linkedin.avro.fastserde.primitive.PrimitiveFloatHashMap;
+import com.linkedin.avro.fastserde.primitive.PrimitiveIntHashMap;
+import com.linkedin.avro.fastserde.primitive.PrimitiveLongHashMap;
 import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import com.sun.codemodel.JArray;
 import com.sun.codemodel.JBlock;
 import com.sun.codemodel.JClass;
 import com.sun.codemodel.JClassAlreadyExistsException;
@@ -12,12 +17,16 @@ import com.sun.codemodel.JForLoop;
 import com.sun.codemodel.JMethod;
 import com.sun.codemodel.JMod;
 import com.sun.codemodel.JPackage;
+import com.sun.codemodel.JSwitch;
 import com.sun.codemodel.JVar;
 import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import org.apache.avro.AvroTypeException;
 import org.apache.avro.Schema;
 import org.apache.avro.io.Encoder;
 import org.apache.avro.util.Utf8;
@@ -27,6 +36,8 @@ import org.apache.commons.lang3.StringUtils;
 public class FastSerializerGenerator<T> extends FastSerdeBase {
 
   private static final String ENCODER = "encoder";
+  // number of non-null branches from which unions are written through an UnionBranchResolver
+  static final int UNION_RESOLVER_MIN_BRANCHES = 8;
   protected final Schema schema;
 
   private final Map<String, JMethod> serializeMethodMap = new HashMap<>();
@@ -36,6 +47,8 @@ public class FastSerializerGenerator<T> extends FastSerdeBase {
    */
   private final Map<Long, JVar> enumSchemaVarMap = new HashMap<>();
 
+  private final Map<Schema, JVar> unionBranchResolverMap = new HashMap<>();
+
 
   public FastSerializerGenerator(boolean useGenericTypes, Schema schema, File destination, ClassLoader classLoader,
       String compileClassPath) {
@@ -51,35 +64,14 @@ public class FastSerializerGenerator<T> extends FastSerdeBase {
 
   public FastSerializer<T> generateSerializer() {
     final String className = getClassName(schema, useGenericTypes ? "Generic" : "Specific");
-    final JPackage classPackage = codeModel._package(generatedPackageName);
 
     try {
-      generatedClass = classPackage._class(className);
-
-      final JMethod serializeMethod = generatedClass.method(JMod.PUBLIC, void.class, "serialize");
-      final JVar serializeMethodParam;
-
-      JClass outputClass = schemaAssistant.classFromSchema(schema);
-      generatedClass._implements(codeModel.ref(FastSerializer.class).narrow(outputClass));
-      serializeMethodParam = serializeMethod.param(outputClass, "data");
-
-      switch (schema.getType()) {
-        case RECORD:
-          processRecord(schema, serializeMethodParam, serializeMethod.body());
-          break;
-        case ARRAY:
-          processArray(schema, serializeMethodParam, serializeMethod.body());
-          break;
-        case MAP:
-          processMap(schema, serializeMethodParam, serializeMethod.body());
-          break;
-        default:
-          throw new FastSerdeGeneratorException("Unsupported input schema type: " + schema.getType());
+      final Class<FastSerializer<T>> existingClass = loadExistingClass(className);
+      if (existingClass != null) {
+        return existingClass.newInstance();
       }
 
-      serializeMethod.param(codeModel.ref(Encoder.class), ENCODER);
-      serializeMethod._throws(codeModel.ref(IOException.class));
-
+      defineSerializerClass(className);
       final Class<FastSerializer<T>> clazz = compileClass(className, schemaAssistant.getUsedFullyQualifiedClassNameSet());
       return clazz.newInstance();
     } catch (JClassAlreadyExistsException e) {
@@ -89,6 +81,94 @@ public class FastSerializerGenerator<T> extends FastSerdeBase {
     }
   }
 
+  /**
+   * @param batchCompiler compiler of the generated class, or null to compile it right away
+   * @return future completed with the serializer once its class is compiled
+   */
+  CompletableFuture<FastSerializer<T>> generateSerializer(FastSerdeBatchCompiler batchCompiler) {
+    if (batchCompiler == null) {
+      return CompletableFuture.completedFuture(generateSerializer());
+    }
+    final String className = getClassName(schema, useGenericTypes ? "Generic" : "Specific");
+
+    try {
+      final Class<FastSerializer<T>> existingClass = loadExistingClass(className);
+      if (existingClass != null) {
+        return CompletableFuture.completedFuture(existingClass.newInstance());
+      }
+
+      defineSerializerClass(className);
+      return compileClass(batchCompiler, className, schemaAssistant.getUsedFullyQualifiedClassNameSet())
+          .thenApply(clazz -> {
+            try {
+              return ((Class<FastSerializer<T>>) clazz).newInstance();
+            } catch (ReflectiveOperationException e) {
+              throw new FastSerdeGeneratorException(e);
+            }
+          });
+    } catch (JClassAlreadyExistsException e) {
+      throw new FastSerdeGeneratorException("Class: " + className + " already exists");
+    } catch (Exception e) {
+      throw new FastSerdeGeneratorException(e);
+    }
+  }
+
+  /**
+   * Generates the java source of the serializer into the destination directory without compiling it, so it can be
+   * compiled ahead of time along with the application and picked up from the classpath at runtime.
+   *
+   * @return fully qualified name of the generated class
+   */
+  public String generateSerializerSource() {
+    final String className = getClassName(schema, useGenericTypes ? "Generic" : "Specific");
+
+    try {
+      defineSerializerClass(className);
+      codeModel.build(destination);
+      return generatedPackageName + "." + className;
+    } catch (JClassAlreadyExistsException e) {
+      throw new FastSerdeGeneratorException("Class: " + className + " already exists");
+    } catch (Exception e) {
+      throw new FastSerdeGeneratorException(e);
+    }
+  }
+
+  private void defineSerializerClass(String className) throws JClassAlreadyExistsException {
+    final JPackage classPackage = codeModel._package(generatedPackageName);
+    generatedClass = classPackage._class(className);
+
+    final JMethod serializeMethod = generatedClass.method(JMod.PUBLIC, void.class, "serialize");
+    final JVar serializeMethodParam;
+
+    JClass outputClass = schemaAssistant.classFromSchema(schema);
+    generatedClass._implements(codeModel.ref(FastSerializer.class).narrow(outputClass));
+    serializeMethodParam = serializeMethod.param(outputClass, "data");
+
+    switch (schema.getType()) {
+      case RECORD:
+        processRecord(schema, serializeMethodParam, serializeMethod.body());
+        break;
+      case ARRAY:
+        processArray(schema, serializeMethodParam, serializeMethod.body());
+        break;
+      case MAP:
+        processMap(schema, serializeMethodParam, serializeMethod.body());
+        break;
+      case UNION:
+        processUnion(schema, serializeMethodParam, serializeMethod.body());
+        break;
+      case NULL:
+        serializeMethod.body().invoke(JExpr.direct(ENCODER), "writeNull");
+        break;
+      default:
+        processSimpleType(schema, serializeMethodParam, serializeMethod.body());
+        break;
+    }
+
+    serializeMethod.param(codeModel.ref(Encoder.class), ENCODER);
+    serializeMethod._throws(codeModel.ref(IOException.class));
+  }
+
   private void processComplexType(Schema schema, JExpression valueExpr, JBlock body) {
     switch (schema.getType()) {
       case RECORD:
@@ -137,18 +217,50 @@ public class FastSerializerGenerator<T> extends FastSerdeBase {
     JBlock body = method.body();
     recordExpr = method.listParams()[0];
 
+    if (useGenericTypes) {
+      /**
+       * {@link LazyRecord}s left unmodified since they were read are written as the bytes they were read from.
+       */
+      final JClass lazyRecordClass = codeModel.ref(LazyRecord.class);
+      final JExpression rawBytesWritten = recordExpr._instanceof(lazyRecordClass)
+          .cand(JExpr.invoke(JExpr.cast(lazyRecordClass, recordExpr), "writeRawBytes")
+              .arg(JExpr.direct(ENCODER))
+              .arg(JExpr.lit(Utils.getSchemaFingerprint(recordSchema))));
+      ifCodeGen(body, rawBytesWritten, then1 -> then1._return());
+    }
+
+    // the fields of very large records are written by as many methods as needed to stay under the JIT limit, the
+    // initial fields are kept in the outer method
+    JBlock fieldsBody = body;
+    int fieldsMethodSize = MethodSizeEstimator.estimate(body);
     for (Schema.Field field : recordSchema.getFields()) {
       Schema fieldSchema = field.schema();
+      JBlock fieldBody = new JBlock(false, false);
       if (SchemaAssistant.isComplexType(fieldSchema)) {
         JClass fieldClass = schemaAssistant.classFromSchema(fieldSchema);
-        JVar containerVar = declareValueVar(field.name(), fieldSchema, body);
+        JVar containerVar = declareValueVar(field.name(), fieldSchema, fieldBody);
         JExpression valueExpression = JExpr.invoke(recordExpr, "get").arg(JExpr.lit(field.pos()));
         containerVar.init(JExpr.cast(fieldClass, valueExpression));
 
-        processComplexType(fieldSchema, containerVar, body);
+        processComplexType(fieldSchema, containerVar, fieldBody);
       } else {
-        processSimpleType(fieldSchema, recordExpr.invoke("get").arg(JExpr.lit(field.pos())), body);
+        processSimpleType(fieldSchema, recordExpr.invoke("get").arg(JExpr.lit(field.pos())), fieldBody);
       }
+
+      int fieldSize = MethodSizeEstimator.estimate(fieldBody);
+      if (fieldsMethodSize + fieldSize > getMethodSizeBudget() && !fieldsBody.isEmpty()) {
+        JMethod fieldsMethod = generatedClass.method(JMod.PRIVATE, codeModel.VOID,
+            getUniqueName("serialize" + StringUtils.capitalize(recordSchema.getName()) + "Fields"));
+        fieldsMethod._throws(IOException.class);
+        fieldsMethod.param(schemaAssistant.classFromSchema(recordSchema), "data");
+        fieldsMethod.param(Encoder.class, ENCODER);
+        fieldsMethod.annotate(SuppressWarnings.class).param("value", "unchecked");
+        body.invoke(fieldsMethod).arg(recordExpr).arg(JExpr.direct(ENCODER));
+        fieldsBody = fieldsMethod.body();
+        fieldsMethodSize = 0;
+      }
+      fieldsBody.add(fieldBody);
+      fieldsMethodSize += fieldSize;
     }
   }
 
@@ -169,7 +281,20 @@ public class FastSerializerGenerator<T> extends FastSerdeBase {
         ifCodeGen(else1, primitiveListCondition, then2 -> {
           final JVar primitiveList = declareValueVar("primitiveList", arraySchema, then2, true, false, true);
           then2.assign(primitiveList, JExpr.cast(primitiveListInterface, arrayExpr));
-          processArrayElementLoop(arraySchema, arrayClass, primitiveList, then2, "getPrimitive");
+          final JClass byteBufferBackedListClass = byteBufferBackedListClass(arraySchema.getElementType());
+          if (byteBufferBackedListClass != null) {
+            /**
+             * Lists decoded by {@link ByteBufferBackedPrimitiveFloatList} and {@link ByteBufferBackedPrimitiveDoubleList}
+             * still hold the encoded elements, which are then written in bulk.
+             */
+            final JExpression rawElementsWritten = primitiveList._instanceof(byteBufferBackedListClass)
+                .cand(JExpr.invoke(JExpr.cast(byteBufferBackedListClass, primitiveList), "writeRawElements")
+                    .arg(JExpr.direct(ENCODER)));
+            ifCodeGen(then2, rawElementsWritten.not(),
+                then3 -> processArrayElementLoop(arraySchema, arrayClass, primitiveList, then3, "getPrimitive"));
+          } else {
+            processArrayElementLoop(arraySchema, arrayClass, primitiveList, then2, "getPrimitive");
+          }
         }, else2 -> {
           processArrayElementLoop(arraySchema, arrayClass, arrayExpr, else2, "get");
         });
@@ -180,6 +305,17 @@ public class FastSerializerGenerator<T> extends FastSerdeBase {
     body.invoke(JExpr.direct(ENCODER), "writeArrayEnd");
   }
 
+  private JClass byteBufferBackedListClass(Schema elementSchema) {
+    switch (elementSchema.getType()) {
+      case FLOAT:
+        return codeModel.ref(ByteBufferBackedPrimitiveFloatList.class);
+      case DOUBLE:
+        return codeModel.ref(ByteBufferBackedPrimitiveDoubleList.class);
+      default:
+        return null;
+    }
+  }
+
   private void processArrayElementLoop(final Schema arraySchema, final JClass arrayClass, JExpression arrayExpr, JBlock body, String getMethodName) {
     final JForLoop forLoop = body._for();
     final JVar counter = forLoop.init(codeModel.INT, getUniqueName("counter"), JExpr.lit(0));
@@ -200,7 +336,6 @@ public class FastSerializerGenerator<T> extends FastSerdeBase {
 
   private void processMap(final Schema mapSchema, JExpression mapExpr, JBlock body) {
     final JClass mapClass = schemaAssistant.classFromSchema(mapSchema);
-    JClass keyClass = schemaAssistant.findStringClass(mapSchema);
 
     body.invoke(JExpr.direct(ENCODER), "writeMapStart");
 
@@ -212,7 +347,35 @@ public class FastSerializerGenerator<T> extends FastSerdeBase {
     final JBlock nonEmptyMapBlock = emptyMapIf._else();
     nonEmptyMapBlock.invoke(JExpr.direct(ENCODER), "setItemCount").arg(JExpr.invoke(mapExpr, "size"));
 
-    final JForEach mapKeysLoop = nonEmptyMapBlock.forEach(keyClass, getUniqueName("key"),
+    final Schema valueSchema = mapSchema.getValueType();
+    if (SchemaAssistant.isPrimitiveMapValue(valueSchema) && !SchemaAssistant.hasStringableKey(mapSchema)) {
+      /**
+       * Maps decoded as {@link com.linkedin.avro.fastserde.primitive.PrimitiveHashMap} are iterated through their slots,
+       * without boxing the values. Maps with stringable keys are never decoded that way.
+       */
+      final JClass primitiveMapClass = primitiveHashMapClass(valueSchema);
+      ifCodeGen(nonEmptyMapBlock, mapExpr._instanceof(primitiveMapClass), then1 -> {
+        final JVar primitiveMap = then1.decl(primitiveMapClass, getUniqueName("primitiveMap"),
+            JExpr.cast(primitiveMapClass, mapExpr));
+        final JForLoop slotsLoop = then1._for();
+        final JVar slot = slotsLoop.init(codeModel.INT, getUniqueName("slot"),
+            primitiveMap.invoke("nextSlot").arg(JExpr.lit(-1)));
+        slotsLoop.test(slot.gte(JExpr.lit(0)));
+        slotsLoop.update(JExpr.assign(slot, primitiveMap.invoke("nextSlot").arg(slot)));
+        final JBlock forBody = slotsLoop.body();
+        forBody.invoke(JExpr.direct(ENCODER), "startItem");
+        forBody.invoke(JExpr.direct(ENCODER), "writeString").arg(primitiveMap.invoke("keyAt").arg(slot));
+        processSimpleType(valueSchema, primitiveMap.invoke("getPrimitiveAt").arg(slot), forBody, false);
+      }, else1 -> processMapKeysLoop(mapSchema, mapClass, mapExpr, else1));
+    } else {
+      processMapKeysLoop(mapSchema, mapClass, mapExpr, nonEmptyMapBlock);
+    }
+    body.invoke(JExpr.direct(ENCODER), "writeMapEnd");
+  }
+
+  private void processMapKeysLoop(final Schema mapSchema, final JClass mapClass, JExpression mapExpr, JBlock body) {
+    JClass keyClass = schemaAssistant.findStringClass(mapSchema);
+    final JForEach mapKeysLoop = body.forEach(keyClass, getUniqueName("key"),
         JExpr.invoke(JExpr.cast(mapClass, mapExpr), "keySet"));
 
     final JBlock forBody = mapKeysLoop.body();
@@ -239,7 +402,21 @@ public class FastSerializerGenerator<T> extends FastSerdeBase {
     } else {
       processSimpleType(valueSchema, mapExpr.invoke("get").arg(mapKeysLoop.var()), forBody);
     }
-    body.invoke(JExpr.direct(ENCODER), "writeMapEnd");
+  }
+
+  private JClass primitiveHashMapClass(Schema valueSchema) {
+    switch (valueSchema.getType()) {
+      case DOUBLE:
+        return codeModel.ref(PrimitiveDoubleHashMap.class);
+      case FLOAT:
+        return codeModel.ref(PrimitiveFloatHashMap.class);
+      case INT:
+        return codeModel.ref(PrimitiveIntHashMap.class);
+      case LONG:
+        return codeModel.ref(PrimitiveLongHashMap.class);
+      default:
+        throw new FastSerdeGeneratorException("Unsupported primitive map value type: " + valueSchema.getType());
+    }
   }
 
   /**
@@ -267,7 +444,13 @@ public class FastSerializerGenerator<T> extends FastSerdeBase {
   }
 
   private void processUnion(final Schema unionSchema, JExpression unionExpr, JBlock body) {
+    if (shouldResolveUnionBranches(unionSchema, unionExpr)) {
+      processUnionWithResolver(unionSchema, unionExpr, body);
+      return;
+    }
     JConditional ifBlock = null;
+    // whether the last branch is taken without any test, so no value can fall through the branches
+    boolean exhaustive = false;
 
     for (Schema schemaOption : unionSchema.getTypes()) {
       if (Schema.Type.NULL.equals(schemaOption.getType())) {
@@ -318,6 +501,7 @@ public class FastSerializerGenerator<T> extends FastSerdeBase {
       JBlock unionTypeProcessingBlock;
       if (condition == null) {
         unionTypeProcessingBlock = ifBlock != null ? ifBlock._else() : body;
+        exhaustive = true;
       } else {
         ifBlock = ifBlock != null ? ifBlock._elseif(condition) : body._if(condition);
         unionTypeProcessingBlock = ifBlock._then();
@@ -334,6 +518,103 @@ public class FastSerializerGenerator<T> extends FastSerdeBase {
         processSimpleType(schemaOption, unionExpr, unionTypeProcessingBlock);
       }
     }
+    if (ifBlock != null && !exhaustive) {
+      ifBlock._else()._throw(newNotInUnionException(unionSchema, unionExpr));
+    }
+  }
+
+  /**
+   * Unions with a few branches are written by testing the value against each branch in turn, which the JIT compiles
+   * into a handful of type checks. From {@link #UNION_RESOLVER_MIN_BRANCHES} non-null branches on, the tests are
+   * replaced by an {@link UnionBranchResolver} lookup and a switch on the resolved branch, whose cost doesn't grow with
+   * the number of branches.
+   */
+  private boolean shouldResolveUnionBranches(Schema unionSchema, JExpression unionExpr) {
+    int branches = 0;
+    for (Schema schemaOption : unionSchema.getTypes()) {
+      if (Schema.Type.NULL.equals(schemaOption.getType())) {
+        continue;
+      }
+      if (unionExpr instanceof JVar
+          && ((JVar) unionExpr).type().equals(schemaAssistant.classFromSchema(schemaOption, true, true))) {
+        // the type of the value already tells the branch
+        return false;
+      }
+      branches++;
+    }
+    return branches >= UNION_RESOLVER_MIN_BRANCHES;
+  }
+
+  private void processUnionWithResolver(final Schema unionSchema, JExpression unionExpr, JBlock body) {
+    List<Schema> schemaOptions = unionSchema.getTypes();
+    JBlock resolvedBody = body;
+    for (int i = 0; i < schemaOptions.size(); i++) {
+      if (Schema.Type.NULL.equals(schemaOptions.get(i).getType())) {
+        JConditional ifNull = body._if(unionExpr.eq(JExpr._null()));
+        ifNull._then().invoke(JExpr.direct(ENCODER), "writeIndex").arg(JExpr.lit(i));
+        ifNull._then().invoke(JExpr.direct(ENCODER), "writeNull");
+        resolvedBody = ifNull._else();
+        break;
+      }
+    }
+
+    JSwitch branchSwitch = resolvedBody._switch(getUnionBranchResolver(unionSchema).invoke("resolve").arg(unionExpr));
+    for (int i = 0; i < schemaOptions.size(); i++) {
+      Schema schemaOption = schemaOptions.get(i);
+      if (Schema.Type.NULL.equals(schemaOption.getType())) {
+        continue;
+      }
+      if (schemaOption.getType().equals(Schema.Type.UNION)) {
+        throw new FastSerdeGeneratorException("Incorrect union subschema processing: " + schemaOption);
+      }
+      JBlock caseBody = branchSwitch._case(JExpr.lit(i)).body();
+      caseBody.invoke(JExpr.direct(ENCODER), "writeIndex").arg(JExpr.lit(i));
+      if (SchemaAssistant.isComplexType(schemaOption)) {
+        processComplexType(schemaOption, JExpr.cast(schemaAssistant.classFromSchema(schemaOption), unionExpr),
+            caseBody);
+      } else {
+        processSimpleType(schemaOption, unionExpr, caseBody);
+      }
+      caseBody._break();
+    }
+    branchSwitch._default().body()._throw(newNotInUnionException(unionSchema, unionExpr));
+  }
+
+  /**
+   * @return exception thrown for values matching no branch of the union, like Avro does
+   */
+  private JExpression newNotInUnionException(Schema unionSchema, JExpression unionExpr) {
+    return JExpr._new(codeModel.ref(AvroTypeException.class))
+        .arg(JExpr.lit("Not in union " + unionSchema.getTypes().stream()
+            .map(SchemaAssistant::getSchemaFullName)
+            .collect(Collectors.toList()) + ": ").plus(unionExpr));
+  }
+
+  /**
+   * @return static field holding the resolver of the branches of the union, shared by all the values of this union
+   */
+  private JVar getUnionBranchResolver(Schema unionSchema) {
+    JVar resolverVar = unionBranchResolverMap.get(unionSchema);
+    if (resolverVar != null) {
+      return resolverVar;
+    }
+    JArray branchClasses = JExpr.newArray(codeModel.ref(Class.class));
+    JArray branchFullNames = JExpr.newArray(codeModel.ref(String.class));
+    for (Schema schemaOption : unionSchema.getTypes()) {
+      if (Schema.Type.NULL.equals(schemaOption.getType())) {
+        branchClasses.add(JExpr._null());
+        branchFullNames.add(JExpr._null());
+        continue;
+      }
+      branchClasses.add(schemaAssistant.classFromSchema(schemaOption, true, true).dotclass());
+      branchFullNames.add(useGenericTypes && SchemaAssistant.isNamedTypeWithSchema(schemaOption)
+          ? JExpr.lit(AvroCompatibilityHelper.getSchemaFullName(schemaOption)) : JExpr._null());
+    }
+    resolverVar = generatedClass.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, UnionBranchResolver.class,
+        getUniqueName("unionBranchResolver"),
+        JExpr._new(codeModel.ref(UnionBranchResolver.class)).arg(branchClasses).arg(branchFullNames));
+    unionBranchResolverMap.put(unionSchema, resolverVar);
+    return resolverVar;
   }
 
   private void processFixed(Schema fixedSchema, JExpression fixedValueExpression, JBlock body) {
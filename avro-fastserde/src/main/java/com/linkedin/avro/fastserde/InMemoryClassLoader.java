@@ -0,0 +1,50 @@
+package com.linkedin.avro.fastserde;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * {@link ClassLoader} which defines fast serde classes straight from the bytecode produced by in-memory compilation,
+ * so generated classes never have to touch the file system.
+ */
+public class InMemoryClassLoader extends ClassLoader {
+
+  static {
+    ClassLoader.registerAsParallelCapable();
+  }
+
+  /**
+   * Bytecode of the classes, which have been compiled, but not yet defined.
+   */
+  private final Map<String, byte[]> pendingClasses = new ConcurrentHashMap<>();
+
+  public InMemoryClassLoader(ClassLoader parent) {
+    super(parent);
+  }
+
+  /**
+   * Registers the compiled bytecode, so the classes can be later loaded by name.
+   * Classes which have already been defined by this class loader are ignored.
+   *
+   * @param compiledClasses bytecode keyed by binary class name
+   */
+  public void addClasses(Map<String, byte[]> compiledClasses) {
+    for (Map.Entry<String, byte[]> entry : compiledClasses.entrySet()) {
+      synchronized (getClassLoadingLock(entry.getKey())) {
+        if (findLoadedClass(entry.getKey()) == null) {
+          pendingClasses.put(entry.getKey(), entry.getValue());
+        }
+      }
+    }
+  }
+
+  @Override
+  protected Class<?> findClass(String name) throws ClassNotFoundException {
+    byte[] bytecode = pendingClasses.remove(name);
+    if (bytecode == null) {
+      throw new ClassNotFoundException(name);
+    }
+    return defineClass(name, bytecode, 0, bytecode.length);
+  }
+}
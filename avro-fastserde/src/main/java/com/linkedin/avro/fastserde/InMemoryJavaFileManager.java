@@ -0,0 +1,103 @@
+package com.linkedin.avro.fastserde;
+
+import com.sun.codemodel.CodeWriter;
+import com.sun.codemodel.JPackage;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+
+
+/**
+ * {@link javax.tools.JavaFileManager} which keeps the bytecode produced by javac in memory instead of writing
+ * class files to the output directory. Everything else (classpath lookups etc.) is delegated to the standard
+ * file manager.
+ */
+class InMemoryJavaFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+  private final Map<String, ByteArrayOutputStream> compiledClasses = new HashMap<>();
+
+  InMemoryJavaFileManager(StandardJavaFileManager fileManager) {
+    super(fileManager);
+  }
+
+  @Override
+  public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+      FileObject sibling) {
+    ByteArrayOutputStream bytecode = new ByteArrayOutputStream();
+    compiledClasses.put(className, bytecode);
+    return new SimpleJavaFileObject(URI.create("bytes:///" + className.replace('.', '/') + kind.extension), kind) {
+      @Override
+      public OutputStream openOutputStream() {
+        return bytecode;
+      }
+    };
+  }
+
+  /**
+   * @return bytecode of all the classes compiled so far keyed by binary class name
+   */
+  Map<String, byte[]> getCompiledClasses() {
+    Map<String, byte[]> result = new HashMap<>(compiledClasses.size());
+    compiledClasses.forEach((className, bytecode) -> result.put(className, bytecode.toByteArray()));
+    return result;
+  }
+
+  /**
+   * {@link CodeWriter} which keeps the java sources generated by JCodeModel in memory.
+   */
+  static class InMemoryCodeWriter extends CodeWriter {
+    private final Map<String, ByteArrayOutputStream> sources = new HashMap<>();
+
+    InMemoryCodeWriter() {
+      this.encoding = StandardCharsets.UTF_8.name();
+    }
+
+    @Override
+    public OutputStream openBinary(JPackage pkg, String fileName) {
+      ByteArrayOutputStream source = new ByteArrayOutputStream();
+      String className = fileName.endsWith(JavaFileObject.Kind.SOURCE.extension)
+          ? fileName.substring(0, fileName.length() - JavaFileObject.Kind.SOURCE.extension.length()) : fileName;
+      sources.put(pkg.isUnnamed() ? className : pkg.name() + "." + className, source);
+      return source;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * @param fullyQualifiedClassName name of the top-level class
+     * @return generated java source or null if there is no such class
+     */
+    String getSource(String fullyQualifiedClassName) {
+      ByteArrayOutputStream source = sources.get(fullyQualifiedClassName);
+      return source == null ? null : new String(source.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    List<JavaFileObject> getSourceFiles() {
+      List<JavaFileObject> sourceFiles = new ArrayList<>(sources.size());
+      for (String className : sources.keySet()) {
+        String content = getSource(className);
+        sourceFiles.add(new SimpleJavaFileObject(
+            URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension),
+            JavaFileObject.Kind.SOURCE) {
+          @Override
+          public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return content;
+          }
+        });
+      }
+      return sourceFiles;
+    }
+  }
+}
@@ -0,0 +1,1037 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avro.api.PrimitiveBooleanList;
+import com.linkedin.avro.api.PrimitiveDoubleList;
+import com.linkedin.avro.api.PrimitiveDoubleMap;
+import com.linkedin.avro.api.PrimitiveFloatList;
+import com.linkedin.avro.api.PrimitiveFloatMap;
+import com.linkedin.avro.api.PrimitiveIntList;
+import com.linkedin.avro.api.PrimitiveIntMap;
+import com.linkedin.avro.api.PrimitiveLongList;
+import com.linkedin.avro.api.PrimitiveLongMap;
+import com.linkedin.avro.fastserde.backport.ResolvingGrammarGenerator;
+import com.linkedin.avro.fastserde.backport.Symbol;
+import com.linkedin.avro.fastserde.primitive.PrimitiveBooleanArrayList;
+import com.linkedin.avro.fastserde.primitive.PrimitiveDoubleArrayList;
+import com.linkedin.avro.fastserde.primitive.PrimitiveDoubleHashMap;
+import com.linkedin.avro.fastserde.primitive.PrimitiveFloatArrayList;
+import com.linkedin.avro.fastserde.primitive.PrimitiveFloatHashMap;
+import com.linkedin.avro.fastserde.primitive.PrimitiveIntArrayList;
+import com.linkedin.avro.fastserde.primitive.PrimitiveIntHashMap;
+import com.linkedin.avro.fastserde.primitive.PrimitiveLongArrayList;
+import com.linkedin.avro.fastserde.primitive.PrimitiveLongHashMap;
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.apache.avro.AvroTypeException;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericArray;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericFixed;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.util.Utf8;
+
+
+/**
+ * Alternative to {@link FastGenericDeserializerGenerator}, which doesn't generate and compile any java code.
+ *
+ * It walks the same {@link ResolvingGrammarGenerator} symbols as {@link FastDeserializerGenerator}, but instead of
+ * emitting source code it assembles a tree of pre-resolved {@link ValueReader}s. All the schema resolution work
+ * (field matching, skipping, union and enum adjustments, default values) is done once at generation time, so the
+ * deserializer is ready within milliseconds and works on a JRE without the java compiler.
+ *
+ * @param <T> type of the deserialized value
+ */
+public class InterpretedFastDeserializerGenerator<T> extends FastDeserializerGeneratorBase<T> {
+
+  private static final ValueReader NULL_READER = (reuse, decoder) -> {
+    decoder.readNull();
+    return null;
+  };
+  private static final ValueReader BOOLEAN_READER = (reuse, decoder) -> decoder.readBoolean();
+  private static final ValueReader INT_READER = (reuse, decoder) -> decoder.readInt();
+  private static final ValueReader LONG_READER = (reuse, decoder) -> decoder.readLong();
+  private static final ValueReader FLOAT_READER = (reuse, decoder) -> decoder.readFloat();
+  private static final ValueReader DOUBLE_READER = (reuse, decoder) -> decoder.readDouble();
+
+  private final Map<String, RecordReader> recordReaderMap = new HashMap<>();
+  private final Map<String, RecordReader> recordSkipperMap = new HashMap<>();
+
+  public InterpretedFastDeserializerGenerator(Schema writer, Schema reader) {
+    super(true, writer, reader, null, null, null);
+  }
+
+  @Override
+  public FastDeserializer<T> generateDeserializer() {
+    try {
+      Schema aliasedWriterSchema = writer;
+      /**
+       * {@link Schema.applyAliases} is not working correctly in avro-1.4 since there is a bug in this function:
+       * {@literal Schema#getFieldAlias}.
+       **/
+      if (!Utils.isAvro14()) {
+        aliasedWriterSchema = Schema.applyAliases(writer, reader);
+      }
+      Symbol resolvingGrammar = new ResolvingGrammarGenerator().generate(aliasedWriterSchema, reader);
+      FieldAction fieldAction = FieldAction.fromValues(aliasedWriterSchema.getType(), true, resolvingGrammar);
+
+      ValueReader rootReader;
+      switch (aliasedWriterSchema.getType()) {
+        case RECORD:
+          rootReader = processRecord(aliasedWriterSchema, reader, fieldAction);
+          break;
+        case ARRAY:
+          rootReader = processArray("array", aliasedWriterSchema, reader, fieldAction);
+          break;
+        case MAP:
+          rootReader = processMap("map", aliasedWriterSchema, reader, fieldAction);
+          break;
+        case UNION:
+          rootReader = processUnion("union", aliasedWriterSchema, reader, fieldAction);
+          break;
+        default:
+          rootReader = processTopLevelSimpleType(aliasedWriterSchema, reader, fieldAction);
+          break;
+      }
+      return new InterpretedFastDeserializer<>(rootReader);
+    } catch (FastDeserializerGeneratorException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new FastDeserializerGeneratorException(e);
+    }
+  }
+
+  private ValueReader processComplexType(String name, Schema schema, Schema readerSchema, FieldAction action) {
+    switch (schema.getType()) {
+      case RECORD:
+        return processRecord(schema, readerSchema, action);
+      case ARRAY:
+        return processArray(name, schema, readerSchema, action);
+      case MAP:
+        return processMap(name, schema, readerSchema, action);
+      case UNION:
+        return processUnion(name, schema, readerSchema, action);
+      default:
+        throw new FastDeserializerGeneratorException("Incorrect complex type: " + action.getType());
+    }
+  }
+
+  /**
+   * Top-level enums, fixed and primitives are read like the values of record fields. When the reader schema is a
+   * union, the value is read into the branch picked by the resolving grammar.
+   */
+  private ValueReader processTopLevelSimpleType(Schema writerSchema, Schema readerSchema, FieldAction action) {
+    if (!Schema.Type.UNION.equals(readerSchema.getType())) {
+      return processSimpleType(writerSchema, readerSchema, action);
+    }
+    for (Symbol symbol : action.getSymbol().production) {
+      if (symbol instanceof Symbol.ErrorAction) {
+        throw new FastDeserializerGeneratorException(((Symbol.ErrorAction) symbol).msg);
+      }
+      if (symbol instanceof Symbol.UnionAdjustAction) {
+        Symbol.UnionAdjustAction unionAdjustAction = (Symbol.UnionAdjustAction) symbol;
+        return processSimpleType(writerSchema, readerSchema.getTypes().get(unionAdjustAction.rindex),
+            FieldAction.fromValues(writerSchema.getType(), true, unionAdjustAction.symToParse));
+      }
+    }
+    throw new FastDeserializerGeneratorException("Symbol.UnionAdjustAction is expected but was not found");
+  }
+
+  private ValueReader processSimpleType(Schema schema, Schema readerSchema, FieldAction action) {
+    switch (schema.getType()) {
+      case ENUM:
+        return processEnum(readerSchema, action);
+      case FIXED:
+        return processFixed(schema, action);
+      default:
+        // to preserve reader string specific options use reader field schema, strings and bytes are encoded alike
+        // so this reads promoted values as well
+        if (action.getShouldRead() && readerSchema != null && (Schema.Type.STRING.equals(readerSchema.getType())
+            || Schema.Type.BYTES.equals(readerSchema.getType()))) {
+          return processPrimitive(readerSchema, readerSchema, action);
+        }
+        return processPrimitive(schema, readerSchema, action);
+    }
+  }
+
+  private ValueReader processRecord(final Schema recordWriterSchema, final Schema recordReaderSchema,
+      FieldAction recordAction) {
+    Schema effectiveRecordReaderSchema = recordReaderSchema;
+    if (recordAction.getShouldRead() && Schema.Type.UNION.equals(recordReaderSchema.getType())) {
+      // if reader schema is a union type then the compatible union type must be selected
+      // as effectiveRecordReaderSchema and recordAction needs to be adjusted.
+      effectiveRecordReaderSchema = schemaAssistant.compatibleUnionSchema(recordWriterSchema, recordReaderSchema);
+
+      Symbol symbol = null;
+      ListIterator<Symbol> symbolIterator = recordAction.getSymbolIterator() != null ? recordAction.getSymbolIterator()
+          : Arrays.asList(reverseSymbolArray(recordAction.getSymbol().production)).listIterator();
+      while (symbolIterator.hasNext()) {
+        symbol = symbolIterator.next();
+
+        if (symbol instanceof Symbol.UnionAdjustAction) {
+          break;
+        }
+      }
+      if (symbol == null) {
+        throw new FastDeserializerGeneratorException("Symbol.UnionAdjustAction is expected but was not found");
+      }
+      recordAction = FieldAction.fromValues(recordAction.getType(), recordAction.getShouldRead(),
+          ((Symbol.UnionAdjustAction) symbol).symToParse);
+    }
+    ListIterator<Symbol> actionIterator = actionIterator(recordAction);
+
+    Map<String, RecordReader> recordReaders = recordAction.getShouldRead() ? recordReaderMap : recordSkipperMap;
+    String recordReaderKey = AvroCompatibilityHelper.getSchemaFullName(recordWriterSchema) + recordWriterSchema.hashCode()
+        + (effectiveRecordReaderSchema != null ? effectiveRecordReaderSchema.hashCode() : "");
+    Set<String> fieldNamesSet =
+        recordWriterSchema.getFields().stream().map(Schema.Field::name).collect(Collectors.toSet());
+
+    RecordReader recordReader = recordReaders.get(recordReaderKey);
+    if (recordReader != null) {
+      // seek through actionIterator
+      for (Schema.Field field : recordWriterSchema.getFields()) {
+        FieldAction action = seekFieldAction(recordAction.getShouldRead(), field, actionIterator);
+        if (action.getSymbol() == END_SYMBOL) {
+          break;
+        }
+      }
+      if (recordAction.getShouldRead()) {
+        // seek through actionIterator also for default values
+        for (Schema.Field readerField : effectiveRecordReaderSchema.getFields()) {
+          if (!fieldNamesSet.contains(readerField.name())) {
+            forwardToExpectedDefault(actionIterator);
+            seekFieldAction(true, readerField, actionIterator);
+          }
+        }
+      }
+      return recordReader;
+    }
+
+    /**
+     * The reader is registered before its fields are processed, so recursive schemas refer to the same instance.
+     */
+    recordReader = new RecordReader(recordAction.getShouldRead() ? effectiveRecordReaderSchema : null);
+    recordReaders.put(recordReaderKey, recordReader);
+
+    List<FieldReader> fieldReaders = new ArrayList<>(recordWriterSchema.getFields().size());
+    for (Schema.Field field : recordWriterSchema.getFields()) {
+      FieldAction action = seekFieldAction(recordAction.getShouldRead(), field, actionIterator);
+      if (action.getSymbol() == END_SYMBOL) {
+        break;
+      }
+
+      Schema readerFieldSchema = null;
+      int readerFieldPos = -1;
+      if (action.getShouldRead()) {
+        Schema.Field readerField = effectiveRecordReaderSchema.getField(field.name());
+        readerFieldSchema = readerField.schema();
+        readerFieldPos = readerField.pos();
+      }
+      ValueReader valueReader = SchemaAssistant.isComplexType(field.schema())
+          ? processComplexType(field.name(), field.schema(), readerFieldSchema, action)
+          : processSimpleType(field.schema(), readerFieldSchema, action);
+      fieldReaders.add(new FieldReader(readerFieldPos, valueReader));
+    }
+
+    // Handle default values
+    List<FieldReader> defaultValues = new ArrayList<>();
+    if (recordAction.getShouldRead()) {
+      for (Schema.Field readerField : effectiveRecordReaderSchema.getFields()) {
+        if (!fieldNamesSet.contains(readerField.name())) {
+          forwardToExpectedDefault(actionIterator);
+          seekFieldAction(true, readerField, actionIterator);
+          Supplier<Object> defaultValue =
+              parseDefaultValue(readerField.schema(), AvroCompatibilityHelper.getGenericDefaultValue(readerField));
+          defaultValues.add(new FieldReader(readerField.pos(), (reuse, decoder) -> defaultValue.get()));
+        }
+      }
+    }
+
+    recordReader.init(fieldReaders.toArray(new FieldReader[0]), defaultValues.toArray(new FieldReader[0]));
+    return recordReader;
+  }
+
+  private Supplier<Object> parseDefaultValue(Schema schema, Object defaultValue) {
+    Schema.Type schemaType = schema.getType();
+    // The default value of union is of the first defined type
+    if (Schema.Type.UNION.equals(schemaType)) {
+      schema = schema.getTypes().get(0);
+      schemaType = schema.getType();
+    }
+    final Schema valueSchema = schema;
+    switch (schemaType) {
+      // And default value of null is always null
+      case NULL:
+        return () -> null;
+      case RECORD:
+        GenericRecord defaultValueRecord = (GenericRecord) defaultValue;
+        List<Schema.Field> fields = valueSchema.getFields();
+        List<Supplier<Object>> fieldValues = new ArrayList<>(fields.size());
+        for (Schema.Field subField : fields) {
+          fieldValues.add(parseDefaultValue(subField.schema(), defaultValueRecord.get(subField.name())));
+        }
+        return () -> {
+          GenericData.Record record = new GenericData.Record(valueSchema);
+          for (int i = 0; i < fieldValues.size(); i++) {
+            record.put(fields.get(i).pos(), fieldValues.get(i).get());
+          }
+          return record;
+        };
+      case ARRAY:
+        List<Supplier<Object>> elements = ((List<Object>) defaultValue).stream()
+            .map(element -> parseDefaultValue(valueSchema.getElementType(), element))
+            .collect(Collectors.toList());
+        return () -> {
+          GenericData.Array<Object> array = new GenericData.Array<>(elements.size(), valueSchema);
+          for (Supplier<Object> element : elements) {
+            array.add(element.get());
+          }
+          return array;
+        };
+      case MAP:
+        boolean javaStringKey = SchemaAssistant.hasStringableKey(valueSchema) && isJavaString(valueSchema);
+        Map<String, Supplier<Object>> entries = new HashMap<>();
+        for (Map.Entry<CharSequence, Object> mapEntry : ((Map<CharSequence, Object>) defaultValue).entrySet()) {
+          entries.put(mapEntry.getKey().toString(), parseDefaultValue(valueSchema.getValueType(), mapEntry.getValue()));
+        }
+        return () -> {
+          Map<Object, Object> map = new HashMap<>();
+          for (Map.Entry<String, Supplier<Object>> entry : entries.entrySet()) {
+            map.put(javaStringKey ? entry.getKey() : new Utf8(entry.getKey()), entry.getValue().get());
+          }
+          return map;
+        };
+      case ENUM:
+        // enum symbols are immutable, so a single instance can be shared
+        GenericData.EnumSymbol enumSymbol =
+            AvroCompatibilityHelper.newEnumSymbol(valueSchema, defaultValue.toString());
+        return () -> enumSymbol;
+      case FIXED:
+        byte[] fixedBytes = ((GenericFixed) defaultValue).bytes().clone();
+        return () -> AvroCompatibilityHelper.newFixed(valueSchema, fixedBytes.clone());
+      case BYTES:
+        byte[] bytes = ((ByteBuffer) defaultValue).array().clone();
+        return () -> ByteBuffer.wrap(bytes.clone());
+      case STRING:
+        String defaultValueString = defaultValue.toString();
+        if (isJavaString(valueSchema)) {
+          return () -> defaultValueString;
+        }
+        return () -> new Utf8(defaultValueString);
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+      case BOOLEAN:
+        // boxed primitives are immutable
+        return () -> defaultValue;
+      default:
+        throw new FastDeserializerGeneratorException("Incorrect schema type in default value!");
+    }
+  }
+
+  private ValueReader processUnion(final String name, final Schema unionSchema, final Schema unionReaderSchema,
+      FieldAction action) {
+    // Check if unionReaderSchema is really a union, if not then only the compatible writer union type can be deserialized
+    final boolean readerSchemaNotAUnion = unionReaderSchema != null && !Schema.Type.UNION.equals(unionReaderSchema.getType());
+    final int compatibleWriterSchema = readerSchemaNotAUnion ? schemaAssistant.findCompatibleUnionSchemaIndex(unionReaderSchema, unionSchema) : -1;
+
+    ValueReader[] optionReaders = new ValueReader[unionSchema.getTypes().size()];
+    for (int i = 0; i < unionSchema.getTypes().size(); i++) {
+      Schema optionSchema = unionSchema.getTypes().get(i);
+      Schema readerOptionSchema = null;
+      FieldAction unionAction;
+
+      if (!readerSchemaNotAUnion && Schema.Type.NULL.equals(optionSchema.getType())) {
+        optionReaders[i] = NULL_READER;
+        continue;
+      }
+
+      if (action.getShouldRead()) {
+        Symbol.Alternative alternative = null;
+        if (action.getSymbol() instanceof Symbol.Alternative) {
+          alternative = (Symbol.Alternative) action.getSymbol();
+        } else if (action.getSymbol().production != null) {
+          for (Symbol symbol : action.getSymbol().production) {
+            if (symbol instanceof Symbol.Alternative) {
+              alternative = (Symbol.Alternative) symbol;
+              break;
+            }
+          }
+        }
+
+        if (alternative == null) {
+          throw new FastDeserializerGeneratorException("Unable to determine action for field: " + name);
+        }
+
+        if (readerSchemaNotAUnion) {
+          // a type promoted to the reader schema can be read as well
+          boolean promoted = alternative.symbols[i] instanceof Symbol.ResolvingAction;
+          readerOptionSchema = (i == compatibleWriterSchema || promoted) ? unionReaderSchema : null;
+        } else {
+          // The reader's union could be re-ordered, so we need to find the one that matches.
+          for (int j = 0; j < unionReaderSchema.getTypes().size(); j++) {
+            Schema potentialReaderSchema = unionReaderSchema.getTypes().get(j);
+            // Avro allows unnamed types to appear only once in a union, but named types may appear multiple times and
+            // thus need to be disambiguated via their full-name (including aliases).
+            if (potentialReaderSchema.getType().equals(optionSchema.getType()) &&
+                (!SchemaAssistant.isNamedType(potentialReaderSchema) ||
+                    AvroCompatibilityHelper.getSchemaFullName(potentialReaderSchema).equals(AvroCompatibilityHelper.getSchemaFullName(optionSchema)) ||
+                    potentialReaderSchema.getAliases().contains(AvroCompatibilityHelper.getSchemaFullName(optionSchema)))) {
+              readerOptionSchema = potentialReaderSchema;
+              break;
+            }
+          }
+          // Otherwise the value may be promoted to the branch picked by the resolving grammar
+          Symbol[] branchProduction = alternative.symbols[i].production;
+          if (readerOptionSchema == null && branchProduction != null && branchProduction.length > 0
+              && branchProduction[0] instanceof Symbol.UnionAdjustAction) {
+            readerOptionSchema = unionReaderSchema.getTypes().get(((Symbol.UnionAdjustAction) branchProduction[0]).rindex);
+          }
+        }
+
+        if (null == readerOptionSchema) {
+          // This is the same exception that vanilla Avro would throw in this circumstance
+          String fullExceptionString = "Found " + optionSchema + ", expecting " + (readerSchemaNotAUnion ? unionReaderSchema.toString()
+              : unionReaderSchema.getTypes().toString());
+          optionReaders[i] = (reuse, decoder) -> {
+            throw new AvroTypeException(fullExceptionString);
+          };
+          continue;
+        }
+
+        if (readerSchemaNotAUnion) {
+          unionAction =
+              FieldAction.fromValues(optionSchema.getType(), action.getShouldRead(), alternative.symbols[i]);
+        } else {
+          Symbol.UnionAdjustAction unionAdjustAction = (Symbol.UnionAdjustAction) alternative.symbols[i].production[0];
+          unionAction =
+              FieldAction.fromValues(optionSchema.getType(), action.getShouldRead(), unionAdjustAction.symToParse);
+        }
+      } else {
+        unionAction = FieldAction.fromValues(optionSchema.getType(), false, EMPTY_SYMBOL);
+      }
+
+      if (SchemaAssistant.isComplexType(optionSchema)) {
+        if (Schema.Type.UNION.equals(optionSchema.getType())) {
+          throw new FastDeserializerGeneratorException("Union cannot be sub-type of union!");
+        }
+        optionReaders[i] = processComplexType(name + "Option", optionSchema, readerOptionSchema, unionAction);
+      } else {
+        optionReaders[i] = processSimpleType(optionSchema, readerOptionSchema, unionAction);
+      }
+    }
+
+    return (reuse, decoder) -> {
+      int unionIndex = decoder.readIndex();
+      if (unionIndex < 0 || unionIndex >= optionReaders.length) {
+        throw new RuntimeException("Illegal union index for '" + name + "': " + unionIndex);
+      }
+      return optionReaders[unionIndex].read(reuse, decoder);
+    };
+  }
+
+  private ValueReader processArray(final String name, final Schema arraySchema, final Schema arrayReaderSchema,
+      FieldAction action) {
+    Schema effectiveArrayReaderSchema = arrayReaderSchema;
+    if (action.getShouldRead()) {
+      // if reader schema is a union then the compatible union array type must be selected
+      // as effectiveArrayReaderSchema and action needs to be adjusted.
+      if (Schema.Type.UNION.equals(arrayReaderSchema.getType())) {
+        effectiveArrayReaderSchema = schemaAssistant.compatibleUnionSchema(arraySchema, arrayReaderSchema);
+        action = FieldAction.fromValues(action.getType(), action.getShouldRead(),
+            findUnionAdjustAction(action.getSymbol()).symToParse);
+      }
+
+      Symbol valuesActionSymbol = null;
+      for (Symbol symbol : action.getSymbol().production) {
+        if (Symbol.Kind.REPEATER.equals(symbol.kind) && "array-end".equals(
+            getSymbolPrintName(((Symbol.Repeater) symbol).end))) {
+          valuesActionSymbol = symbol;
+          break;
+        }
+      }
+
+      if (valuesActionSymbol == null) {
+        throw new FastDeserializerGeneratorException("Unable to determine action for array: " + name);
+      }
+
+      action =
+          FieldAction.fromValues(arraySchema.getElementType().getType(), action.getShouldRead(), valuesActionSymbol);
+    } else {
+      action = FieldAction.fromValues(arraySchema.getElementType().getType(), false, EMPTY_SYMBOL);
+    }
+
+    /**
+     * Special optimization for float and double arrays by leveraging {@link ByteBufferBackedPrimitiveFloatList}
+     * and {@link ByteBufferBackedPrimitiveDoubleList}.
+     */
+    if (action.getShouldRead() && arraySchema.getElementType().getType().equals(Schema.Type.FLOAT)) {
+      return ByteBufferBackedPrimitiveFloatList::readPrimitiveFloatArray;
+    }
+    if (action.getShouldRead() && arraySchema.getElementType().getType().equals(Schema.Type.DOUBLE)) {
+      return ByteBufferBackedPrimitiveDoubleList::readPrimitiveDoubleArray;
+    }
+
+    Schema readerArrayElementSchema = action.getShouldRead() ? effectiveArrayReaderSchema.getElementType() : null;
+    ValueReader elementReader = SchemaAssistant.isComplexType(arraySchema.getElementType())
+        ? processComplexType(name + "Elem", arraySchema.getElementType(), readerArrayElementSchema, action)
+        : processSimpleType(arraySchema.getElementType(), readerArrayElementSchema, action);
+
+    if (!action.getShouldRead()) {
+      return (reuse, decoder) -> {
+        for (long chunkLen = decoder.readArrayStart(); chunkLen > 0; chunkLen = decoder.arrayNext()) {
+          for (int counter = 0; counter < chunkLen; counter++) {
+            elementReader.read(null, decoder);
+          }
+        }
+        return null;
+      };
+    }
+    if (SchemaAssistant.isPrimitive(readerArrayElementSchema)) {
+      return new PrimitiveArrayReader(readerArrayElementSchema.getType(),
+          SchemaAssistant.isPrimitive(arraySchema.getElementType()) ? arraySchema.getElementType().getType() : null,
+          elementReader);
+    }
+    return new GenericArrayReader(effectiveArrayReaderSchema, elementReader,
+        SchemaAssistant.isCapableOfReuse(arraySchema.getElementType()));
+  }
+
+  private ValueReader processMap(final String name, final Schema mapSchema, final Schema mapReaderSchema,
+      FieldAction action) {
+    Schema effectiveMapReaderSchema = mapReaderSchema;
+    if (action.getShouldRead()) {
+      // if reader schema is a union then the compatible union map type must be selected
+      // as effectiveMapReaderSchema and action needs to be adjusted.
+      if (Schema.Type.UNION.equals(mapReaderSchema.getType())) {
+        effectiveMapReaderSchema = schemaAssistant.compatibleUnionSchema(mapSchema, mapReaderSchema);
+        action = FieldAction.fromValues(action.getType(), action.getShouldRead(),
+            findUnionAdjustAction(action.getSymbol()).symToParse);
+      }
+
+      /**
+       * {@link ResolvingGrammarGenerator} generates resolving grammar symbols with reversed order of production
+       * sequence, so for a nested Map the production list is iterated in reverse order to get the correct
+       * "map-end" symbol of internal Maps.
+       */
+      Symbol valuesActionSymbol = null;
+      for (int i = action.getSymbol().production.length - 1; i >= 0; --i) {
+        Symbol symbol = action.getSymbol().production[i];
+        if (Symbol.Kind.REPEATER.equals(symbol.kind) && "map-end".equals(
+            getSymbolPrintName(((Symbol.Repeater) symbol).end))) {
+          valuesActionSymbol = symbol;
+          break;
+        }
+      }
+
+      if (valuesActionSymbol == null) {
+        throw new FastDeserializerGeneratorException("unable to determine action for map: " + name);
+      }
+
+      action = FieldAction.fromValues(mapSchema.getValueType().getType(), action.getShouldRead(), valuesActionSymbol);
+    } else {
+      action = FieldAction.fromValues(mapSchema.getValueType().getType(), false, EMPTY_SYMBOL);
+    }
+
+    Schema readerMapValueSchema = action.getShouldRead() ? effectiveMapReaderSchema.getValueType() : null;
+    ValueReader valueReader = SchemaAssistant.isComplexType(mapSchema.getValueType())
+        ? processComplexType(name + "Value", mapSchema.getValueType(), readerMapValueSchema, action)
+        : processSimpleType(mapSchema.getValueType(), readerMapValueSchema, action);
+
+    if (!action.getShouldRead()) {
+      return (reuse, decoder) -> {
+        for (long chunkLen = decoder.readMapStart(); chunkLen > 0; chunkLen = decoder.mapNext()) {
+          for (int counter = 0; counter < chunkLen; counter++) {
+            decoder.skipString();
+            valueReader.read(null, decoder);
+          }
+        }
+        return null;
+      };
+    }
+    Schema.Type primitiveValueType = SchemaAssistant.isPrimitiveMapValue(readerMapValueSchema)
+        ? readerMapValueSchema.getType() : null;
+    return new MapReader(keyReader(mapSchema, effectiveMapReaderSchema), valueReader, primitiveValueType);
+  }
+
+  private ValueReader keyReader(Schema mapSchema, Schema mapReaderSchema) {
+    boolean javaStringKey = isJavaString(mapReaderSchema);
+    if (SchemaAssistant.hasStringableKey(mapSchema)) {
+      ValueReader stringReader = Utils.isAbleToSupportJavaStrings()
+          ? (reuse, decoder) -> decoder.readString()
+          : (reuse, decoder) -> decoder.readString(null).toString();
+      return javaStringKey ? stringReader : (reuse, decoder) -> new Utf8((String) stringReader.read(null, decoder));
+    }
+    return javaStringKey ? (reuse, decoder) -> decoder.readString() : (reuse, decoder) -> decoder.readString(null);
+  }
+
+  private Symbol.UnionAdjustAction findUnionAdjustAction(Symbol symbol) {
+    if (symbol instanceof Symbol.UnionAdjustAction) {
+      return (Symbol.UnionAdjustAction) symbol;
+    }
+    for (Symbol aSymbol : symbol.production) {
+      if (aSymbol instanceof Symbol.UnionAdjustAction) {
+        return (Symbol.UnionAdjustAction) aSymbol;
+      }
+    }
+    throw new FastDeserializerGeneratorException("Symbol.UnionAdjustAction is expected but was not found");
+  }
+
+  private ValueReader processFixed(final Schema schema, FieldAction action) {
+    final int fixedSize = schema.getFixedSize();
+    if (!action.getShouldRead()) {
+      return (reuse, decoder) -> {
+        decoder.skipFixed(fixedSize);
+        return null;
+      };
+    }
+    return (reuse, decoder) -> {
+      /**
+       * The byte array of the reused fixed is only taken over if its length is the same as the one to be deserialized.
+       */
+      byte[] fixedBuffer = reuse instanceof GenericFixed && ((GenericFixed) reuse).bytes().length == fixedSize
+          ? ((GenericFixed) reuse).bytes() : new byte[fixedSize];
+      decoder.readFixed(fixedBuffer);
+      return AvroCompatibilityHelper.newFixed(schema, fixedBuffer);
+    };
+  }
+
+  private ValueReader processEnum(final Schema schema, FieldAction action) {
+    if (!action.getShouldRead()) {
+      return (reuse, decoder) -> decoder.readEnum();
+    }
+
+    Symbol.EnumAdjustAction enumAdjustAction = null;
+    if (action.getSymbol() instanceof Symbol.EnumAdjustAction) {
+      enumAdjustAction = (Symbol.EnumAdjustAction) action.getSymbol();
+    } else {
+      for (Symbol symbol : action.getSymbol().production) {
+        if (symbol instanceof Symbol.EnumAdjustAction) {
+          enumAdjustAction = (Symbol.EnumAdjustAction) symbol;
+        }
+      }
+    }
+    if (enumAdjustAction == null) {
+      throw new FastDeserializerGeneratorException("Unable to determine action for enum: " + schema.getFullName());
+    }
+
+    // enum symbols are immutable, so a single instance per symbol can be shared
+    List<String> readerSymbols = schema.getEnumSymbols();
+    Object[] enumMapping = new Object[enumAdjustAction.adjustments.length];
+    for (int i = 0; i < enumMapping.length; i++) {
+      Object adjustment = enumAdjustAction.adjustments[i];
+      if (adjustment instanceof Integer) {
+        enumMapping[i] = AvroCompatibilityHelper.newEnumSymbol(schema, readerSymbols.get((Integer) adjustment));
+      } else {
+        // unknown enum in reader schema
+        enumMapping[i] = new AvroTypeException(schema.getFullName() + ": " + adjustment);
+      }
+    }
+    return (reuse, decoder) -> {
+      int enumIndex = decoder.readEnum();
+      if (enumIndex < 0 || enumIndex >= enumMapping.length) {
+        throw new RuntimeException("Illegal enum index for '" + schema.getFullName() + "': " + enumIndex);
+      }
+      Object enumValue = enumMapping[enumIndex];
+      if (enumValue instanceof AvroTypeException) {
+        throw (AvroTypeException) enumValue;
+      }
+      return enumValue;
+    };
+  }
+
+  private ValueReader processPrimitive(final Schema schema, final Schema readerSchema, FieldAction action) {
+    switch (schema.getType()) {
+      case STRING:
+        if (!action.getShouldRead()) {
+          return (reuse, decoder) -> {
+            decoder.skipString();
+            return null;
+          };
+        }
+        if (readerSchema != null && Schema.Type.BYTES.equals(readerSchema.getType())) {
+          return (reuse, decoder) -> decoder.readBytes(null);
+        }
+        if (isJavaString(schema)) {
+          return (reuse, decoder) -> decoder.readString();
+        }
+        return (reuse, decoder) -> decoder.readString(reuse instanceof Utf8 ? (Utf8) reuse : null);
+      case BYTES:
+        if (!action.getShouldRead()) {
+          return (reuse, decoder) -> {
+            decoder.skipBytes();
+            return null;
+          };
+        }
+        return (reuse, decoder) -> decoder.readBytes(reuse instanceof ByteBuffer ? (ByteBuffer) reuse : null);
+      case INT:
+        if (action.getShouldRead() && readerSchema != null) {
+          switch (readerSchema.getType()) {
+            case LONG:
+              return (reuse, decoder) -> (long) decoder.readInt();
+            case FLOAT:
+              return (reuse, decoder) -> (float) decoder.readInt();
+            case DOUBLE:
+              return (reuse, decoder) -> (double) decoder.readInt();
+            default:
+          }
+        }
+        return INT_READER;
+      case LONG:
+        if (action.getShouldRead() && readerSchema != null) {
+          switch (readerSchema.getType()) {
+            case FLOAT:
+              return (reuse, decoder) -> (float) decoder.readLong();
+            case DOUBLE:
+              return (reuse, decoder) -> (double) decoder.readLong();
+            default:
+          }
+        }
+        return LONG_READER;
+      case FLOAT:
+        if (action.getShouldRead() && readerSchema != null && Schema.Type.DOUBLE.equals(readerSchema.getType())) {
+          return (reuse, decoder) -> (double) decoder.readFloat();
+        }
+        return FLOAT_READER;
+      case DOUBLE:
+        return DOUBLE_READER;
+      case BOOLEAN:
+        return BOOLEAN_READER;
+      case NULL:
+        return NULL_READER;
+      default:
+        throw new FastDeserializerGeneratorException("Unsupported primitive schema of type: " + schema.getType());
+    }
+  }
+
+  /**
+   * @return true if the generic deserializer should use {@link String} instead of {@link Utf8} for the given
+   *     string or map schema
+   */
+  private static boolean isJavaString(Schema schema) {
+    return Utils.isAbleToSupportJavaStrings()
+        && SchemaAssistant.STRING_TYPE_STRING.equals(schema.getProp(SchemaAssistant.STRING_PROP));
+  }
+
+  /**
+   * Reads (or skips) a single value from the decoder.
+   */
+  @FunctionalInterface
+  interface ValueReader {
+    /**
+     * @param reuse previous value, which could be reused, or null
+     * @param decoder decoder to read from
+     * @return deserialized value or null when the value is skipped
+     */
+    Object read(Object reuse, Decoder decoder) throws IOException;
+  }
+
+  private static final class FieldReader {
+    private final int pos;
+    private final ValueReader valueReader;
+
+    private FieldReader(int pos, ValueReader valueReader) {
+      this.pos = pos;
+      this.valueReader = valueReader;
+    }
+  }
+
+  private static final class RecordReader implements ValueReader {
+    /**
+     * Reader schema of the record, or null if the record is skipped.
+     */
+    private final Schema schema;
+    private FieldReader[] fieldReaders;
+    private FieldReader[] defaultValues;
+
+    private RecordReader(Schema schema) {
+      this.schema = schema;
+    }
+
+    private void init(FieldReader[] fieldReaders, FieldReader[] defaultValues) {
+      this.fieldReaders = fieldReaders;
+      this.defaultValues = defaultValues;
+    }
+
+    @Override
+    public Object read(Object reuse, Decoder decoder) throws IOException {
+      if (schema == null) {
+        for (FieldReader fieldReader : fieldReaders) {
+          fieldReader.valueReader.read(null, decoder);
+        }
+        return null;
+      }
+
+      // The schema is compared by reference, which is very fast.
+      IndexedRecord record = reuse instanceof IndexedRecord && ((IndexedRecord) reuse).getSchema() == schema
+          ? (IndexedRecord) reuse : new GenericData.Record(schema);
+      for (FieldReader fieldReader : fieldReaders) {
+        if (fieldReader.pos < 0) {
+          fieldReader.valueReader.read(null, decoder);
+        } else {
+          record.put(fieldReader.pos, fieldReader.valueReader.read(record.get(fieldReader.pos), decoder));
+        }
+      }
+      for (FieldReader defaultValue : defaultValues) {
+        record.put(defaultValue.pos, defaultValue.valueReader.read(null, decoder));
+      }
+      return record;
+    }
+  }
+
+  private static final class GenericArrayReader implements ValueReader {
+    private final Schema schema;
+    private final ValueReader elementReader;
+    private final boolean reuseElements;
+
+    private GenericArrayReader(Schema schema, ValueReader elementReader, boolean reuseElements) {
+      this.schema = schema;
+      this.elementReader = elementReader;
+      this.reuseElements = reuseElements;
+    }
+
+    @Override
+    public Object read(Object reuse, Decoder decoder) throws IOException {
+      long chunkLen = decoder.readArrayStart();
+      List<Object> array;
+      if (reuse instanceof List) {
+        array = (List<Object>) reuse;
+        array.clear();
+      } else {
+        array = new GenericData.Array<>((int) chunkLen, schema);
+      }
+      while (chunkLen > 0) {
+        for (int counter = 0; counter < chunkLen; counter++) {
+          Object elementReuse = reuseElements && reuse instanceof GenericArray ? ((GenericArray) reuse).peek() : null;
+          array.add(elementReader.read(elementReuse, decoder));
+        }
+        chunkLen = decoder.arrayNext();
+      }
+      return array;
+    }
+  }
+
+  /**
+   * Reads arrays of primitive elements into the primitive lists, so the elements don't need to be boxed.
+   */
+  private static final class PrimitiveArrayReader implements ValueReader {
+    private final Schema.Type readerElementType;
+    /**
+     * Writer element type or null if the writer elements are not primitive (e.g. a union).
+     */
+    private final Schema.Type writerElementType;
+    private final ValueReader elementReader;
+
+    private PrimitiveArrayReader(Schema.Type readerElementType, Schema.Type writerElementType,
+        ValueReader elementReader) {
+      this.readerElementType = readerElementType;
+      this.writerElementType = writerElementType;
+      this.elementReader = elementReader;
+    }
+
+    @Override
+    public Object read(Object reuse, Decoder decoder) throws IOException {
+      long chunkLen = decoder.readArrayStart();
+      List<?> array = reuseOrCreate(reuse, (int) chunkLen);
+      while (chunkLen > 0) {
+        if (writerElementType == null) {
+          for (int counter = 0; counter < chunkLen; counter++) {
+            ((List<Object>) array).add(elementReader.read(null, decoder));
+          }
+        } else {
+          readChunk(array, chunkLen, decoder);
+        }
+        chunkLen = decoder.arrayNext();
+      }
+      return array;
+    }
+
+    private List<?> reuseOrCreate(Object reuse, int capacity) {
+      List<?> array;
+      switch (readerElementType) {
+        case BOOLEAN:
+          array = reuse instanceof PrimitiveBooleanList ? (List<?>) reuse : new PrimitiveBooleanArrayList(capacity);
+          break;
+        case INT:
+          array = reuse instanceof PrimitiveIntList ? (List<?>) reuse : new PrimitiveIntArrayList(capacity);
+          break;
+        case LONG:
+          array = reuse instanceof PrimitiveLongList ? (List<?>) reuse : new PrimitiveLongArrayList(capacity);
+          break;
+        case FLOAT:
+          array = reuse instanceof PrimitiveFloatList ? (List<?>) reuse : new PrimitiveFloatArrayList(capacity);
+          break;
+        case DOUBLE:
+          array = reuse instanceof PrimitiveDoubleList ? (List<?>) reuse : new PrimitiveDoubleArrayList(capacity);
+          break;
+        default:
+          throw new FastDeserializerGeneratorException("Unsupported primitive array element type: " + readerElementType);
+      }
+      if (array == reuse) {
+        array.clear();
+      }
+      return array;
+    }
+
+    private void readChunk(List<?> array, long chunkLen, Decoder decoder) throws IOException {
+      switch (readerElementType) {
+        case BOOLEAN:
+          PrimitiveBooleanList booleanList = (PrimitiveBooleanList) array;
+          for (int counter = 0; counter < chunkLen; counter++) {
+            booleanList.addPrimitive(decoder.readBoolean());
+          }
+          break;
+        case INT:
+          PrimitiveIntList intList = (PrimitiveIntList) array;
+          for (int counter = 0; counter < chunkLen; counter++) {
+            intList.addPrimitive(decoder.readInt());
+          }
+          break;
+        case LONG:
+          PrimitiveLongList longList = (PrimitiveLongList) array;
+          for (int counter = 0; counter < chunkLen; counter++) {
+            longList.addPrimitive(writerElementType == Schema.Type.INT ? decoder.readInt() : decoder.readLong());
+          }
+          break;
+        case FLOAT:
+          PrimitiveFloatList floatList = (PrimitiveFloatList) array;
+          for (int counter = 0; counter < chunkLen; counter++) {
+            floatList.addPrimitive(readFloat(decoder));
+          }
+          break;
+        case DOUBLE:
+          PrimitiveDoubleList doubleList = (PrimitiveDoubleList) array;
+          for (int counter = 0; counter < chunkLen; counter++) {
+            doubleList.addPrimitive(writerElementType == Schema.Type.FLOAT ? decoder.readFloat() : readDouble(decoder));
+          }
+          break;
+        default:
+          throw new FastDeserializerGeneratorException("Unsupported primitive array element type: " + readerElementType);
+      }
+    }
+
+    private float readFloat(Decoder decoder) throws IOException {
+      switch (writerElementType) {
+        case INT:
+          return decoder.readInt();
+        case LONG:
+          return decoder.readLong();
+        default:
+          return decoder.readFloat();
+      }
+    }
+
+    private double readDouble(Decoder decoder) throws IOException {
+      switch (writerElementType) {
+        case INT:
+          return decoder.readInt();
+        case LONG:
+          return decoder.readLong();
+        default:
+          return decoder.readDouble();
+      }
+    }
+  }
+
+  private static final class MapReader implements ValueReader {
+    private final ValueReader keyReader;
+    private final ValueReader valueReader;
+    /**
+     * Reader value type if the map is read into a primitive map, like the generated deserializers do, null otherwise.
+     */
+    private final Schema.Type primitiveValueType;
+
+    private MapReader(ValueReader keyReader, ValueReader valueReader, Schema.Type primitiveValueType) {
+      this.keyReader = keyReader;
+      this.valueReader = valueReader;
+      this.primitiveValueType = primitiveValueType;
+    }
+
+    @Override
+    public Object read(Object reuse, Decoder decoder) throws IOException {
+      long chunkLen = decoder.readMapStart();
+      if (chunkLen <= 0) {
+        return primitiveValueType != null ? newPrimitiveMap(0) : new HashMap<>(0);
+      }
+      Map<Object, Object> map;
+      if (primitiveValueType != null) {
+        map = isPrimitiveMap(reuse) ? (Map<Object, Object>) reuse : newPrimitiveMap((int) chunkLen);
+        map.clear();
+      } else if (reuse instanceof Map) {
+        map = (Map<Object, Object>) reuse;
+        map.clear();
+      } else {
+        // Pure integer arithmetic equivalent of (int) Math.ceil(expectedSize / 0.75).
+        map = new HashMap<>((int) ((chunkLen * 4 + 2) / 3));
+      }
+      do {
+        for (int counter = 0; counter < chunkLen; counter++) {
+          Object key = keyReader.read(null, decoder);
+          map.put(key, valueReader.read(null, decoder));
+        }
+        chunkLen = decoder.mapNext();
+      } while (chunkLen > 0);
+      return map;
+    }
+
+    private boolean isPrimitiveMap(Object reuse) {
+      switch (primitiveValueType) {
+        case DOUBLE:
+          return reuse instanceof PrimitiveDoubleMap;
+        case FLOAT:
+          return reuse instanceof PrimitiveFloatMap;
+        case INT:
+          return reuse instanceof PrimitiveIntMap;
+        case LONG:
+          return reuse instanceof PrimitiveLongMap;
+        default:
+          throw new FastDeserializerGeneratorException("Unsupported primitive map value type: " + primitiveValueType);
+      }
+    }
+
+    private Map<Object, Object> newPrimitiveMap(int expectedSize) {
+      Map<?, ?> map;
+      switch (primitiveValueType) {
+        case DOUBLE:
+          map = new PrimitiveDoubleHashMap(expectedSize);
+          break;
+        case FLOAT:
+          map = new PrimitiveFloatHashMap(expectedSize);
+          break;
+        case INT:
+          map = new PrimitiveIntHashMap(expectedSize);
+          break;
+        case LONG:
+          map = new PrimitiveLongHashMap(expectedSize);
+          break;
+        default:
+          throw new FastDeserializerGeneratorException("Unsupported primitive map value type: " + primitiveValueType);
+      }
+      return (Map<Object, Object>) map;
+    }
+  }
+
+  private static final class InterpretedFastDeserializer<V> implements FastBatchDeserializer<V> {
+    private final ValueReader rootReader;
+
+    private InterpretedFastDeserializer(ValueReader rootReader) {
+      this.rootReader = rootReader;
+    }
+
+    @Override
+    public V deserialize(V reuse, Decoder d) throws IOException {
+      return (V) rootReader.read(reuse, d);
+    }
+  }
+}
@@ -0,0 +1,183 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.Encoder;
+
+
+/**
+ * Generic record produced by the lazy fast deserializers, see {@link FastSerdeCache#getFastGenericLazyDeserializer(Schema)}.
+ *
+ * Deserialization only skips through the fields to record where each of them starts in the read buffer, which is
+ * retained by the record. A field is then decoded on its first access, so reading a few fields of a wide record
+ * doesn't pay for decoding all the other ones. As long as no field is put, the record can be re-serialized by copying
+ * the bytes it was read from, see {@link #writeRawBytes(Encoder, long)}.
+ *
+ * The content of the read buffer must not change during the lifetime of the record. Values returned by {@link #get(int)}
+ * are expected to be left unchanged, a value modified in place must be put back for the modification to be serialized.
+ *
+ * Like an eagerly decoded record, a lazy record can be read from several threads at once: fields are decoded while
+ * holding the lock of the record, so concurrent reads never share the decoder. Putting fields, or reusing the record
+ * for another deserialization, still requires the same external synchronization as a {@link GenericData.Record}.
+ */
+public class LazyRecord extends GenericData.Record {
+
+  /**
+   * Decodes the fields of lazy records, implemented by the generated deserializers.
+   */
+  public interface FieldDecoder {
+    /**
+     * @param index position of the field in the record schema
+     * @param decoder decoder positioned on the encoded field
+     * @return decoded field
+     * @throws IOException on io errors
+     */
+    Object decodeField(int index, Decoder decoder) throws IOException;
+  }
+
+  private final FieldDecoder fieldDecoder;
+  private final int[] offsets;
+  private final boolean[] decoded;
+  private ByteBuffer buffer;
+  private boolean modified;
+  private BinaryDecoder decoder;
+
+  public LazyRecord(Schema schema, FieldDecoder fieldDecoder) {
+    super(schema);
+    this.fieldDecoder = fieldDecoder;
+    int fieldCount = schema.getFields().size();
+    this.offsets = new int[fieldCount + 1];
+    this.decoded = new boolean[fieldCount];
+  }
+
+  /**
+   * @return the given record if it's a lazy record of the given schema decoded by the given field decoder, a new lazy
+   *         record otherwise
+   */
+  public static LazyRecord reuseOrCreate(Object reuse, Schema schema, FieldDecoder fieldDecoder) {
+    if (reuse instanceof LazyRecord) {
+      LazyRecord record = (LazyRecord) reuse;
+      // schemas are compared by reference, like generated deserializers do for any reused record
+      if (record.getSchema() == schema && record.fieldDecoder == fieldDecoder) {
+        return record;
+      }
+    }
+    return new LazyRecord(schema, fieldDecoder);
+  }
+
+  /**
+   * @return offsets of the encoded fields to be filled by the deserializer, followed by the end offset of the record
+   */
+  public int[] getOffsets() {
+    return offsets;
+  }
+
+  /**
+   * Backs this record with the given buffer, every field being decoded again on its next access.
+   *
+   * @param buffer buffer holding the encoded record at the indices given by {@link #getOffsets()}
+   */
+  public void reset(ByteBuffer buffer) {
+    this.buffer = buffer;
+    this.modified = false;
+    Arrays.fill(decoded, false);
+  }
+
+  @Override
+  public Object get(int i) {
+    // the flags are checked under the lock, which also publishes the fields decoded by other threads
+    synchronized (this) {
+      if (!decoded[i]) {
+        super.put(i, decodeField(i));
+        decoded[i] = true;
+      }
+    }
+    return super.get(i);
+  }
+
+  @Override
+  public Object get(String key) {
+    Schema.Field field = getSchema().getField(key);
+    return field == null ? null : get(field.pos());
+  }
+
+  @Override
+  public void put(int i, Object v) {
+    synchronized (this) {
+      super.put(i, v);
+      decoded[i] = true;
+      modified = true;
+    }
+  }
+
+  @Override
+  public void put(String key, Object value) {
+    Schema.Field field = getSchema().getField(key);
+    if (field == null) {
+      throw new AvroRuntimeException("Not a valid schema field: " + key);
+    }
+    put(field.pos(), value);
+  }
+
+  /**
+   * @return true if a field was put since the record was deserialized
+   */
+  public boolean isModified() {
+    return modified;
+  }
+
+  /**
+   * Writes the bytes this record was read from to a binary {@link Encoder}, so re-serializing an unmodified record is
+   * a plain copy.
+   *
+   * @param encoder {@link Encoder} to write the record to
+   * @param schemaFingerprint fingerprint of the schema the record is serialized with
+   * @return false if nothing was written, since the record was modified, is serialized with a different schema or the
+   *         encoder isn't a binary one, the caller must then write the fields individually
+   * @throws IOException on io errors
+   */
+  public boolean writeRawBytes(Encoder encoder, long schemaFingerprint) throws IOException {
+    if (modified || buffer == null || !(encoder instanceof BinaryEncoder)
+        || Utils.getSchemaFingerprint(getSchema()) != schemaFingerprint) {
+      return false;
+    }
+    int start = offsets[0];
+    int length = offsets[offsets.length - 1] - start;
+    if (buffer.hasArray()) {
+      encoder.writeFixed(buffer.array(), buffer.arrayOffset() + start, length);
+    } else {
+      byte[] bytes = new byte[length];
+      ByteBuffer view = buffer.duplicate();
+      view.position(start);
+      view.get(bytes);
+      encoder.writeFixed(bytes);
+    }
+    return true;
+  }
+
+  /**
+   * Must be called while holding the lock of the record, which guards the reused decoder.
+   */
+  private Object decodeField(int i) {
+    if (buffer == null) {
+      return null;
+    }
+    ByteBuffer field = buffer.duplicate();
+    field.limit(offsets[i + 1]);
+    field.position(offsets[i]);
+    decoder = AvroCompatibilityHelper.newBinaryDecoder(field, decoder);
+    try {
+      return fieldDecoder.decodeField(i, decoder);
+    } catch (IOException e) {
+      throw new AvroRuntimeException("Failed to decode field: " + getSchema().getFields().get(i).name(), e);
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package com.linkedin.avro.fastserde;
+
+import com.sun.codemodel.JFormatter;
+import com.sun.codemodel.JStatement;
+import java.io.StringWriter;
+
+
+/**
+ * Estimates the size of the bytecode of generated methods, so the generators can split them to stay under the limits
+ * of the JIT compiler.
+ *
+ * HotSpot never compiles methods larger than {@code -XX:HugeMethodLimit}, 8000 bytes of bytecode by default, so the
+ * statements of wide records are spread over as many methods as needed to stay under the limit, which can be changed
+ * with {@link FastSerdeCacheConfig#withHugeMethodLimit(int)} when the JVM runs with a different limit. Methods
+ * under the limit are never split: each chunk is an extra call, and small methods, up to {@code -XX:FreqInlineSize}
+ * (325 bytes), are only inlined into their hot callers as long as they stay whole.
+ *
+ * The generated code is only available as a {@link com.sun.codemodel.JCodeModel} tree before being compiled, so the
+ * estimate is computed from the tokens of its Java source: every name, literal and operator roughly compiles to an
+ * instruction and its operands. The estimate errs on the large side, and the limit is applied with a safety margin.
+ */
+final class MethodSizeEstimator {
+  static final int DEFAULT_HUGE_METHOD_LIMIT = 8000;
+
+  // average bytes of bytecode compiled from each kind of token, measured on generated serdes
+  private static final int BYTES_PER_NAME = 2;
+  private static final int BYTES_PER_LITERAL = 3;
+  private static final int BYTES_PER_OPERATOR = 1;
+  private static final int BYTES_PER_INVOCATION = 3;
+  // share of the limit the estimated size of methods can grow to, in percent, the estimate being 1.2 to 2 times the
+  // actual size
+  private static final int BUDGET_PERCENT_OF_LIMIT = 90;
+
+  private MethodSizeEstimator() {
+  }
+
+  /**
+   * @param hugeMethodLimit bytecode size of the largest methods the JIT compiler compiles
+   * @return the estimated size a method can grow to before being split
+   */
+  static int getMethodSizeBudget(int hugeMethodLimit) {
+    return (int) ((long) hugeMethodLimit * BUDGET_PERCENT_OF_LIMIT / 100);
+  }
+
+  /**
+   * @return estimated size of the bytecode compiled from the statement, which may be a whole block of statements
+   */
+  static int estimate(JStatement statement) {
+    StringWriter source = new StringWriter();
+    new JFormatter(source).s(statement);
+    return estimate(source.toString());
+  }
+
+  static int estimate(CharSequence source) {
+    int size = 0;
+    int length = source.length();
+    int i = 0;
+    while (i < length) {
+      char c = source.charAt(i);
+      if (Character.isJavaIdentifierStart(c)) {
+        // names of types are qualified, their packages add no bytecode
+        int start = i;
+        while (i < length && (Character.isJavaIdentifierPart(source.charAt(i)) || source.charAt(i) == '.')) {
+          i++;
+        }
+        size += BYTES_PER_NAME * Math.min(countSegments(source, start, i), 2);
+      } else if (Character.isDigit(c)) {
+        while (i < length && (Character.isLetterOrDigit(source.charAt(i)) || source.charAt(i) == '.')) {
+          i++;
+        }
+        size += BYTES_PER_LITERAL;
+      } else if (c == '"' || c == '\'') {
+        i = skipQuoted(source, i);
+        size += BYTES_PER_LITERAL;
+      } else {
+        if (c == '(') {
+          // invocations, boxing and casts are a few bytes more than the names they are made of
+          size += BYTES_PER_INVOCATION;
+        } else if (c == '=' || c == '+' || c == '-' || c == '*' || c == '/' || c == '<' || c == '>'
+            || c == '!' || c == '&' || c == '|' || c == '[' || c == '?' || c == ';') {
+          size += BYTES_PER_OPERATOR;
+        }
+        i++;
+      }
+    }
+    return size;
+  }
+
+  private static int countSegments(CharSequence source, int start, int end) {
+    int segments = 1;
+    for (int i = start; i < end; i++) {
+      if (source.charAt(i) == '.') {
+        segments++;
+      }
+    }
+    return segments;
+  }
+
+  private static int skipQuoted(CharSequence source, int start) {
+    char quote = source.charAt(start);
+    int i = start + 1;
+    while (i < source.length() && source.charAt(i) != quote) {
+      i += source.charAt(i) == '\\' ? 2 : 1;
+    }
+    return i + 1;
+  }
+}
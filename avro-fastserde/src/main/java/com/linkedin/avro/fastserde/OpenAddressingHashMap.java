@@ -0,0 +1,360 @@
+package com.linkedin.avro.fastserde;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+
+/**
+ * Open-addressing hash map of {@link CharSequence} keys, with linear probing and a load factor of 0.5, which keeps the
+ * probe sequences short. The values are held by the child class, indexed by the slots of their keys, so they can be
+ * stored the way which suits them best, see {@link Utf8HashMap} and
+ * {@link com.linkedin.avro.fastserde.primitive.PrimitiveHashMap}.
+ *
+ * Keys are hashed and compared like {@link java.util.HashMap} does, with {@link Object#hashCode()} and
+ * {@link Object#equals(Object)}, so the map behaves like the maps produced by Avro. Null keys are not supported.
+ *
+ * Besides the {@link Map} API, the entries can be iterated with {@link #nextSlot(int)}, {@link #keyAt(int)} and the
+ * value getters of the child class.
+ *
+ * @param <V> type of the values
+ */
+public abstract class OpenAddressingHashMap<V> extends AbstractMap<CharSequence, V> {
+  private static final int MIN_CAPACITY = 4;
+  // marks the slots of removed entries, so the probe sequences of other keys aren't broken
+  private static final Object REMOVED = new Object();
+
+  private Object[] keys;
+  // hash of the key of each slot, compared before the key itself
+  private int[] hashes;
+  private int size;
+  private int removed;
+  private int mask;
+  private int modCount;
+
+  /**
+   * @param expectedSize number of entries the map can hold without being resized
+   */
+  protected OpenAddressingHashMap(int expectedSize) {
+    allocate(capacityFor(expectedSize), null);
+  }
+
+  // Abstract functions required by child classes
+
+  /**
+   * Replaces the storage of the values by one of the given capacity.
+   *
+   * @param capacity number of slots of the map
+   * @param oldSlots previous slot of the entry now at each slot, -1 for the empty slots, or null if the map is being
+   *                 created
+   */
+  protected abstract void resizeValues(int capacity, int[] oldSlots);
+
+  /**
+   * @param slot slot of an entry of the map
+   * @return the value of the entry, boxed if the child class holds primitive values
+   */
+  public abstract V valueAt(int slot);
+
+  /**
+   * @param slot slot of an entry of the map
+   * @param value new value of the entry
+   */
+  public abstract void setValueAt(int slot, V value);
+
+  // Slot API
+
+  /**
+   * @param slot slot of an entry of the map, or -1 to get the first one
+   * @return slot of the next entry of the map, or -1 if there is none
+   */
+  public int nextSlot(int slot) {
+    for (int next = slot + 1; next < keys.length; next++) {
+      Object key = keys[next];
+      if (key != null && key != REMOVED) {
+        return next;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @param slot slot of an entry of the map, as returned by {@link #nextSlot(int)}
+   * @return the key of the entry
+   */
+  public CharSequence keyAt(int slot) {
+    return (CharSequence) keys[slot];
+  }
+
+  // Public API
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return key != null && slotOf(key) >= 0;
+  }
+
+  @Override
+  public V get(Object key) {
+    int slot = key == null ? -1 : slotOf(key);
+    return slot < 0 ? null : valueAt(slot);
+  }
+
+  @Override
+  public V put(CharSequence key, V value) {
+    int sizeBefore = size;
+    int slot = slotFor(key);
+    V previous = size == sizeBefore ? valueAt(slot) : null;
+    setValueAt(slot, value);
+    return previous;
+  }
+
+  @Override
+  public V remove(Object key) {
+    int slot = key == null ? -1 : slotOf(key);
+    if (slot < 0) {
+      return null;
+    }
+    V previous = valueAt(slot);
+    removeSlot(slot);
+    return previous;
+  }
+
+  @Override
+  public void clear() {
+    if (size + removed > 0) {
+      Arrays.fill(keys, null);
+      size = 0;
+      removed = 0;
+      modCount++;
+    }
+  }
+
+  @Override
+  public Set<Entry<CharSequence, V>> entrySet() {
+    return new AbstractSet<Entry<CharSequence, V>>() {
+      @Override
+      public Iterator<Entry<CharSequence, V>> iterator() {
+        return new EntryIterator();
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @Override
+      public void clear() {
+        OpenAddressingHashMap.this.clear();
+      }
+    };
+  }
+
+  // Utilities for child classes
+
+  /**
+   * @param key key to look up, which isn't null
+   * @return slot of the entry of the given key, or -1 if there is none
+   */
+  protected int slotOf(Object key) {
+    int hash = hash(key);
+    for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+      Object slotKey = keys[slot];
+      if (slotKey == null) {
+        return -1;
+      }
+      if (slotKey == key || (hashes[slot] == hash && slotKey != REMOVED && key.equals(slotKey))) {
+        return slot;
+      }
+    }
+  }
+
+  /**
+   * @param key key to look up, which is inserted if it isn't in the map yet
+   * @return slot of the entry of the given key, whose value is left to be set by the caller if the key was inserted
+   */
+  protected int slotFor(CharSequence key) {
+    Objects.requireNonNull(key, "key");
+    if (size + removed >= (mask + 1) >> 1) {
+      // removed entries are dropped by rehashing, the capacity only grows if the map is actually full
+      rehash(size >= (mask + 1) >> 2 ? (mask + 1) << 1 : mask + 1);
+    }
+    int hash = hash(key);
+    int firstRemoved = -1;
+    for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+      Object slotKey = keys[slot];
+      if (slotKey == null) {
+        if (firstRemoved >= 0) {
+          slot = firstRemoved;
+          removed--;
+        }
+        keys[slot] = key;
+        hashes[slot] = hash;
+        size++;
+        modCount++;
+        return slot;
+      }
+      if (slotKey == REMOVED) {
+        if (firstRemoved < 0) {
+          firstRemoved = slot;
+        }
+      } else if (slotKey == key || (hashes[slot] == hash && key.equals(slotKey))) {
+        return slot;
+      }
+    }
+  }
+
+  /**
+   * Removes the entry of the given slot, which child classes can extend to release its value.
+   *
+   * @param slot slot of an entry of the map
+   */
+  protected void removeSlot(int slot) {
+    keys[slot] = REMOVED;
+    size--;
+    removed++;
+    modCount++;
+  }
+
+  private static int capacityFor(int expectedSize) {
+    int capacity = Integer.highestOneBit(Math.max(expectedSize, MIN_CAPACITY / 2) * 2 - 1) << 1;
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Too many entries: " + expectedSize);
+    }
+    return capacity;
+  }
+
+  private void allocate(int capacity, int[] oldSlots) {
+    keys = new Object[capacity];
+    hashes = new int[capacity];
+    mask = capacity - 1;
+    resizeValues(capacity, oldSlots);
+  }
+
+  private static int hash(Object key) {
+    int hash = key.hashCode() * 0x9E3779B9;
+    return hash ^ (hash >>> 16);
+  }
+
+  private void rehash(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalStateException("Too many entries: " + size);
+    }
+    Object[] oldKeys = keys;
+    int[] oldHashes = hashes;
+    int[] oldSlots = new int[capacity];
+    Arrays.fill(oldSlots, -1);
+    int newMask = capacity - 1;
+    Object[] newKeys = new Object[capacity];
+    int[] newHashes = new int[capacity];
+    for (int i = 0; i < oldKeys.length; i++) {
+      Object key = oldKeys[i];
+      if (key != null && key != REMOVED) {
+        int slot = oldHashes[i] & newMask;
+        while (newKeys[slot] != null) {
+          slot = (slot + 1) & newMask;
+        }
+        newKeys[slot] = key;
+        newHashes[slot] = oldHashes[i];
+        oldSlots[slot] = i;
+      }
+    }
+    keys = newKeys;
+    hashes = newHashes;
+    mask = newMask;
+    removed = 0;
+    resizeValues(capacity, oldSlots);
+  }
+
+  private final class EntryIterator implements Iterator<Entry<CharSequence, V>> {
+    private int nextSlot = nextSlot(-1);
+    private int lastSlot = -1;
+    private int expectedModCount = modCount;
+
+    @Override
+    public boolean hasNext() {
+      return nextSlot >= 0;
+    }
+
+    @Override
+    public Entry<CharSequence, V> next() {
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      lastSlot = nextSlot;
+      nextSlot = nextSlot(nextSlot);
+      return new SlotEntry(lastSlot);
+    }
+
+    @Override
+    public void remove() {
+      if (lastSlot < 0) {
+        throw new IllegalStateException();
+      }
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      // removed slots are only marked, so the remaining entries stay where the iterator expects them
+      removeSlot(lastSlot);
+      lastSlot = -1;
+      expectedModCount = modCount;
+    }
+  }
+
+  private final class SlotEntry implements Map.Entry<CharSequence, V> {
+    private final CharSequence key;
+    private final int slot;
+
+    SlotEntry(int slot) {
+      this.key = keyAt(slot);
+      this.slot = slot;
+    }
+
+    @Override
+    public CharSequence getKey() {
+      return key;
+    }
+
+    @Override
+    public V getValue() {
+      return keys[slot] == key ? valueAt(slot) : get(key);
+    }
+
+    @Override
+    public V setValue(V value) {
+      return put(key, value);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Map.Entry)) {
+        return false;
+      }
+      Map.Entry<?, ?> that = (Map.Entry<?, ?>) o;
+      return key.equals(that.getKey()) && Objects.equals(getValue(), that.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+      return key.hashCode() ^ Objects.hashCode(getValue());
+    }
+
+    @Override
+    public String toString() {
+      return key + "=" + getValue();
+    }
+  }
+}
@@ -2,14 +2,22 @@ package com.linkedin.avro.fastserde;
 
 import com.linkedin.avro.api.PrimitiveBooleanList;
 import com.linkedin.avro.api.PrimitiveDoubleList;
+import com.linkedin.avro.api.PrimitiveDoubleMap;
 import com.linkedin.avro.api.PrimitiveFloatList;
+import com.linkedin.avro.api.PrimitiveFloatMap;
 import com.linkedin.avro.api.PrimitiveIntList;
+import com.linkedin.avro.api.PrimitiveIntMap;
 import com.linkedin.avro.api.PrimitiveLongList;
+import com.linkedin.avro.api.PrimitiveLongMap;
 import com.linkedin.avro.fastserde.primitive.PrimitiveBooleanArrayList;
 import com.linkedin.avro.fastserde.primitive.PrimitiveDoubleArrayList;
+import com.linkedin.avro.fastserde.primitive.PrimitiveDoubleHashMap;
 import com.linkedin.avro.fastserde.primitive.PrimitiveFloatArrayList;
+import com.linkedin.avro.fastserde.primitive.PrimitiveFloatHashMap;
 import com.linkedin.avro.fastserde.primitive.PrimitiveIntArrayList;
+import com.linkedin.avro.fastserde.primitive.PrimitiveIntHashMap;
 import com.linkedin.avro.fastserde.primitive.PrimitiveLongArrayList;
+import com.linkedin.avro.fastserde.primitive.PrimitiveLongHashMap;
 import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
 import com.sun.codemodel.JBlock;
 import com.sun.codemodel.JClass;
@@ -96,6 +104,21 @@ public class SchemaAssistant {
     }
   }
 
+  /**
+   * @return true if maps of the given value schema are specialized as primitive maps, like {@link PrimitiveFloatMap}
+   */
+  public static boolean isPrimitiveMapValue(Schema schema) {
+    switch (schema.getType()) {
+      case DOUBLE:
+      case FLOAT:
+      case INT:
+      case LONG:
+        return true;
+      default:
+        return false;
+    }
+  }
+
   public static boolean isPrimitive(Schema schema) {
     switch (schema.getType()) {
       case BOOLEAN:
@@ -109,6 +132,57 @@ public class SchemaAssistant {
     }
   }
 
+  /**
+   * @param fieldSchema schema of a field stored in a {@link ColumnarBatch}
+   * @return schema of the values of the column, which is the field schema itself, or the type other than null of a
+   *         union of null and one other type
+   * @throws SchemaAssistantException if the field is a union of any other kind
+   */
+  public static Schema getColumnSchema(Schema fieldSchema) {
+    if (!Schema.Type.UNION.equals(fieldSchema.getType())) {
+      return fieldSchema;
+    }
+    List<Schema> types = fieldSchema.getTypes();
+    if (types.size() == 2) {
+      if (Schema.Type.NULL.equals(types.get(0).getType())) {
+        return types.get(1);
+      }
+      if (Schema.Type.NULL.equals(types.get(1).getType())) {
+        return types.get(0);
+      }
+    }
+    throw new SchemaAssistantException(
+        "Only unions of null and one other type can be stored in a column: " + fieldSchema);
+  }
+
+  /**
+   * @param fieldSchema schema of a field stored in a {@link ColumnarBatch}
+   * @return class of the column storing the field
+   * @throws SchemaAssistantException if the field can't be stored in a column
+   */
+  public static Class<? extends ColumnarBatch.Column> columnClassFromSchema(Schema fieldSchema) {
+    Schema columnSchema = getColumnSchema(fieldSchema);
+    switch (columnSchema.getType()) {
+      case BOOLEAN:
+        return ColumnarBatch.BooleanColumn.class;
+      case INT:
+      case ENUM:
+        return ColumnarBatch.IntColumn.class;
+      case LONG:
+        return ColumnarBatch.LongColumn.class;
+      case FLOAT:
+        return ColumnarBatch.FloatColumn.class;
+      case DOUBLE:
+        return ColumnarBatch.DoubleColumn.class;
+      case STRING:
+      case BYTES:
+      case FIXED:
+        return ColumnarBatch.BytesColumn.class;
+      default:
+        throw new SchemaAssistantException("Values of type " + columnSchema.getType() + " can't be stored in a column");
+    }
+  }
+
   /**
    * Determines if a data type is capable of reuse
    *
@@ -324,12 +398,24 @@ public class SchemaAssistant {
         }
         break;
       case MAP:
-        if (!abstractType) {
+        Class mapClass = null;
+        if (primitiveList) {
+          switch (schema.getValueType().getType()) {
+            case DOUBLE: mapClass = abstractType ? PrimitiveDoubleMap.class : PrimitiveDoubleHashMap.class; break;
+            case FLOAT: mapClass = abstractType ? PrimitiveFloatMap.class : PrimitiveFloatHashMap.class; break;
+            case INT: mapClass = abstractType ? PrimitiveIntMap.class : PrimitiveIntHashMap.class; break;
+            case LONG: mapClass = abstractType ? PrimitiveLongMap.class : PrimitiveLongHashMap.class; break;
+            default: // no-op
+          }
+        }
+        if (null != mapClass) {
+          outputClass = codeModel.ref(mapClass);
+        } else if (!abstractType) {
           outputClass = codeModel.ref(HashMap.class);
         } else {
           outputClass = codeModel.ref(Map.class);
         }
-        if (!rawType) {
+        if (!rawType && null == mapClass) {
           outputClass = outputClass.narrow(findStringClass(schema), valueClassFromMapSchema(schema));
         }
         break;
@@ -364,6 +450,9 @@ public class SchemaAssistant {
       case BYTES:
         outputClass = codeModel.ref(ByteBuffer.class);
         break;
+      case NULL:
+        outputClass = codeModel.ref(Object.class);
+        break;
       default:
         throw new SchemaAssistantException("Incorrect request for " + schema.getType()); //.getName() + " class!");
     }
@@ -485,6 +574,17 @@ public class SchemaAssistant {
 
   // TODO: this code should support primitive type promotions
   public int compatibleUnionSchemaIndex(Schema schema, Schema unionSchema) {
+    int index = findCompatibleUnionSchemaIndex(schema, unionSchema);
+    if (index < 0) {
+      throw new SchemaAssistantException("No compatible schema found");
+    }
+    return index;
+  }
+
+  /**
+   * @return index of the branch of the union with the same type and name as the schema, or -1 if there is none
+   */
+  public int findCompatibleUnionSchemaIndex(Schema schema, Schema unionSchema) {
     for (int i = 0; i < unionSchema.getTypes().size(); i++) {
       Schema potentialCompatibleSchema = unionSchema.getTypes().get(i);
       if (potentialCompatibleSchema.getType().equals(schema.getType()) &&
@@ -494,7 +594,7 @@ public class SchemaAssistant {
         return i;
       }
     }
-    throw new SchemaAssistantException("No compatible schema found");
+    return -1;
   }
 
   public Schema compatibleUnionSchema(Schema schema, Schema unionSchema) {
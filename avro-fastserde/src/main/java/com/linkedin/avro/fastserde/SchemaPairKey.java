@@ -0,0 +1,71 @@
+package com.linkedin.avro.fastserde;
+
+import org.apache.avro.Schema;
+
+
+/**
+ * Key of a (writer, reader) schema pair in {@link FastSerdeCache}, made of the full 64-bit fingerprints of both
+ * schemas, so distinct pairs never share a key (unlike concatenated decimal fingerprints, e.g. "1" + "23" and
+ * "12" + "3").
+ *
+ * Cache lookups go through a per-thread mutable probe ({@link #probe(Schema, Schema)}), so cache hits don't allocate.
+ * A probe must never be stored, entries are inserted with an immutable {@link #copy()} of it.
+ */
+final class SchemaPairKey {
+  private static final ThreadLocal<SchemaPairKey> PROBE = ThreadLocal.withInitial(SchemaPairKey::new);
+
+  private long writerFingerprint;
+  private long readerFingerprint;
+
+  private SchemaPairKey() {
+  }
+
+  private SchemaPairKey(long writerFingerprint, long readerFingerprint) {
+    this.writerFingerprint = writerFingerprint;
+    this.readerFingerprint = readerFingerprint;
+  }
+
+  /**
+   * @return immutable key of the given schema pair
+   */
+  static SchemaPairKey of(Schema writerSchema, Schema readerSchema) {
+    return new SchemaPairKey(Utils.getSchemaFingerprint(writerSchema), Utils.getSchemaFingerprint(readerSchema));
+  }
+
+  /**
+   * @return per-thread key of the given schema pair, only valid until the next probe on the same thread
+   */
+  static SchemaPairKey probe(Schema writerSchema, Schema readerSchema) {
+    SchemaPairKey probe = PROBE.get();
+    probe.writerFingerprint = Utils.getSchemaFingerprint(writerSchema);
+    probe.readerFingerprint = Utils.getSchemaFingerprint(readerSchema);
+    return probe;
+  }
+
+  SchemaPairKey copy() {
+    return new SchemaPairKey(writerFingerprint, readerFingerprint);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof SchemaPairKey)) {
+      return false;
+    }
+    SchemaPairKey that = (SchemaPairKey) o;
+    return writerFingerprint == that.writerFingerprint && readerFingerprint == that.readerFingerprint;
+  }
+
+  @Override
+  public int hashCode() {
+    long hash = writerFingerprint * 0x9E3779B97F4A7C15L + readerFingerprint;
+    return (int) (hash ^ (hash >>> 32));
+  }
+
+  @Override
+  public String toString() {
+    return writerFingerprint + "_" + readerFingerprint;
+  }
+}
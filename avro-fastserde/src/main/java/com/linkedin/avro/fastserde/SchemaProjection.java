@@ -0,0 +1,213 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import org.apache.avro.Schema;
+
+
+/**
+ * Projection of a record reader schema onto a set of field paths, used to generate fast deserializers which only
+ * materialize the projected fields. Every other field of the written data is skipped by the generated code, the same
+ * way fields missing from a reader schema are.
+ *
+ * A field path is a dot-separated list of field names, e.g. "header.memberId", starting from the fields of the reader
+ * schema. Arrays, maps and unions along a path are traversed transparently, so "events.type" selects the "type" field
+ * of the records held by an "events" array. A path ending on a record field selects the whole record.
+ *
+ * The projection is applied per named record: a record reached by several paths keeps the union of their fields.
+ * Projected fields keep their schema, default value, aliases and properties, so schema resolution against the writer
+ * schema is unchanged for them.
+ *
+ * Deserialized records are instances of {@link #getProjectedSchema()}, which means their fields must be accessed by
+ * name. Projections only apply to generic records, since specific records are bound to their full schema.
+ */
+public final class SchemaProjection {
+  private final Schema readerSchema;
+  private final Set<String> fieldPaths;
+  private final Schema projectedSchema;
+
+  // fields to keep, per record full name
+  private final Map<String, Set<String>> projectedFields = new HashMap<>();
+  // full names of records reached by a path ending on them, or nested in such records, which are kept unchanged
+  private final Set<String> wholeRecords = new HashSet<>();
+  private final Map<String, Schema> projectedRecords = new HashMap<>();
+
+  private SchemaProjection(Schema readerSchema, Collection<String> fieldPaths) {
+    if (readerSchema.getType() != Schema.Type.RECORD) {
+      throw new IllegalArgumentException("Only record schemas can be projected, got: " + readerSchema.getType());
+    }
+    this.readerSchema = readerSchema;
+    this.fieldPaths = Collections.unmodifiableSet(new TreeSet<>(fieldPaths));
+    for (String fieldPath : this.fieldPaths) {
+      addFieldPath(fieldPath);
+    }
+    this.projectedSchema = project(readerSchema);
+  }
+
+  /**
+   * @param readerSchema record schema intended to be used during deserialization
+   * @param fieldPaths dot-separated paths of the fields to materialize
+   * @return projection of the given schema
+   * @throws IllegalArgumentException if a path doesn't match any field of the given schema
+   */
+  public static SchemaProjection of(Schema readerSchema, Collection<String> fieldPaths) {
+    return new SchemaProjection(readerSchema, fieldPaths);
+  }
+
+  public Schema getReaderSchema() {
+    return readerSchema;
+  }
+
+  public Set<String> getFieldPaths() {
+    return fieldPaths;
+  }
+
+  /**
+   * @return reader schema restricted to the projected fields, whose fingerprint identifies the projection in
+   * {@link FastSerdeCache}
+   */
+  public Schema getProjectedSchema() {
+    return projectedSchema;
+  }
+
+  private void addFieldPath(String fieldPath) {
+    List<Schema> current = Collections.singletonList(readerSchema);
+    for (String fieldName : fieldPath.split("\\.", -1)) {
+      List<Schema> next = new ArrayList<>();
+      for (Schema record : reachableRecords(current)) {
+        Schema.Field field = record.getField(fieldName);
+        if (field != null) {
+          projectedFields.computeIfAbsent(record.getFullName(), k -> new HashSet<>()).add(fieldName);
+          next.add(field.schema());
+        }
+      }
+      if (next.isEmpty()) {
+        throw new IllegalArgumentException(
+            "Field path: " + fieldPath + " doesn't match any field of schema: " + readerSchema.getFullName());
+      }
+      current = next;
+    }
+    for (Schema schema : current) {
+      addWholeRecords(schema);
+    }
+  }
+
+  /**
+   * @return records held by the given schemas, looking through arrays, maps and unions
+   */
+  private static List<Schema> reachableRecords(List<Schema> schemas) {
+    List<Schema> records = new ArrayList<>();
+    for (Schema schema : schemas) {
+      switch (schema.getType()) {
+        case RECORD:
+          records.add(schema);
+          break;
+        case ARRAY:
+          records.addAll(reachableRecords(Collections.singletonList(schema.getElementType())));
+          break;
+        case MAP:
+          records.addAll(reachableRecords(Collections.singletonList(schema.getValueType())));
+          break;
+        case UNION:
+          records.addAll(reachableRecords(schema.getTypes()));
+          break;
+        default:
+          break;
+      }
+    }
+    return records;
+  }
+
+  private void addWholeRecords(Schema schema) {
+    switch (schema.getType()) {
+      case RECORD:
+        if (wholeRecords.add(schema.getFullName())) {
+          for (Schema.Field field : schema.getFields()) {
+            addWholeRecords(field.schema());
+          }
+        }
+        break;
+      case ARRAY:
+        addWholeRecords(schema.getElementType());
+        break;
+      case MAP:
+        addWholeRecords(schema.getValueType());
+        break;
+      case UNION:
+        for (Schema type : schema.getTypes()) {
+          addWholeRecords(type);
+        }
+        break;
+      default:
+        break;
+    }
+  }
+
+  private Schema project(Schema schema) {
+    switch (schema.getType()) {
+      case RECORD:
+        return projectRecord(schema);
+      case ARRAY:
+        Schema elementType = project(schema.getElementType());
+        return elementType == schema.getElementType() ? schema : Schema.createArray(elementType);
+      case MAP:
+        Schema valueType = project(schema.getValueType());
+        return valueType == schema.getValueType() ? schema : Schema.createMap(valueType);
+      case UNION:
+        List<Schema> types = new ArrayList<>(schema.getTypes().size());
+        boolean projected = false;
+        for (Schema type : schema.getTypes()) {
+          Schema projectedType = project(type);
+          projected |= projectedType != type;
+          types.add(projectedType);
+        }
+        return projected ? Schema.createUnion(types) : schema;
+      default:
+        return schema;
+    }
+  }
+
+  private Schema projectRecord(Schema record) {
+    String fullName = record.getFullName();
+    if (wholeRecords.contains(fullName)) {
+      return record;
+    }
+    Schema projectedRecord = projectedRecords.get(fullName);
+    if (projectedRecord != null) {
+      return projectedRecord;
+    }
+
+    projectedRecord = Schema.createRecord(record.getName(), record.getDoc(), record.getNamespace(), record.isError());
+    // registered before projecting the fields, so recursive references resolve to it
+    projectedRecords.put(fullName, projectedRecord);
+    for (String alias : record.getAliases()) {
+      projectedRecord.addAlias(alias);
+    }
+    for (String propName : AvroCompatibilityHelper.getAllPropNames(record)) {
+      AvroCompatibilityHelper.setSchemaPropFromJsonString(projectedRecord, propName,
+          AvroCompatibilityHelper.getSchemaPropAsJsonString(record, propName), false);
+    }
+
+    Set<String> fieldNames = projectedFields.getOrDefault(fullName, Collections.emptySet());
+    List<Schema.Field> fields = new ArrayList<>(fieldNames.size());
+    for (Schema.Field field : record.getFields()) {
+      if (fieldNames.contains(field.name())) {
+        Schema.Field projectedField = AvroCompatibilityHelper.newField(field).setSchema(project(field.schema())).build();
+        for (String alias : AvroCompatibilityHelper.getFieldAliases(field)) {
+          projectedField.addAlias(alias);
+        }
+        fields.add(projectedField);
+      }
+    }
+    projectedRecord.setFields(fields);
+    return projectedRecord;
+  }
+}
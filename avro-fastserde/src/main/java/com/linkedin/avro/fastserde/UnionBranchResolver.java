@@ -0,0 +1,125 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericContainer;
+
+
+/**
+ * Resolves the branch of a union a value is written to, for the serializers generated for wide unions, see
+ * {@link FastSerializerGenerator}.
+ *
+ * The generated code used to test the value against every branch in turn, with {@code instanceof} and, for generic
+ * named types, by comparing the full name of the schema of the value. The resolver follows the same rules, the first
+ * matching branch in the order of the union wins, but most of the work is cached: the branches the class of a value
+ * can belong to are computed once per class, in a {@link ClassValue}, and the schemas of named types are compared by
+ * identity with the schema last seen for each branch, falling back to the full name, itself cached per schema
+ * instance.
+ */
+public final class UnionBranchResolver {
+  public static final int UNKNOWN_BRANCH = -1;
+
+  private final Class<?>[] branchClasses;
+  private final String[] branchFullNames;
+
+  private final ClassValue<int[]> candidateBranches = new ClassValue<int[]>() {
+    @Override
+    protected int[] computeValue(Class<?> type) {
+      int[] candidates = new int[branchClasses.length];
+      int count = 0;
+      for (int branch = 0; branch < branchClasses.length; branch++) {
+        if (branchClasses[branch] != null && branchClasses[branch].isAssignableFrom(type)) {
+          candidates[count++] = branch;
+          if (branchFullNames[branch] == null) {
+            // matched by class alone, so the following branches are never reached
+            break;
+          }
+        }
+      }
+      int[] trimmed = new int[count];
+      System.arraycopy(candidates, 0, trimmed, 0, count);
+      return trimmed;
+    }
+  };
+
+  // last schema instance seen for each named branch, values of the same schema instances are resolved by identity
+  private final Schema[] branchSchemas;
+  private final ConcurrentWeakIdentityHashMap<Schema, Integer> branchesBySchema =
+      new ConcurrentWeakIdentityHashMap<>();
+
+  /**
+   * @param branchClasses class of each branch of the union, null for the branches which aren't resolved here, like
+   *                      the null branch
+   * @param branchFullNames full name of the schema of each branch to be matched by the schema of the value as well,
+   *                        null for the branches matched by class alone
+   */
+  public UnionBranchResolver(Class<?>[] branchClasses, String[] branchFullNames) {
+    if (branchClasses.length != branchFullNames.length) {
+      throw new IllegalArgumentException("Got " + branchClasses.length + " branch classes but "
+          + branchFullNames.length + " branch names");
+    }
+    this.branchClasses = branchClasses.clone();
+    this.branchFullNames = branchFullNames.clone();
+    this.branchSchemas = new Schema[branchClasses.length];
+  }
+
+  /**
+   * @return index of the branch of the union the value belongs to, or {@link #UNKNOWN_BRANCH} if there is none
+   */
+  public int resolve(Object value) {
+    if (value == null) {
+      return UNKNOWN_BRANCH;
+    }
+    int[] candidates = candidateBranches.get(value.getClass());
+    Schema schema = null;
+    for (int i = 0; i < candidates.length; i++) {
+      int branch = candidates[i];
+      if (branchFullNames[branch] == null) {
+        if (schema == null) {
+          return branch;
+        }
+        // an earlier named branch may still match by name
+        break;
+      }
+      if (schema == null) {
+        schema = ((GenericContainer) value).getSchema();
+      }
+      if (branchSchemas[branch] == schema) {
+        return branch;
+      }
+    }
+    return schema == null ? UNKNOWN_BRANCH : resolveByName(candidates, schema);
+  }
+
+  private int resolveByName(int[] candidates, Schema schema) {
+    int namedBranch = resolveNamedBranch(schema);
+    for (int i = 0; i < candidates.length; i++) {
+      int branch = candidates[i];
+      if (branchFullNames[branch] == null) {
+        return branch;
+      }
+      if (branch == namedBranch) {
+        // racy, but any thread remembering any schema of the branch is fine
+        branchSchemas[branch] = schema;
+        return branch;
+      }
+    }
+    return UNKNOWN_BRANCH;
+  }
+
+  private int resolveNamedBranch(Schema schema) {
+    Integer branch = branchesBySchema.get(schema);
+    if (branch == null) {
+      branch = branchesBySchema.computeIfAbsent(schema, key -> {
+        String fullName = AvroCompatibilityHelper.getSchemaFullName(key);
+        for (int i = 0; i < branchFullNames.length; i++) {
+          if (fullName.equals(branchFullNames[i])) {
+            return i;
+          }
+        }
+        return UNKNOWN_BRANCH;
+      });
+    }
+    return branch;
+  }
+}
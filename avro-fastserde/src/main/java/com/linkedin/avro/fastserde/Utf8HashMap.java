@@ -0,0 +1,155 @@
+package com.linkedin.avro.fastserde;
+
+import java.util.Arrays;
+import org.apache.avro.util.Utf8;
+
+
+/**
+ * {@link OpenAddressingHashMap} produced by the generated deserializers for maps with {@link Utf8} keys, when
+ * enabled with {@link FastSerdeCacheConfig#withUtf8HashMaps(boolean)}.
+ *
+ * When such a map is passed back as the reused value, the deserializer refills it in place rather than clearing it:
+ * the bytes of each key are decoded into a scratch {@link Utf8}, looked up among the entries left by the previous
+ * record, and the key objects and values of the entries found are reused, only the keys seen for the first time being
+ * kept as new {@link Utf8} instances. The entries whose keys don't come back are removed once the map is decoded. So
+ * decoding records of recurring map keys, like feature maps, allocates neither keys nor entries. Looking the keys up
+ * costs more CPU than filling a cleared {@link java.util.HashMap} though, so it pays off when the garbage collection is
+ * the bottleneck, not otherwise.
+ *
+ * Null values are supported.
+ */
+public class Utf8HashMap<V> extends OpenAddressingHashMap<V> {
+  private Object[] values;
+  // generation of the last refill which found the key of each slot, 0 for the empty slots
+  private int[] generations;
+  private int generation = 1;
+  private int refilled;
+  private Utf8 keyBuffer;
+
+  public Utf8HashMap() {
+    this(0);
+  }
+
+  /**
+   * @param expectedSize number of entries the map can hold without being resized
+   */
+  public Utf8HashMap(int expectedSize) {
+    super(expectedSize);
+  }
+
+  @Override
+  protected void resizeValues(int capacity, int[] oldSlots) {
+    Object[] oldValues = values;
+    int[] oldGenerations = generations;
+    values = new Object[capacity];
+    generations = new int[capacity];
+    if (oldSlots != null) {
+      for (int slot = 0; slot < capacity; slot++) {
+        if (oldSlots[slot] >= 0) {
+          values[slot] = oldValues[oldSlots[slot]];
+          generations[slot] = oldGenerations[oldSlots[slot]];
+        }
+      }
+    }
+  }
+
+  @Override
+  protected void removeSlot(int slot) {
+    super.removeSlot(slot);
+    values[slot] = null;
+    generations[slot] = 0;
+  }
+
+  // Refill, used by the generated deserializers
+
+  /**
+   * Starts refilling the map, after which every entry is removed by {@link #finishRefill()} unless its key is found
+   * by {@link #refillSlot(Utf8)} in the meantime.
+   */
+  public void startRefill() {
+    if (generation == Integer.MAX_VALUE) {
+      for (int i = 0; i < generations.length; i++) {
+        if (generations[i] != 0) {
+          generations[i] = 1;
+        }
+      }
+      generation = 1;
+    }
+    generation++;
+    refilled = 0;
+  }
+
+  /**
+   * @return buffer to decode the next key into, before passing it to {@link #refillSlot(Utf8)}
+   */
+  public Utf8 keyBuffer() {
+    if (keyBuffer == null) {
+      keyBuffer = new Utf8();
+    }
+    return keyBuffer;
+  }
+
+  /**
+   * @param key decoded key, which is kept by the map if it isn't in the map yet
+   * @return slot of the entry of the given key, whose value is left to be read and replaced by
+   *         {@link #valueAt(int)} and {@link #setValueAt(int, Object)}
+   */
+  public int refillSlot(Utf8 key) {
+    int slot = slotFor(key);
+    if (keyAt(slot) == keyBuffer) {
+      // the buffer became a key of the map, the next key is decoded into a new one
+      keyBuffer = null;
+    }
+    if (generations[slot] != generation) {
+      generations[slot] = generation;
+      refilled++;
+    }
+    return slot;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V valueAt(int slot) {
+    return (V) values[slot];
+  }
+
+  @Override
+  public void setValueAt(int slot, V value) {
+    values[slot] = value;
+  }
+
+  /**
+   * Removes the entries whose keys weren't found since {@link #startRefill()}.
+   */
+  public void finishRefill() {
+    if (refilled == size()) {
+      return;
+    }
+    int[] slotGenerations = generations;
+    // stale entries are those of a generation between 0 and the current one, checked with a single comparison
+    int currentGeneration = generation + Integer.MAX_VALUE;
+    for (int slot = 0; slot < slotGenerations.length; slot++) {
+      if (slotGenerations[slot] + Integer.MAX_VALUE < currentGeneration) {
+        removeSlot(slot);
+      }
+    }
+  }
+
+  // Map API
+
+  @Override
+  public V put(CharSequence key, V value) {
+    int slot = slotFor(key);
+    generations[slot] = generation;
+    V previous = valueAt(slot);
+    setValueAt(slot, value);
+    return previous;
+  }
+
+  @Override
+  public void clear() {
+    super.clear();
+    Arrays.fill(values, null);
+    Arrays.fill(generations, 0);
+  }
+}
@@ -7,14 +7,13 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.StringReader;
 import java.security.CodeSource;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import org.apache.avro.Schema;
 
@@ -36,8 +35,11 @@ public class Utils {
     AVRO_VERSIONS_SUPPORTED_FOR_SERIALIZER.addAll(AVRO_VERSIONS_SUPPORTED_FOR_DESERIALIZER);
   }
 
-  // Cache the mapping between Schema and the corresponding fingerprint
-  private static final Map<Schema, Long> SCHEMA_IDS_CACHE = new ConcurrentHashMap<>();
+  // Cache the mapping between Schema and the corresponding fingerprint. Schema instances are compared by identity,
+  // so lookups don't go through Schema.hashCode/equals (which walk the whole schema), and held weakly, so schemas
+  // discarded by the application don't stay reachable from here.
+  private static final ConcurrentWeakIdentityHashMap<Schema, Long> SCHEMA_IDS_CACHE =
+      new ConcurrentWeakIdentityHashMap<>();
 
   private Utils() {
   }
@@ -137,11 +139,33 @@ public class Utils {
    */
   public static String inferCompileDependencies(String existingCompileClasspath, String filePath, Set<String> knownUsedFullyQualifiedClassNameSet)
       throws IOException, ClassNotFoundException {
+    return inferCompileDependencies(existingCompileClasspath, new BufferedReader(new FileReader(filePath)),
+        knownUsedFullyQualifiedClassNameSet);
+  }
+
+  /**
+   * Same as {@link #inferCompileDependencies(String, String, Set)}, but works on java source which has not been
+   * written to disk, which is the case for in-memory compilation.
+   * @param existingCompileClasspath existing compile classpath
+   * @param sourceCode content of the java source file to compile
+   * @param knownUsedFullyQualifiedClassNameSet: known fully qualified class name when generating the serialization/de-serialization classes
+   * @return classpath to compile given source
+   * @throws IOException on io issues
+   * @throws ClassNotFoundException on classloading issues
+   */
+  public static String inferCompileDependenciesFromSource(String existingCompileClasspath, String sourceCode,
+      Set<String> knownUsedFullyQualifiedClassNameSet) throws IOException, ClassNotFoundException {
+    return inferCompileDependencies(existingCompileClasspath, new BufferedReader(new StringReader(sourceCode)),
+        knownUsedFullyQualifiedClassNameSet);
+  }
+
+  private static String inferCompileDependencies(String existingCompileClasspath, BufferedReader sourceReader,
+      Set<String> knownUsedFullyQualifiedClassNameSet) throws IOException, ClassNotFoundException {
     Set<String> usedFullyQualifiedClassNameSet = new HashSet<>(knownUsedFullyQualifiedClassNameSet);
     Set<String> libSet = Arrays.stream(existingCompileClasspath.split(":")).collect(Collectors.toSet());
     final String importPrefix = "import ";
     // collect all the necessary dependencies for compilation
-    try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
+    try (BufferedReader reader = sourceReader) {
       String line;
       while ((line = reader.readLine()) != null) {
         if (line.startsWith(importPrefix)) {
@@ -0,0 +1,31 @@
+package com.linkedin.avro.fastserde.coldstart;
+
+import com.linkedin.avro.api.PrimitiveDoubleMap;
+import java.util.HashMap;
+
+
+/**
+ * A {@link PrimitiveDoubleMap} implementation which is equivalent in all respect to the vanilla Avro
+ * implementation, both in terms of functionality and (lack of) performance. It provides the primitive
+ * API that the interface requires, but actually boxes the values in a {@link HashMap}, thus providing
+ * no GC benefit.
+ *
+ * The main motivation for this class is merely to provide a guarantee that the extended API is always
+ * available, even when Fast-Avro isn't warmed up yet.
+ */
+public class ColdPrimitiveDoubleMap extends HashMap<CharSequence, Double> implements PrimitiveDoubleMap {
+  public ColdPrimitiveDoubleMap(int capacity) {
+    super(capacity);
+  }
+
+  @Override
+  public double getPrimitive(CharSequence key, double defaultValue) {
+    Double value = get(key);
+    return value == null ? defaultValue : value;
+  }
+
+  @Override
+  public void putPrimitive(CharSequence key, double value) {
+    put(key, value);
+  }
+}
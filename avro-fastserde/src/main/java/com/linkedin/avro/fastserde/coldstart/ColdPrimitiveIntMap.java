@@ -0,0 +1,31 @@
+package com.linkedin.avro.fastserde.coldstart;
+
+import com.linkedin.avro.api.PrimitiveIntMap;
+import java.util.HashMap;
+
+
+/**
+ * A {@link PrimitiveIntMap} implementation which is equivalent in all respect to the vanilla Avro
+ * implementation, both in terms of functionality and (lack of) performance. It provides the primitive
+ * API that the interface requires, but actually boxes the values in a {@link HashMap}, thus providing
+ * no GC benefit.
+ *
+ * The main motivation for this class is merely to provide a guarantee that the extended API is always
+ * available, even when Fast-Avro isn't warmed up yet.
+ */
+public class ColdPrimitiveIntMap extends HashMap<CharSequence, Integer> implements PrimitiveIntMap {
+  public ColdPrimitiveIntMap(int capacity) {
+    super(capacity);
+  }
+
+  @Override
+  public int getPrimitive(CharSequence key, int defaultValue) {
+    Integer value = get(key);
+    return value == null ? defaultValue : value;
+  }
+
+  @Override
+  public void putPrimitive(CharSequence key, int value) {
+    put(key, value);
+  }
+}
@@ -0,0 +1,31 @@
+package com.linkedin.avro.fastserde.coldstart;
+
+import com.linkedin.avro.api.PrimitiveLongMap;
+import java.util.HashMap;
+
+
+/**
+ * A {@link PrimitiveLongMap} implementation which is equivalent in all respect to the vanilla Avro
+ * implementation, both in terms of functionality and (lack of) performance. It provides the primitive
+ * API that the interface requires, but actually boxes the values in a {@link HashMap}, thus providing
+ * no GC benefit.
+ *
+ * The main motivation for this class is merely to provide a guarantee that the extended API is always
+ * available, even when Fast-Avro isn't warmed up yet.
+ */
+public class ColdPrimitiveLongMap extends HashMap<CharSequence, Long> implements PrimitiveLongMap {
+  public ColdPrimitiveLongMap(int capacity) {
+    super(capacity);
+  }
+
+  @Override
+  public long getPrimitive(CharSequence key, long defaultValue) {
+    Long value = get(key);
+    return value == null ? defaultValue : value;
+  }
+
+  @Override
+  public void putPrimitive(CharSequence key, long value) {
+    put(key, value);
+  }
+}
@@ -0,0 +1,50 @@
+package com.linkedin.avro.fastserde.primitive;
+
+import com.linkedin.avro.api.PrimitiveDoubleMap;
+
+
+public class PrimitiveDoubleHashMap extends PrimitiveHashMap<Double, double[]> implements PrimitiveDoubleMap {
+  public PrimitiveDoubleHashMap(int expectedSize) {
+    super(expectedSize);
+  }
+
+  public PrimitiveDoubleHashMap() {
+    super();
+  }
+
+  @Override
+  public double getPrimitive(CharSequence key, double defaultValue) {
+    int slot = key == null ? -1 : slotOf(key);
+    return slot < 0 ? defaultValue : valuesArray[slot];
+  }
+
+  @Override
+  public void putPrimitive(CharSequence key, double value) {
+    // the slot is found first, as it may replace the values array
+    int slot = slotFor(key);
+    valuesArray[slot] = value;
+  }
+
+  /**
+   * @param slot slot of an entry of the map, as returned by {@link #nextSlot(int)}
+   * @return the value of the entry
+   */
+  public double getPrimitiveAt(int slot) {
+    return valuesArray[slot];
+  }
+
+  @Override
+  protected double[] newArray(int capacity) {
+    return new double[capacity];
+  }
+
+  @Override
+  public Double valueAt(int slot) {
+    return valuesArray[slot];
+  }
+
+  @Override
+  public void setValueAt(int slot, Double value) {
+    valuesArray[slot] = value;
+  }
+}
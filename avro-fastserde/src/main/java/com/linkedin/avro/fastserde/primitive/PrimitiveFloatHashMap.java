@@ -0,0 +1,50 @@
+package com.linkedin.avro.fastserde.primitive;
+
+import com.linkedin.avro.api.PrimitiveFloatMap;
+
+
+public class PrimitiveFloatHashMap extends PrimitiveHashMap<Float, float[]> implements PrimitiveFloatMap {
+  public PrimitiveFloatHashMap(int expectedSize) {
+    super(expectedSize);
+  }
+
+  public PrimitiveFloatHashMap() {
+    super();
+  }
+
+  @Override
+  public float getPrimitive(CharSequence key, float defaultValue) {
+    int slot = key == null ? -1 : slotOf(key);
+    return slot < 0 ? defaultValue : valuesArray[slot];
+  }
+
+  @Override
+  public void putPrimitive(CharSequence key, float value) {
+    // the slot is found first, as it may replace the values array
+    int slot = slotFor(key);
+    valuesArray[slot] = value;
+  }
+
+  /**
+   * @param slot slot of an entry of the map, as returned by {@link #nextSlot(int)}
+   * @return the value of the entry
+   */
+  public float getPrimitiveAt(int slot) {
+    return valuesArray[slot];
+  }
+
+  @Override
+  protected float[] newArray(int capacity) {
+    return new float[capacity];
+  }
+
+  @Override
+  public Float valueAt(int slot) {
+    return valuesArray[slot];
+  }
+
+  @Override
+  public void setValueAt(int slot, Float value) {
+    valuesArray[slot] = value;
+  }
+}
@@ -0,0 +1,59 @@
+package com.linkedin.avro.fastserde.primitive;
+
+import com.linkedin.avro.fastserde.OpenAddressingHashMap;
+import java.util.Objects;
+
+
+/**
+ * An {@link OpenAddressingHashMap} whose values are held in a primitive array maintained by the child class, so they
+ * don't need to be boxed. Null values are not supported.
+ *
+ * The entries can be iterated without boxing with {@link #nextSlot(int)}, {@link #keyAt(int)} and the primitive getter
+ * of the child class, which is what the generated serializers do.
+ *
+ * @param <T> boxed type of the values
+ * @param <A> type of the primitive array holding the values
+ */
+public abstract class PrimitiveHashMap<T, A> extends OpenAddressingHashMap<T> {
+  protected A valuesArray;
+
+  /**
+   * @param expectedSize number of entries the map can hold without being resized
+   */
+  public PrimitiveHashMap(int expectedSize) {
+    super(expectedSize);
+  }
+
+  public PrimitiveHashMap() {
+    this(0);
+  }
+
+  // Abstract functions required by child classes
+
+  /**
+   * @param capacity of the new primitive array
+   * @return an instance of the right type of primitive array used by the child class
+   */
+  protected abstract A newArray(int capacity);
+
+  // Public API
+
+  @Override
+  public T put(CharSequence key, T value) {
+    Objects.requireNonNull(value, "value");
+    return super.put(key, value);
+  }
+
+  @Override
+  protected void resizeValues(int capacity, int[] oldSlots) {
+    A oldValues = valuesArray;
+    valuesArray = newArray(capacity);
+    if (oldSlots != null) {
+      for (int slot = 0; slot < capacity; slot++) {
+        if (oldSlots[slot] >= 0) {
+          System.arraycopy(oldValues, oldSlots[slot], valuesArray, slot, 1);
+        }
+      }
+    }
+  }
+}
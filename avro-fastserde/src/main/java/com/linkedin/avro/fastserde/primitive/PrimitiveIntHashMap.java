@@ -0,0 +1,50 @@
+package com.linkedin.avro.fastserde.primitive;
+
+import com.linkedin.avro.api.PrimitiveIntMap;
+
+
+public class PrimitiveIntHashMap extends PrimitiveHashMap<Integer, int[]> implements PrimitiveIntMap {
+  public PrimitiveIntHashMap(int expectedSize) {
+    super(expectedSize);
+  }
+
+  public PrimitiveIntHashMap() {
+    super();
+  }
+
+  @Override
+  public int getPrimitive(CharSequence key, int defaultValue) {
+    int slot = key == null ? -1 : slotOf(key);
+    return slot < 0 ? defaultValue : valuesArray[slot];
+  }
+
+  @Override
+  public void putPrimitive(CharSequence key, int value) {
+    // the slot is found first, as it may replace the values array
+    int slot = slotFor(key);
+    valuesArray[slot] = value;
+  }
+
+  /**
+   * @param slot slot of an entry of the map, as returned by {@link #nextSlot(int)}
+   * @return the value of the entry
+   */
+  public int getPrimitiveAt(int slot) {
+    return valuesArray[slot];
+  }
+
+  @Override
+  protected int[] newArray(int capacity) {
+    return new int[capacity];
+  }
+
+  @Override
+  public Integer valueAt(int slot) {
+    return valuesArray[slot];
+  }
+
+  @Override
+  public void setValueAt(int slot, Integer value) {
+    valuesArray[slot] = value;
+  }
+}
@@ -0,0 +1,50 @@
+package com.linkedin.avro.fastserde.primitive;
+
+import com.linkedin.avro.api.PrimitiveLongMap;
+
+
+public class PrimitiveLongHashMap extends PrimitiveHashMap<Long, long[]> implements PrimitiveLongMap {
+  public PrimitiveLongHashMap(int expectedSize) {
+    super(expectedSize);
+  }
+
+  public PrimitiveLongHashMap() {
+    super();
+  }
+
+  @Override
+  public long getPrimitive(CharSequence key, long defaultValue) {
+    int slot = key == null ? -1 : slotOf(key);
+    return slot < 0 ? defaultValue : valuesArray[slot];
+  }
+
+  @Override
+  public void putPrimitive(CharSequence key, long value) {
+    // the slot is found first, as it may replace the values array
+    int slot = slotFor(key);
+    valuesArray[slot] = value;
+  }
+
+  /**
+   * @param slot slot of an entry of the map, as returned by {@link #nextSlot(int)}
+   * @return the value of the entry
+   */
+  public long getPrimitiveAt(int slot) {
+    return valuesArray[slot];
+  }
+
+  @Override
+  protected long[] newArray(int capacity) {
+    return new long[capacity];
+  }
+
+  @Override
+  public Long valueAt(int slot) {
+    return valuesArray[slot];
+  }
+
+  @Override
+  public void setValueAt(int slot, Long value) {
+    valuesArray[slot] = value;
+  }
+}
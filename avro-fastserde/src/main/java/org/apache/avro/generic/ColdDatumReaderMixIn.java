@@ -1,12 +1,22 @@
 package org.apache.avro.generic;
 
+import com.linkedin.avro.api.PrimitiveDoubleMap;
+import com.linkedin.avro.api.PrimitiveFloatMap;
+import com.linkedin.avro.api.PrimitiveIntMap;
+import com.linkedin.avro.api.PrimitiveLongMap;
 import com.linkedin.avro.fastserde.coldstart.ColdPrimitiveBooleanList;
 import com.linkedin.avro.fastserde.coldstart.ColdPrimitiveDoubleList;
+import com.linkedin.avro.fastserde.coldstart.ColdPrimitiveDoubleMap;
 import com.linkedin.avro.fastserde.coldstart.ColdPrimitiveFloatList;
+import com.linkedin.avro.fastserde.coldstart.ColdPrimitiveFloatMap;
 import com.linkedin.avro.fastserde.coldstart.ColdPrimitiveIntList;
+import com.linkedin.avro.fastserde.coldstart.ColdPrimitiveIntMap;
 import com.linkedin.avro.fastserde.coldstart.ColdPrimitiveLongList;
+import com.linkedin.avro.fastserde.coldstart.ColdPrimitiveLongMap;
+import java.io.IOException;
 import java.util.Collection;
 import org.apache.avro.Schema;
+import org.apache.avro.io.ResolvingDecoder;
 
 
 /**
@@ -47,7 +57,43 @@ public interface ColdDatumReaderMixIn {
     return old;
   }
 
+  /**
+   * Maps of primitive values are read into the primitive maps, which the fallback function then clears and fills,
+   * as it does with any {@link java.util.Map} passed as the old value.
+   */
+  default Object readMap(Object old, Schema expected, ResolvingDecoder in, ReadMapFunction fallBackFunction)
+      throws IOException {
+    switch (expected.getValueType().getType()) {
+      case DOUBLE:
+        if (!(old instanceof PrimitiveDoubleMap)) {
+          old = new ColdPrimitiveDoubleMap(0);
+        }
+        break;
+      case FLOAT:
+        if (!(old instanceof PrimitiveFloatMap)) {
+          old = new ColdPrimitiveFloatMap(0);
+        }
+        break;
+      case INT:
+        if (!(old instanceof PrimitiveIntMap)) {
+          old = new ColdPrimitiveIntMap(0);
+        }
+        break;
+      case LONG:
+        if (!(old instanceof PrimitiveLongMap)) {
+          old = new ColdPrimitiveLongMap(0);
+        }
+        break;
+      default: // no-op
+    }
+    return fallBackFunction.readMap(old, expected, in);
+  }
+
   interface NewArrayFunction {
     Object newArray(Object old, int size, Schema schema);
   }
+
+  interface ReadMapFunction {
+    Object readMap(Object old, Schema expected, ResolvingDecoder in) throws IOException;
+  }
 }
@@ -1,6 +1,8 @@
 package org.apache.avro.generic;
 
+import java.io.IOException;
 import org.apache.avro.Schema;
+import org.apache.avro.io.ResolvingDecoder;
 
 
 /**
@@ -18,4 +20,9 @@ public class ColdGenericDatumReader<T> extends GenericDatumReader<T> implements
   protected Object newArray(Object old, int size, Schema schema) {
     return newArray(old, size, schema, super::newArray);
   }
+
+  @Override
+  protected Object readMap(Object old, Schema expected, ResolvingDecoder in) throws IOException {
+    return readMap(old, expected, in, super::readMap);
+  }
 }
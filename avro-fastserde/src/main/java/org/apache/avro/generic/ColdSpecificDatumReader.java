@@ -1,6 +1,8 @@
 package org.apache.avro.generic;
 
+import java.io.IOException;
 import org.apache.avro.Schema;
+import org.apache.avro.io.ResolvingDecoder;
 import org.apache.avro.specific.SpecificDatumReader;
 
 
@@ -19,4 +21,9 @@ public class ColdSpecificDatumReader<T> extends SpecificDatumReader<T> implement
   protected Object newArray(Object old, int size, Schema schema) {
     return newArray(old, size, schema, super::newArray);
   }
+
+  @Override
+  protected Object readMap(Object old, Schema expected, ResolvingDecoder in) throws IOException {
+    return readMap(old, expected, in, super::readMap);
+  }
 }
@@ -0,0 +1,121 @@
+package com.linkedin.avro.fastserde;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class ConcurrentWeakIdentityHashMapTest {
+
+  @Test(groups = "deserializationTest")
+  public void testIdentitySemantics() {
+    ConcurrentWeakIdentityHashMap<String, Integer> map = new ConcurrentWeakIdentityHashMap<>();
+    String key = new String("key");
+    String equalKey = new String("key");
+
+    Assert.assertNull(map.put(key, 1));
+    Assert.assertEquals(map.get(key), Integer.valueOf(1));
+    Assert.assertNull(map.get(equalKey));
+
+    Assert.assertEquals(map.put(key, 2), Integer.valueOf(1));
+    Assert.assertEquals(map.putIfAbsent(key, 3), Integer.valueOf(2));
+    Assert.assertNull(map.putIfAbsent(equalKey, 3));
+    Assert.assertEquals(map.size(), 2);
+
+    Assert.assertEquals(map.remove(key), Integer.valueOf(2));
+    Assert.assertNull(map.get(key));
+    Assert.assertEquals(map.get(equalKey), Integer.valueOf(3));
+    Assert.assertEquals(map.size(), 1);
+
+    map.clear();
+    Assert.assertEquals(map.size(), 0);
+  }
+
+  @Test(groups = "deserializationTest")
+  public void testGrowthAndRemoval() {
+    ConcurrentWeakIdentityHashMap<Object, Integer> map = new ConcurrentWeakIdentityHashMap<>(4);
+    List<Object> keys = new ArrayList<>();
+    for (int i = 0; i < 10000; i++) {
+      Object key = new Object();
+      keys.add(key);
+      map.put(key, i);
+    }
+    Assert.assertEquals(map.size(), keys.size());
+    for (int i = 0; i < keys.size(); i += 2) {
+      Assert.assertEquals(map.remove(keys.get(i)), Integer.valueOf(i));
+    }
+    Assert.assertEquals(map.size(), keys.size() / 2);
+    for (int i = 0; i < keys.size(); i++) {
+      Assert.assertEquals(map.get(keys.get(i)), i % 2 == 0 ? null : Integer.valueOf(i));
+    }
+  }
+
+  @Test(groups = "deserializationTest")
+  public void testCollectedKeysAreDropped() throws InterruptedException {
+    ConcurrentWeakIdentityHashMap<Object, Long> map = new ConcurrentWeakIdentityHashMap<>();
+    Object retainedKey = new Object();
+    map.put(retainedKey, 0L);
+    WeakReference<Object> collectedKey = putUnreferencedKey(map);
+
+    for (int i = 0; i < 50 && (collectedKey.get() != null || map.size() != 1); i++) {
+      System.gc();
+      Thread.sleep(20);
+    }
+
+    Assert.assertNull(collectedKey.get(), "The key isn't expected to be kept alive by the map");
+    Assert.assertEquals(map.size(), 1);
+    Assert.assertEquals(map.get(retainedKey), Long.valueOf(0L));
+  }
+
+  private static WeakReference<Object> putUnreferencedKey(ConcurrentWeakIdentityHashMap<Object, Long> map) {
+    Object key = new Object();
+    map.put(key, 1L);
+    return new WeakReference<>(key);
+  }
+
+  @Test(groups = "deserializationTest")
+  public void testConcurrentComputeIfAbsent() throws Exception {
+    ConcurrentWeakIdentityHashMap<Object, Integer> map = new ConcurrentWeakIdentityHashMap<>();
+    Object[] keys = new Object[1000];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = new Object();
+    }
+    AtomicInteger computations = new AtomicInteger();
+    int threadCount = 8;
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threadCount; t++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          for (int i = 0; i < keys.length; i++) {
+            int index = i;
+            Assert.assertEquals(map.computeIfAbsent(keys[i], key -> {
+              computations.incrementAndGet();
+              return index;
+            }), Integer.valueOf(i));
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    Assert.assertEquals(computations.get(), keys.length);
+    Assert.assertEquals(map.size(), keys.length);
+  }
+}
@@ -0,0 +1,225 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.testng.Assert;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.Test;
+
+import static com.linkedin.avro.fastserde.FastSerdeTestsSupport.*;
+
+
+public class FastColumnarDeserializerGeneratorTest {
+
+  private File tempDir;
+  private ClassLoader classLoader;
+
+  @BeforeTest(groups = {"deserializationTest"})
+  public void prepare() throws Exception {
+    tempDir = getCodeGenDirectory();
+    classLoader = URLClassLoader.newInstance(new URL[]{tempDir.toURI().toURL()},
+        FastColumnarDeserializerGeneratorTest.class.getClassLoader());
+  }
+
+  @Test(groups = {"deserializationTest"})
+  public void shouldDeserializeFlatRecordsIntoColumns() throws IOException {
+    // given
+    Schema enumSchema = createEnumSchema("testEnum", new String[]{"A", "B", "C"});
+    Schema fixedSchema = createFixedSchema("testFixed", 2);
+    Schema recordSchema = createRecord(
+        createPrimitiveFieldSchema("boolean", Schema.Type.BOOLEAN),
+        createPrimitiveFieldSchema("int", Schema.Type.INT),
+        createPrimitiveFieldSchema("long", Schema.Type.LONG),
+        createPrimitiveFieldSchema("float", Schema.Type.FLOAT),
+        createPrimitiveFieldSchema("double", Schema.Type.DOUBLE),
+        createPrimitiveFieldSchema("string", Schema.Type.STRING),
+        createPrimitiveFieldSchema("bytes", Schema.Type.BYTES),
+        createField("fixed", fixedSchema),
+        createField("enum", enumSchema),
+        createUnionFieldWithNull("nullableString", Schema.create(Schema.Type.STRING)),
+        createUnionField("nullableLong", Schema.create(Schema.Type.LONG), Schema.create(Schema.Type.NULL)));
+
+    FastDeserializer<ColumnarBatch> deserializer =
+        new FastColumnarDeserializerGenerator(recordSchema, recordSchema, tempDir, classLoader, null)
+            .generateDeserializer();
+
+    // when
+    // a small batch, so the columns have to grow
+    ColumnarBatch batch = new ColumnarBatch(recordSchema, 2);
+    GenericData.Record lastRecord = null;
+    for (int i = 0; i < 3; i++) {
+      GenericData.Record record = new GenericData.Record(recordSchema);
+      record.put("boolean", i % 2 == 0);
+      record.put("int", i);
+      record.put("long", 10L * i);
+      record.put("float", i + 0.5f);
+      record.put("double", i + 0.25);
+      record.put("string", "string" + i);
+      record.put("bytes", ByteBuffer.wrap(new byte[i]));
+      record.put("fixed", AvroCompatibilityHelper.newFixed(fixedSchema, new byte[]{(byte) i, 1}));
+      record.put("enum", AvroCompatibilityHelper.newEnumSymbol(enumSchema, enumSchema.getEnumSymbols().get(i)));
+      record.put("nullableString", i == 1 ? null : "nullable" + i);
+      record.put("nullableLong", i == 2 ? null : (long) i);
+      Assert.assertSame(deserializer.deserialize(batch, genericDataAsDecoder(record)), batch);
+      lastRecord = record;
+    }
+
+    // then
+    Assert.assertEquals(batch.size(), 3);
+    for (int i = 0; i < 3; i++) {
+      Assert.assertEquals(((ColumnarBatch.BooleanColumn) batch.getColumn("boolean")).get(i), i % 2 == 0);
+      Assert.assertEquals(((ColumnarBatch.IntColumn) batch.getColumn("int")).get(i), i);
+      Assert.assertEquals(((ColumnarBatch.LongColumn) batch.getColumn("long")).get(i), 10L * i);
+      Assert.assertEquals(((ColumnarBatch.FloatColumn) batch.getColumn("float")).get(i), i + 0.5f);
+      Assert.assertEquals(((ColumnarBatch.DoubleColumn) batch.getColumn("double")).get(i), i + 0.25);
+      Assert.assertEquals(((ColumnarBatch.BytesColumn) batch.getColumn("string")).getString(i), "string" + i);
+      Assert.assertEquals(((ColumnarBatch.BytesColumn) batch.getColumn("bytes")).getBytes(i),
+          ByteBuffer.wrap(new byte[i]));
+      Assert.assertEquals(((ColumnarBatch.BytesColumn) batch.getColumn("fixed")).getBytes(i),
+          ByteBuffer.wrap(new byte[]{(byte) i, 1}));
+      Assert.assertEquals(((ColumnarBatch.IntColumn) batch.getColumn("enum")).get(i), i);
+      Assert.assertFalse(batch.getColumn("string").isNull(i));
+    }
+    ColumnarBatch.BytesColumn nullableStrings = (ColumnarBatch.BytesColumn) batch.getColumn("nullableString");
+    Assert.assertTrue(nullableStrings.isNullable());
+    Assert.assertTrue(nullableStrings.isNull(1));
+    Assert.assertEquals(nullableStrings.getLength(1), 0);
+    Assert.assertEquals(nullableStrings.getString(2), "nullable2");
+    ColumnarBatch.LongColumn nullableLongs = (ColumnarBatch.LongColumn) batch.getColumn("nullableLong");
+    Assert.assertFalse(nullableLongs.isNull(1));
+    Assert.assertEquals(nullableLongs.get(1), 1L);
+    Assert.assertTrue(nullableLongs.isNull(2));
+    Assert.assertFalse(batch.getColumn("long").isNullable());
+
+    // a null batch is created by the deserializer
+    lastRecord.put("nullableString", null);
+    ColumnarBatch newBatch = deserializer.deserialize(null, genericDataAsDecoder(lastRecord));
+    Assert.assertEquals(newBatch.size(), 1);
+    Assert.assertTrue(newBatch.getColumn("nullableString").isNull(0));
+  }
+
+  @Test(groups = {"deserializationTest"})
+  public void shouldSkipPromoteAndDefaultFieldsIntoReusedBatch() throws IOException {
+    // given
+    Schema subRecordSchema = createRecord("subRecord", createPrimitiveFieldSchema("a", Schema.Type.INT));
+    Schema writerSchema = createRecord(
+        createPrimitiveFieldSchema("id", Schema.Type.INT),
+        createField("skippedRecord", subRecordSchema),
+        createArrayFieldSchema("skippedArray", Schema.create(Schema.Type.STRING)),
+        createPrimitiveFieldSchema("name", Schema.Type.STRING),
+        createMapFieldSchema("skippedMap", Schema.create(Schema.Type.LONG)),
+        createPrimitiveFieldSchema("skippedString", Schema.Type.STRING),
+        createUnionFieldWithNull("score", Schema.create(Schema.Type.FLOAT)));
+    Schema readerSchema = Schema.parse("{\"type\": \"record\", \"name\": \"test\", \"fields\":["
+        + "{\"name\": \"id\", \"type\": \"long\"},"
+        + "{\"name\": \"score\", \"type\": [\"null\", \"double\"]},"
+        + "{\"name\": \"name\", \"type\": \"bytes\"},"
+        + "{\"name\": \"version\", \"type\": \"int\", \"default\": 5},"
+        + "{\"name\": \"comment\", \"type\": [\"null\", \"string\"], \"default\": null}]}");
+
+    FastDeserializer<ColumnarBatch> deserializer =
+        new FastColumnarDeserializerGenerator(writerSchema, readerSchema, tempDir, classLoader, null)
+            .generateDeserializer();
+
+    GenericData.Record subRecord = new GenericData.Record(subRecordSchema);
+    subRecord.put("a", 1);
+    GenericData.Record record = new GenericData.Record(writerSchema);
+    record.put("id", 42);
+    record.put("skippedRecord", subRecord);
+    record.put("skippedArray", Arrays.asList("a", "b"));
+    record.put("name", "name");
+    record.put("skippedMap", Collections.singletonMap("key", 1L));
+    record.put("skippedString", "skipped");
+    record.put("score", null);
+
+    // when
+    ColumnarBatch batch = deserializer.deserialize(null, genericDataAsDecoder(record));
+    batch.clear();
+    record.put("id", 43);
+    record.put("score", 0.5f);
+    deserializer.deserialize(batch, genericDataAsDecoder(record));
+    record.put("score", null);
+    deserializer.deserialize(batch, genericDataAsDecoder(record));
+
+    // then
+    Assert.assertEquals(batch.size(), 2);
+    Assert.assertEquals(((ColumnarBatch.LongColumn) batch.getColumn("id")).get(0), 43L);
+    // nulls of cleared rows are cleared too
+    Assert.assertFalse(batch.getColumn("score").isNull(0));
+    Assert.assertEquals(((ColumnarBatch.DoubleColumn) batch.getColumn("score")).get(0), 0.5);
+    Assert.assertTrue(batch.getColumn("score").isNull(1));
+    Assert.assertEquals(((ColumnarBatch.BytesColumn) batch.getColumn("name")).getString(1), "name");
+    Assert.assertEquals(((ColumnarBatch.IntColumn) batch.getColumn("version")).get(1), 5);
+    Assert.assertTrue(batch.getColumn("comment").isNull(1));
+  }
+
+  @Test(groups = {"deserializationTest"})
+  public void shouldSplitColumnsOfWideRecordsByMethodSize() throws IOException {
+    // given
+    int n = 50;
+    Schema.Field[] fields = new Schema.Field[n];
+    for (int i = 0; i < n; i++) {
+      fields[i] = i % 2 == 0 ? createPrimitiveFieldSchema("F" + i, Schema.Type.INT)
+          : createUnionFieldWithNull("F" + i, Schema.create(Schema.Type.STRING));
+    }
+    Schema recordSchema = createRecord(fields);
+    GenericData.Record record = new GenericData.Record(recordSchema);
+    for (int i = 0; i < n; i++) {
+      record.put(i, i % 2 == 0 ? (Object) i : (i % 3 == 0 ? null : "string" + i));
+    }
+
+    FastColumnarDeserializerGenerator generator =
+        new FastColumnarDeserializerGenerator(recordSchema, recordSchema, tempDir, classLoader, null);
+    generator.setHugeMethodLimit(100);
+
+    // when
+    FastDeserializer<ColumnarBatch> deserializer = generator.generateDeserializer();
+    ColumnarBatch batch = deserializer.deserialize(null, genericDataAsDecoder(record));
+
+    // then
+    long columnsMethods = Arrays.stream(deserializer.getClass().getDeclaredMethods())
+        .filter(method -> method.getName().startsWith("deserializeColumns"))
+        .count();
+    Assert.assertTrue(columnsMethods > 1, "columns methods: " + columnsMethods);
+    for (int i = 0; i < n; i += 2) {
+      Assert.assertEquals(((ColumnarBatch.IntColumn) batch.getColumn("F" + i)).get(0), i);
+    }
+    for (int i = 1; i < n; i += 2) {
+      ColumnarBatch.BytesColumn column = (ColumnarBatch.BytesColumn) batch.getColumn("F" + i);
+      if (i % 3 == 0) {
+        Assert.assertTrue(column.isNull(0));
+      } else {
+        Assert.assertEquals(column.getString(0), "string" + i);
+      }
+    }
+  }
+
+  @Test(groups = {"deserializationTest"})
+  public void shouldRejectFieldsWhichCantBeStoredInColumns() {
+    Schema subRecordSchema = createRecord("subRecord", createPrimitiveFieldSchema("a", Schema.Type.INT));
+    Schema nestedSchema = createRecord(createField("subRecord", subRecordSchema));
+    Schema unionSchema = createRecord(
+        createUnionField("union", Schema.create(Schema.Type.INT), Schema.create(Schema.Type.STRING)));
+    Schema nullableSchema = createRecord(createUnionFieldWithNull("value", Schema.create(Schema.Type.INT)));
+    Schema notNullableSchema = createRecord(createPrimitiveFieldSchema("value", Schema.Type.INT));
+
+    Assert.assertThrows(FastDeserializerGeneratorException.class,
+        () -> new FastColumnarDeserializerGenerator(nestedSchema, nestedSchema, tempDir, classLoader, null)
+            .generateDeserializer());
+    Assert.assertThrows(FastDeserializerGeneratorException.class,
+        () -> new FastColumnarDeserializerGenerator(unionSchema, unionSchema, tempDir, classLoader, null)
+            .generateDeserializer());
+    Assert.assertThrows(FastDeserializerGeneratorException.class,
+        () -> new FastColumnarDeserializerGenerator(nullableSchema, notNullableSchema, tempDir, classLoader, null)
+            .generateDeserializer());
+    Assert.assertThrows(SchemaAssistantException.class, () -> new ColumnarBatch(nestedSchema));
+  }
+}
@@ -1,10 +1,18 @@
 package com.linkedin.avro.fastserde;
 
+import com.linkedin.avro.fastserde.primitive.PrimitiveFloatHashMap;
+import com.linkedin.avro.fastserde.primitive.PrimitiveIntHashMap;
+import com.linkedin.avro.fastserde.primitive.PrimitiveLongHashMap;
 import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -18,6 +26,7 @@ import org.apache.avro.io.DatumWriter;
 import org.apache.avro.io.Decoder;
 import org.apache.avro.io.DecoderFactory;
 import org.apache.avro.io.Encoder;
+import org.apache.avro.util.Utf8;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -245,4 +254,122 @@ public class FastDeserializerGeneratorForReuseTest {
     Assert.assertEquals(genericRecord.get("int_field"), Integer.valueOf(11));
     Assert.assertNull(genericRecord.get("nullable_string_field"));
   }
+
+  @Test(groups = {"deserializationTest"})
+  public void testFastGenericDeserializerReusesEmptyMaps() throws Exception {
+    Schema schema = Schema.parse("{\"type\": \"record\", \"name\": \"EmptyMapRecord\", \"fields\": ["
+        + "{\"name\": \"mapField\", \"type\": {\"type\": \"map\", \"values\": \"string\"}},"
+        + "{\"name\": \"longMapField\", \"type\": {\"type\": \"map\", \"values\": \"long\"}}]}");
+    FastDeserializer<GenericRecord> deserializer = (FastDeserializer<GenericRecord>) FastSerdeCache.getDefaultInstance()
+        .buildFastGenericDeserializer(schema, schema);
+    GenericRecord record = new GenericData.Record(schema);
+    record.put("mapField", new HashMap<>());
+    record.put("longMapField", new HashMap<>());
+    GenericRecord reuseRecord = new GenericData.Record(schema);
+    Map<Utf8, Utf8> reusedMap = new HashMap<>();
+    reusedMap.put(new Utf8("stale"), new Utf8("value"));
+    reuseRecord.put("mapField", reusedMap);
+    PrimitiveLongHashMap reusedLongMap = new PrimitiveLongHashMap();
+    reusedLongMap.putPrimitive(new Utf8("stale"), 1L);
+    reuseRecord.put("longMapField", reusedLongMap);
+
+    GenericRecord deserializedRecord = deserializer.deserialize(reuseRecord, getDecoder(serialize(record, schema)));
+
+    Assert.assertSame(deserializedRecord.get("mapField"), reusedMap);
+    Assert.assertTrue(reusedMap.isEmpty());
+    Assert.assertSame(deserializedRecord.get("longMapField"), reusedLongMap);
+    Assert.assertTrue(reusedLongMap.isEmpty());
+  }
+
+  @Test(groups = {"deserializationTest"})
+  public void testFastGenericDeserializerReusesPrimitiveMaps() throws Exception {
+    Schema schema = Schema.parse("{\"type\": \"record\", \"name\": \"PrimitiveMapRecord\", \"fields\": ["
+        + "{\"name\": \"floats\", \"type\": {\"type\": \"map\", \"values\": \"float\"}},"
+        + "{\"name\": \"nested\", \"type\": {\"type\": \"array\", \"items\": {\"type\": \"map\", \"values\": \"int\"}}}]}");
+    FastDeserializer<GenericRecord> deserializer = (FastDeserializer<GenericRecord>) FastSerdeCache.getDefaultInstance()
+        .buildFastGenericDeserializer(schema, schema);
+    GenericRecord record = new GenericData.Record(schema);
+    Map<String, Float> floats = new HashMap<>();
+    floats.put("a", 1.5f);
+    floats.put("b", -2f);
+    record.put("floats", floats);
+    record.put("nested", Collections.singletonList(Collections.singletonMap("c", 3)));
+
+    GenericRecord first = deserializer.deserialize(getDecoder(serialize(record, schema)));
+    PrimitiveFloatHashMap firstFloats = (PrimitiveFloatHashMap) first.get("floats");
+    Assert.assertEquals(firstFloats.getPrimitive(new Utf8("a"), 0f), 1.5f);
+    Assert.assertEquals(firstFloats.get(new Utf8("b")), -2f);
+    PrimitiveIntHashMap firstNested = (PrimitiveIntHashMap) ((List<?>) first.get("nested")).get(0);
+    Assert.assertEquals(firstNested.getPrimitive(new Utf8("c"), 0), 3);
+
+    floats.remove("a");
+    GenericRecord second = deserializer.deserialize(first, getDecoder(serialize(record, schema)));
+
+    Assert.assertSame(second.get("floats"), firstFloats);
+    Assert.assertEquals(firstFloats.size(), 1);
+    Assert.assertFalse(firstFloats.containsKey(new Utf8("a")));
+    Assert.assertEquals(firstFloats.getPrimitive(new Utf8("b"), 0f), -2f);
+  }
+
+  @Test(groups = {"deserializationTest"})
+  public void testFastGenericDeserializerRefillsUtf8HashMaps() throws Exception {
+    Schema schema = Schema.parse("{\"type\": \"record\", \"name\": \"FeatureRecord\", \"fields\": ["
+        + "{\"name\": \"features\", \"type\": {\"type\": \"map\", \"values\": {\"type\": \"record\", "
+        + "\"name\": \"Feature\", \"fields\": [{\"name\": \"weight\", \"type\": \"double\"}, "
+        + "{\"name\": \"tag\", \"type\": \"string\"}]}}},"
+        + "{\"name\": \"names\", \"type\": {\"type\": \"map\", \"values\": \"string\"}},"
+        + "{\"name\": \"counts\", \"type\": {\"type\": \"map\", \"values\": {\"type\": \"map\", \"values\": \"long\"}}}]}");
+    Schema featureSchema = schema.getField("features").schema().getValueType();
+    File tempDir = Files.createTempDirectory("utf8-hash-maps").toFile();
+    ClassLoader classLoader = URLClassLoader.newInstance(new URL[]{tempDir.toURI().toURL()},
+        FastDeserializerGeneratorForReuseTest.class.getClassLoader());
+    FastGenericDeserializerGenerator<GenericRecord> generator =
+        new FastGenericDeserializerGenerator<>(schema, schema, tempDir, classLoader, null);
+    generator.setUseUtf8HashMaps(true);
+    FastDeserializer<GenericRecord> deserializer = generator.generateDeserializer();
+    byte[] firstBytes = serialize(newFeatureRecord(schema, featureSchema, "a", "b", "c"), schema);
+    byte[] secondBytes = serialize(newFeatureRecord(schema, featureSchema, "b", "c", "d"), schema);
+
+    // when
+    GenericRecord first = deserializer.deserialize(getDecoder(firstBytes));
+    Map<CharSequence, GenericRecord> firstFeatures = new HashMap<>((Map<CharSequence, GenericRecord>) first.get("features"));
+    Map<CharSequence, CharSequence> firstKeys = new HashMap<>();
+    ((Map<CharSequence, GenericRecord>) first.get("features")).keySet().forEach(key -> firstKeys.put(key, key));
+    Object features = first.get("features");
+    Object counts = first.get("counts");
+    GenericRecord second = deserializer.deserialize(first, getDecoder(secondBytes));
+
+    // then
+    Assert.assertTrue(features instanceof Utf8HashMap);
+    Assert.assertSame(second.get("features"), features);
+    Assert.assertSame(second.get("counts"), counts);
+    Map<CharSequence, GenericRecord> secondFeatures = (Map<CharSequence, GenericRecord>) second.get("features");
+    for (Map.Entry<CharSequence, GenericRecord> entry : secondFeatures.entrySet()) {
+      if (firstKeys.containsKey(entry.getKey())) {
+        Assert.assertSame(entry.getKey(), firstKeys.get(entry.getKey()));
+        Assert.assertSame(entry.getValue(), firstFeatures.get(entry.getKey()));
+      }
+    }
+    Assert.assertFalse(secondFeatures.containsKey(new Utf8("a")));
+    Assert.assertEquals(second, new GenericDatumReader<GenericRecord>(schema).read(null, getDecoder(secondBytes)));
+  }
+
+  private static GenericRecord newFeatureRecord(Schema schema, Schema featureSchema, String... keys) {
+    Map<Utf8, GenericRecord> features = new HashMap<>();
+    Map<Utf8, Utf8> names = new HashMap<>();
+    Map<Utf8, Map<Utf8, Long>> counts = new HashMap<>();
+    for (String key : keys) {
+      GenericRecord feature = new GenericData.Record(featureSchema);
+      feature.put("weight", key.hashCode() / 10.0);
+      feature.put("tag", new Utf8("tag_" + key));
+      features.put(new Utf8(key), feature);
+      names.put(new Utf8(key), new Utf8("name_" + key));
+      counts.put(new Utf8(key), Collections.singletonMap(new Utf8(key + key), (long) key.hashCode()));
+    }
+    GenericRecord record = new GenericData.Record(schema);
+    record.put("features", features);
+    record.put("names", names);
+    record.put("counts", counts);
+    return record;
+  }
 }
@@ -2,11 +2,16 @@ package com.linkedin.avro.fastserde;
 
 import com.linkedin.avro.api.PrimitiveBooleanList;
 import com.linkedin.avro.api.PrimitiveDoubleList;
+import com.linkedin.avro.api.PrimitiveDoubleMap;
 import com.linkedin.avro.api.PrimitiveFloatList;
+import com.linkedin.avro.api.PrimitiveFloatMap;
 import com.linkedin.avro.api.PrimitiveIntList;
+import com.linkedin.avro.api.PrimitiveIntMap;
 import com.linkedin.avro.api.PrimitiveLongList;
+import com.linkedin.avro.api.PrimitiveLongMap;
 import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
 import com.linkedin.avroutil1.compatibility.AvroVersion;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Method;
@@ -19,6 +24,11 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import org.apache.avro.AvroRuntimeException;
 import org.apache.avro.AvroTypeException;
@@ -26,6 +36,8 @@ import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericDatumReader;
 import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
 import org.apache.avro.io.Decoder;
 import org.apache.avro.util.Utf8;
 import org.testng.Assert;
@@ -39,14 +51,18 @@ import static com.linkedin.avro.fastserde.FastSerdeTestsSupport.*;
 
 
 public class FastGenericDeserializerGeneratorTest {
+  private static final int SPLIT_HUGE_METHOD_LIMIT = 100;
 
   private static File tempDir;
   private static ClassLoader classLoader;
+  private static InMemoryClassLoader inMemoryClassLoader;
 
   enum Implementation {
     VANILLA_AVRO(false, FastGenericDeserializerGeneratorTest::decodeRecordSlow),
     COLD_FAST_AVRO(true, FastGenericDeserializerGeneratorTest::decodeRecordColdFast),
-    WARM_FAST_AVRO(true, FastGenericDeserializerGeneratorTest::decodeRecordWarmFast);
+    WARM_FAST_AVRO(true, FastGenericDeserializerGeneratorTest::decodeRecordWarmFast),
+    IN_MEMORY_WARM_FAST_AVRO(true, FastGenericDeserializerGeneratorTest::decodeRecordInMemoryWarmFast),
+    INTERPRETED_FAST_AVRO(true, FastGenericDeserializerGeneratorTest::decodeRecordInterpretedFast);
 
     boolean isFast;
     DecodeFunction decodeFunction;
@@ -70,7 +86,9 @@ public class FastGenericDeserializerGeneratorTest {
     return new Object[][]{
         {Implementation.VANILLA_AVRO},
         {Implementation.COLD_FAST_AVRO},
-        {Implementation.WARM_FAST_AVRO}
+        {Implementation.WARM_FAST_AVRO},
+        {Implementation.IN_MEMORY_WARM_FAST_AVRO},
+        {Implementation.INTERPRETED_FAST_AVRO}
     };
   }
 
@@ -89,9 +107,7 @@ public class FastGenericDeserializerGeneratorTest {
 
     classLoader = URLClassLoader.newInstance(new URL[]{tempDir.toURI().toURL()},
         FastGenericDeserializerGeneratorTest.class.getClassLoader());
-
-    // In order to test the functionallity of the record split we set an unusually low number
-    FastGenericDeserializerGenerator.setFieldsPerPopulationMethod(2);
+    inMemoryClassLoader = new InMemoryClassLoader(FastGenericDeserializerGeneratorTest.class.getClassLoader());
   }
 
   @Test(groups = {"deserializationTest"}, dataProvider = "Implementation")
@@ -352,6 +368,45 @@ public class FastGenericDeserializerGeneratorTest {
     GenericRecord record = implementation.decode(recordSchema, recordSchema1, genericDataAsDecoder(originalRecord));
   }
 
+  @Test(groups = {"deserializationTest"}, dataProvider = "Implementation")
+  public void shouldRemapEveryEnumSymbol(Implementation implementation) throws IOException {
+    // given
+    Schema writerEnumSchema = createEnumSchema("testEnum", new String[]{"A", "B", "C", "D"});
+    Schema readerEnumSchema = createEnumSchema("testEnum", new String[]{"D", "C", "A"});
+    Schema writerSchema = createRecord("testRecord", createArrayFieldSchema("testEnumArray", writerEnumSchema));
+    Schema readerSchema = createRecord("testRecord", createArrayFieldSchema("testEnumArray", readerEnumSchema));
+
+    GenericRecord originalRecord = new GenericData.Record(writerSchema);
+    originalRecord.put("testEnumArray", Arrays.asList(AvroCompatibilityHelper.newEnumSymbol(writerEnumSchema, "D"),
+        AvroCompatibilityHelper.newEnumSymbol(writerEnumSchema, "A"),
+        AvroCompatibilityHelper.newEnumSymbol(writerEnumSchema, "C")));
+
+    // when
+    GenericRecord record = implementation.decode(writerSchema, readerSchema, genericDataAsDecoder(originalRecord));
+
+    // then
+    List<?> enums = (List<?>) record.get("testEnumArray");
+    Assert.assertEquals(enums.size(), 3);
+    Assert.assertEquals(enums.get(0).toString(), "D");
+    Assert.assertEquals(enums.get(1).toString(), "A");
+    Assert.assertEquals(enums.get(2).toString(), "C");
+
+    // B is unknown to the reader schema, which has no default
+    AvroTypeException unknownSymbolException = Assert.expectThrows(AvroTypeException.class,
+        () -> implementation.decode(writerEnumSchema, readerEnumSchema,
+            genericDataAsDecoder(AvroCompatibilityHelper.newEnumSymbol(writerEnumSchema, "B"), writerEnumSchema)));
+    Assert.assertTrue(unknownSymbolException.getMessage().contains("No match for B"),
+        unknownSymbolException.getMessage());
+
+    // index out of the bounds of the writer schema
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = AvroCompatibilityHelper.newBinaryEncoder(out, true, null);
+    encoder.writeEnum(4);
+    encoder.flush();
+    Assert.assertThrows(RuntimeException.class, () -> implementation.decode(writerEnumSchema, readerEnumSchema,
+        AvroCompatibilityHelper.newBinaryDecoder(out.toByteArray())));
+  }
+
   @Test(groups = {"deserializationTest"}, dataProvider = "Implementation")
   public void shouldReadSubRecordField(Implementation implementation) {
     // given
@@ -1119,6 +1174,80 @@ public class FastGenericDeserializerGeneratorTest {
     }
   }
 
+  @Test(groups = {"deserializationTest"}, dataProvider = "Implementation")
+  public void shouldReadMapOfDouble(Implementation implementation) {
+    // given
+    Map<String, Double> data = new HashMap<>();
+    data.put("1", 1.0D);
+    data.put("2", 2.0D);
+
+    // then
+    shouldReadMapOfPrimitives(implementation, Schema.Type.DOUBLE, PrimitiveDoubleMap.class, double.class, data);
+  }
+
+  @Test(groups = {"deserializationTest"}, dataProvider = "Implementation")
+  public void shouldReadMapOfFloats(Implementation implementation) {
+    // given
+    Map<String, Float> data = new HashMap<>();
+    data.put("1", 1.0F);
+    data.put("2", 2.0F);
+
+    // then
+    shouldReadMapOfPrimitives(implementation, Schema.Type.FLOAT, PrimitiveFloatMap.class, float.class, data);
+  }
+
+  @Test(groups = {"deserializationTest"}, dataProvider = "Implementation")
+  public void shouldReadMapOfInts(Implementation implementation) {
+    // given
+    Map<String, Integer> data = new HashMap<>();
+    data.put("1", 1);
+    data.put("2", 2);
+
+    // then
+    shouldReadMapOfPrimitives(implementation, Schema.Type.INT, PrimitiveIntMap.class, int.class, data);
+  }
+
+  @Test(groups = {"deserializationTest"}, dataProvider = "Implementation")
+  public void shouldReadMapOfLongs(Implementation implementation) {
+    // given
+    Map<String, Long> data = new HashMap<>();
+    data.put("1", 1L);
+    data.put("2", 2L);
+
+    // then
+    shouldReadMapOfPrimitives(implementation, Schema.Type.LONG, PrimitiveLongMap.class, long.class, data);
+  }
+
+  private <V, M> void shouldReadMapOfPrimitives(Implementation implementation, Schema.Type valueType,
+      Class<M> expectedMapClass, Class<?> primitiveClass, Map<String, V> data) {
+    // given
+    Schema mapSchema = Schema.createMap(Schema.create(valueType));
+
+    // when
+    Map<CharSequence, V> map = implementation.decode(mapSchema, mapSchema, genericDataAsDecoder(data, mapSchema));
+
+    // then
+    Assert.assertEquals(map.size(), data.size());
+    for (Map.Entry<String, V> entry : data.entrySet()) {
+      Assert.assertEquals(map.get(new Utf8(entry.getKey())), entry.getValue());
+    }
+
+    if (implementation.isFast) {
+      // The extended API should always be available, regardless of whether warm or cold
+      Assert.assertTrue(expectedMapClass.isInstance(map),
+          "The returned type should implement " + expectedMapClass.getSimpleName());
+
+      try {
+        Method getPrimitiveMethod = expectedMapClass.getMethod("getPrimitive", CharSequence.class, primitiveClass);
+        for (Map.Entry<String, V> entry : data.entrySet()) {
+          Assert.assertEquals(getPrimitiveMethod.invoke(map, new Utf8(entry.getKey()), 0), entry.getValue());
+        }
+      } catch (Exception e) {
+        Assert.fail("Failed to access the getPrimitive function!");
+      }
+    }
+  }
+
   @Test(groups = {"deserializationTest"}, dataProvider = "Implementation")
   public void shouldReadMapOfRecords(Implementation implementation) {
     // given
@@ -1590,6 +1719,385 @@ public class FastGenericDeserializerGeneratorTest {
     Assert.assertEquals(((Map<Utf8,Integer>) recordB.get("someInts")).get(new Utf8("3")), Integer.valueOf(3));
   }
 
+  @Test(groups = {"deserializationTest"}, dataProvider = "Implementation")
+  public void shouldReadProjectedFields(Implementation implementation) {
+    // given
+    Schema headerSchema = createRecord("header", createPrimitiveFieldSchema("id", Schema.Type.LONG),
+        createPrimitiveFieldSchema("name", Schema.Type.STRING));
+    Schema eventSchema = createRecord("event", createPrimitiveFieldSchema("type", Schema.Type.STRING),
+        createPrimitiveFieldSchema("timestamp", Schema.Type.LONG));
+    Schema optionalSchema = createRecord("optional", createPrimitiveFieldSchema("a", Schema.Type.INT),
+        createPrimitiveFieldSchema("b", Schema.Type.STRING));
+    Schema recordSchema = createRecord(
+        createField("header", headerSchema),
+        createPrimitiveFieldSchema("payload", Schema.Type.STRING),
+        createArrayFieldSchema("events", eventSchema),
+        createMapFieldSchema("tags", Schema.create(Schema.Type.STRING)),
+        createUnionFieldWithNull("optional", optionalSchema),
+        createPrimitiveFieldSchema("count", Schema.Type.INT));
+
+    GenericData.Record header = new GenericData.Record(headerSchema);
+    header.put("id", 42L);
+    header.put("name", "header");
+    GenericData.Record event = new GenericData.Record(eventSchema);
+    event.put("type", "click");
+    event.put("timestamp", 1L);
+    GenericData.Record optional = new GenericData.Record(optionalSchema);
+    optional.put("a", 1);
+    optional.put("b", "b");
+    GenericData.Record record = new GenericData.Record(recordSchema);
+    record.put("header", header);
+    record.put("payload", "payload");
+    record.put("events", Arrays.asList(event, event));
+    record.put("tags", Collections.singletonMap("tag", "value"));
+    record.put("optional", optional);
+    record.put("count", 7);
+
+    SchemaProjection projection =
+        SchemaProjection.of(recordSchema, Arrays.asList("header.id", "events.type", "optional.b", "count"));
+
+    // when
+    GenericRecord projectedRecord =
+        implementation.decode(recordSchema, projection.getProjectedSchema(), genericDataAsDecoder(record));
+
+    // then
+    Assert.assertEquals(projectedRecord.getSchema().getFields().size(), 4);
+    Assert.assertNull(projectedRecord.getSchema().getField("payload"));
+    Assert.assertNull(projectedRecord.getSchema().getField("tags"));
+    GenericRecord projectedHeader = (GenericRecord) projectedRecord.get("header");
+    Assert.assertEquals(projectedHeader.getSchema().getFields().size(), 1);
+    Assert.assertEquals(projectedHeader.get("id"), 42L);
+    List<GenericRecord> projectedEvents = (List<GenericRecord>) projectedRecord.get("events");
+    Assert.assertEquals(projectedEvents.size(), 2);
+    Assert.assertEquals(projectedEvents.get(1).getSchema().getFields().size(), 1);
+    Assert.assertEquals(projectedEvents.get(1).get("type"), new Utf8("click"));
+    GenericRecord projectedOptional = (GenericRecord) projectedRecord.get("optional");
+    Assert.assertEquals(projectedOptional.getSchema().getFields().size(), 1);
+    Assert.assertEquals(projectedOptional.get("b"), new Utf8("b"));
+    Assert.assertEquals(projectedRecord.get("count"), 7);
+  }
+
+  @Test(groups = {"deserializationTest"})
+  public void shouldProjectWholeRecordsAndRejectUnknownFields() {
+    // given
+    Schema subRecordSchema = createRecord("subRecord", createPrimitiveFieldSchema("a", Schema.Type.INT),
+        createPrimitiveFieldSchema("b", Schema.Type.STRING));
+    Schema recordSchema = createRecord(
+        createField("subRecord", subRecordSchema),
+        createArrayFieldSchema("subRecords", subRecordSchema),
+        createPrimitiveFieldSchema("c", Schema.Type.INT));
+
+    // when
+    Schema projectedSchema = SchemaProjection.of(recordSchema, Arrays.asList("subRecord", "subRecords.a")).getProjectedSchema();
+
+    // then
+    // a record selected as a whole is kept unchanged, wherever it's used
+    Assert.assertSame(projectedSchema.getField("subRecord").schema(), subRecordSchema);
+    Assert.assertSame(projectedSchema.getField("subRecords").schema().getElementType(), subRecordSchema);
+    Assert.assertNull(projectedSchema.getField("c"));
+
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> SchemaProjection.of(recordSchema, Collections.singletonList("subRecord.d")));
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> SchemaProjection.of(recordSchema, Collections.singletonList("c.a")));
+  }
+
+  @Test(groups = {"deserializationTest"})
+  public void shouldDecodeLazyRecordFieldsOnFirstAccess() throws IOException {
+    // given
+    Schema subRecordSchema = createRecord("subRecord", createPrimitiveFieldSchema("a", Schema.Type.INT),
+        createPrimitiveFieldSchema("b", Schema.Type.STRING));
+    Schema enumSchema = createEnumSchema("testEnum", new String[]{"A", "B"});
+    Schema fixedSchema = createFixedSchema("testFixed", 2);
+    Schema recordSchema = createRecord(
+        createPrimitiveFieldSchema("id", Schema.Type.LONG),
+        createField("subRecord", subRecordSchema),
+        createArrayFieldSchema("subRecords", subRecordSchema),
+        createMapFieldSchema("tags", Schema.create(Schema.Type.STRING)),
+        createUnionFieldWithNull("optional", Schema.create(Schema.Type.STRING)),
+        createField("testEnum", enumSchema),
+        createField("testFixed", fixedSchema),
+        createPrimitiveFieldSchema("bytes", Schema.Type.BYTES),
+        createPrimitiveFieldSchema("count", Schema.Type.INT));
+
+    GenericData.Record subRecord = new GenericData.Record(subRecordSchema);
+    subRecord.put("a", 1);
+    subRecord.put("b", "b");
+    GenericData.Record first = new GenericData.Record(recordSchema);
+    first.put("id", 1L);
+    first.put("subRecord", subRecord);
+    first.put("subRecords", Arrays.asList(subRecord, subRecord));
+    first.put("tags", Collections.singletonMap("tag", "value"));
+    first.put("optional", "optional");
+    first.put("testEnum", AvroCompatibilityHelper.newEnumSymbol(enumSchema, "B"));
+    first.put("testFixed", AvroCompatibilityHelper.newFixed(fixedSchema, new byte[]{1, 2}));
+    first.put("bytes", ByteBuffer.wrap(new byte[]{3, 4, 5}));
+    first.put("count", 7);
+    GenericData.Record second = new GenericData.Record(recordSchema);
+    for (Schema.Field field : recordSchema.getFields()) {
+      second.put(field.pos(), first.get(field.pos()));
+    }
+    second.put("id", 2L);
+    second.put("optional", null);
+
+    // both records in a single buffer, not starting at its first byte
+    byte[] firstBytes = genericDataAsBytes(first, recordSchema);
+    byte[] secondBytes = genericDataAsBytes(second, recordSchema);
+    ByteBuffer buffer = ByteBuffer.allocate(3 + firstBytes.length + secondBytes.length);
+    buffer.position(3);
+    buffer.put(firstBytes).put(secondBytes);
+    buffer.position(3);
+
+    FastDeserializer<GenericRecord> deserializer =
+        new FastGenericDeserializerGenerator<GenericRecord>(recordSchema, recordSchema, tempDir, classLoader, null,
+            true).generateDeserializer();
+
+    // when
+    BinaryDecoder decoder = AvroCompatibilityHelper.newBinaryDecoder(buffer);
+    GenericRecord firstRecord = deserializer.deserialize(null, decoder);
+    GenericRecord secondRecord = deserializer.deserialize(null, decoder);
+
+    // then
+    Assert.assertTrue(firstRecord instanceof LazyRecord);
+    Assert.assertTrue(decoder.isEnd());
+    GenericRecord firstEagerRecord = deserializer.deserialize(null, genericDataAsDecoder(first));
+    GenericRecord secondEagerRecord = deserializer.deserialize(null, genericDataAsDecoder(second));
+    Assert.assertFalse(firstEagerRecord instanceof LazyRecord);
+    // fields decoded out of order
+    for (int i = recordSchema.getFields().size() - 1; i >= 0; i--) {
+      Assert.assertEquals(firstRecord.get(i), firstEagerRecord.get(i));
+      Assert.assertEquals(secondRecord.get(i), secondEagerRecord.get(i));
+    }
+    Assert.assertEquals(secondRecord.get("id"), 2L);
+    Assert.assertNull(secondRecord.get("optional"));
+    Assert.assertSame(firstRecord.get("subRecord"), firstRecord.get("subRecord"));
+    Assert.assertEquals(firstRecord.toString(), firstEagerRecord.toString());
+
+    // a put field is no longer decoded
+    firstRecord.put("count", 8);
+    Assert.assertEquals(firstRecord.get("count"), 8);
+    Assert.assertTrue(((LazyRecord) firstRecord).isModified());
+
+    // reused lazy records are reset
+    GenericRecord reusedRecord =
+        deserializer.deserialize(firstRecord, AvroCompatibilityHelper.newBinaryDecoder(ByteBuffer.wrap(secondBytes)));
+    Assert.assertSame(reusedRecord, firstRecord);
+    Assert.assertFalse(((LazyRecord) reusedRecord).isModified());
+    Assert.assertEquals(reusedRecord.get("id"), 2L);
+    Assert.assertEquals(reusedRecord.get("count"), 7);
+  }
+
+  @Test(groups = {"deserializationTest"})
+  public void shouldDecodeLazyRecordFieldsConcurrently() throws Exception {
+    // given
+    int fieldCount = 32;
+    Schema.Field[] fields = new Schema.Field[fieldCount];
+    for (int i = 0; i < fieldCount; i++) {
+      fields[i] = createPrimitiveFieldSchema("field" + i, Schema.Type.STRING);
+    }
+    Schema recordSchema = createRecord(fields);
+    GenericData.Record record = new GenericData.Record(recordSchema);
+    for (int i = 0; i < fieldCount; i++) {
+      // values of different lengths, so a field decoded from the slice of another one is noticed
+      StringBuilder value = new StringBuilder();
+      for (int j = 0; j <= i * 16; j++) {
+        value.append((char) ('a' + i % 26));
+      }
+      record.put(i, value.toString());
+    }
+    byte[] bytes = genericDataAsBytes(record, recordSchema);
+
+    FastDeserializer<GenericRecord> deserializer =
+        new FastGenericDeserializerGenerator<GenericRecord>(recordSchema, recordSchema, tempDir, classLoader, null,
+            true).generateDeserializer();
+    int threadCount = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+
+    // when
+    try {
+      for (int iteration = 0; iteration < 1000; iteration++) {
+        GenericRecord lazyRecord =
+            deserializer.deserialize(null, AvroCompatibilityHelper.newBinaryDecoder(ByteBuffer.wrap(bytes)));
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+          int offset = t * fieldCount / threadCount;
+          futures.add(executor.submit(() -> {
+            start.await();
+            // every thread starts with different fields, so the first accesses overlap
+            for (int i = 0; i < fieldCount; i++) {
+              int index = (offset + i) % fieldCount;
+              Assert.assertEquals(lazyRecord.get(index).toString(), record.get(index));
+            }
+            return null;
+          }));
+        }
+        start.countDown();
+
+        // then
+        for (Future<?> future : futures) {
+          future.get(30, TimeUnit.SECONDS);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test(groups = {"deserializationTest"})
+  public void shouldDeserializeBatchIntoReusedRecords() throws IOException {
+    // given
+    Schema subRecordSchema = createRecord("subRecord", createPrimitiveFieldSchema("a", Schema.Type.INT));
+    Schema recordSchema = createRecord(
+        createPrimitiveFieldSchema("id", Schema.Type.LONG),
+        createField("subRecord", subRecordSchema),
+        createArrayFieldSchema("values", Schema.create(Schema.Type.STRING)));
+
+    byte[][] buffers = new byte[3][];
+    int[] offsets = new int[3];
+    int[] lengths = new int[3];
+    ByteArrayOutputStream contiguousRecords = new ByteArrayOutputStream();
+    for (int i = 0; i < 3; i++) {
+      GenericData.Record subRecord = new GenericData.Record(subRecordSchema);
+      subRecord.put("a", i);
+      GenericData.Record record = new GenericData.Record(recordSchema);
+      record.put("id", (long) i);
+      record.put("subRecord", subRecord);
+      record.put("values", Collections.nCopies(i, "value"));
+      byte[] bytes = genericDataAsBytes(record, recordSchema);
+      // the first two records share an array, the last one has its own
+      if (i < 2) {
+        offsets[i] = contiguousRecords.size();
+        contiguousRecords.write(bytes);
+      } else {
+        buffers[i] = bytes;
+      }
+      lengths[i] = bytes.length;
+    }
+    buffers[0] = contiguousRecords.toByteArray();
+    buffers[1] = buffers[0];
+
+    FastDeserializer<GenericRecord> deserializer =
+        new FastGenericDeserializerGenerator<GenericRecord>(recordSchema, recordSchema, tempDir, classLoader,
+            null).generateDeserializer();
+    Assert.assertTrue(deserializer instanceof FastBatchDeserializer);
+    FastBatchDeserializer<GenericRecord> batchDeserializer = FastBatchDeserializer.of(deserializer);
+    // any other deserializer runs the default batch loop
+    FastDeserializer<GenericRecord> vanillaDeserializer =
+        new FastSerdeCache.FastDeserializerWithAvroGenericImpl<GenericRecord>(recordSchema, recordSchema)::deserialize;
+    FastBatchDeserializer<GenericRecord> vanillaBatchDeserializer = FastBatchDeserializer.of(vanillaDeserializer);
+
+    // when
+    GenericRecord[] results = new GenericRecord[4];
+    batchDeserializer.deserializeBatch(results, buffers, offsets, lengths, 3);
+    GenericRecord firstRecord = results[0];
+    GenericRecord firstSubRecord = (GenericRecord) firstRecord.get("subRecord");
+    // only the first two records are deserialized again, reusing the previous ones
+    lengths[0] = lengths[1];
+    offsets[0] = offsets[1];
+    batchDeserializer.deserializeBatch(results, buffers, offsets, lengths, 2);
+    GenericRecord[] vanillaResults = new GenericRecord[3];
+    vanillaBatchDeserializer.deserializeBatch(vanillaResults, buffers, offsets, lengths, 3);
+
+    // then
+    Assert.assertNull(results[3]);
+    Assert.assertSame(results[0], firstRecord);
+    Assert.assertSame(results[0].get("subRecord"), firstSubRecord);
+    for (int i = 0; i < 3; i++) {
+      Assert.assertEquals(results[i], vanillaResults[i]);
+    }
+    Assert.assertEquals(results[0].get("id"), 1L);
+    Assert.assertEquals(((GenericRecord) results[0].get("subRecord")).get("a"), 1);
+    Assert.assertEquals(results[2].get("id"), 2L);
+    Assert.assertEquals(((List<?>) results[2].get("values")).size(), 2);
+  }
+
+  @Test(groups = {"deserializationTest"}, dataProvider = "Implementation")
+  public void shouldReadTopLevelPrimitivesEnumsAndFixed(Implementation implementation) {
+    // given
+    Schema enumSchema = createEnumSchema("testEnum", new String[]{"A", "B"});
+    Schema fixedSchema = createFixedSchema("testFixed", 2);
+    Map<Schema, Object> values = new HashMap<>();
+    values.put(Schema.create(Schema.Type.STRING), new Utf8("key"));
+    values.put(Schema.create(Schema.Type.BYTES), ByteBuffer.wrap(new byte[]{1, 2}));
+    values.put(Schema.create(Schema.Type.INT), 1);
+    values.put(Schema.create(Schema.Type.LONG), Long.MAX_VALUE);
+    values.put(Schema.create(Schema.Type.FLOAT), 1.5f);
+    values.put(Schema.create(Schema.Type.DOUBLE), 2.5);
+    values.put(Schema.create(Schema.Type.BOOLEAN), true);
+    values.put(enumSchema, AvroCompatibilityHelper.newEnumSymbol(enumSchema, "B"));
+    values.put(fixedSchema, newFixed(fixedSchema, new byte[]{0x01, 0x02}));
+
+    for (Map.Entry<Schema, Object> entry : values.entrySet()) {
+      // when
+      Object value = implementation.decode(entry.getKey(), entry.getKey(),
+          genericDataAsDecoder(entry.getValue(), entry.getKey()));
+
+      // then
+      Assert.assertEquals(value, entry.getValue());
+    }
+    Schema nullSchema = Schema.create(Schema.Type.NULL);
+    Assert.assertNull(implementation.decode(nullSchema, nullSchema, genericDataAsDecoder(null, nullSchema)));
+  }
+
+  @Test(groups = {"deserializationTest"}, dataProvider = "Implementation")
+  public void shouldReadPromotedTopLevelTypes(Implementation implementation) {
+    // given
+    Schema intSchema = Schema.create(Schema.Type.INT);
+    Schema longSchema = Schema.create(Schema.Type.LONG);
+    Schema doubleSchema = Schema.create(Schema.Type.DOUBLE);
+    Schema stringSchema = Schema.create(Schema.Type.STRING);
+    Schema bytesSchema = Schema.create(Schema.Type.BYTES);
+
+    // when & then
+    Assert.assertEquals(implementation.<Object>decode(intSchema, longSchema, genericDataAsDecoder(3, intSchema)), 3L);
+    Assert.assertEquals(implementation.<Object>decode(intSchema, doubleSchema, genericDataAsDecoder(3, intSchema)), 3.0);
+    Assert.assertEquals(implementation.<Object>decode(stringSchema, bytesSchema, genericDataAsDecoder("key", stringSchema)),
+        ByteBuffer.wrap("key".getBytes()));
+    Assert.assertEquals(implementation.<Object>decode(bytesSchema, stringSchema,
+        genericDataAsDecoder(ByteBuffer.wrap("key".getBytes()), bytesSchema)), new Utf8("key"));
+    Assert.assertEquals(implementation.<Object>decode(intSchema, createUnionSchema(longSchema),
+        genericDataAsDecoder(3, intSchema)), 3L);
+    Assert.assertEquals(implementation.<Object>decode(createUnionSchema(intSchema), longSchema,
+        genericDataAsDecoder(3, createUnionSchema(intSchema))), 3L);
+    Assert.assertEquals(implementation.<Object>decode(createUnionSchema(intSchema, stringSchema),
+        createUnionSchema(doubleSchema, bytesSchema), genericDataAsDecoder(3, createUnionSchema(intSchema, stringSchema))),
+        3.0);
+    Assert.assertEquals(implementation.<Object>decode(createUnionSchema(intSchema, stringSchema),
+        createUnionSchema(doubleSchema, bytesSchema),
+        genericDataAsDecoder("key", createUnionSchema(intSchema, stringSchema))), ByteBuffer.wrap("key".getBytes()));
+    Assert.assertThrows(() -> implementation.decode(stringSchema, createUnionSchema(longSchema),
+        genericDataAsDecoder("key", stringSchema)));
+  }
+
+  @Test(groups = {"deserializationTest"}, dataProvider = "Implementation")
+  public void shouldReadPromotedFields(Implementation implementation) {
+    // given
+    Schema writerSchema = createRecord("record", createPrimitiveFieldSchema("int", Schema.Type.INT),
+        createPrimitiveFieldSchema("float", Schema.Type.FLOAT),
+        createUnionField("union", Schema.create(Schema.Type.INT)),
+        createArrayFieldSchema("array", Schema.create(Schema.Type.LONG)));
+    Schema readerSchema = createRecord("record", createPrimitiveFieldSchema("int", Schema.Type.LONG),
+        createPrimitiveFieldSchema("float", Schema.Type.DOUBLE),
+        createUnionField("union", Schema.create(Schema.Type.LONG)),
+        createArrayFieldSchema("array", Schema.create(Schema.Type.DOUBLE)));
+
+    GenericData.Record record = new GenericData.Record(writerSchema);
+    record.put("int", 1);
+    record.put("float", 1.5f);
+    record.put("union", 2);
+    record.put("array", Arrays.asList(3L, 4L));
+
+    // when
+    GenericRecord promotedRecord = implementation.decode(writerSchema, readerSchema, genericDataAsDecoder(record));
+
+    // then
+    Assert.assertEquals(promotedRecord.get("int"), 1L);
+    Assert.assertEquals(promotedRecord.get("float"), 1.5);
+    Assert.assertEquals(promotedRecord.get("union"), 2L);
+    Assert.assertEquals(new ArrayList<>((List<?>) promotedRecord.get("array")), Arrays.asList(3.0, 4.0));
+  }
+
   private static <T> T decodeRecordColdFast(Schema writerSchema, Schema readerSchema, Decoder decoder) {
     FastDeserializer<T> deserializer =
         new FastSerdeCache.FastDeserializerWithAvroGenericImpl<>(writerSchema, readerSchema);
@@ -1598,9 +2106,25 @@ public class FastGenericDeserializerGeneratorTest {
   }
 
   private static <T> T decodeRecordWarmFast(Schema writerSchema, Schema readerSchema, Decoder decoder) {
+    FastGenericDeserializerGenerator<T> generator =
+        new FastGenericDeserializerGenerator<>(writerSchema, readerSchema, tempDir, classLoader, null);
+    // In order to test the functionallity of the record split we set an unusually low method size limit
+    generator.setHugeMethodLimit(SPLIT_HUGE_METHOD_LIMIT);
+
+    return decodeRecordFast(generator.generateDeserializer(), decoder);
+  }
+
+  private static <T> T decodeRecordInMemoryWarmFast(Schema writerSchema, Schema readerSchema, Decoder decoder) {
+    FastGenericDeserializerGenerator<T> generator =
+        new FastGenericDeserializerGenerator<>(writerSchema, readerSchema, null, inMemoryClassLoader, null);
+    generator.setHugeMethodLimit(SPLIT_HUGE_METHOD_LIMIT);
+
+    return decodeRecordFast(generator.generateDeserializer(), decoder);
+  }
+
+  private static <T> T decodeRecordInterpretedFast(Schema writerSchema, Schema readerSchema, Decoder decoder) {
     FastDeserializer<T> deserializer =
-        new FastGenericDeserializerGenerator<T>(writerSchema, readerSchema, tempDir, classLoader,
-            null).generateDeserializer();
+        new InterpretedFastDeserializerGenerator<T>(writerSchema, readerSchema).generateDeserializer();
 
     return decodeRecordFast(deserializer, decoder);
   }
@@ -5,26 +5,37 @@ import com.linkedin.avro.fastserde.coldstart.ColdPrimitiveDoubleList;
 import com.linkedin.avro.fastserde.coldstart.ColdPrimitiveFloatList;
 import com.linkedin.avro.fastserde.coldstart.ColdPrimitiveIntList;
 import com.linkedin.avro.fastserde.coldstart.ColdPrimitiveLongList;
+import com.linkedin.avro.fastserde.primitive.PrimitiveDoubleHashMap;
+import com.linkedin.avro.fastserde.primitive.PrimitiveFloatHashMap;
+import com.linkedin.avro.fastserde.primitive.PrimitiveIntHashMap;
+import com.linkedin.avro.fastserde.primitive.PrimitiveLongHashMap;
 import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import com.linkedin.avroutil1.compatibility.AvroVersion;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.avro.AvroTypeException;
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericContainer;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
 import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
 import org.apache.avro.io.Decoder;
 import org.apache.avro.io.DecoderFactory;
 import org.apache.avro.io.Encoder;
+import org.apache.avro.io.EncoderFactory;
 import org.apache.avro.util.Utf8;
 import org.testng.Assert;
 import org.testng.annotations.BeforeTest;
@@ -218,6 +229,34 @@ public class FastGenericSerializerGeneratorTest {
     Assert.assertEquals(unionRecord.getSchema().getName(), "record2");
   }
 
+  @Test(groups = {"serializationTest"})
+  public void shouldWriteTopLevelPrimitivesEnumsFixedAndUnions() {
+    // given
+    Schema enumSchema = createEnumSchema("testEnum", new String[]{"A", "B"});
+    Schema fixedSchema = createFixedSchema("testFixed", 2);
+    Map<Schema, Object> values = new HashMap<>();
+    values.put(Schema.create(Schema.Type.STRING), new Utf8("key"));
+    values.put(Schema.create(Schema.Type.BYTES), ByteBuffer.wrap(new byte[]{1, 2}));
+    values.put(Schema.create(Schema.Type.INT), 1);
+    values.put(Schema.create(Schema.Type.LONG), Long.MAX_VALUE);
+    values.put(Schema.create(Schema.Type.FLOAT), 1.5f);
+    values.put(Schema.create(Schema.Type.DOUBLE), 2.5);
+    values.put(Schema.create(Schema.Type.BOOLEAN), true);
+    values.put(enumSchema, AvroCompatibilityHelper.newEnumSymbol(enumSchema, "B"));
+    values.put(fixedSchema, AvroCompatibilityHelper.newFixed(fixedSchema, new byte[]{0x01, 0x02}));
+    values.put(createUnionSchema(Schema.create(Schema.Type.LONG), enumSchema), 3L);
+
+    for (Map.Entry<Schema, Object> entry : values.entrySet()) {
+      // when
+      Object value = decodeRecord(entry.getKey(), dataAsBinaryDecoder(entry.getValue(), entry.getKey()));
+
+      // then
+      Assert.assertEquals(value, entry.getValue());
+    }
+    Schema nullSchema = Schema.create(Schema.Type.NULL);
+    Assert.assertNull(decodeRecord(nullSchema, dataAsBinaryDecoder(null, nullSchema)));
+  }
+
   @Test(groups = {"serializationTest"})
   public void shouldWriteSubRecordCollectionsField() {
     // given
@@ -351,6 +390,65 @@ public class FastGenericSerializerGeneratorTest {
     Assert.assertEquals(1, record.get("union"));
   }
 
+  @Test(groups = {"serializationTest"})
+  public void shouldWriteWideUnion() {
+    // given
+    Schema firstRecordSchema = createRecord("firstRecord", createPrimitiveFieldSchema("field", Schema.Type.INT));
+    Schema secondRecordSchema = createRecord("secondRecord", createPrimitiveFieldSchema("field", Schema.Type.INT));
+    Schema enumSchema = createEnumSchema("unionEnum", new String[]{"A", "B"});
+    Schema fixedSchema = createFixedSchema("unionFixed", 2);
+    Schema unionSchema = createUnionSchema(firstRecordSchema, secondRecordSchema, enumSchema, fixedSchema,
+        Schema.create(Schema.Type.STRING), Schema.create(Schema.Type.INT), Schema.create(Schema.Type.LONG),
+        Schema.createArray(Schema.create(Schema.Type.STRING)), Schema.createMap(Schema.create(Schema.Type.LONG)),
+        Schema.create(Schema.Type.BYTES));
+    Schema recordSchema = createRecord(createField("union", unionSchema));
+
+    GenericData.Record firstRecord = new GenericData.Record(firstRecordSchema);
+    firstRecord.put("field", 1);
+    GenericData.Record secondRecord = new GenericData.Record(secondRecordSchema);
+    secondRecord.put("field", 2);
+    List<Object> values = Arrays.asList(null, firstRecord, secondRecord,
+        AvroCompatibilityHelper.newEnumSymbol(enumSchema, "B"),
+        AvroCompatibilityHelper.newFixed(fixedSchema, new byte[]{0x01, 0x02}), new Utf8("abc"), 3, 4L,
+        Collections.singletonList(new Utf8("element")), Collections.singletonMap(new Utf8("key"), 5L),
+        ByteBuffer.wrap(new byte[]{0x06}));
+
+    for (Object value : values) {
+      GenericData.Record builder = new GenericData.Record(recordSchema);
+      builder.put("union", value);
+
+      // when
+      GenericRecord record = decodeRecord(recordSchema, dataAsBinaryDecoder(builder));
+
+      // then
+      Assert.assertEquals(record.get("union"), value);
+      if (value instanceof GenericRecord) {
+        Assert.assertEquals(((GenericRecord) record.get("union")).getSchema(), ((GenericRecord) value).getSchema());
+      }
+    }
+
+    GenericData.Record builder = new GenericData.Record(recordSchema);
+    builder.put("union", 1.0);
+    RuntimeException e = Assert.expectThrows(RuntimeException.class, () -> dataAsBinaryDecoder(builder));
+    Assert.assertTrue(e.getCause() instanceof AvroTypeException, "Unexpected exception: " + e.getCause());
+  }
+
+  @Test(groups = {"serializationTest"})
+  public void shouldFailToWriteValueNotInNarrowUnion() {
+    // given
+    Schema unionSchema = createUnionSchema(Schema.create(Schema.Type.STRING), Schema.create(Schema.Type.INT));
+    Schema recordSchema = createRecord(createField("union", unionSchema));
+    GenericData.Record builder = new GenericData.Record(recordSchema);
+    builder.put("union", 1.0);
+
+    // when
+    RuntimeException e = Assert.expectThrows(RuntimeException.class, () -> dataAsBinaryDecoder(builder));
+
+    // then
+    Assert.assertTrue(e.getCause() instanceof AvroTypeException, "Unexpected exception: " + e.getCause());
+    Assert.assertTrue(e.getCause().getMessage().startsWith("Not in union"), e.getCause().getMessage());
+  }
+
   @Test(groups = {"serializationTest"})
   public void shouldWriteArrayOfRecords() {
     // given
@@ -529,6 +627,225 @@ public class FastGenericSerializerGeneratorTest {
     Assert.assertTrue(primitiveApiCalled.get());
   }
 
+  @Test(groups = {"serializationTest"})
+  public void shouldWriteMapOfDouble() {
+    // given
+    AtomicBoolean primitiveApiCalled = new AtomicBoolean(false);
+    Map<CharSequence, Double> data = new PrimitiveDoubleHashMap(2) {
+      @Override
+      public double getPrimitiveAt(int slot) {
+        primitiveApiCalled.set(true);
+        return super.getPrimitiveAt(slot);
+      }
+    };
+    data.put(new Utf8("1"), 1.0D);
+    data.put(new Utf8("2"), 2.0D);
+
+    // then
+    shouldWriteMapOfPrimitives(Schema.Type.DOUBLE, data);
+    Assert.assertTrue(primitiveApiCalled.get());
+  }
+
+  @Test(groups = {"serializationTest"})
+  public void shouldWriteMapOfFloats() {
+    // given
+    AtomicBoolean primitiveApiCalled = new AtomicBoolean(false);
+    Map<CharSequence, Float> data = new PrimitiveFloatHashMap(2) {
+      @Override
+      public float getPrimitiveAt(int slot) {
+        primitiveApiCalled.set(true);
+        return super.getPrimitiveAt(slot);
+      }
+    };
+    data.put(new Utf8("1"), 1.0F);
+    data.put(new Utf8("2"), 2.0F);
+
+    // then
+    shouldWriteMapOfPrimitives(Schema.Type.FLOAT, data);
+    Assert.assertTrue(primitiveApiCalled.get());
+  }
+
+  @Test(groups = {"serializationTest"})
+  public void shouldWriteMapOfInts() {
+    // given
+    AtomicBoolean primitiveApiCalled = new AtomicBoolean(false);
+    Map<CharSequence, Integer> data = new PrimitiveIntHashMap(2) {
+      @Override
+      public int getPrimitiveAt(int slot) {
+        primitiveApiCalled.set(true);
+        return super.getPrimitiveAt(slot);
+      }
+    };
+    data.put(new Utf8("1"), 1);
+    data.put(new Utf8("2"), 2);
+
+    // then
+    shouldWriteMapOfPrimitives(Schema.Type.INT, data);
+    Assert.assertTrue(primitiveApiCalled.get());
+  }
+
+  @Test(groups = {"serializationTest"})
+  public void shouldWriteMapOfLongs() {
+    // given
+    AtomicBoolean primitiveApiCalled = new AtomicBoolean(false);
+    Map<CharSequence, Long> data = new PrimitiveLongHashMap(2) {
+      @Override
+      public long getPrimitiveAt(int slot) {
+        primitiveApiCalled.set(true);
+        return super.getPrimitiveAt(slot);
+      }
+    };
+    data.put(new Utf8("1"), 1L);
+    data.put(new Utf8("2"), 2L);
+
+    // then
+    shouldWriteMapOfPrimitives(Schema.Type.LONG, data);
+    Assert.assertTrue(primitiveApiCalled.get());
+  }
+
+  @Test(groups = {"serializationTest"})
+  public void shouldWriteByteBufferBackedArraysAsRawBytes() throws IOException {
+    // given
+    Schema recordSchema = createRecord(
+        createArrayFieldSchema("floats", Schema.create(Schema.Type.FLOAT)),
+        createArrayFieldSchema("doubles", Schema.create(Schema.Type.DOUBLE)));
+
+    // both arrays are split in two blocks, as written by a blocking encoder
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    BinaryEncoder encoder = AvroCompatibilityHelper.newBinaryEncoder(baos, false, null);
+    encoder.writeLong(2);
+    encoder.writeFloat(1.5F);
+    encoder.writeFloat(-2.25F);
+    encoder.writeLong(1);
+    encoder.writeFloat(3.0F);
+    encoder.writeLong(0);
+    encoder.writeLong(1);
+    encoder.writeDouble(4.125D);
+    encoder.writeLong(2);
+    encoder.writeDouble(-5.0D);
+    encoder.writeDouble(6.5D);
+    encoder.writeLong(0);
+    encoder.flush();
+
+    FastDeserializer<GenericRecord> fastDeserializer =
+        new FastGenericDeserializerGenerator<GenericRecord>(recordSchema, recordSchema, tempDir, classLoader, null)
+            .generateDeserializer();
+    GenericRecord record = fastDeserializer.deserialize(null, AvroCompatibilityHelper.newBinaryDecoder(baos.toByteArray()));
+    Assert.assertTrue(record.get("floats") instanceof ByteBufferBackedPrimitiveFloatList);
+    Assert.assertTrue(record.get("doubles") instanceof ByteBufferBackedPrimitiveDoubleList);
+
+    FastSerializer<GenericRecord> fastSerializer =
+        new FastGenericSerializerGenerator<GenericRecord>(recordSchema, tempDir, classLoader, null).generateSerializer();
+
+    // then
+    Assert.assertEquals(serializeBinary(fastSerializer, record), serializeBinaryVanilla(recordSchema, record));
+    Assert.assertEquals(serializeJson(fastSerializer, recordSchema, record),
+        serializeJsonVanilla(recordSchema, record));
+
+    // modified lists are no longer backed by the read bytes
+    ((List<Float>) record.get("floats")).add(7.75F);
+    ((List<Double>) record.get("doubles")).remove(0);
+    Assert.assertEquals(serializeBinary(fastSerializer, record), serializeBinaryVanilla(recordSchema, record));
+  }
+
+  @Test(groups = {"serializationTest"})
+  public void shouldOnlyWriteRawItemsToNonBlockingBinaryEncoders() {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    Assert.assertTrue(CompositeByteBuffer.acceptsRawItems(AvroCompatibilityHelper.newBinaryEncoder(baos, false, null)));
+    Assert.assertTrue(CompositeByteBuffer.acceptsRawItems(AvroCompatibilityHelper.newBinaryEncoder(baos, true, null)));
+    if (AvroCompatibilityHelper.getRuntimeAvroVersion().laterThan(AvroVersion.AVRO_1_4)) {
+      Assert.assertFalse(CompositeByteBuffer.acceptsRawItems(EncoderFactory.get().blockingBinaryEncoder(baos, null)));
+    }
+  }
+
+  @Test(groups = {"serializationTest"})
+  public void shouldWriteUnmodifiedLazyRecordsAsRawBytes() throws IOException {
+    // given
+    Schema subRecordSchema = createRecord("subRecord", createPrimitiveFieldSchema("a", Schema.Type.INT));
+    Schema recordSchema = createRecord(
+        createPrimitiveFieldSchema("id", Schema.Type.LONG),
+        createField("subRecord", subRecordSchema),
+        createMapFieldSchema("tags", Schema.create(Schema.Type.STRING)),
+        createPrimitiveFieldSchema("name", Schema.Type.STRING));
+    Schema wrapperSchema = createRecord("wrapper", createField("record", recordSchema));
+
+    GenericData.Record subRecord = new GenericData.Record(subRecordSchema);
+    subRecord.put("a", 1);
+    GenericData.Record builder = new GenericData.Record(recordSchema);
+    builder.put("id", 1L);
+    builder.put("subRecord", subRecord);
+    builder.put("tags", new HashMap<>(Collections.singletonMap("tag", "value")));
+    builder.put("name", "name");
+    byte[] bytes = genericDataAsBytes(builder, recordSchema);
+
+    FastDeserializer<GenericRecord> lazyDeserializer =
+        new FastGenericDeserializerGenerator<GenericRecord>(recordSchema, recordSchema, tempDir, classLoader, null,
+            true).generateDeserializer();
+    ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+    buffer.put(bytes).flip();
+    GenericRecord record = lazyDeserializer.deserialize(null, AvroCompatibilityHelper.newBinaryDecoder(buffer));
+    Assert.assertTrue(record instanceof LazyRecord);
+
+    FastSerializer<GenericRecord> fastSerializer =
+        new FastGenericSerializerGenerator<GenericRecord>(recordSchema, tempDir, classLoader, null).generateSerializer();
+    FastSerializer<GenericRecord> wrapperSerializer =
+        new FastGenericSerializerGenerator<GenericRecord>(wrapperSchema, tempDir, classLoader, null).generateSerializer();
+    GenericData.Record wrapper = new GenericData.Record(wrapperSchema);
+    wrapper.put("record", record);
+
+    // then
+    Assert.assertEquals(serializeBinary(fastSerializer, record), bytes);
+    Assert.assertEquals(serializeBinary(wrapperSerializer, wrapper), serializeBinaryVanilla(wrapperSchema, wrapper));
+    // fields read without being put are still written as raw bytes, non-binary encoders get every field
+    Assert.assertEquals(record.get("name"), new Utf8("name"));
+    Assert.assertTrue(((LazyRecord) record).writeRawBytes(
+        AvroCompatibilityHelper.newBinaryEncoder(new ByteArrayOutputStream(), true, null),
+        Utils.getSchemaFingerprint(recordSchema)));
+    Assert.assertEquals(serializeJson(fastSerializer, recordSchema, record),
+        serializeJsonVanilla(recordSchema, record));
+
+    // modified records are written field by field
+    record.put("name", "modified");
+    ((GenericRecord) record.get("subRecord")).put("a", 2);
+    Assert.assertEquals(serializeBinary(fastSerializer, record), serializeBinaryVanilla(recordSchema, record));
+    Assert.assertEquals(serializeBinary(wrapperSerializer, wrapper), serializeBinaryVanilla(wrapperSchema, wrapper));
+    Assert.assertNotEquals(serializeBinary(fastSerializer, record), bytes);
+  }
+
+  private static byte[] serializeBinary(FastSerializer<GenericRecord> serializer, GenericRecord record)
+      throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    Encoder encoder = AvroCompatibilityHelper.newBinaryEncoder(baos, true, null);
+    serializer.serialize(record, encoder);
+    encoder.flush();
+    return baos.toByteArray();
+  }
+
+  private static byte[] serializeBinaryVanilla(Schema schema, GenericRecord record) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    Encoder encoder = AvroCompatibilityHelper.newBinaryEncoder(baos, true, null);
+    new GenericDatumWriter<GenericRecord>(schema).write(record, encoder);
+    encoder.flush();
+    return baos.toByteArray();
+  }
+
+  private static String serializeJson(FastSerializer<GenericRecord> serializer, Schema schema, GenericRecord record)
+      throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    Encoder encoder = AvroCompatibilityHelper.newJsonEncoder(schema, baos, false);
+    serializer.serialize(record, encoder);
+    encoder.flush();
+    return baos.toString("UTF-8");
+  }
+
+  private static String serializeJsonVanilla(Schema schema, GenericRecord record) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    Encoder encoder = AvroCompatibilityHelper.newJsonEncoder(schema, baos, false);
+    new GenericDatumWriter<GenericRecord>(schema).write(record, encoder);
+    encoder.flush();
+    return baos.toString("UTF-8");
+  }
+
   private <E> void shouldWriteArrayOfPrimitives(Schema.Type elementType, List<E> data) {
     // given
     Schema elementSchema = Schema.create(elementType);
@@ -558,6 +875,22 @@ public class FastGenericSerializerGeneratorTest {
     }
   }
 
+  private <V> void shouldWriteMapOfPrimitives(Schema.Type valueType, Map<CharSequence, V> data) {
+    // given
+    Schema mapSchema = Schema.createMap(Schema.create(valueType));
+
+    // Serialization should work on both the primitive maps and the java maps
+    Map<CharSequence, V> javaMap = new HashMap<>(data);
+
+    // when
+    Map<Utf8, V> resultFromJavaMap = decodeRecord(mapSchema, dataAsBinaryDecoder(javaMap, mapSchema));
+    Map<Utf8, V> resultFromPrimitiveMap = decodeRecord(mapSchema, dataAsBinaryDecoder(data, mapSchema));
+
+    // then
+    Assert.assertEquals(resultFromJavaMap, javaMap);
+    Assert.assertEquals(resultFromPrimitiveMap, javaMap);
+  }
+
   public <T extends GenericContainer> Decoder dataAsBinaryDecoder(T data) {
     return dataAsBinaryDecoder(data, data.getSchema());
   }
@@ -0,0 +1,200 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import com.linkedin.avroutil1.compatibility.AvroVersion;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.avro.AvroTypeException;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.util.Utf8;
+import org.testng.Assert;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.Test;
+
+import static com.linkedin.avro.fastserde.FastSerdeTestsSupport.*;
+
+
+public class FastJsonSerdeGeneratorTest {
+
+  private File tempDir;
+  private ClassLoader classLoader;
+  private Schema enumSchema;
+  private Schema fixedSchema;
+  private Schema subRecordSchema;
+  private Schema recordSchema;
+
+  @BeforeTest(groups = {"serializationTest"})
+  public void prepare() throws Exception {
+    tempDir = getCodeGenDirectory();
+    classLoader = URLClassLoader.newInstance(new URL[]{tempDir.toURI().toURL()},
+        FastJsonSerdeGeneratorTest.class.getClassLoader());
+
+    enumSchema = createEnumSchema("testEnum", new String[]{"A", "B"});
+    fixedSchema = createFixedSchema("testFixed", 3);
+    subRecordSchema = createRecord("subRecord", createPrimitiveFieldSchema("subField", Schema.Type.STRING));
+    recordSchema = createRecord(
+        createPrimitiveFieldSchema("boolean", Schema.Type.BOOLEAN),
+        createPrimitiveFieldSchema("int", Schema.Type.INT),
+        createPrimitiveFieldSchema("long", Schema.Type.LONG),
+        createPrimitiveFieldSchema("float", Schema.Type.FLOAT),
+        createPrimitiveFieldSchema("double", Schema.Type.DOUBLE),
+        createPrimitiveFieldSchema("string", Schema.Type.STRING),
+        createPrimitiveFieldSchema("bytes", Schema.Type.BYTES),
+        createField("fixed", fixedSchema),
+        createField("enum", enumSchema),
+        createField("record", subRecordSchema),
+        createUnionFieldWithNull("nullableString", Schema.create(Schema.Type.STRING)),
+        createUnionField("union", Schema.create(Schema.Type.NULL), Schema.create(Schema.Type.INT), subRecordSchema,
+            enumSchema),
+        createArrayFieldSchema("recordArray", subRecordSchema),
+        createMapFieldSchema("unionMap",
+            Schema.createUnion(Arrays.asList(Schema.create(Schema.Type.NULL), Schema.create(Schema.Type.LONG)))));
+  }
+
+  @Test(groups = {"serializationTest"})
+  public void shouldWriteJsonLikeCompatibleEncoder() throws IOException {
+    // given
+    FastJsonSerializer<GenericRecord> serializer =
+        new FastJsonSerializerGenerator<GenericRecord>(recordSchema, tempDir, classLoader, null).generateSerializer();
+
+    for (GenericRecord record : Arrays.asList(newRecord(0), newRecord(1))) {
+      for (AvroVersion jsonFormat : Arrays.asList(AvroVersion.AVRO_1_4, AvroVersion.AVRO_1_10)) {
+        // when
+        FastJsonWriter writer = new FastJsonWriter(jsonFormat);
+        serializer.serialize(record, writer);
+
+        // then
+        Assert.assertEquals(writer.toString(), compatibleJson(record, jsonFormat));
+      }
+    }
+  }
+
+  @Test(groups = {"serializationTest"})
+  public void shouldReadJsonLikeCompatibleDecoder() throws IOException {
+    // given
+    FastJsonDeserializer<GenericRecord> deserializer =
+        new FastJsonDeserializerGenerator<GenericRecord>(recordSchema, tempDir, classLoader, null)
+            .generateDeserializer();
+
+    for (GenericRecord record : Arrays.asList(newRecord(0), newRecord(1))) {
+      for (AvroVersion jsonFormat : Arrays.asList(AvroVersion.AVRO_1_4, AvroVersion.AVRO_1_10)) {
+        String json = compatibleJson(record, jsonFormat);
+
+        // when
+        GenericRecord deserializedRecord = deserializer.deserialize(new FastJsonReader(json));
+
+        // then
+        GenericRecord expectedRecord = new GenericDatumReader<GenericRecord>(recordSchema)
+            .read(null, AvroCompatibilityHelper.newCompatibleJsonDecoder(recordSchema, json));
+        Assert.assertEquals(deserializedRecord, expectedRecord);
+        Assert.assertEquals(deserializedRecord.get("string").getClass(), Utf8.class);
+      }
+    }
+  }
+
+  @Test(groups = {"serializationTest"})
+  public void shouldReadReorderedFieldsIntoReusedRecord() throws IOException {
+    // given
+    Schema schema = Schema.parse("{\"type\": \"record\", \"name\": \"reordered\", \"fields\":["
+        + "{\"name\": \"id\", \"type\": \"long\"}, {\"name\": \"score\", \"type\": \"float\"},"
+        + "{\"name\": \"ratio\", \"type\": \"double\"}, {\"name\": \"names\", \"type\": {\"type\": \"array\", "
+        + "\"items\": \"string\"}}]}");
+    FastJsonDeserializer<IndexedRecord> deserializer =
+        new FastJsonDeserializerGenerator<IndexedRecord>(schema, tempDir, classLoader, null).generateDeserializer();
+    GenericRecord reuse = new GenericData.Record(schema);
+
+    // when
+    // unknown fields are skipped, int literals are read as floating point numbers and the other way around
+    IndexedRecord record = deserializer.deserialize(reuse, new FastJsonReader(" {\"names\" : [\"a\\n\\u00e9\", \"b\"],"
+        + " \"unknown\": {\"nested\": [1, {\"x\": null}]}, \"ratio\": \"NaN\", \"score\": 2, \"id\": 3.0 } "));
+
+    // then
+    Assert.assertSame(record, reuse);
+    Assert.assertEquals(reuse.get("id"), 3L);
+    Assert.assertEquals(reuse.get("score"), 2f);
+    Assert.assertTrue(Double.isNaN((Double) reuse.get("ratio")));
+    Assert.assertEquals(reuse.get("names"), Arrays.asList(new Utf8("a\né"), new Utf8("b")));
+    Assert.assertThrows(AvroTypeException.class,
+        () -> deserializer.deserialize(new FastJsonReader("{\"id\": 1, \"score\": 2, \"ratio\": 3}")));
+    // a duplicate field doesn't make up for a missing one
+    AvroTypeException e = Assert.expectThrows(AvroTypeException.class, () -> deserializer.deserialize(
+        new FastJsonReader("{\"id\": 1, \"score\": 2, \"ratio\": 3, \"id\": 4}")));
+    Assert.assertTrue(e.getMessage().contains("names"), e.getMessage());
+    Assert.assertThrows(IOException.class,
+        () -> deserializer.deserialize(new FastJsonReader("{\"id\": 1, \"score\": 2 \"ratio\": 3, \"names\": []}")));
+  }
+
+  @Test(groups = {"serializationTest"})
+  public void shouldRoundTripNonRecordSchemas() throws IOException {
+    // given
+    Schema mapSchema = Schema.createMap(Schema.createArray(enumSchema));
+    Map<Utf8, Object> map = new HashMap<>();
+    map.put(new Utf8("key\""), new GenericData.Array<>(Schema.createArray(enumSchema),
+        Arrays.asList(AvroCompatibilityHelper.newEnumSymbol(enumSchema, "B"))));
+    Schema unionSchema = Schema.createUnion(Arrays.asList(Schema.create(Schema.Type.NULL), fixedSchema));
+    GenericData.Fixed fixed = AvroCompatibilityHelper.newFixed(fixedSchema, new byte[]{0, (byte) 200, 34});
+
+    // when
+    FastJsonWriter writer = new FastJsonWriter();
+    new FastJsonSerializerGenerator<Map<Utf8, Object>>(mapSchema, tempDir, classLoader, null).generateSerializer()
+        .serialize(map, writer);
+    String mapJson = writer.toString();
+    writer.reset();
+    new FastJsonSerializerGenerator<Object>(unionSchema, tempDir, classLoader, null).generateSerializer()
+        .serialize(fixed, writer);
+    String unionJson = writer.toString();
+
+    // then
+    Assert.assertEquals(mapJson, "{\"key\\\"\":[\"B\"]}");
+    Assert.assertEquals(new FastJsonDeserializerGenerator<Map<Utf8, Object>>(mapSchema, tempDir, classLoader, null)
+        .generateDeserializer().deserialize(new FastJsonReader(mapJson)), map);
+    Assert.assertEquals(new FastJsonDeserializerGenerator<Object>(unionSchema, tempDir, classLoader, null)
+        .generateDeserializer().deserialize(new FastJsonReader(unionJson)), fixed);
+  }
+
+  private GenericRecord newRecord(int variant) {
+    GenericData.Record subRecord = new GenericData.Record(subRecordSchema);
+    subRecord.put("subField", "sub é中 \"quoted\" \\ \t" + variant);
+    GenericData.Record record = new GenericData.Record(recordSchema);
+    record.put("boolean", variant == 0);
+    record.put("int", variant == 0 ? Integer.MIN_VALUE : 42);
+    record.put("long", variant == 0 ? Long.MAX_VALUE : -1L);
+    record.put("float", variant == 0 ? 1.5e-7f : 3f);
+    record.put("double", variant == 0 ? 1.0e20 : -0.125);
+    record.put("string", new Utf8("string\n\u0001\u001f" + variant));
+    record.put("bytes", ByteBuffer.wrap(new byte[]{0, 1, 0x1f, (byte) 0x7f, (byte) 0x80, (byte) 0xff, '"', '\\'}));
+    record.put("fixed", AvroCompatibilityHelper.newFixed(fixedSchema, new byte[]{(byte) variant, 10, (byte) 233}));
+    record.put("enum", AvroCompatibilityHelper.newEnumSymbol(enumSchema, variant == 0 ? "A" : "B"));
+    record.put("record", subRecord);
+    record.put("nullableString", variant == 0 ? null : "nullable");
+    record.put("union", variant == 0 ? subRecord : AvroCompatibilityHelper.newEnumSymbol(enumSchema, "A"));
+    record.put("recordArray", variant == 0 ? Arrays.asList(subRecord, subRecord) : Arrays.asList());
+    Map<String, Object> unionMap = new HashMap<>();
+    unionMap.put("present", 5L);
+    unionMap.put("absent", null);
+    record.put("unionMap", variant == 0 ? unionMap : new HashMap<>());
+    return record;
+  }
+
+  private static String compatibleJson(GenericRecord record, AvroVersion jsonFormat) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Encoder encoder = AvroCompatibilityHelper.newJsonEncoder(record.getSchema(), out, false, jsonFormat);
+    new GenericDatumWriter<GenericRecord>(record.getSchema()).write(record, encoder);
+    encoder.flush();
+    return new String(out.toByteArray(), StandardCharsets.UTF_8);
+  }
+}
@@ -1,11 +1,28 @@
 package com.linkedin.avro.fastserde;
 
+import com.linkedin.avro.fastserde.FastSerdeCacheListener.SerdeKind;
+import com.linkedin.avro.fastserde.FastSerdeCacheListener.SerdeState;
 import com.linkedin.avro.fastserde.generated.avro.TestRecord;
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import javax.tools.ToolProvider;
 import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -13,12 +30,7 @@ import org.testng.annotations.Test;
 public class FastSerdeCacheTest {
 
   @Test(groups = "deserializationTest")
-  public void testIsSupportedForFastDeserializer() {
-    Set<Schema.Type> supportedSchemaTypes = new HashSet<>();
-    supportedSchemaTypes.add(Schema.Type.RECORD);
-    supportedSchemaTypes.add(Schema.Type.MAP);
-    supportedSchemaTypes.add(Schema.Type.ARRAY);
-
+  public void testGetClassNameForEveryTopLevelType() {
     Map<Schema.Type, Schema> schemaTypes = new HashMap<>();
     /**
      * Those types could be created by {@link Schema#create(org.apache.avro.Schema.Type)} function.
@@ -32,12 +44,9 @@ public class FastSerdeCacheTest {
 
     for (Schema.Type type : Schema.Type.values()) {
       Schema schema = schemaTypes.containsKey(type) ? schemaTypes.get(type) : Schema.create(type);
-      if (supportedSchemaTypes.contains(type)) {
-        Assert.assertTrue(FastSerdeCache.isSupportedForFastDeserializer(type));
-        FastDeserializerGeneratorBase.getClassName(schema, schema, "");
-      } else {
-        Assert.assertFalse(FastSerdeCache.isSupportedForFastDeserializer(type));
-      }
+      // every top-level type gets a fast serde class name
+      FastDeserializerGeneratorBase.getClassName(schema, schema, "");
+      FastSerializerGenerator.getClassName(schema, "");
     }
   }
 
@@ -68,4 +77,439 @@ public class FastSerdeCacheTest {
     FastSerdeCache cache = FastSerdeCache.getDefaultInstance();
     cache.buildFastSpecificDeserializer(TestRecord.SCHEMA$, TestRecord.SCHEMA$);
   }
+
+  @Test(groups = "deserializationTest")
+  public void testBuildFastDeserializersInMemory() throws Exception {
+    FastSerdeCache cache = new FastSerdeCache(null, "", FastSerdeCacheConfig.newConfig().withInMemoryCompilation(true));
+    Schema testRecord = Schema.parse("{\"type\": \"record\", \"name\": \"test_record\", \"fields\":[]}");
+
+    FastDeserializer<?> genericDeserializer = cache.buildFastGenericDeserializer(testRecord, testRecord);
+    Assert.assertTrue(genericDeserializer.getClass().getClassLoader() instanceof InMemoryClassLoader);
+
+    FastDeserializer<?> specificDeserializer = cache.buildFastSpecificDeserializer(TestRecord.SCHEMA$, TestRecord.SCHEMA$);
+    Assert.assertTrue(specificDeserializer.getClass().getClassLoader() instanceof InMemoryClassLoader);
+  }
+
+  @Test(groups = "deserializationTest")
+  public void testBuildFastGenericDeserializerWithInterpreterBackend() throws Exception {
+    FastSerdeCache cache = new FastSerdeCache(null, "",
+        FastSerdeCacheConfig.newConfig().withBackend(FastSerdeCacheConfig.Backend.INTERPRETER));
+    Schema testRecord = Schema.parse("{\"type\": \"record\", \"name\": \"test_record\", \"fields\":[]}");
+
+    FastDeserializer<?> deserializer = cache.buildFastGenericDeserializer(testRecord, testRecord);
+    Assert.assertFalse(deserializer.getClass().getName().startsWith(FastSerdeBase.GENERATED_PACKAGE_NAME_PREFIX));
+    Assert.assertTrue(FastSerdeCache.isFastDeserializer(deserializer));
+  }
+
+  @Test(groups = "serializationTest")
+  public void testBuildFastGenericSerializerInMemory() throws Exception {
+    FastSerdeCache cache = new FastSerdeCache(null, "", FastSerdeCacheConfig.newConfig().withInMemoryCompilation(true));
+    Schema testRecord = Schema.parse("{\"type\": \"record\", \"name\": \"test_record\", \"fields\":[]}");
+
+    FastSerializer<?> serializer = cache.buildFastGenericSerializer(testRecord);
+    Assert.assertTrue(serializer.getClass().getClassLoader() instanceof InMemoryClassLoader);
+  }
+
+  @Test(groups = "deserializationTest")
+  public void testBuildFastDeserializerFromClassStore() throws Exception {
+    File classStoreDir = Files.createTempDirectory("classStore").toFile();
+    Schema testRecord = Schema.parse("{\"type\": \"record\", \"name\": \"test_record\", \"fields\":["
+        + "{\"name\": \"testInt\", \"type\": \"int\"}]}");
+    String className = FastSerdeBase.GENERATED_PACKAGE_NAME_PREFIX + "deserialization."
+        + AvroCompatibilityHelper.getRuntimeAvroVersion().name() + "."
+        + FastDeserializerGeneratorBase.getClassName(testRecord, testRecord, "Generic");
+
+    FastSerdeCache cache = new FastSerdeCache(null, "", FastSerdeCacheConfig.newConfig().withClassStoreDirectory(classStoreDir));
+    cache.buildFastGenericDeserializer(testRecord, testRecord);
+    Assert.assertNotNull(new FastSerdeClassStore(classStoreDir).load(className));
+
+    // a fresh cache (as after a restart) picks the class up from the store, both in-memory and on-disk
+    for (boolean inMemory : new boolean[]{true, false}) {
+      FastSerdeCache restartedCache = new FastSerdeCache(null, "", FastSerdeCacheConfig.newConfig()
+          .withInMemoryCompilation(inMemory)
+          .withClassStoreDirectory(classStoreDir));
+      FastDeserializer<?> deserializer = restartedCache.buildFastGenericDeserializer(testRecord, testRecord);
+      Assert.assertEquals(deserializer.getClass().getName(), className);
+
+      GenericRecord record = new GenericData.Record(testRecord);
+      record.put("testInt", 42);
+      GenericRecord decodedRecord = (GenericRecord) deserializer.deserialize(null,
+          FastSerdeTestsSupport.genericDataAsDecoder(record));
+      Assert.assertEquals(decodedRecord.get("testInt"), 42);
+    }
+  }
+
+  @Test(groups = "serializationTest")
+  public void testBuildFastSerializerFromClassStore() throws Exception {
+    File classStoreDir = Files.createTempDirectory("classStore").toFile();
+    Schema testRecord = Schema.parse("{\"type\": \"record\", \"name\": \"test_record\", \"fields\":[]}");
+
+    new FastSerdeCache(null, "", FastSerdeCacheConfig.newConfig().withClassStoreDirectory(classStoreDir))
+        .buildFastGenericSerializer(testRecord);
+    FastSerializer<?> serializer = new FastSerdeCache(null, "", FastSerdeCacheConfig.newConfig()
+        .withInMemoryCompilation(true)
+        .withClassStoreDirectory(classStoreDir)).buildFastGenericSerializer(testRecord);
+    Assert.assertTrue(serializer.getClass().getClassLoader() instanceof InMemoryClassLoader);
+  }
+
+  @Test(groups = "deserializationTest")
+  public void testClassStoreIgnoresCorruptedEntries() throws Exception {
+    File classStoreDir = Files.createTempDirectory("classStore").toFile();
+    FastSerdeClassStore classStore = new FastSerdeClassStore(classStoreDir);
+    String className = "com.linkedin.avro.fastserde.generated.Test";
+    byte[] bytecode = new byte[]{1, 2, 3, 4};
+
+    classStore.store(className, Collections.singletonMap(className, bytecode));
+    Map<String, byte[]> storedClasses = classStore.load(className);
+    Assert.assertNotNull(storedClasses);
+    Assert.assertEquals(storedClasses.get(className), bytecode);
+    Assert.assertNull(classStore.load(className + "2"));
+
+    Path entryPath;
+    try (Stream<Path> entries = Files.walk(classStoreDir.toPath())) {
+      entryPath = entries.filter(Files::isRegularFile).findFirst().get();
+    }
+    byte[] entry = Files.readAllBytes(entryPath);
+    entry[entry.length / 2] ^= 0xFF;
+    Files.write(entryPath, entry);
+    Assert.assertNull(classStore.load(className));
+
+    Files.write(entryPath, new byte[]{1, 2});
+    Assert.assertNull(classStore.load(className));
+  }
+
+  @Test(groups = "deserializationTest")
+  public void testBuildFastSpecificSerdesFromPrecompiledClasses() throws Exception {
+    File sourcesDir = Files.createTempDirectory("precompiledSources").toFile();
+    File classesDir = Files.createTempDirectory("precompiledClasses").toFile();
+    String deserializerClassName = new FastSpecificDeserializerGenerator<>(TestRecord.SCHEMA$, TestRecord.SCHEMA$,
+        sourcesDir, null, null).generateDeserializerSource();
+    String serializerClassName =
+        new FastSpecificSerializerGenerator<>(TestRecord.SCHEMA$, sourcesDir, null, null).generateSerializerSource();
+
+    // compile the generated sources, as the application build would do
+    try (Stream<Path> sources = Files.walk(sourcesDir.toPath())) {
+      String[] sourcePaths = sources.filter(path -> path.toString().endsWith(".java")).map(Path::toString)
+          .toArray(String[]::new);
+      String[] args = new String[sourcePaths.length + 4];
+      args[0] = "-cp";
+      args[1] = System.getProperty("java.class.path");
+      args[2] = "-d";
+      args[3] = classesDir.getAbsolutePath();
+      System.arraycopy(sourcePaths, 0, args, 4, sourcePaths.length);
+      Assert.assertEquals(ToolProvider.getSystemJavaCompiler().run(null, null, null, args), 0);
+    }
+
+    ClassLoader applicationClassLoader =
+        new URLClassLoader(new URL[]{classesDir.toURI().toURL()}, FastSerdeCacheTest.class.getClassLoader());
+    ClassLoader originalContextClassLoader = Thread.currentThread().getContextClassLoader();
+    Thread.currentThread().setContextClassLoader(applicationClassLoader);
+    try {
+      FastSerdeCache cache = new FastSerdeCache(null, "", FastSerdeCacheConfig.newConfig().withInMemoryCompilation(true));
+      FastDeserializer<?> deserializer = cache.buildFastSpecificDeserializer(TestRecord.SCHEMA$, TestRecord.SCHEMA$);
+      Assert.assertEquals(deserializer.getClass().getName(), deserializerClassName);
+      Assert.assertSame(deserializer.getClass().getClassLoader(), applicationClassLoader);
+
+      FastSerializer<?> serializer = cache.buildFastSpecificSerializer(TestRecord.SCHEMA$);
+      Assert.assertEquals(serializer.getClass().getName(), serializerClassName);
+      Assert.assertSame(serializer.getClass().getClassLoader(), applicationClassLoader);
+    } finally {
+      Thread.currentThread().setContextClassLoader(originalContextClassLoader);
+    }
+  }
+
+  @Test(groups = "deserializationTest")
+  public void testBoundedCacheEvictsEntriesAndUnloadsClasses() throws Exception {
+    FastSerdeCache cache = new FastSerdeCache(null, "", FastSerdeCacheConfig.newConfig()
+        .withInMemoryCompilation(true)
+        .withMaxCacheEntries(2)
+        .withClassLoaderBatchSize(1));
+    Schema[] schemas = new Schema[3];
+    for (int i = 0; i < schemas.length; i++) {
+      schemas[i] = Schema.parse("{\"type\": \"record\", \"name\": \"bounded_record_" + i + "\", \"fields\":[]}");
+    }
+
+    WeakReference<ClassLoader> firstClassLoader = new WeakReference<>(
+        cache.getFastGenericDeserializerAsync(schemas[0], schemas[0]).get().getClass().getClassLoader());
+    Assert.assertTrue(firstClassLoader.get() instanceof InMemoryClassLoader);
+    cache.getFastGenericDeserializerAsync(schemas[1], schemas[1]).get();
+    // touch the first entry, so the second one is the least recently used
+    cache.getFastGenericDeserializerAsync(schemas[0], schemas[0]).get();
+    cache.getFastGenericDeserializerAsync(schemas[2], schemas[2]).get();
+    Assert.assertEquals(cache.getEvictionCount(), 1);
+    Assert.assertEquals(cache.getReloadCount(), 0);
+
+    cache.getFastGenericDeserializerAsync(schemas[1], schemas[1]).get();
+    Assert.assertEquals(cache.getEvictionCount(), 2);
+    Assert.assertEquals(cache.getReloadCount(), 1);
+
+    // the first entry has been evicted by now, so its class loader can be collected
+    for (int i = 0; i < 10 && firstClassLoader.get() != null; i++) {
+      System.gc();
+      Thread.sleep(100);
+    }
+    Assert.assertNull(firstClassLoader.get());
+  }
+
+  @Test(groups = "deserializationTest")
+  public void testBoundedCacheEvictsLeastFrequentlyUsedEntries() throws Exception {
+    FastSerdeCache cache = new FastSerdeCache(null, "", FastSerdeCacheConfig.newConfig()
+        .withInMemoryCompilation(true)
+        .withMaxCacheEntries(2)
+        .withEvictionPolicy(FastSerdeCacheConfig.EvictionPolicy.LFU));
+    Schema[] schemas = new Schema[3];
+    for (int i = 0; i < schemas.length; i++) {
+      schemas[i] = Schema.parse("{\"type\": \"record\", \"name\": \"lfu_record_" + i + "\", \"fields\":[]}");
+    }
+
+    cache.getFastGenericDeserializerAsync(schemas[0], schemas[0]).get();
+    cache.getFastGenericDeserializerAsync(schemas[1], schemas[1]).get();
+    for (int i = 0; i < 3; i++) {
+      cache.getFastGenericDeserializerAsync(schemas[0], schemas[0]).get();
+    }
+    // the second entry is the most recently used, but the least frequently used one
+    cache.getFastGenericDeserializerAsync(schemas[1], schemas[1]).get();
+    cache.getFastGenericDeserializerAsync(schemas[2], schemas[2]).get();
+    Assert.assertEquals(cache.getEvictionCount(), 1);
+
+    cache.getFastGenericDeserializerAsync(schemas[0], schemas[0]).get();
+    Assert.assertEquals(cache.getEvictionCount(), 1);
+    Assert.assertEquals(cache.getReloadCount(), 0);
+  }
+
+  @Test(groups = "deserializationTest")
+  public void testMetricsTrackSerdeLifecycle() throws Exception {
+    List<Runnable> compileTasks = new ArrayList<>();
+    Executor queueingExecutor = compileTasks::add;
+    FastSerdeCacheMetrics metrics = new FastSerdeCacheMetrics();
+    FastSerdeCache cache = new FastSerdeCache(queueingExecutor, "", FastSerdeCacheConfig.newConfig()
+        .withInMemoryCompilation(true)
+        .withListener(metrics));
+    Schema schema = Schema.parse("{\"type\": \"record\", \"name\": \"metrics_record\", \"fields\":["
+        + "{\"name\": \"intField\", \"type\": \"int\"}]}");
+    GenericRecord record = new GenericData.Record(schema);
+    record.put("intField", 1);
+
+    FastDeserializer<GenericRecord> coldDeserializer =
+        (FastDeserializer<GenericRecord>) cache.getFastGenericDeserializer(schema, schema);
+    Assert.assertFalse(FastSerdeCache.isFastDeserializer(coldDeserializer));
+    coldDeserializer.deserialize(FastSerdeTestsSupport.genericDataAsDecoder(record));
+    coldDeserializer.deserialize(FastSerdeTestsSupport.genericDataAsDecoder(record));
+
+    FastSerdeCacheMetrics.Snapshot snapshot = metrics.snapshot();
+    Map<String, SerdeState> states = snapshot.getStates(SerdeKind.GENERIC_DESERIALIZER);
+    Assert.assertEquals(states.size(), 1);
+    String schemaKey = states.keySet().iterator().next();
+    Assert.assertEquals(states.get(schemaKey), SerdeState.COLD);
+    Assert.assertEquals(snapshot.getColdInvocationCount(SerdeKind.GENERIC_DESERIALIZER, schemaKey), 2);
+    Assert.assertEquals(snapshot.getPendingCompilationCount(), 1);
+    Assert.assertEquals(snapshot.getCacheSize(SerdeKind.GENERIC_DESERIALIZER), 1);
+    Assert.assertEquals(snapshot.getCompileCount(), 0);
+
+    compileTasks.forEach(Runnable::run);
+
+    snapshot = metrics.snapshot();
+    Assert.assertEquals(snapshot.getStates(SerdeKind.GENERIC_DESERIALIZER).get(schemaKey), SerdeState.FAST);
+    Assert.assertEquals(snapshot.getStateCount(SerdeState.FAST), 1);
+    Assert.assertEquals(snapshot.getPendingCompilationCount(), 0);
+    Assert.assertEquals(snapshot.getCompileCount(), 1);
+    Assert.assertEquals(snapshot.getCompileFailureCount(), 0);
+    Assert.assertTrue(FastSerdeCache.isFastDeserializer(cache.getFastGenericDeserializer(schema, schema)));
+    // the snapshot is immutable
+    Assert.assertEquals(snapshot.getColdInvocationCount(), 2);
+    coldDeserializer.deserialize(FastSerdeTestsSupport.genericDataAsDecoder(record));
+    Assert.assertEquals(snapshot.getColdInvocationCount(), 2);
+    Assert.assertEquals(metrics.snapshot().getColdInvocationCount(), 3);
+  }
+
+  @Test(groups = "deserializationTest")
+  public void testProjectionIsPartOfTheCacheKey() throws Exception {
+    FastSerdeCache cache = new FastSerdeCache(Runnable::run, "", FastSerdeCacheConfig.newConfig());
+    Schema schema = Schema.parse("{\"type\": \"record\", \"name\": \"projected_record\", \"fields\":["
+        + "{\"name\": \"intField\", \"type\": \"int\"}, {\"name\": \"stringField\", \"type\": \"string\"}]}");
+    GenericRecord record = new GenericData.Record(schema);
+    record.put("intField", 1);
+    record.put("stringField", "string");
+
+    SchemaProjection intProjection = SchemaProjection.of(schema, Collections.singleton("intField"));
+    SchemaProjection stringProjection = SchemaProjection.of(schema, Collections.singleton("stringField"));
+    // compiled synchronously, so the second lookups get the generated deserializers
+    cache.getFastGenericDeserializer(schema, schema);
+    cache.getFastGenericDeserializer(schema, intProjection);
+    cache.getFastGenericDeserializer(schema, stringProjection);
+    FastDeserializer<?> fullDeserializer = cache.getFastGenericDeserializer(schema, schema);
+    FastDeserializer<?> intDeserializer = cache.getFastGenericDeserializer(schema, intProjection);
+    FastDeserializer<?> stringDeserializer = cache.getFastGenericDeserializer(schema, stringProjection);
+
+    Assert.assertNotSame(intDeserializer, fullDeserializer);
+    Assert.assertNotSame(intDeserializer, stringDeserializer);
+    // equal projections share their deserializer
+    Assert.assertSame(
+        cache.getFastGenericDeserializer(schema, SchemaProjection.of(schema, Collections.singleton("intField"))),
+        intDeserializer);
+    Assert.assertTrue(FastSerdeCache.isFastDeserializer(intDeserializer));
+
+    GenericRecord projectedRecord =
+        (GenericRecord) intDeserializer.deserialize(FastSerdeTestsSupport.genericDataAsDecoder(record));
+    Assert.assertEquals(projectedRecord.getSchema().getFields().size(), 1);
+    Assert.assertEquals(projectedRecord.get("intField"), 1);
+  }
+
+  @Test(groups = "deserializationTest")
+  public void testLazyDeserializerIsCachedSeparately() throws Exception {
+    FastSerdeCacheMetrics metrics = new FastSerdeCacheMetrics();
+    FastSerdeCache cache = new FastSerdeCache(Runnable::run, "", FastSerdeCacheConfig.newConfig().withListener(metrics));
+    Schema schema = Schema.parse("{\"type\": \"record\", \"name\": \"lazy_cached_record\", \"fields\":["
+        + "{\"name\": \"intField\", \"type\": \"int\"}]}");
+    GenericRecord record = new GenericData.Record(schema);
+    record.put("intField", 1);
+
+    // compiled synchronously, so the second lookups get the generated deserializers
+    cache.getFastGenericDeserializer(schema, schema);
+    cache.getFastGenericLazyDeserializer(schema);
+    FastDeserializer<?> eagerDeserializer = cache.getFastGenericDeserializer(schema, schema);
+    FastDeserializer<?> lazyDeserializer = cache.getFastGenericLazyDeserializer(schema);
+
+    Assert.assertNotSame(lazyDeserializer, eagerDeserializer);
+    Assert.assertTrue(FastSerdeCache.isFastDeserializer(lazyDeserializer));
+    Assert.assertSame(cache.getFastGenericLazyDeserializer(schema), lazyDeserializer);
+    Assert.assertEquals(cache.getCacheSize(SerdeKind.GENERIC_DESERIALIZER), 1);
+    Assert.assertEquals(cache.getCacheSize(SerdeKind.GENERIC_LAZY_DESERIALIZER), 1);
+    FastSerdeCacheMetrics.Snapshot snapshot = metrics.snapshot();
+    Assert.assertEquals(new ArrayList<>(snapshot.getStates(SerdeKind.GENERIC_DESERIALIZER).values()),
+        Collections.singletonList(SerdeState.FAST));
+    Assert.assertEquals(new ArrayList<>(snapshot.getStates(SerdeKind.GENERIC_LAZY_DESERIALIZER).values()),
+        Collections.singletonList(SerdeState.FAST));
+
+    ByteBuffer buffer = ByteBuffer.wrap(FastSerdeTestsSupport.genericDataAsBytes(record, schema));
+    Object lazyRecord = lazyDeserializer.deserialize(AvroCompatibilityHelper.newBinaryDecoder(buffer));
+    Assert.assertTrue(lazyRecord instanceof LazyRecord);
+    Assert.assertEquals(((GenericRecord) lazyRecord).get("intField"), 1);
+  }
+
+  @Test(groups = "serializationTest")
+  @SuppressWarnings("unchecked")
+  public void testJsonSerdesAreCached() throws Exception {
+    FastSerdeCache cache = new FastSerdeCache(Runnable::run, "", FastSerdeCacheConfig.newConfig());
+    Schema schema = Schema.parse("{\"type\": \"record\", \"name\": \"json_cached_record\", \"fields\":["
+        + "{\"name\": \"intField\", \"type\": \"int\"},"
+        + "{\"name\": \"stringField\", \"type\": [\"null\", \"string\"]}]}");
+    GenericRecord record = new GenericData.Record(schema);
+    record.put("intField", 1);
+    record.put("stringField", "string");
+
+    // the first lookups fall back to the avro implementation while the generated classes are compiled synchronously
+    FastJsonSerializer<GenericRecord> coldSerializer =
+        (FastJsonSerializer<GenericRecord>) cache.getFastGenericJsonSerializer(schema);
+    FastJsonDeserializer<GenericRecord> coldDeserializer =
+        (FastJsonDeserializer<GenericRecord>) cache.getFastGenericJsonDeserializer(schema);
+    FastJsonSerializer<GenericRecord> serializer =
+        (FastJsonSerializer<GenericRecord>) cache.getFastGenericJsonSerializer(schema);
+    FastJsonDeserializer<GenericRecord> deserializer =
+        (FastJsonDeserializer<GenericRecord>) cache.getFastGenericJsonDeserializer(schema);
+
+    Assert.assertTrue(coldSerializer instanceof FastSerdeCache.FastJsonSerializerWithAvroImpl);
+    Assert.assertTrue(coldDeserializer instanceof FastSerdeCache.FastJsonDeserializerWithAvroImpl);
+    Assert.assertTrue(serializer.getClass().getName().startsWith(FastSerdeBase.GENERATED_PACKAGE_NAME_PREFIX));
+    Assert.assertTrue(deserializer.getClass().getName().startsWith(FastSerdeBase.GENERATED_PACKAGE_NAME_PREFIX));
+    Assert.assertSame(cache.getFastGenericJsonSerializer(schema), serializer);
+
+    FastJsonWriter coldWriter = new FastJsonWriter();
+    coldSerializer.serialize(record, coldWriter);
+    FastJsonWriter writer = new FastJsonWriter();
+    serializer.serialize(record, writer);
+    Assert.assertEquals(writer.toString(), coldWriter.toString());
+    Assert.assertEquals(deserializer.deserialize(new FastJsonReader(writer.toString())),
+        coldDeserializer.deserialize(new FastJsonReader(coldWriter.toString())));
+  }
+
+  @Test(groups = "deserializationTest")
+  public void testBatchCompilation() throws Exception {
+    File classStoreDir = Files.createTempDirectory("classStore").toFile();
+    FastSerdeCacheMetrics metrics = new FastSerdeCacheMetrics();
+    FastSerdeCache cache = new FastSerdeCache(null, "", FastSerdeCacheConfig.newConfig()
+        .withCompileBatchSize(3)
+        .withCompileBatchFlushIntervalMillis(200)
+        .withClassStoreDirectory(classStoreDir)
+        .withListener(metrics));
+    List<CompletableFuture<FastDeserializer<?>>> deserializers = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      Schema schema = Schema.parse("{\"type\": \"record\", \"name\": \"batched_record_" + i + "\", \"fields\":["
+          + "{\"name\": \"intField\", \"type\": \"int\"}]}");
+      deserializers.add(cache.getFastGenericDeserializerAsync(schema, schema));
+    }
+
+    for (CompletableFuture<FastDeserializer<?>> deserializer : deserializers) {
+      Assert.assertTrue(FastSerdeCache.isFastDeserializer(deserializer.get()));
+      Assert.assertTrue(deserializer.get().getClass().getName().startsWith(FastSerdeBase.GENERATED_PACKAGE_NAME_PREFIX));
+    }
+    FastSerdeCacheMetrics.Snapshot snapshot = metrics.snapshot();
+    Assert.assertEquals(snapshot.getCompileCount(), 4);
+    Assert.assertEquals(snapshot.getCompileFailureCount(), 0);
+    Assert.assertEquals(snapshot.getPendingCompilationCount(), 0);
+    // batch compiled classes end up in the class store as well
+    try (Stream<Path> storedEntries = Files.walk(classStoreDir.toPath())) {
+      Assert.assertEquals(storedEntries.filter(path -> path.toString().endsWith(".classes")).count(), 4);
+    }
+  }
+
+  @Test(groups = "deserializationTest")
+  public void testHotnessDrivenCompilation() throws Exception {
+    List<Runnable> compileTasks = new ArrayList<>();
+    Executor queueingExecutor = compileTasks::add;
+    FastSerdeCache cache = new FastSerdeCache(queueingExecutor, "", FastSerdeCacheConfig.newConfig()
+        .withInMemoryCompilation(true)
+        .withCompileThreshold(3));
+    Schema[] schemas = new Schema[3];
+    GenericRecord[] records = new GenericRecord[schemas.length];
+    for (int i = 0; i < schemas.length; i++) {
+      schemas[i] = Schema.parse("{\"type\": \"record\", \"name\": \"hot_record_" + i + "\", \"fields\":["
+          + "{\"name\": \"intField\", \"type\": \"int\"}]}");
+      records[i] = new GenericData.Record(schemas[i]);
+      records[i].put("intField", i);
+    }
+
+    // the first pair gets lukewarm, the second one hot afterwards and the third one is used just once
+    for (int i = 0; i < 3; i++) {
+      cache.getFastGenericDeserializer(schemas[0], schemas[0])
+          .deserialize(null, FastSerdeTestsSupport.genericDataAsDecoder(records[0]));
+    }
+    Thread.sleep(100);
+    for (int i = 0; i < 100; i++) {
+      cache.getFastGenericDeserializer(schemas[1], schemas[1])
+          .deserialize(null, FastSerdeTestsSupport.genericDataAsDecoder(records[1]));
+    }
+    cache.getFastGenericDeserializer(schemas[2], schemas[2])
+        .deserialize(null, FastSerdeTestsSupport.genericDataAsDecoder(records[2]));
+    Assert.assertEquals(compileTasks.size(), 2);
+    Assert.assertEquals(cache.getPendingCompilationCount(), 2);
+
+    // the hottest pair is compiled first, whatever the order of the executor is
+    compileTasks.get(0).run();
+    Assert.assertFalse(FastSerdeCache.isFastDeserializer(cache.getFastGenericDeserializer(schemas[0], schemas[0])));
+    Assert.assertTrue(FastSerdeCache.isFastDeserializer(cache.getFastGenericDeserializer(schemas[1], schemas[1])));
+    compileTasks.get(1).run();
+    Assert.assertTrue(FastSerdeCache.isFastDeserializer(cache.getFastGenericDeserializer(schemas[0], schemas[0])));
+    Assert.assertFalse(FastSerdeCache.isFastDeserializer(cache.getFastGenericDeserializer(schemas[2], schemas[2])));
+    Assert.assertEquals(compileTasks.size(), 2);
+    Assert.assertEquals(cache.getPendingCompilationCount(), 0);
+  }
+
+  @Test(groups = "deserializationTest")
+  public void testSchemaPairKey() {
+    Schema writerSchema = Schema.parse("{\"type\": \"record\", \"name\": \"key_record_0\", \"fields\":[]}");
+    Schema readerSchema = Schema.parse("{\"type\": \"record\", \"name\": \"key_record_1\", \"fields\":[]}");
+
+    SchemaPairKey key = SchemaPairKey.of(writerSchema, readerSchema);
+    SchemaPairKey probe = SchemaPairKey.probe(writerSchema, readerSchema);
+    Assert.assertEquals(probe, key);
+    Assert.assertEquals(probe.hashCode(), key.hashCode());
+    Assert.assertNotEquals(SchemaPairKey.of(readerSchema, writerSchema), key);
+
+    // the probe is reused by the next lookup on the same thread, copies are not
+    SchemaPairKey copy = probe.copy();
+    Assert.assertSame(SchemaPairKey.probe(readerSchema, writerSchema), probe);
+    Assert.assertNotEquals(probe, key);
+    Assert.assertEquals(copy, key);
+  }
 }
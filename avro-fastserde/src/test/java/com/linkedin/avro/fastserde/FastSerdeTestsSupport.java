@@ -1,8 +1,11 @@
 package com.linkedin.avro.fastserde;
 
 import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
@@ -13,6 +16,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -171,6 +175,10 @@ public final class FastSerdeTestsSupport {
   }
 
   public static <T> Decoder genericDataAsDecoder(T data, Schema schema) {
+    return DecoderFactory.defaultFactory().createBinaryDecoder(genericDataAsBytes(data, schema), null);
+  }
+
+  public static <T> byte[] genericDataAsBytes(T data, Schema schema) {
     ByteArrayOutputStream baos = new ByteArrayOutputStream();
     Encoder binaryEncoder = AvroCompatibilityHelper.newBinaryEncoder(baos, true, null);
 
@@ -182,7 +190,7 @@ public final class FastSerdeTestsSupport {
       throw new RuntimeException(e);
     }
 
-    return DecoderFactory.defaultFactory().createBinaryDecoder(baos.toByteArray(), null);
+    return baos.toByteArray();
   }
 
   public static <T extends SpecificRecord> Decoder specificDataAsDecoder(T record) {
@@ -309,4 +317,77 @@ public final class FastSerdeTestsSupport {
       throw new RuntimeException(e);
     }
   }
+
+  /**
+   * Reads the size of the bytecode of every method of a compiled class, as checked against the JIT limits.
+   *
+   * @return size of the code of each method with a body, by name and descriptor
+   */
+  public static Map<String, Integer> getMethodCodeSizes(File classFile) throws IOException {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(classFile)))) {
+      in.skipBytes(8); // magic and version
+      int constantPoolCount = in.readUnsignedShort();
+      String[] utf8Constants = new String[constantPoolCount];
+      for (int i = 1; i < constantPoolCount; i++) {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+          case 1: // utf8
+            utf8Constants[i] = in.readUTF();
+            break;
+          case 5: // long
+          case 6: // double
+            in.skipBytes(8);
+            i++;
+            break;
+          case 7: // class
+          case 8: // string
+          case 16: // method type
+          case 19: // module
+          case 20: // package
+            in.skipBytes(2);
+            break;
+          case 15: // method handle
+            in.skipBytes(3);
+            break;
+          default: // int, float, references, name and type, dynamic constants
+            in.skipBytes(4);
+        }
+      }
+      in.skipBytes(6); // access flags, this and super classes
+      in.skipBytes(2 * in.readUnsignedShort()); // interfaces
+      int fieldCount = in.readUnsignedShort();
+      for (int i = 0; i < fieldCount; i++) {
+        in.skipBytes(6);
+        skipAttributes(in);
+      }
+      Map<String, Integer> codeSizes = new HashMap<>();
+      int methodCount = in.readUnsignedShort();
+      for (int i = 0; i < methodCount; i++) {
+        in.skipBytes(2);
+        String method = utf8Constants[in.readUnsignedShort()] + utf8Constants[in.readUnsignedShort()];
+        int attributeCount = in.readUnsignedShort();
+        for (int j = 0; j < attributeCount; j++) {
+          String attributeName = utf8Constants[in.readUnsignedShort()];
+          int attributeLength = in.readInt();
+          if ("Code".equals(attributeName)) {
+            in.skipBytes(4); // max stack and locals
+            int codeLength = in.readInt();
+            codeSizes.put(method, codeLength);
+            in.skipBytes(attributeLength - 8);
+          } else {
+            in.skipBytes(attributeLength);
+          }
+        }
+      }
+      return codeSizes;
+    }
+  }
+
+  private static void skipAttributes(DataInputStream in) throws IOException {
+    int attributeCount = in.readUnsignedShort();
+    for (int i = 0; i < attributeCount; i++) {
+      in.skipBytes(2);
+      in.skipBytes(in.readInt());
+    }
+  }
 }
@@ -44,6 +44,7 @@ import static com.linkedin.avro.fastserde.FastSerdeTestsSupport.*;
 
 
 public class FastSpecificDeserializerGeneratorTest {
+  private static final int SPLIT_HUGE_METHOD_LIMIT = 100;
 
   private File tempDir;
   private ClassLoader classLoader;
@@ -99,9 +100,6 @@ public class FastSpecificDeserializerGeneratorTest {
 
     classLoader = URLClassLoader.newInstance(new URL[]{tempDir.toURI().toURL()},
         FastSpecificDeserializerGeneratorTest.class.getClassLoader());
-
-    // In order to test the functionallity of the record split we set an unusually low number
-    FastGenericDeserializerGenerator.setFieldsPerPopulationMethod(2);
   }
 
   @Test(groups = {"deserializationTest"}, dataProvider = "SlowFastDeserializer")
@@ -847,9 +845,11 @@ public class FastSpecificDeserializerGeneratorTest {
 
   @SuppressWarnings("unchecked")
   private <T> T decodeRecordFast(Schema readerSchema, Schema writerSchema, Decoder decoder) {
-    FastDeserializer<T> deserializer =
-        new FastSpecificDeserializerGenerator(writerSchema, readerSchema, tempDir, classLoader,
-            null).generateDeserializer();
+    FastSpecificDeserializerGenerator<T> generator =
+        new FastSpecificDeserializerGenerator<>(writerSchema, readerSchema, tempDir, classLoader, null);
+    // In order to test the functionallity of the record split we set an unusually low method size limit
+    generator.setHugeMethodLimit(SPLIT_HUGE_METHOD_LIMIT);
+    FastDeserializer<T> deserializer = generator.generateDeserializer();
 
     try {
       return deserializer.deserialize(null, decoder);
@@ -85,6 +85,7 @@ public class FastStringableTest {
       record.put(7, subRecord);
       record.put(8, anotherSubRecord);
       record.put(9, exampleString);
+      record.put(10, Collections.singletonMap(exampleURL, Long.MAX_VALUE));
     } else {
       // Avro-1.4 doesn't support stringable field
       record.put(0, exampleBigInteger.toString());
@@ -97,6 +98,7 @@ public class FastStringableTest {
       record.put(7, subRecord);
       record.put(8, anotherSubRecord);
       record.put(9, exampleString);
+      record.put(10, Collections.singletonMap(exampleURL.toString(), Long.MAX_VALUE));
     }
     return record;
   }
@@ -126,6 +128,8 @@ public class FastStringableTest {
         Assert.assertEquals(exampleFile, getField(afterDecoding, "file"));
         Assert.assertEquals(Collections.singletonList(exampleURL), getField(afterDecoding, "urlArray"));
         Assert.assertEquals(Collections.singletonMap(exampleURL, exampleBigInteger), getField(afterDecoding, "urlMap"));
+      Assert.assertEquals(Collections.singletonMap(exampleURL, Long.MAX_VALUE), getField(afterDecoding, "urlLongMap"));
+        Assert.assertEquals(Collections.singletonMap(exampleURL, Long.MAX_VALUE), getField(afterDecoding, "urlLongMap"));
         Assert.assertNotNull(getField(afterDecoding, "subRecord"));
         Assert.assertEquals(exampleURI, getField((StringableSubRecord) getField(afterDecoding, "subRecord"), "uriField"));
         Assert.assertNotNull(getField(afterDecoding, "subRecordWithSubRecord"));
@@ -139,6 +143,8 @@ public class FastStringableTest {
         Assert.assertEquals(
             Collections.singletonMap(new Utf8(exampleURL.toString()), new Utf8(exampleBigInteger.toString())),
             getField(afterDecoding, "urlMap"));
+        Assert.assertEquals(Collections.singletonMap(new Utf8(exampleURL.toString()), Long.MAX_VALUE),
+            getField(afterDecoding, "urlLongMap"));
         Assert.assertNotNull(getField(afterDecoding, "subRecord"));
         Assert.assertEquals(exampleURI.toString(), getField((StringableSubRecord) getField(afterDecoding, "subRecord"), "uriField").toString());
         Assert.assertNotNull(getField(afterDecoding, "subRecordWithSubRecord"));
@@ -285,6 +291,7 @@ public class FastStringableTest {
       Assert.assertEquals(exampleFile, getField(afterDecoding, "file"));
       Assert.assertEquals(Collections.singletonList(exampleURL), getField(afterDecoding, "urlArray"));
       Assert.assertEquals(Collections.singletonMap(exampleURL, exampleBigInteger), getField(afterDecoding, "urlMap"));
+      Assert.assertEquals(Collections.singletonMap(exampleURL, Long.MAX_VALUE), getField(afterDecoding, "urlLongMap"));
       Assert.assertNotNull(getField(afterDecoding, "subRecord"));
       Assert.assertEquals(exampleURI, getField((StringableSubRecord) getField(afterDecoding, "subRecord"), "uriField"));
       Assert.assertNotNull(getField(afterDecoding, "subRecordWithSubRecord"));
@@ -298,6 +305,8 @@ public class FastStringableTest {
       Assert.assertEquals(
           Collections.singletonMap(new Utf8(exampleURL.toString()), new Utf8(exampleBigInteger.toString())),
           getField(afterDecoding, "urlMap"));
+      Assert.assertEquals(Collections.singletonMap(new Utf8(exampleURL.toString()), Long.MAX_VALUE),
+          getField(afterDecoding, "urlLongMap"));
       Assert.assertNotNull(getField(afterDecoding, "subRecord"));
       Assert.assertEquals(exampleURI.toString(), getField(((StringableSubRecord) getField(afterDecoding, "subRecord")), "uriField").toString());
       Assert.assertNotNull(getField(afterDecoding, "subRecordWithSubRecord"));
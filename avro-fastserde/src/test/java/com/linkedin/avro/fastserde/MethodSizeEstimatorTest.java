@@ -0,0 +1,130 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JExpr;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.util.Utf8;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import static com.linkedin.avro.fastserde.FastSerdeTestsSupport.*;
+
+
+public class MethodSizeEstimatorTest {
+
+  @Test(groups = {"serializationTest", "deserializationTest"})
+  public void shouldEstimateNothingForEmptyBlocks() {
+    Assert.assertEquals(MethodSizeEstimator.estimate(new JBlock(false, false)), 0);
+
+    JBlock block = new JBlock(false, false);
+    block.invoke(JExpr.direct("decoder"), "readInt");
+    int oneStatementSize = MethodSizeEstimator.estimate(block);
+    block.invoke(JExpr.direct("decoder"), "readInt");
+    Assert.assertTrue(oneStatementSize > 0);
+    Assert.assertEquals(MethodSizeEstimator.estimate(block), 2 * oneStatementSize);
+  }
+
+  @Test(groups = {"serializationTest", "deserializationTest"})
+  public void shouldKeepGeneratedMethodsOfVeryWideRecordsUnderHugeMethodLimit() throws Exception {
+    // given
+    Schema enumSchema = createEnumSchema("wideEnum", new String[]{"A", "B"});
+    Schema fixedSchema = createFixedSchema("wideFixed", 4);
+    Schema subRecordSchema = createRecord("wideSubRecord", createPrimitiveFieldSchema("subField", Schema.Type.INT));
+    List<Schema> fieldSchemas = Arrays.asList(Schema.create(Schema.Type.INT), Schema.create(Schema.Type.LONG),
+        Schema.create(Schema.Type.STRING), createUnionSchema(Schema.create(Schema.Type.STRING)),
+        createUnionSchema(Schema.create(Schema.Type.INT), Schema.create(Schema.Type.STRING)),
+        Schema.createArray(Schema.create(Schema.Type.STRING)), Schema.createMap(Schema.create(Schema.Type.LONG)),
+        enumSchema, fixedSchema, subRecordSchema, createUnionSchema(subRecordSchema),
+        Schema.createArray(Schema.create(Schema.Type.FLOAT)), Schema.create(Schema.Type.BYTES));
+    int n = 2000;
+    Schema.Field[] fields = new Schema.Field[n];
+    for (int i = 0; i < n; i++) {
+      fields[i] = createField("F" + i, fieldSchemas.get(i % fieldSchemas.size()));
+    }
+    Schema recordSchema = createRecord(fields);
+
+    GenericData.Record subRecord = new GenericData.Record(subRecordSchema);
+    subRecord.put("subField", 1);
+    GenericData.Record record = new GenericData.Record(recordSchema);
+    List<Object> values = Arrays.asList(1, 2L, new Utf8("string"), new Utf8("nullable"), 3,
+        Collections.singletonList(new Utf8("element")), Collections.singletonMap(new Utf8("key"), 4L),
+        AvroCompatibilityHelper.newEnumSymbol(enumSchema, "B"),
+        AvroCompatibilityHelper.newFixed(fixedSchema, new byte[]{1, 2, 3, 4}), subRecord, subRecord,
+        Collections.singletonList(5f), ByteBuffer.wrap(new byte[]{6}));
+    for (int i = 0; i < n; i++) {
+      record.put(i, values.get(i % values.size()));
+    }
+
+    File tempDir = Files.createTempDirectory("method-size").toFile();
+    ClassLoader classLoader = URLClassLoader.newInstance(new URL[]{tempDir.toURI().toURL()},
+        MethodSizeEstimatorTest.class.getClassLoader());
+
+    // when
+    FastSerializer<GenericRecord> serializer =
+        new FastGenericSerializerGenerator<GenericRecord>(recordSchema, tempDir, classLoader, null)
+            .generateSerializer();
+    FastDeserializer<GenericRecord> deserializer =
+        new FastGenericDeserializerGenerator<GenericRecord>(recordSchema, recordSchema, tempDir, classLoader, null)
+            .generateDeserializer();
+    FastDeserializer<GenericRecord> lazyDeserializer =
+        new FastGenericDeserializerGenerator<GenericRecord>(recordSchema, recordSchema, tempDir, classLoader, null,
+            true).generateDeserializer();
+
+    // then
+    for (Object serde : Arrays.asList(serializer, deserializer, lazyDeserializer)) {
+      File classFile = new File(tempDir, serde.getClass().getName().replace('.', '/') + ".class");
+      Map<String, Integer> codeSizes = getMethodCodeSizes(classFile);
+      Assert.assertTrue(codeSizes.size() > 2, "methods of " + classFile);
+      codeSizes.forEach((method, size) -> {
+        // initializers run once, so aren't worth compiling
+        if (!method.startsWith("<init>") && !method.startsWith("<clinit>")) {
+          Assert.assertTrue(size < MethodSizeEstimator.DEFAULT_HUGE_METHOD_LIMIT,
+              classFile.getName() + "." + method + " has " + size + " bytes of bytecode");
+        }
+      });
+    }
+
+    byte[] bytes = serialize(serializer, record);
+    Assert.assertEquals(bytes, genericDataAsBytes(record, recordSchema));
+    GenericRecord decodedRecord = deserializer.deserialize(null, AvroCompatibilityHelper.newBinaryDecoder(bytes));
+    GenericRecord lazyRecord = lazyDeserializer.deserialize(null,
+        AvroCompatibilityHelper.newBinaryDecoder(ByteBuffer.wrap(bytes)));
+    for (int i = 0; i < n; i++) {
+      assertSameValue(decodedRecord.get(i), record.get(i), fields[i].schema(), "field " + i);
+      assertSameValue(lazyRecord.get(i), record.get(i), fields[i].schema(), "lazy field " + i);
+    }
+  }
+
+  private static void assertSameValue(Object actual, Object expected, Schema schema, String message) {
+    // maps can only be compared for equality
+    if (Schema.Type.MAP.equals(schema.getType())) {
+      Assert.assertEquals(actual, expected, message);
+    } else {
+      Assert.assertEquals(GenericData.get().compare(actual, expected, schema), 0, message);
+    }
+  }
+
+  private static byte[] serialize(FastSerializer<GenericRecord> serializer, GenericRecord record)
+      throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Encoder encoder = AvroCompatibilityHelper.newBinaryEncoder(out, true, null);
+    serializer.serialize(record, encoder);
+    encoder.flush();
+    return out.toByteArray();
+  }
+}
@@ -1,9 +1,14 @@
 package com.linkedin.avro.fastserde;
 
+import com.linkedin.avro.api.PrimitiveDoubleList;
 import com.linkedin.avro.fastserde.primitive.PrimitiveFloatArrayList;
 import com.linkedin.avro.fastserde.primitive.PrimitiveLongArrayList;
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import org.apache.avro.io.BinaryEncoder;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -27,4 +32,73 @@ public class PrimitiveArrayListTest {
     List<Float> expectedVector = Arrays.asList(1.0f, 2.0f, 3.0f);
     Assert.assertEquals(newVector, expectedVector);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testByteBufferBackedPrimitiveDoubleListRead() throws IOException {
+    // two blocks, so elements of the second block are looked up across byte buffers
+    byte[] bytes = encodeDoubleArray(new double[]{1.5, -2.25, 3.0}, new double[]{4.125, 5.0});
+    PrimitiveDoubleList list = (PrimitiveDoubleList) ByteBufferBackedPrimitiveDoubleList.readPrimitiveDoubleArray(null,
+        AvroCompatibilityHelper.newBinaryDecoder(bytes));
+    Assert.assertEquals(list, Arrays.asList(1.5, -2.25, 3.0, 4.125, 5.0));
+    Assert.assertEquals(list.getPrimitive(3), 4.125);
+
+    // caches the elements, the list must still be reusable afterwards
+    list.add(6.0);
+    Assert.assertEquals(list, Arrays.asList(1.5, -2.25, 3.0, 4.125, 5.0, 6.0));
+
+    // smaller array, read into the byte buffers of the previous one
+    bytes = encodeDoubleArray(new double[]{7.0}, new double[]{8.5});
+    Object reused = ByteBufferBackedPrimitiveDoubleList.readPrimitiveDoubleArray(list,
+        AvroCompatibilityHelper.newBinaryDecoder(bytes));
+    Assert.assertSame(reused, list);
+    Assert.assertEquals(list.size(), 2);
+    Assert.assertEquals(list.getPrimitive(1), 8.5);
+    list.setPrimitive(0, 9.0);
+    Assert.assertEquals(list, Arrays.asList(9.0, 8.5));
+  }
+
+  @Test
+  public void testByteBufferBackedPrimitiveFloatListMultiBlockAccess() throws IOException {
+    // uniform blocks with a shorter last one, then irregular blocks
+    for (int[] blockLengths : new int[][]{{3, 3, 3, 3, 2}, {1, 5, 2, 7, 1, 1, 4}}) {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      BinaryEncoder encoder = AvroCompatibilityHelper.newBinaryEncoder(baos, false, null);
+      int length = 0;
+      for (int blockLength : blockLengths) {
+        encoder.writeLong(blockLength);
+        for (int i = 0; i < blockLength; i++) {
+          encoder.writeFloat(length++ * 0.5F);
+        }
+      }
+      encoder.writeLong(0);
+      encoder.flush();
+
+      ByteBufferBackedPrimitiveFloatList list = (ByteBufferBackedPrimitiveFloatList)
+          ByteBufferBackedPrimitiveFloatList.readPrimitiveFloatArray(null,
+              AvroCompatibilityHelper.newBinaryDecoder(baos.toByteArray()));
+      Assert.assertEquals(list.size(), length);
+      // random access through the byte buffers, then through the materialized array
+      for (int i = length - 1; i >= 0; i--) {
+        Assert.assertEquals(list.getPrimitive(i), i * 0.5F);
+      }
+      list.setPrimitive(0, 0F);
+      for (int i = 0; i < length; i++) {
+        Assert.assertEquals(list.getPrimitive(i), i * 0.5F);
+      }
+    }
+  }
+
+  private static byte[] encodeDoubleArray(double[]... blocks) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    BinaryEncoder encoder = AvroCompatibilityHelper.newBinaryEncoder(baos, false, null);
+    for (double[] block : blocks) {
+      encoder.writeLong(block.length);
+      for (double d : block) {
+        encoder.writeDouble(d);
+      }
+    }
+    encoder.writeLong(0);
+    encoder.flush();
+    return baos.toByteArray();
+  }
+}
@@ -0,0 +1,110 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avro.fastserde.primitive.PrimitiveFloatHashMap;
+import com.linkedin.avro.fastserde.primitive.PrimitiveLongHashMap;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import org.apache.avro.util.Utf8;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class PrimitiveHashMapTest {
+  @Test
+  public void testPrimitiveFloatHashMapPutAndGet() {
+    PrimitiveFloatHashMap map = new PrimitiveFloatHashMap(1);
+    map.putPrimitive(new Utf8("a"), 1.5f);
+    map.putPrimitive("b", 2.5f);
+    Assert.assertNull(map.put(new Utf8("c"), 3.5f));
+    Assert.assertEquals(map.put(new Utf8("a"), 4.5f), (Float) 1.5f);
+
+    Assert.assertEquals(map.size(), 3);
+    Assert.assertEquals(map.getPrimitive(new Utf8("a"), 0f), 4.5f);
+    Assert.assertEquals(map.getPrimitive("b", 0f), 2.5f);
+    Assert.assertEquals(map.getPrimitive("missing", -1f), -1f);
+    Assert.assertEquals(map.get(new Utf8("c")), (Float) 3.5f);
+    Assert.assertNull(map.get("missing"));
+
+    Map<CharSequence, Float> expected = new HashMap<>();
+    expected.put(new Utf8("a"), 4.5f);
+    expected.put("b", 2.5f);
+    expected.put(new Utf8("c"), 3.5f);
+    Assert.assertEquals(map, expected);
+    Assert.assertEquals(map.hashCode(), expected.hashCode());
+  }
+
+  @Test
+  public void testPrimitiveLongHashMapMatchesHashMap() {
+    Random random = new Random(0);
+    PrimitiveLongHashMap map = new PrimitiveLongHashMap();
+    Map<CharSequence, Long> expected = new HashMap<>();
+    for (int i = 0; i < 10000; i++) {
+      Utf8 key = new Utf8("key_" + random.nextInt(200));
+      long value = random.nextLong();
+      switch (random.nextInt(4)) {
+        case 0:
+          Assert.assertEquals(map.remove(key), expected.remove(key));
+          break;
+        case 1:
+          Assert.assertEquals(map.put(key, value), expected.put(key, value));
+          break;
+        default:
+          map.putPrimitive(key, value);
+          expected.put(key, value);
+      }
+      if (i % 1000 == 999) {
+        Assert.assertEquals(map, expected);
+      }
+    }
+    Assert.assertEquals(map, expected);
+
+    map.clear();
+    Assert.assertTrue(map.isEmpty());
+    Assert.assertEquals(map.nextSlot(-1), -1);
+  }
+
+  @Test
+  public void testPrimitiveLongHashMapSlotIteration() {
+    PrimitiveLongHashMap map = new PrimitiveLongHashMap(0);
+    for (long i = 0; i < 100; i++) {
+      map.putPrimitive(new Utf8("key_" + i), i);
+    }
+    map.remove(new Utf8("key_50"));
+
+    Map<CharSequence, Long> iterated = new HashMap<>();
+    for (int slot = map.nextSlot(-1); slot >= 0; slot = map.nextSlot(slot)) {
+      iterated.put(map.keyAt(slot), map.getPrimitiveAt(slot));
+    }
+    Assert.assertEquals(iterated.size(), 99);
+    Assert.assertEquals(iterated, map);
+  }
+
+  @Test
+  public void testPrimitiveLongHashMapIteratorRemove() {
+    PrimitiveLongHashMap map = new PrimitiveLongHashMap(0);
+    for (long i = 0; i < 10; i++) {
+      map.putPrimitive(new Utf8("key_" + i), i);
+    }
+
+    Iterator<Map.Entry<CharSequence, Long>> iterator = map.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<CharSequence, Long> entry = iterator.next();
+      if (entry.getValue() % 2 == 0) {
+        iterator.remove();
+      } else {
+        entry.setValue(entry.getValue() * 10);
+      }
+    }
+    Assert.assertEquals(map.size(), 5);
+    Assert.assertEquals(map.getPrimitive(new Utf8("key_3"), 0L), 30L);
+    Assert.assertFalse(map.containsKey(new Utf8("key_4")));
+
+    Iterator<Map.Entry<CharSequence, Long>> failing = map.entrySet().iterator();
+    failing.next();
+    map.putPrimitive(new Utf8("key_10"), 10L);
+    Assert.assertThrows(ConcurrentModificationException.class, failing::next);
+  }
+}
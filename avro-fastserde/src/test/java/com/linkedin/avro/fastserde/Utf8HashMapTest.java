@@ -0,0 +1,126 @@
+package com.linkedin.avro.fastserde;
+
+import com.linkedin.avroutil1.compatibility.AvroCompatibilityHelper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.util.Utf8;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class Utf8HashMapTest {
+
+  @Test
+  public void testBehavesLikeHashMap() {
+    Utf8HashMap<Integer> map = new Utf8HashMap<>();
+    Map<CharSequence, Integer> expected = new HashMap<>();
+    Random random = new Random(0);
+    for (int i = 0; i < 10000; i++) {
+      Utf8 key = new Utf8("key" + random.nextInt(500));
+      switch (random.nextInt(4)) {
+        case 0:
+          Assert.assertEquals(map.remove(key), expected.remove(key));
+          break;
+        case 1:
+          Assert.assertEquals(map.get(key), expected.get(key));
+          Assert.assertEquals(map.containsKey(key), expected.containsKey(key));
+          break;
+        default:
+          Assert.assertEquals(map.put(key, i), expected.put(key, i));
+      }
+      Assert.assertEquals(map.size(), expected.size());
+    }
+    Assert.assertEquals(map, expected);
+    Assert.assertEquals(expected, map);
+    Assert.assertEquals(map.hashCode(), expected.hashCode());
+
+    for (Iterator<Map.Entry<CharSequence, Integer>> iterator = map.entrySet().iterator(); iterator.hasNext(); ) {
+      if (iterator.next().getValue() % 2 == 0) {
+        iterator.remove();
+      }
+    }
+    expected.values().removeIf(value -> value % 2 == 0);
+    Assert.assertEquals(map, expected);
+
+    map.clear();
+    Assert.assertTrue(map.isEmpty());
+    Assert.assertNull(map.get(new Utf8("key1")));
+  }
+
+  @Test
+  public void testRefillReusesKeysAndValuesOfRecurringKeys() throws IOException {
+    Utf8HashMap<Object> map = new Utf8HashMap<>();
+    refill(map, "a", "b", "c");
+    Map<CharSequence, CharSequence> keys = new HashMap<>();
+    map.keySet().forEach(key -> keys.put(key, key));
+    Map<CharSequence, Object> values = new HashMap<>(map);
+
+    Map<CharSequence, Object> previousValues = refill(map, "b", "c", "d", "b");
+
+    Assert.assertEquals(map.keySet(), keys(keys.get(new Utf8("b")), keys.get(new Utf8("c")), new Utf8("d")).keySet());
+    for (CharSequence key : map.keySet()) {
+      if (keys.containsKey(key)) {
+        Assert.assertSame(key, keys.get(key));
+        Assert.assertSame(previousValues.get(key), values.get(key));
+      } else {
+        Assert.assertNull(previousValues.get(key));
+      }
+    }
+    Assert.assertEquals(map.get(new Utf8("b")), "b3");
+  }
+
+  @Test
+  public void testRefillAcrossResizes() throws IOException {
+    Utf8HashMap<Object> map = new Utf8HashMap<>(1);
+    for (int round = 0; round < 50; round++) {
+      String[] keys = new String[round * 7 % 100];
+      for (int i = 0; i < keys.length; i++) {
+        keys[i] = "key" + (i + round);
+      }
+      refill(map, keys);
+      Assert.assertEquals(map.size(), keys.length);
+      for (int i = 0; i < keys.length; i++) {
+        Assert.assertEquals(map.get(new Utf8(keys[i])), keys[i] + i);
+      }
+    }
+  }
+
+  /**
+   * Refills the map the way generated deserializers do, every value being its key followed by its position.
+   *
+   * @return values found in the map for each key before being replaced
+   */
+  private static Map<CharSequence, Object> refill(Utf8HashMap<Object> map, String... keys) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Encoder encoder = AvroCompatibilityHelper.newBinaryEncoder(out, true, null);
+    for (String key : keys) {
+      encoder.writeString(key);
+    }
+    encoder.flush();
+    Decoder decoder = AvroCompatibilityHelper.newBinaryDecoder(out.toByteArray());
+
+    Map<CharSequence, Object> previousValues = new HashMap<>();
+    map.startRefill();
+    for (int i = 0; i < keys.length; i++) {
+      int slot = map.refillSlot(decoder.readString(map.keyBuffer()));
+      previousValues.putIfAbsent(new Utf8(keys[i]), map.valueAt(slot));
+      map.setValueAt(slot, keys[i] + i);
+    }
+    map.finishRefill();
+    return previousValues;
+  }
+
+  private static Map<CharSequence, Object> keys(CharSequence... keys) {
+    Map<CharSequence, Object> map = new HashMap<>();
+    for (CharSequence key : keys) {
+      map.put(key, key);
+    }
+    return map;
+  }
+}
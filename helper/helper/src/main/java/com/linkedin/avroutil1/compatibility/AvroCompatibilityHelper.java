@@ -26,6 +26,7 @@ import java.io.StringWriter;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.List;
@@ -210,6 +211,34 @@ public class AvroCompatibilityHelper  extends AvroCompatibilityHelperCommon{
     return newBinaryDecoder(in, true, null);
   }
 
+  /**
+   * constructs or reinitializes a {@link BinaryDecoder} reading directly from the given {@link ByteBuffer}, which may
+   * be a heap, direct or memory-mapped buffer. data is read from the buffer's position up to its limit, without
+   * being copied into a byte array first. the position of the given buffer is not modified.
+   * <br>
+   * bytes values returned by the decoder are views of the given buffer, so its content must not change while they
+   * are in use.
+   * @param buffer buffer with data
+   * @param reuse a decoder previously returned by this method to reinitialize, or null
+   * @return a {@link BinaryDecoder} for decoding the given buffer, possibly reused
+   */
+  public static BinaryDecoder newBinaryDecoder(ByteBuffer buffer, BinaryDecoder reuse) {
+    assertAvroAvailable();
+    if (reuse instanceof ByteBufferBinaryDecoder) {
+      return ((ByteBufferBinaryDecoder) reuse).configure(buffer);
+    }
+    return new ByteBufferBinaryDecoder(buffer);
+  }
+
+  /**
+   * convenience method for getting a {@link BinaryDecoder} reading directly from a given {@link ByteBuffer}
+   * @param buffer buffer with data
+   * @return a {@link BinaryDecoder} for decoding the given buffer
+   */
+  public static BinaryDecoder newBinaryDecoder(ByteBuffer buffer) {
+    return newBinaryDecoder(buffer, null);
+  }
+
   /**
    * constructs a {@link BinaryDecoder} on top of the given {@link ObjectInput}.
    * this is mostly meant as a runtime utility for generated classes that implement {@link java.io.Externalizable}
@@ -0,0 +1,359 @@
+/*
+ * Copyright 2024 LinkedIn Corp.
+ * Licensed under the BSD 2-Clause License (the "License").
+ * See License in the project root for license information.
+ */
+
+package com.linkedin.avroutil1.compatibility;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.util.Utf8;
+
+
+/**
+ * a {@link BinaryDecoder} reading directly from a {@link ByteBuffer}, which may be a heap, direct or memory-mapped
+ * buffer, so the data doesn't need to be copied into a byte[] first.
+ * <br>
+ * bytes values are returned as views of the underlying buffer rather than copies, so they share its content, and
+ * strings are decoded straight into the byte array of the reused {@link Utf8}, if any.
+ * <br>
+ * this class overrides every read/skip method of {@link BinaryDecoder} (across all supported avro versions), so none
+ * of the internal state of the parent class is ever used. it is only a {@link BinaryDecoder} so it can be used
+ * anywhere a binary decoder is expected.
+ * <br>
+ * instances are created by {@link AvroCompatibilityHelper#newBinaryDecoder(ByteBuffer, BinaryDecoder)}. the class is
+ * public so callers can track positions in the buffer, e.g. to retain the encoding of a value instead of decoding it.
+ */
+public final class ByteBufferBinaryDecoder extends BinaryDecoder {
+  private ByteBuffer buffer;
+
+  ByteBufferBinaryDecoder(ByteBuffer buffer) {
+    super();
+    configure(buffer);
+  }
+
+  /**
+   * (re)initializes this decoder to read from the given buffer's position up to its limit. the position of the given
+   * buffer is not modified.
+   * @param buffer buffer to read from
+   * @return this decoder
+   */
+  ByteBufferBinaryDecoder configure(ByteBuffer buffer) {
+    this.buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    return this;
+  }
+
+  /**
+   * @return index, in the buffer this decoder was configured with, of the next byte to be read
+   */
+  public int position() {
+    return buffer.position();
+  }
+
+  /**
+   * @return a view of the buffer this decoder was configured with, sharing its content and indices, positioned on the
+   * next byte to be read. reading from the view doesn't affect this decoder.
+   */
+  public ByteBuffer getBuffer() {
+    return buffer.duplicate();
+  }
+
+  /**
+   * not supported, this decoder only reads from a {@link ByteBuffer}
+   * (declared by avro 1.4, where {@link org.apache.avro.io.Decoder} is abstract)
+   */
+  public void init(InputStream in) {
+    throw new UnsupportedOperationException("a ByteBuffer-backed decoder can not be initialized from an InputStream");
+  }
+
+  @Override
+  public void readNull() throws IOException {
+  }
+
+  @Override
+  public boolean readBoolean() throws IOException {
+    try {
+      return buffer.get() == 1;
+    } catch (BufferUnderflowException e) {
+      throw eof();
+    }
+  }
+
+  @Override
+  public int readInt() throws IOException {
+    try {
+      int b = buffer.get() & 0xff;
+      int n = b & 0x7f;
+      if (b > 0x7f) {
+        b = buffer.get() & 0xff;
+        n ^= (b & 0x7f) << 7;
+        if (b > 0x7f) {
+          b = buffer.get() & 0xff;
+          n ^= (b & 0x7f) << 14;
+          if (b > 0x7f) {
+            b = buffer.get() & 0xff;
+            n ^= (b & 0x7f) << 21;
+            if (b > 0x7f) {
+              b = buffer.get() & 0xff;
+              n ^= (b & 0x7f) << 28;
+              if (b > 0x7f) {
+                throw new IOException("Invalid int encoding");
+              }
+            }
+          }
+        }
+      }
+      return (n >>> 1) ^ -(n & 1); // back to two's-complement
+    } catch (BufferUnderflowException e) {
+      throw eof();
+    }
+  }
+
+  @Override
+  public long readLong() throws IOException {
+    try {
+      long n = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        int b = buffer.get() & 0xff;
+        n ^= (long) (b & 0x7f) << shift;
+        if (b <= 0x7f) {
+          return (n >>> 1) ^ -(n & 1); // back to two's-complement
+        }
+      }
+      throw new IOException("Invalid long encoding");
+    } catch (BufferUnderflowException e) {
+      throw eof();
+    }
+  }
+
+  @Override
+  public float readFloat() throws IOException {
+    try {
+      return buffer.getFloat();
+    } catch (BufferUnderflowException e) {
+      throw eof();
+    }
+  }
+
+  @Override
+  public double readDouble() throws IOException {
+    try {
+      return buffer.getDouble();
+    } catch (BufferUnderflowException e) {
+      throw eof();
+    }
+  }
+
+  @Override
+  public Utf8 readString(Utf8 old) throws IOException {
+    int length = readLength();
+    Utf8 result = old != null ? old : new Utf8();
+    result.setByteLength(length);
+    if (length > 0) {
+      readFixed(result.getBytes(), 0, length);
+    }
+    return result;
+  }
+
+  /**
+   * reads a string (declared by avro 1.5+)
+   * @return the string read
+   * @throws IOException on io errors
+   */
+  public String readString() throws IOException {
+    int length = readLength();
+    ensureRemaining(length);
+    String result;
+    if (buffer.hasArray()) {
+      result = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+      buffer.position(buffer.position() + length);
+    } else {
+      byte[] bytes = new byte[length];
+      buffer.get(bytes);
+      result = new String(bytes, StandardCharsets.UTF_8);
+    }
+    return result;
+  }
+
+  @Override
+  public void skipString() throws IOException {
+    skipFixed(readLength());
+  }
+
+  /**
+   * returns a view of the underlying buffer, the old buffer is never reused
+   */
+  @Override
+  public ByteBuffer readBytes(ByteBuffer old) throws IOException {
+    int length = readLength();
+    ensureRemaining(length);
+    ByteBuffer result;
+    if (buffer.hasArray()) {
+      //wrapped rather than sliced, so the array offset is 0: avro 1.4 encoders ignore it when writing bytes
+      result = ByteBuffer.wrap(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+    } else {
+      result = buffer.slice();
+      result.limit(length);
+    }
+    buffer.position(buffer.position() + length);
+    return result;
+  }
+
+  @Override
+  public void skipBytes() throws IOException {
+    skipFixed(readLength());
+  }
+
+  @Override
+  public void readFixed(byte[] bytes, int start, int length) throws IOException {
+    ensureRemaining(length);
+    buffer.get(bytes, start, length);
+  }
+
+  @Override
+  public void skipFixed(int length) throws IOException {
+    ensureRemaining(length);
+    buffer.position(buffer.position() + length);
+  }
+
+  @Override
+  public int readEnum() throws IOException {
+    return readInt();
+  }
+
+  @Override
+  public long readArrayStart() throws IOException {
+    return doReadItemCount();
+  }
+
+  @Override
+  public long arrayNext() throws IOException {
+    return doReadItemCount();
+  }
+
+  @Override
+  public long skipArray() throws IOException {
+    return doSkipItems();
+  }
+
+  @Override
+  public long readMapStart() throws IOException {
+    return doReadItemCount();
+  }
+
+  @Override
+  public long mapNext() throws IOException {
+    return doReadItemCount();
+  }
+
+  @Override
+  public long skipMap() throws IOException {
+    return doSkipItems();
+  }
+
+  @Override
+  public int readIndex() throws IOException {
+    return readInt();
+  }
+
+  @Override
+  public boolean isEnd() throws IOException {
+    return !buffer.hasRemaining();
+  }
+
+  /**
+   * returns a stream over the remaining bytes of the buffer, reading from it consumes them from this decoder
+   */
+  @Override
+  public InputStream inputStream() {
+    return new InputStream() {
+      @Override
+      public int read() {
+        return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) {
+        if (len == 0) {
+          return 0;
+        }
+        if (!buffer.hasRemaining()) {
+          return -1;
+        }
+        int n = Math.min(len, buffer.remaining());
+        buffer.get(b, off, n);
+        return n;
+      }
+
+      @Override
+      public long skip(long n) {
+        int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+        buffer.position(buffer.position() + skipped);
+        return skipped;
+      }
+
+      @Override
+      public int available() {
+        return buffer.remaining();
+      }
+    };
+  }
+
+  @Override
+  protected long doReadItemCount() throws IOException {
+    long result = readLong();
+    if (result < 0) {
+      readLong(); // consume byte-count if present
+      result = -result;
+    }
+    return result;
+  }
+
+  @Override
+  protected void doSkipBytes(long length) throws IOException {
+    if (length > buffer.remaining()) {
+      throw eof();
+    }
+    skipFixed((int) length);
+  }
+
+  @Override
+  protected void doReadBytes(byte[] bytes, int start, int length) throws IOException {
+    readFixed(bytes, start, length);
+  }
+
+  private long doSkipItems() throws IOException {
+    long result = readLong();
+    while (result < 0) {
+      doSkipBytes(readLong());
+      result = readLong();
+    }
+    return result;
+  }
+
+  private int readLength() throws IOException {
+    int length = readInt();
+    if (length < 0) {
+      throw new AvroRuntimeException("Malformed data. Length is negative: " + length);
+    }
+    return length;
+  }
+
+  private void ensureRemaining(int length) throws EOFException {
+    if (length > buffer.remaining()) {
+      throw eof();
+    }
+  }
+
+  private static EOFException eof() {
+    return new EOFException();
+  }
+}
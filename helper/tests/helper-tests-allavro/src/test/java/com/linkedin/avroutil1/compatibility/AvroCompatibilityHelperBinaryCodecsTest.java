@@ -58,6 +58,86 @@ public class AvroCompatibilityHelperBinaryCodecsTest {
     runBinaryEncodeDecodeCycle(null, null, null, null, false, false, false, false);
   }
 
+  @Test
+  public void testByteBufferDecoder() throws Exception {
+    AtomicReference<BinaryDecoder> decoderRef = new AtomicReference<>(null);
+    for (boolean reuseDecoder : Arrays.asList(false, true)) { //false 1st
+      for (boolean direct : Arrays.asList(false, true)) {
+        for (int offset : Arrays.asList(0, 5)) {
+          runEncodeDecodeCycle(
+              outputStream -> AvroCompatibilityHelper.newBinaryEncoder(outputStream, false, null),
+              bytes -> {
+                //surround the data with garbage to make sure only position to limit is decoded
+                ByteBuffer buffer = direct ? ByteBuffer.allocateDirect(offset + bytes.length + 3)
+                    : ByteBuffer.allocate(offset + bytes.length + 3);
+                buffer.put(new byte[offset]).put(bytes).put(new byte[] {-1, -1, -1});
+                buffer.position(offset);
+                buffer.limit(offset + bytes.length);
+                BinaryDecoder reuse = reuseDecoder ? decoderRef.get() : null;
+                BinaryDecoder decoder = AvroCompatibilityHelper.newBinaryDecoder(buffer.slice(), reuse);
+                Assert.assertNotNull(decoder);
+                if (reuseDecoder) {
+                  Assert.assertSame(decoder, reuse);
+                } else {
+                  decoderRef.set(decoder);
+                }
+                return decoder;
+              });
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testByteBufferDecoderDoesNotCopy() throws Exception {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    BinaryEncoder encoder = AvroCompatibilityHelper.newBinaryEncoder(os, false, null);
+    encoder.writeBytes(new byte[] {1, 2, 3});
+    encoder.writeString("skipped");
+    encoder.writeLong(42L);
+    encoder.flush();
+    ByteBuffer buffer = ByteBuffer.wrap(os.toByteArray());
+
+    BinaryDecoder decoder = AvroCompatibilityHelper.newBinaryDecoder(buffer);
+    ByteBuffer bytes = decoder.readBytes(null);
+    Assert.assertEquals(bytes, ByteBuffer.wrap(new byte[] {1, 2, 3}));
+    Assert.assertSame(bytes.array(), buffer.array());
+    //avro 1.4 encoders ignore the array offset of written bytes
+    Assert.assertEquals(bytes.arrayOffset(), 0);
+    decoder.skipString();
+    Assert.assertEquals(decoder.readLong(), 42L);
+    Assert.assertTrue(decoder.isEnd());
+    //the position of the given buffer is left alone
+    Assert.assertEquals(buffer.position(), 0);
+  }
+
+  @Test
+  public void testByteBufferDecoderPositions() throws Exception {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    BinaryEncoder encoder = AvroCompatibilityHelper.newBinaryEncoder(os, false, null);
+    encoder.writeLong(42L);
+    encoder.writeString("retained");
+    encoder.flush();
+    byte[] bytes = os.toByteArray();
+    ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 3);
+    buffer.position(3);
+    buffer.put(bytes);
+    buffer.position(3);
+
+    ByteBufferBinaryDecoder decoder = (ByteBufferBinaryDecoder) AvroCompatibilityHelper.newBinaryDecoder(buffer);
+    Assert.assertEquals(decoder.position(), 3);
+    decoder.skipFixed(1); //42 is zig-zag encoded in a single byte
+    int stringStart = decoder.position();
+    decoder.skipString();
+    Assert.assertEquals(decoder.position(), buffer.limit());
+
+    //positions are indices in the given buffer, and the view can be decoded on its own
+    ByteBuffer view = decoder.getBuffer();
+    view.position(stringStart);
+    Assert.assertEquals(AvroCompatibilityHelper.newBinaryDecoder(view).readString(null), new Utf8("retained"));
+    Assert.assertEquals(decoder.position(), buffer.limit());
+  }
+
   private void runBinaryEncodeDecodeCycle(
       AtomicReference<BinaryEncoder> bufferedEncoderRef,
       AtomicReference<BinaryEncoder> directEncoderRef,